@@ -0,0 +1,144 @@
+package com.example.store.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares JMH results (JSON, {@code -rf json}) with a baseline and reports the change of each benchmark.
+ * Exits with status 1 if any benchmark is slower than the baseline by more than the threshold (default 10%)
+ * and the error intervals of the scores do not overlap, so it can fail a release build.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.example.store.benchmark.BenchmarkComparison <baseline.json> <results.json> [threshold %]}
+ */
+public final class BenchmarkComparison {
+
+    static final double DEFAULT_THRESHOLD = 10;
+
+    private BenchmarkComparison() {
+    }
+
+    /**
+     * Result of a single benchmark (with its parameters).
+     *
+     * @param score score of the benchmark, in the unit of the results
+     * @param error error of the score (99.9% confidence interval)
+     * @param unit  unit of the score, e.g. us/op or ops/s
+     */
+    record Result(double score, double error, String unit) {
+
+        /**
+         * Whether a higher score is better (throughput), as opposed to lower (time per operation).
+         */
+        boolean higherIsBetter() {
+            return unit.endsWith("/s") || unit.endsWith("/ms") || unit.endsWith("/us") || unit.endsWith("/ns")
+                    || unit.endsWith("/min");
+        }
+    }
+
+    /**
+     * Change of a benchmark compared to the baseline.
+     *
+     * @param benchmark  benchmark name with parameters
+     * @param baseline   baseline result
+     * @param current    current result
+     * @param change     change of the score in percent, positive if the benchmark got slower
+     * @param regression whether the benchmark got slower by more than the threshold, beyond the score errors
+     */
+    record Change(String benchmark, Result baseline, Result current, double change, boolean regression) {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <results.json> [threshold %]");
+            System.exit(2);
+        }
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final List<Change> changes = compare(
+                readResults(objectMapper.readTree(new File(args[0]))),
+                readResults(objectMapper.readTree(new File(args[1]))),
+                threshold);
+        System.out.println(report(changes, threshold));
+        if (changes.stream().anyMatch(Change::regression)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the results of JMH JSON output, by benchmark name with parameters.
+     */
+    static Map<String, Result> readResults(final JsonNode json) {
+        final Map<String, Result> results = new LinkedHashMap<>();
+        for (final JsonNode benchmark : json) {
+            final StringBuilder name = new StringBuilder(shortName(benchmark.path("benchmark").asText()));
+            // Sorted, so the name does not depend on the order of parameters
+            final Map<String, String> params = new TreeMap<>();
+            benchmark.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            params.forEach((param, value) -> name.append(' ').append(param).append('=').append(value));
+            final JsonNode metric = benchmark.path("primaryMetric");
+            results.put(name.toString(), new Result(metric.path("score").asDouble(),
+                    metric.path("scoreError").asDouble(), metric.path("scoreUnit").asText()));
+        }
+        return results;
+    }
+
+    /**
+     * Compares the results of benchmarks which are in both the baseline and the current results.
+     *
+     * @param threshold allowed slowdown in percent
+     */
+    static List<Change> compare(final Map<String, Result> baseline, final Map<String, Result> current, final double threshold) {
+        final List<Change> changes = new ArrayList<>();
+        current.forEach((benchmark, result) -> {
+            final Result baselineResult = baseline.get(benchmark);
+            if (baselineResult == null || baselineResult.score() == 0) {
+                return;
+            }
+            final double change = (result.score() - baselineResult.score()) / baselineResult.score() * 100;
+            // Slowdown: more time per operation, or fewer operations per time unit
+            final double slowdown = result.higherIsBetter() ? -change : change;
+            // Only if the slowdown is not within the error of the scores (noise)
+            final boolean significant = result.higherIsBetter()
+                    ? result.score() + result.error() < baselineResult.score() - baselineResult.error()
+                    : result.score() - result.error() > baselineResult.score() + baselineResult.error();
+            changes.add(new Change(benchmark, baselineResult, result, slowdown, slowdown > threshold && significant));
+        });
+        return changes;
+    }
+
+    static String report(final List<Change> changes, final double threshold) {
+        final StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-60s %22s %22s %9s%n", "Benchmark", "Baseline", "Current", "Slowdown"));
+        for (final Change change : changes) {
+            report.append(String.format(Locale.ROOT, "%-60s %22s %22s %+8.1f%%%s%n", change.benchmark(),
+                    format(change.baseline()), format(change.current()), change.change(),
+                    change.regression() ? "  REGRESSION" : ""));
+        }
+        final long regressions = changes.stream().filter(Change::regression).count();
+        report.append(String.format(Locale.ROOT, "%d of %d benchmarks slower than the baseline by more than %.1f%%",
+                regressions, changes.size(), threshold));
+        return report.toString();
+    }
+
+    private static String format(final Result result) {
+        return String.format(Locale.ROOT, "%.3f +- %.3f %s", result.score(), result.error(), result.unit());
+    }
+
+    /**
+     * Benchmark name without the package, e.g. ProductJsonBenchmark.serializeProduct.
+     */
+    private static String shortName(final String benchmark) {
+        final int method = benchmark.lastIndexOf('.');
+        final int type = benchmark.lastIndexOf('.', method - 1);
+        return benchmark.substring(type + 1);
+    }
+}
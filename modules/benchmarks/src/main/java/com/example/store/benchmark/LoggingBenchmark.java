@@ -0,0 +1,78 @@
+package com.example.store.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+/**
+ * Benchmarks of the logging overhead of a request - a debug message with a parameter and the trace ID in the MDC,
+ * as logged by the product service on each update.
+ * Each benchmark runs in its own fork with a logging configuration from the resources:
+ * <ul>
+ *     <li>{@code sync} - previous configuration, synchronous loggers with location information</li>
+ *     <li>{@code async} - current configuration of the store application (asynchronous, garbage-free loggers
+ *     without location information)</li>
+ *     <li>{@code disabled} - current configuration with the debug level disabled (INFO in production)</li>
+ * </ul>
+ * Run with {@code -prof gc} to see the allocation per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingBenchmark {
+
+    private static final String SYNC_SELECTOR = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+    private static final String ASYNC_SELECTOR = "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.async.AsyncLoggerContextSelector";
+
+    // Logger of the application package, so it is configured as the application loggers
+    private static final Logger log = LoggerFactory.getLogger("com.example.store.service.ProductServiceImpl");
+
+    private long id;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        MDC.put("traceId", "4bf92f3577b34da6a3ce929d0e0e4736");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        MDC.clear();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {SYNC_SELECTOR, "-Dlog4j2.enableThreadlocals=false",
+            "-Dlog4j2.configurationFile=log4j2-benchmark-sync.xml"})
+    public void sync() {
+        log.debug("Updated product with id {}", ++id);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {ASYNC_SELECTOR, "-Dlog4j2.enableThreadlocals=true",
+            "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml"})
+    public void async() {
+        log.debug("Updated product with id {}", ++id);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {ASYNC_SELECTOR, "-Dlog4j2.enableThreadlocals=true",
+            "-Dlog4j2.configurationFile=log4j2-benchmark-async.xml", "-Dbenchmark.log.level=INFO"})
+    public void disabled() {
+        log.debug("Updated product with id {}", ++id);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.store.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.mapper.ProductDtoMapper;
+import com.example.store.persistence.entity.Product;
+
+/**
+ * Benchmarks of mapping between {@link Product} and {@link ProductDto} ({@link ProductDtoMapper}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductDtoMapperBenchmark {
+
+    private final Product product = new Product(1L, "Banana", "1kg of bananas", 1.8f, 3);
+    private final ProductDto productDto = new ProductDto(1L, "Banana", "1kg of bananas", 1.8f, 3);
+
+    @Benchmark
+    public ProductDto toDto() {
+        return ProductDtoMapper.toDto(product);
+    }
+
+    @Benchmark
+    public Product fromDto() {
+        return ProductDtoMapper.fromDto(productDto);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.store.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.store.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Benchmarks of JSON serialization and deserialization of {@link ProductDto}, single and in lists (listing responses,
+ * batch requests), with the object mapper configuration of the application (Spring defaults).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductJsonBenchmark {
+
+    private ObjectWriter productWriter;
+    private ObjectReader productReader;
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+
+    private ProductDto product;
+    private byte[] productJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        final TypeReference<List<ProductDto>> listType = new TypeReference<>() {
+        };
+        productWriter = objectMapper.writerFor(ProductDto.class);
+        productReader = objectMapper.readerFor(ProductDto.class);
+        listWriter = objectMapper.writerFor(listType);
+        listReader = objectMapper.readerFor(listType);
+
+        product = product(1L);
+        productJson = productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serializeProduct() throws JsonProcessingException {
+        return productWriter.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public ProductDto deserializeProduct() throws Exception {
+        return productReader.readValue(productJson);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts(final Products products) throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(products.products);
+    }
+
+    @Benchmark
+    public List<ProductDto> deserializeProducts(final Products products) throws Exception {
+        return listReader.readValue(products.json);
+    }
+
+    /**
+     * List of products, e.g. a page of a listing or a full listing.
+     */
+    @State(Scope.Benchmark)
+    public static class Products {
+
+        @Param({"100", "10000"})
+        private int size;
+
+        private List<ProductDto> products;
+        private byte[] json;
+
+        @Setup
+        public void setUp(final ProductJsonBenchmark benchmark) throws JsonProcessingException {
+            products = LongStream.rangeClosed(1, size).mapToObj(ProductJsonBenchmark::product).toList();
+            json = benchmark.listWriter.writeValueAsBytes(products);
+        }
+    }
+
+    private static ProductDto product(final long id) {
+        return new ProductDto(id, "Product " + id, "Description of product " + id, id / 100f, 0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.store.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.store.dto.BatchItemResult;
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.service.ProductService;
+
+/**
+ * Benchmarks of {@link ProductService} calls in the application context, against an in-memory H2 database
+ * with {@value #PRODUCT_COUNT} products. Measures the service overhead (transactions, Hibernate, mapping, caching)
+ * rather than the database, which is PostgreSQL in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// Hibernate code paths take long to warm up
+@Warmup(iterations = 10, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    static final int PRODUCT_COUNT = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private List<Long> ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = StoreApplicationLauncher.start(WebApplicationType.NONE, StoreApplicationLauncher.H2_ARGS);
+        productService = context.getBean(ProductService.class);
+        final List<ProductDto> products = IntStream.rangeClosed(1, PRODUCT_COUNT)
+                .mapToObj(i -> new ProductDto(null, "Product " + i, "Description of product " + i, i / 100f))
+                .toList();
+        ids = productService.createProducts(products).stream()
+                .map(BatchItemResult::id)
+                .toList();
+        // All products cached, so getProductById measures cache hits
+        ids.forEach(productService::getProductById);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Product from the product cache.
+     */
+    @Benchmark
+    public ProductDto getProductById() {
+        return productService.getProductById(nextId());
+    }
+
+    @Benchmark
+    public ProductPageDto getProductPage() {
+        return productService.getProductPage(nextId(), 100);
+    }
+
+    @Benchmark
+    public ProductPageDto getProductPage_filtered() {
+        return productService.getProductPage(new ProductListQuery(10f, 20f, null, "price"), null, 100);
+    }
+
+    @Benchmark
+    public ProductDto updateProduct() {
+        final Long id = nextId();
+        return productService.updateProduct(id, new ProductDto(id, "Product " + id, "Updated product " + id, 1f), null);
+    }
+
+    private Long nextId() {
+        next = (next + 1) % ids.size();
+        return ids.get(next);
+    }
+}
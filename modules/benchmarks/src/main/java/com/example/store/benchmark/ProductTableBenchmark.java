@@ -0,0 +1,136 @@
+package com.example.store.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the product table statements of {@code ProductRepository} against PostgreSQL, to compare the single
+ * and the hash-partitioned product table (see db-schema) on seeded databases. Each database is a value of the parameter
+ * {@code jdbcUrl}, e.g. {@code -p jdbcUrl=jdbc:postgresql://host/single_db,jdbc:postgresql://host/partitioned_db}, with the
+ * credentials {@code -Dbenchmark.db-user} and {@code -Dbenchmark.db-password} (JVM arguments of the fork, {@code -jvmArgsAppend}).
+ * <p>
+ * Statements are restricted to the products of the default tenant, like the ones of the application.
+ * Lookups and pages use random product IDs between the lowest and the highest one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProductTableBenchmark {
+
+    private static final String COLUMNS = "id, name, description, price, version";
+    private static final String TENANT = "tenant_id = 'default'";
+
+    @Param("")
+    public String jdbcUrl;
+
+    private Connection connection;
+    private PreparedStatement findById;
+    private PreparedStatement pageById;
+    private PreparedStatement pageByPrice;
+    private PreparedStatement updatePrice;
+    private long minId;
+    private long maxId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        if (jdbcUrl.isEmpty()) {
+            throw new IllegalStateException("Set the PostgreSQL databases with -p jdbcUrl=<url>[,<url>...]");
+        }
+        connection = DriverManager.getConnection(jdbcUrl,
+                System.getProperty("benchmark.db-user", "postgres"), System.getProperty("benchmark.db-password", ""));
+        findById = connection.prepareStatement("SELECT " + COLUMNS + " FROM product WHERE id = ? AND " + TENANT);
+        pageById = connection.prepareStatement("SELECT " + COLUMNS + " FROM product WHERE " + TENANT
+                + " AND id > ? ORDER BY id LIMIT 100");
+        pageByPrice = connection.prepareStatement("SELECT " + COLUMNS + " FROM product WHERE " + TENANT
+                + " AND price >= ? AND price <= ? ORDER BY price, id LIMIT 100");
+        updatePrice = connection.prepareStatement("UPDATE product SET price = ?, version = version + 1 WHERE id = ? AND " + TENANT);
+        try (PreparedStatement ids = connection.prepareStatement("SELECT min(id), max(id) FROM product");
+             ResultSet resultSet = ids.executeQuery()) {
+            resultSet.next();
+            minId = resultSet.getLong(1);
+            maxId = resultSet.getLong(2);
+        }
+        if (maxId == 0) {
+            throw new IllegalStateException("No products in " + jdbcUrl + ", seed the database first (e.g. with LoadTest)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Product by ID, as read on cache misses.
+     */
+    @Benchmark
+    public int findById() throws SQLException {
+        findById.setLong(1, randomId());
+        return rows(findById);
+    }
+
+    /**
+     * Page of 100 products ordered by ID (keyset pagination).
+     */
+    @Benchmark
+    public int pageById() throws SQLException {
+        pageById.setLong(1, randomId());
+        return rows(pageById);
+    }
+
+    /**
+     * Page of 100 products in a price range ordered by price.
+     */
+    @Benchmark
+    public int pageByPrice() throws SQLException {
+        final float minPrice = ThreadLocalRandom.current().nextInt(900) + 0.5f;
+        pageByPrice.setFloat(1, minPrice);
+        pageByPrice.setFloat(2, minPrice + 10);
+        return rows(pageByPrice);
+    }
+
+    /**
+     * Price update of a product by ID (auto-commit).
+     */
+    @Benchmark
+    public int updatePrice() throws SQLException {
+        updatePrice.setFloat(1, ThreadLocalRandom.current().nextInt(100_000) / 100f);
+        updatePrice.setLong(2, randomId());
+        return updatePrice.executeUpdate();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(minId, maxId + 1);
+    }
+
+    private static int rows(final PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.store.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.protobuf.ProductProtobuf;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Benchmarks of the wire formats of product listings - JSON, Smile, CBOR (object mappers configured like the message
+ * converters of the application) and Protobuf ({@link ProductProtobuf}). The payload size of each format is printed
+ * during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductWireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+
+    private List<ProductDto> products;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        final ObjectMapper objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> null;
+        };
+        if (objectMapper != null) {
+            final TypeReference<List<ProductDto>> listType = new TypeReference<>() {
+            };
+            listWriter = objectMapper.writerFor(listType);
+            listReader = objectMapper.readerFor(listType);
+        }
+
+        products = LongStream.rangeClosed(1, size).mapToObj(ProductWireFormatBenchmark::product).toList();
+        payload = serializeProducts();
+        System.out.printf("%nPayload size (%s, %d products): %d bytes%n", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws IOException {
+        if (listWriter != null) {
+            return listWriter.writeValueAsBytes(products);
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ProductProtobuf.writeList(products, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public List<ProductDto> deserializeProducts() throws IOException {
+        if (listReader != null) {
+            return listReader.readValue(payload);
+        }
+        return ProductProtobuf.readList(new ByteArrayInputStream(payload));
+    }
+
+    private static ProductDto product(final long id) {
+        return new ProductDto(id, "Product " + id, "Description of product " + id, id / 100f, 0);
+    }
+}
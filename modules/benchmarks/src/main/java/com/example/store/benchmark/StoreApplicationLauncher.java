@@ -0,0 +1,47 @@
+package com.example.store.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.store.StoreApplication;
+
+/**
+ * Starts {@link StoreApplication} for benchmarks and load tests.
+ */
+public final class StoreApplicationLauncher {
+
+    /**
+     * Arguments of an in-memory H2 database, with the schema created by Hibernate (the Liquibase changelog is for PostgreSQL).
+     */
+    public static final List<String> H2_ARGS = List.of(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.liquibase.enabled=false",
+            // PostgreSQL only
+            "--store.cache.invalidation.enabled=false");
+
+    private StoreApplicationLauncher() {
+    }
+
+    /**
+     * Starts the application. Arguments are passed as command line arguments, so they override application.properties.
+     *
+     * @param webApplicationType {@link WebApplicationType#NONE} to start without the web server
+     * @param args               application arguments, e.g. {@link #H2_ARGS}
+     * @return application context
+     */
+    public static ConfigurableApplicationContext start(final WebApplicationType webApplicationType, final List<String> args) {
+        final List<String> allArgs = new ArrayList<>(args);
+        allArgs.add("--logging.level.root=WARN");
+        allArgs.add("--logging.level.com.example.store=WARN");
+        return new SpringApplicationBuilder(StoreApplication.class)
+                .web(webApplicationType)
+                .run(allArgs.toArray(String[]::new));
+    }
+}
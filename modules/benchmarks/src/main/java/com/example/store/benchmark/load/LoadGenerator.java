@@ -0,0 +1,186 @@
+package com.example.store.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.example.store.benchmark.load.LoadReport.Latency;
+import com.example.store.benchmark.load.LoadReport.OperationReport;
+
+/**
+ * Sends the requests of a workload to the application and records their latency.
+ * <p>
+ * With a rate (open loop), requests are started on a fixed schedule regardless of the responses, and the latency of
+ * a request is measured from its scheduled start. Requests delayed by slow responses (the concurrency limit reached)
+ * or by the generator itself therefore count as slow, instead of being left out (coordinated omission).
+ * Without a rate (closed loop), each client sends its next request when it gets the previous response.
+ */
+final class LoadGenerator {
+
+    /**
+     * Significant digits of the recorded latencies.
+     */
+    private static final int LATENCY_PRECISION = 3;
+
+    private final URI baseUri;
+    private final long[] ids;
+    private final Workload workload;
+    private final int rate;
+    private final int concurrency;
+    private final HttpClient httpClient;
+
+    LoadGenerator(final URI baseUri, final long[] ids, final Map<Operation, Integer> mix, final int rate, final int concurrency) {
+        this.baseUri = baseUri;
+        this.ids = ids;
+        this.workload = new Workload(mix);
+        this.rate = rate;
+        this.concurrency = concurrency;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Results of a run.
+     *
+     * @param operations results of each operation of the workload
+     * @param elapsed    time until the last response, longer than the duration of the run if the application
+     *                   did not keep up with the rate
+     */
+    record Run(Map<Operation, OperationResults> operations, Duration elapsed) {
+    }
+
+    /**
+     * Runs the workload for the specified duration and waits for the requests in progress.
+     */
+    Run run(final Duration duration) {
+        final Map<Operation, OperationResults> results = new EnumMap<>(Operation.class);
+        workload.operations().forEach(operation -> results.put(operation, new OperationResults()));
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (rate > 0) {
+                runOpenLoop(executor, results, start, end);
+            } else {
+                for (int i = 0; i < concurrency; i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() < end) {
+                            send(results, System.nanoTime());
+                        }
+                    });
+                }
+            }
+        }
+        return new Run(results, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private void runOpenLoop(final ExecutorService executor, final Map<Operation, OperationResults> results,
+                             final long start, final long end) {
+        final Semaphore inProgress = new Semaphore(concurrency);
+        final double interval = 1_000_000_000.0 / rate;
+        for (long i = 0; ; i++) {
+            final long scheduledStart = start + (long) (i * interval);
+            if (scheduledStart >= end) {
+                return;
+            }
+            final long delay = scheduledStart - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+            executor.submit(() -> {
+                inProgress.acquireUninterruptibly();
+                try {
+                    send(results, scheduledStart);
+                } finally {
+                    inProgress.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Sends a request of the workload and records its latency from the specified start.
+     */
+    private void send(final Map<Operation, OperationResults> results, final long start) {
+        final Operation operation = workload.next(ThreadLocalRandom.current());
+        final HttpRequest request = operation.request(baseUri, ids, ThreadLocalRandom.current());
+        int status = 0;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            // Counted as an error (status 0)
+        }
+        results.get(operation).record(status, (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * Creates the report of a run. Throughput is the number of responses per second until the last response.
+     */
+    static LoadReport report(final LoadTestOptions options, final int products, final Run run) {
+        final double seconds = run.elapsed().toMillis() / 1000.0;
+        final List<OperationReport> operations = new ArrayList<>();
+        final OperationResults total = new OperationResults();
+        run.operations().forEach((operation, operationResults) -> {
+            operations.add(operationResults.report(operation.name().toLowerCase(Locale.ROOT), operation.endpoint(), seconds));
+            total.add(operationResults);
+        });
+        return new LoadReport(options.rate() > 0 ? "open-loop" : "closed-loop", options.database(), products,
+                options.rate(), options.concurrency(), options.duration().toMillis(), run.elapsed().toMillis(), operations,
+                total.report("total", "", seconds));
+    }
+
+    /**
+     * Recorded results of the requests of an operation. Latencies are in microseconds.
+     */
+    static final class OperationResults {
+
+        private final Histogram latencies = new ConcurrentHistogram(LATENCY_PRECISION);
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(final int status, final long latencyMicros) {
+            latencies.recordValue(Math.max(latencyMicros, 0));
+            statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+
+        void add(final OperationResults other) {
+            latencies.add(other.latencies);
+            other.statuses.forEach((status, count) -> statuses.computeIfAbsent(status, s -> new LongAdder()).add(count.sum()));
+        }
+
+        long requests() {
+            return latencies.getTotalCount();
+        }
+
+        OperationReport report(final String operation, final String endpoint, final double seconds) {
+            final Map<Integer, Long> statusCounts = new TreeMap<>();
+            statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+            final long errors = statusCounts.entrySet().stream()
+                    .filter(entry -> entry.getKey() == 0 || entry.getKey() >= 400)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            return new OperationReport(operation, endpoint, requests(), errors, statusCounts, requests() / seconds,
+                    Latency.of(latencies));
+        }
+    }
+}
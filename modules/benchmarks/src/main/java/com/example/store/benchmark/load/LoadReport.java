@@ -0,0 +1,57 @@
+package com.example.store.benchmark.load;
+
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Machine-readable (JSON) result of a load test.
+ *
+ * @param mode           {@code open-loop} (latency from the scheduled start of each request, free of coordinated omission)
+ *                       or {@code closed-loop} (latency from the actual start, i.e. service time)
+ * @param database       database of the application
+ * @param products       number of products in the database
+ * @param rate           scheduled requests per second (open loop)
+ * @param concurrency    maximum number of requests in progress (open loop), number of clients (closed loop)
+ * @param durationMillis duration of the measurement
+ * @param elapsedMillis  time until the last response of the measurement
+ * @param operations     results of each operation of the workload
+ * @param total          results of all requests
+ */
+public record LoadReport(String mode, String database, int products, int rate, int concurrency, long durationMillis,
+                         long elapsedMillis, List<OperationReport> operations, OperationReport total) {
+
+    /**
+     * Results of the requests of an operation.
+     *
+     * @param operation  operation name
+     * @param endpoint   endpoint of the operation
+     * @param requests   number of completed requests
+     * @param errors     number of requests which failed (no response, or status 4xx or 5xx)
+     * @param statuses   number of responses by status code, 0 for requests without a response
+     * @param throughput completed requests per second (until the last response)
+     * @param latency    latency in milliseconds
+     */
+    public record OperationReport(String operation, String endpoint, long requests, long errors, Map<Integer, Long> statuses,
+                                  double throughput, Latency latency) {
+    }
+
+    /**
+     * Latency distribution in milliseconds.
+     */
+    public record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+
+        /**
+         * @param histogram latencies in microseconds
+         */
+        static Latency of(final Histogram histogram) {
+            return new Latency(histogram.getMean() / 1000, millis(histogram, 50), millis(histogram, 90),
+                    millis(histogram, 99), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0);
+        }
+
+        private static double millis(final Histogram histogram, final double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.store.benchmark.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.store.benchmark.StoreApplicationLauncher;
+import com.example.store.benchmark.load.LoadReport.OperationReport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * End-to-end load test: starts the application against H2 or PostgreSQL, seeds the products, runs a workload
+ * (warmup and measurement) and writes a JSON report with the throughput and latency percentiles of each endpoint.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar com.example.store.benchmark.load.LoadTest [--name=value ...]},
+ * see {@link LoadTestOptions} for the options.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        final boolean postgres = LoadTestOptions.POSTGRES.equals(options.database());
+        final List<String> appArgs = new ArrayList<>(postgres
+                ? List.of("--spring.datasource.url=" + options.jdbcUrl(),
+                "--spring.datasource.username=" + options.dbUser(),
+                "--spring.datasource.password=" + options.dbPassword())
+                : StoreApplicationLauncher.H2_ARGS);
+        appArgs.add("--server.port=0");
+        appArgs.addAll(options.appArgs());
+
+        try (ConfigurableApplicationContext context = StoreApplicationLauncher.start(WebApplicationType.SERVLET, appArgs)) {
+            final long[] ids = new ProductSeeder(context.getBean(DataSource.class), postgres).seed(options.products());
+            final URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            final LoadGenerator generator = new LoadGenerator(baseUri, ids, options.mix(), options.rate(), options.concurrency());
+
+            System.out.printf(Locale.ROOT, "%d products, warmup %s, measurement %s%n", ids.length, options.warmup(), options.duration());
+            generator.run(options.warmup());
+            final LoadReport report = LoadGenerator.report(options, ids.length, generator.run(options.duration()));
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(options.report()), report);
+            System.out.println(summary(report));
+            System.out.println("Report written to " + options.report());
+        }
+    }
+
+    static String summary(final LoadReport report) {
+        final StringBuilder summary = new StringBuilder(String.format(Locale.ROOT, "%-8s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        final List<OperationReport> operations = new ArrayList<>(report.operations());
+        operations.add(report.total());
+        for (final OperationReport operation : operations) {
+            summary.append(String.format(Locale.ROOT, "%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.operation(), operation.requests(), operation.errors(), operation.throughput(),
+                    operation.latency().p50(), operation.latency().p90(), operation.latency().p99(),
+                    operation.latency().p999(), operation.latency().max()));
+        }
+        return summary.toString().stripTrailing();
+    }
+}
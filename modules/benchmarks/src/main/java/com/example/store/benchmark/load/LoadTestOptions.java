@@ -0,0 +1,103 @@
+package com.example.store.benchmark.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Options of a load test, parsed from {@code --name=value} command line arguments.
+ * Arguments of the application ({@code --spring.*}, {@code --store.*}, {@code --server.*}) are passed to it.
+ *
+ * @param database    database of the application, {@code h2} (in-memory) or {@code postgres}
+ * @param jdbcUrl     JDBC URL of the PostgreSQL database
+ * @param dbUser      PostgreSQL user
+ * @param dbPassword  PostgreSQL password
+ * @param products    number of products the database is seeded with (unless it already has at least as many)
+ * @param mix         workload - weight of each operation
+ * @param rate        requests per second started at a fixed rate (open loop), 0 for back-to-back requests of each client (closed loop)
+ * @param concurrency maximum number of requests in progress (open loop), number of clients (closed loop)
+ * @param warmup      duration of the warmup, not included in the report
+ * @param duration    duration of the measurement
+ * @param report      path of the JSON report
+ * @param appArgs     arguments passed to the application
+ */
+public record LoadTestOptions(String database, String jdbcUrl, String dbUser, String dbPassword, int products,
+                              Map<Operation, Integer> mix, int rate, int concurrency, Duration warmup,
+                              Duration duration, String report, List<String> appArgs) {
+
+    static final String H2 = "h2";
+    static final String POSTGRES = "postgres";
+
+    private static final List<String> APP_ARG_PREFIXES = List.of("--spring.", "--store.", "--server.", "--logging.");
+
+    public static LoadTestOptions parse(final String[] args) {
+        final Map<String, String> options = new LinkedHashMap<>();
+        final List<String> appArgs = new ArrayList<>();
+        for (final String arg : args) {
+            if (APP_ARG_PREFIXES.stream().anyMatch(arg::startsWith)) {
+                appArgs.add(arg);
+                continue;
+            }
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Invalid argument " + arg + ", expected --name=value");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        final LoadTestOptions loadTestOptions = new LoadTestOptions(
+                options.getOrDefault("database", H2),
+                options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/store_db"),
+                options.getOrDefault("db-user", "postgres"),
+                options.getOrDefault("db-password", "dbpass"),
+                Integer.parseInt(options.getOrDefault("products", "100000")),
+                parseMix(options.getOrDefault("mix", "get:60,page:20,filter:10,update:10")),
+                Integer.parseInt(options.getOrDefault("rate", "200")),
+                Integer.parseInt(options.getOrDefault("concurrency", "64")),
+                DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(options.getOrDefault("duration", "60s")),
+                options.getOrDefault("report", "load-report.json"),
+                List.copyOf(appArgs));
+        options.keySet().stream()
+                .filter(option -> !List.of("database", "jdbc-url", "db-user", "db-password", "products", "mix", "rate",
+                        "concurrency", "warmup", "duration", "report").contains(option))
+                .findAny()
+                .ifPresent(option -> {
+                    throw new IllegalArgumentException("Unknown option --" + option);
+                });
+        loadTestOptions.validate();
+        return loadTestOptions;
+    }
+
+    /**
+     * Parses a workload, e.g. {@code get:60,page:20,update:20}.
+     */
+    static Map<Operation, Integer> parseMix(final String mix) {
+        final Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (final String entry : mix.split(",")) {
+            final String[] operationWeight = entry.trim().split(":");
+            if (operationWeight.length != 2) {
+                throw new IllegalArgumentException("Invalid workload entry " + entry + ", expected <operation>:<weight>");
+            }
+            weights.put(Operation.fromName(operationWeight[0]), Integer.parseInt(operationWeight[1]));
+        }
+        return weights;
+    }
+
+    private void validate() {
+        if (!H2.equals(database) && !POSTGRES.equals(database)) {
+            throw new IllegalArgumentException("Unsupported database " + database + ", expected " + H2 + " or " + POSTGRES);
+        }
+        if (mix.containsKey(Operation.SEARCH) && H2.equals(database)) {
+            throw new IllegalArgumentException("Search is only supported with " + POSTGRES);
+        }
+        if (products < 1 || rate < 0 || concurrency < 1 || mix.values().stream().anyMatch(weight -> weight < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Products, concurrency and total workload weight must be positive, rate must not be negative");
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.store.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Operations of a load test workload, each a request to an endpoint of the product API.
+ */
+public enum Operation {
+
+    /**
+     * Single product by ID.
+     */
+    GET("GET /api/products/{id}"),
+    /**
+     * Page of 20 products after an ID.
+     */
+    PAGE("GET /api/products?limit=20&after={id}"),
+    /**
+     * Page of 20 products from a minimum price, ordered by price.
+     */
+    FILTER("GET /api/products?limit=20&sort=price&minPrice={price}"),
+    /**
+     * Full-text search of products (PostgreSQL only).
+     */
+    SEARCH("GET /api/products/search?q={word}"),
+    CREATE("POST /api/products"),
+    /**
+     * Update of a product without If-Match.
+     */
+    UPDATE("PUT /api/products/{id}"),
+    /**
+     * Price update of a product, written behind.
+     */
+    PRICE("PUT /api/products/{id}/price");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String[] SEARCH_WORDS = {"product", "description", "produkt", "descripton"};
+
+    private final String endpoint;
+
+    Operation(final String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Endpoint of the operation, e.g. {@code GET /api/products/{id}}.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    static Operation fromName(final String name) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.name().equalsIgnoreCase(name.trim()))
+                .findAny()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + name
+                        + ", expected one of " + Arrays.toString(values()).toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Creates a request of the operation.
+     *
+     * @param baseUri base URI of the application, e.g. http://localhost:8080
+     * @param ids     IDs of the products in the database
+     * @param random  random generator of the product and parameters of the request
+     */
+    HttpRequest request(final URI baseUri, final long[] ids, final RandomGenerator random) {
+        final long id = ids[random.nextInt(ids.length)];
+        return switch (this) {
+            case GET -> get(baseUri.resolve("/api/products/" + id));
+            case PAGE -> get(baseUri.resolve("/api/products?limit=20&after=" + id));
+            case FILTER -> get(baseUri.resolve("/api/products?limit=20&sort=price&minPrice=" + random.nextInt(1000)));
+            case SEARCH -> get(baseUri.resolve("/api/products/search?q=" + SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]));
+            case CREATE -> json(HttpRequest.newBuilder(baseUri.resolve("/api/products")), "POST",
+                    product(null, random));
+            case UPDATE -> json(HttpRequest.newBuilder(baseUri.resolve("/api/products/" + id)), "PUT",
+                    product(id, random));
+            case PRICE -> json(HttpRequest.newBuilder(baseUri.resolve("/api/products/" + id + "/price")), "PUT",
+                    "{\"price\":" + random.nextInt(1_000_000) / 100f + "}");
+        };
+    }
+
+    private static HttpRequest get(final URI uri) {
+        return HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).header("Accept", "application/json").GET().build();
+    }
+
+    private static HttpRequest json(final HttpRequest.Builder builder, final String method, final String body) {
+        return builder.timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String product(final Long id, final RandomGenerator random) {
+        final int number = random.nextInt(1_000_000);
+        return "{\"id\":" + id + ",\"name\":\"Product " + number + "\",\"description\":\"Description of product " + number
+                + "\",\"price\":" + number / 100f + "}";
+    }
+}
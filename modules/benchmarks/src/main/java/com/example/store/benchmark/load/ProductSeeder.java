@@ -0,0 +1,77 @@
+package com.example.store.benchmark.load;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seeds the product table of a load test with generated products, directly with SQL (millions of products would take
+ * too long through the API). IDs are taken from product_seq, same as products created by the application,
+ * and the products belong to the default tenant, which is used by requests without a tenant.
+ */
+@Slf4j
+final class ProductSeeder {
+
+    private static final int CHUNK_SIZE = 100_000;
+
+    private static final String INSERT_POSTGRES = """
+            INSERT INTO product (id, name, description, price, version, tenant_id)
+            SELECT nextval('product_seq'), 'Product ' || i, 'Description of product ' || i, (i % 100000) / 100.0, 0, 'default'
+            FROM generate_series(?, ?) AS i""";
+    private static final String INSERT_H2 = """
+            INSERT INTO product (id, name, description, price, version, tenant_id)
+            SELECT NEXT VALUE FOR product_seq, 'Product ' || X, 'Description of product ' || X, MOD(X, 100000) / 100.0, 0, 'default'
+            FROM SYSTEM_RANGE(?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    ProductSeeder(final DataSource dataSource, final boolean postgres) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.postgres = postgres;
+    }
+
+    /**
+     * Adds products until the database has at least the specified number of products. Existing products are kept,
+     * so a seeded PostgreSQL database can be reused by following load tests.
+     *
+     * @param products number of products
+     * @return IDs of all products in the database
+     */
+    long[] seed(final int products) {
+        final long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM product WHERE tenant_id = 'default'", Long.class);
+        if (existing < products) {
+            log.warn("Seeding {} products", products - existing);
+            for (long from = existing + 1; from <= products; from += CHUNK_SIZE) {
+                jdbcTemplate.update(postgres ? INSERT_POSTGRES : INSERT_H2, from, Math.min(from + CHUNK_SIZE - 1, products));
+            }
+            if (postgres) {
+                // Planner statistics of the new products
+                jdbcTemplate.execute("VACUUM ANALYZE product");
+            }
+        }
+        return ids();
+    }
+
+    /**
+     * Reads the IDs in chunks, so the JDBC driver does not hold all rows in memory.
+     */
+    private long[] ids() {
+        final LongStream.Builder ids = LongStream.builder();
+        long after = Long.MIN_VALUE;
+        while (true) {
+            final List<Long> chunk = jdbcTemplate.queryForList(
+                    "SELECT id FROM product WHERE tenant_id = 'default' AND id > ? ORDER BY id LIMIT ?", Long.class, after, CHUNK_SIZE);
+            chunk.forEach(ids::add);
+            if (chunk.size() < CHUNK_SIZE) {
+                return ids.build().toArray();
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+    }
+}
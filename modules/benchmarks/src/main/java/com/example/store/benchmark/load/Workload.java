@@ -0,0 +1,41 @@
+package com.example.store.benchmark.load;
+
+import java.util.List;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Mix of operations of a load test, each operation is chosen randomly with the probability of its weight.
+ */
+final class Workload {
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    Workload(final Map<Operation, Integer> mix) {
+        operations = new Operation[mix.size()];
+        cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        int i = 0;
+        for (final Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+    }
+
+    List<Operation> operations() {
+        return List.of(operations);
+    }
+
+    Operation next(final RandomGenerator random) {
+        final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Weights of the workload are not positive");
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.store.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.store.benchmark.BenchmarkComparison.Change;
+import com.example.store.benchmark.BenchmarkComparison.Result;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class contains unit tests for {@link BenchmarkComparison}.
+ */
+class BenchmarkComparisonTest {
+
+    @Test
+    void testReadResults() throws Exception {
+        final String json = """
+                [
+                  {
+                    "benchmark": "com.example.store.benchmark.ProductJsonBenchmark.serializeProducts",
+                    "mode": "avgt",
+                    "params": {"size": "100"},
+                    "primaryMetric": {"score": 31.9, "scoreError": 8.4, "scoreUnit": "us/op"}
+                  },
+                  {
+                    "benchmark": "com.example.store.benchmark.ProductDtoMapperBenchmark.toDto",
+                    "mode": "avgt",
+                    "primaryMetric": {"score": 9.0, "scoreError": 4.1, "scoreUnit": "ns/op"}
+                  }
+                ]
+                """;
+        final Map<String, Result> results = BenchmarkComparison.readResults(new ObjectMapper().readTree(json));
+        assertEquals(Map.of(
+                "ProductJsonBenchmark.serializeProducts size=100", new Result(31.9, 8.4, "us/op"),
+                "ProductDtoMapperBenchmark.toDto", new Result(9.0, 4.1, "ns/op")), results);
+    }
+
+    @Test
+    void testCompare_averageTime() {
+        final Map<String, Result> baseline = Map.of(
+                "slower", new Result(100, 5, "us/op"),
+                "noisy", new Result(100, 50, "us/op"),
+                "faster", new Result(100, 5, "us/op"),
+                "removed", new Result(100, 5, "us/op"));
+        final Map<String, Result> current = Map.of(
+                "slower", new Result(130, 5, "us/op"),
+                "noisy", new Result(130, 50, "us/op"),
+                "faster", new Result(50, 5, "us/op"),
+                "added", new Result(100, 5, "us/op"));
+
+        final Map<String, Change> changes = byBenchmark(BenchmarkComparison.compare(baseline, current, 10));
+        assertEquals(3, changes.size());
+        assertEquals(30, changes.get("slower").change(), 0.001);
+        assertTrue(changes.get("slower").regression());
+        // Slowdown within the error of the scores
+        assertFalse(changes.get("noisy").regression());
+        assertEquals(-50, changes.get("faster").change(), 0.001);
+        assertFalse(changes.get("faster").regression());
+    }
+
+    @Test
+    void testCompare_throughput() {
+        final Map<String, Change> changes = byBenchmark(BenchmarkComparison.compare(
+                Map.of("throughput", new Result(1000, 10, "ops/s")),
+                Map.of("throughput", new Result(800, 10, "ops/s")),
+                10));
+        // Fewer operations per second - slower
+        assertEquals(20, changes.get("throughput").change(), 0.001);
+        assertTrue(changes.get("throughput").regression());
+    }
+
+    @Test
+    void testReport() {
+        final List<Change> changes = BenchmarkComparison.compare(
+                Map.of("slower", new Result(100, 5, "us/op")),
+                Map.of("slower", new Result(130, 5, "us/op")),
+                10);
+        final String report = BenchmarkComparison.report(changes, 10);
+        assertTrue(report.contains("+30.0%  REGRESSION"), report);
+        assertTrue(report.endsWith("1 of 1 benchmarks slower than the baseline by more than 10.0%"), report);
+    }
+
+    private static Map<String, Change> byBenchmark(final List<Change> changes) {
+        return changes.stream().collect(Collectors.toMap(Change::benchmark, change -> change));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.store.benchmark.load;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class contains tests of {@link LoadGenerator}, against a stub server which responds after a fixed delay.
+ */
+class LoadGeneratorTest {
+
+    private static final long RESPONSE_DELAY_MILLIS = 50;
+
+    private HttpServer server;
+    private URI baseUri;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/products", exchange -> {
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final int status = exchange.getRequestMethod().equals("PUT") ? 412 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUri = URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testRun_openLoop() {
+        final LoadGenerator generator = new LoadGenerator(baseUri, new long[]{1, 2, 3},
+                Map.of(Operation.GET, 1, Operation.UPDATE, 1), 100, 100);
+        final LoadGenerator.Run run = generator.run(Duration.ofSeconds(1));
+
+        // Requests are started at the rate, regardless of the responses
+        final LoadReport report = LoadGenerator.report(options(100, 100), 3, run);
+        assertEquals(100, report.total().requests());
+        final LoadReport.OperationReport update = report.operations().stream()
+                .filter(operation -> operation.operation().equals("update"))
+                .findAny()
+                .orElseThrow();
+        assertEquals(update.requests(), update.errors());
+        assertEquals(Map.of(412, update.requests()), update.statuses());
+        assertTrue(report.total().latency().p50() >= RESPONSE_DELAY_MILLIS, "Latency should include the response delay");
+    }
+
+    @Test
+    void testRun_openLoopIncludesQueueing() {
+        // A single request in progress at a time - the scheduled requests queue up
+        final LoadGenerator generator = new LoadGenerator(baseUri, new long[]{1}, Map.of(Operation.GET, 1), 100, 1);
+        final LoadReport report = LoadGenerator.report(options(100, 1), 1, generator.run(Duration.ofMillis(500)));
+
+        assertEquals(50, report.total().requests());
+        // The last request is scheduled at ~0.5 s, but is sent after the 49 requests before it (~2.5 s)
+        assertTrue(report.total().latency().max() > 1500, "Latency should be measured from the scheduled start");
+    }
+
+    @Test
+    void testRun_closedLoop() {
+        final LoadGenerator generator = new LoadGenerator(baseUri, new long[]{1}, Map.of(Operation.GET, 1), 0, 2);
+        final LoadReport report = LoadGenerator.report(options(0, 2), 1, generator.run(Duration.ofSeconds(1)));
+
+        assertEquals("closed-loop", report.mode());
+        // 2 clients, ~50 ms per request
+        assertTrue(report.total().requests() > 10 && report.total().requests() <= 2 * 1000 / RESPONSE_DELAY_MILLIS + 2,
+                "Unexpected number of requests " + report.total().requests());
+        assertTrue(report.total().latency().max() < 1000, "Latency should be the service time");
+    }
+
+    private static LoadTestOptions options(final int rate, final int concurrency) {
+        return LoadTestOptions.parse(new String[]{"--rate=" + rate, "--concurrency=" + concurrency});
+    }
+}
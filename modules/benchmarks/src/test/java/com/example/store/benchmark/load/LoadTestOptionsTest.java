@@ -0,0 +1,50 @@
+package com.example.store.benchmark.load;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+
+/**
+ * Class contains unit tests for {@link LoadTestOptions}.
+ */
+class LoadTestOptionsTest {
+
+    @Test
+    void testParse() {
+        final LoadTestOptions options = LoadTestOptions.parse(new String[]{
+                "--database=postgres", "--products=5000000", "--mix=get:80,update:20", "--rate=0", "--concurrency=16",
+                "--duration=2m", "--spring.threads.virtual.enabled=true"});
+        assertEquals("postgres", options.database());
+        assertEquals(5_000_000, options.products());
+        assertEquals(Map.of(Operation.GET, 80, Operation.UPDATE, 20), options.mix());
+        assertEquals(0, options.rate());
+        assertEquals(16, options.concurrency());
+        assertEquals(Duration.ofMinutes(2), options.duration());
+        assertEquals(Duration.ofSeconds(10), options.warmup());
+        // Passed to the application
+        assertEquals(List.of("--spring.threads.virtual.enabled=true"), options.appArgs());
+    }
+
+    @Test
+    void testParse_defaults() {
+        final LoadTestOptions options = LoadTestOptions.parse(new String[0]);
+        assertEquals("h2", options.database());
+        assertEquals(200, options.rate());
+        assertEquals(List.of(Operation.GET, Operation.PAGE, Operation.FILTER, Operation.UPDATE), List.copyOf(options.mix().keySet()));
+    }
+
+    @Test
+    void testParse_invalid() {
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--unknown=1"}));
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--mix=browse:10"}));
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--mix=get:0"}));
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--database=mysql"}));
+        // Search needs PostgreSQL
+        assertThrowsExactly(IllegalArgumentException.class, () -> LoadTestOptions.parse(new String[]{"--mix=search:1"}));
+    }
+}
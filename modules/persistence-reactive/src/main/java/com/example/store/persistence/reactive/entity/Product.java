@@ -0,0 +1,44 @@
+package com.example.store.persistence.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Product, mapped to the same table as the JPA entity of the persistence module.
+ * New products get their ID from the column default (product_seq, see db-schema).
+ */
+@Table("product")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Product {
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("name")
+    private String name;
+
+    @Column("description")
+    private String description;
+
+    @Column("price")
+    private float price;
+
+    /**
+     * Incremented on each update, used for optimistic locking and as the ETag of the product.
+     * {@code null} for new products - a wrapper, since products with version 0 are not new.
+     */
+    @Version
+    @Column("version")
+    private Long version;
+
+}
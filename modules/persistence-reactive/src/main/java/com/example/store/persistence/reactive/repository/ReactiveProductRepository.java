@@ -0,0 +1,71 @@
+package com.example.store.persistence.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.store.persistence.reactive.entity.Product;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository of products (PostgreSQL). Results are streamed from the database as they are requested.
+ */
+@Repository
+public interface ReactiveProductRepository extends R2dbcRepository<Product, Long> {
+
+    /**
+     * Finds all products, ordered by ID.
+     *
+     * @return products ordered by ID
+     */
+    @Query("SELECT id, name, description, price, version FROM product ORDER BY id")
+    Flux<Product> findAllOrderById();
+
+    /**
+     * Finds products with an ID greater than the specified one, ordered by ID (keyset pagination).
+     *
+     * @param after ID after which the products are returned (exclusive)
+     * @param limit maximum number of returned products
+     * @return products ordered by ID
+     */
+    @Query("SELECT id, name, description, price, version FROM product WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<Product> findByIdGreaterThan(@Param("after") long after, @Param("limit") int limit);
+
+    /**
+     * Updates the product with a single statement, without loading it first.
+     *
+     * @return updated product, empty if the product does not exist
+     */
+    @Query("""
+            UPDATE product SET name = :name, description = :description, price = :price, version = version + 1
+            WHERE id = :id
+            RETURNING id, name, description, price, version""")
+    Mono<Product> updateProduct(@Param("id") long id, @Param("name") String name,
+                                @Param("description") String description, @Param("price") float price);
+
+    /**
+     * Updates the product with a single statement, if it has the expected version.
+     *
+     * @return updated product, empty if the product does not exist or has a different version
+     */
+    @Query("""
+            UPDATE product SET name = :name, description = :description, price = :price, version = version + 1
+            WHERE id = :id AND version = :expectedVersion
+            RETURNING id, name, description, price, version""")
+    Mono<Product> updateProduct(@Param("id") long id, @Param("name") String name,
+                                @Param("description") String description, @Param("price") float price,
+                                @Param("expectedVersion") long expectedVersion);
+
+    /**
+     * Deletes the product with the specified ID with a single statement.
+     *
+     * @return number of deleted products, 0 if the product does not exist
+     */
+    @Modifying
+    @Query("DELETE FROM product WHERE id = :id")
+    Mono<Integer> deleteProductById(@Param("id") long id);
+}
@@ -0,0 +1,76 @@
+package com.example.store.persistence.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Routing of the current thread's connections by {@link ReadReplicaRoutingDataSource}.
+ * <p>
+ * Read-only transactions use a read replica, unless the thread requires the primary - e.g. for a client which
+ * has just written, and must read its own writes although replicas lag behind the primary.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> READ_ONLY_BEGINNING = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * Routes all connections of the current thread to the primary, until {@link #clear()}.
+     */
+    public static void requirePrimary() {
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+    }
+
+    /**
+     * Routes read-only transactions of the current thread to read replicas again.
+     */
+    public static void clear() {
+        PRIMARY_REQUIRED.remove();
+    }
+
+    /**
+     * Runs the action with all connections of the current thread routed to the primary - e.g. for reads which must not
+     * see a lagging replica - then restores the previous routing.
+     *
+     * @param action action to run
+     * @return result of the action
+     */
+    public static <T> T onPrimary(final Supplier<T> action) {
+        final boolean primaryRequired = isPrimaryRequired();
+        requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (!primaryRequired) {
+                clear();
+            }
+        }
+    }
+
+    /**
+     * @return whether connections of the current thread must be routed to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * Marks whether the current thread is beginning a read-only transaction (see {@link ReadReplicaJpaDialect}).
+     */
+    static void setReadOnlyBeginning(final boolean readOnly) {
+        if (readOnly) {
+            READ_ONLY_BEGINNING.set(Boolean.TRUE);
+        } else {
+            READ_ONLY_BEGINNING.remove();
+        }
+    }
+
+    /**
+     * @return whether the current thread is beginning a read-only transaction
+     */
+    static boolean isReadOnlyBeginning() {
+        return READ_ONLY_BEGINNING.get() != null;
+    }
+}
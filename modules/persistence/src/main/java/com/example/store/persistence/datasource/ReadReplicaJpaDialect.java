@@ -0,0 +1,34 @@
+package com.example.store.persistence.datasource;
+
+import java.sql.SQLException;
+
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+
+/**
+ * Hibernate dialect of the JPA transaction manager, which lets {@link ReadReplicaRoutingDataSource} route the connection
+ * of a read-only transaction to a read replica.
+ * <p>
+ * The connection is obtained while the transaction begins, before the transaction's read-only flag is set, so the dialect
+ * marks the beginning of read-only transactions in {@link DataSourceRouting}. Unlike a lazy connection proxy, this also
+ * works when the data source is wrapped by proxies which use the connection as soon as it is obtained (e.g. JDBC observations).
+ */
+public class ReadReplicaJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(final EntityManager entityManager, final TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        if (!definition.isReadOnly()) {
+            return super.beginTransaction(entityManager, definition);
+        }
+        DataSourceRouting.setReadOnlyBeginning(true);
+        try {
+            return super.beginTransaction(entityManager, definition);
+        } finally {
+            DataSourceRouting.setReadOnlyBeginning(false);
+        }
+    }
+}
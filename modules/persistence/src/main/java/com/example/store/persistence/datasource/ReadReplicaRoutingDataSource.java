@@ -0,0 +1,153 @@
+package com.example.store.persistence.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Data source which routes connections of read-only transactions ({@code @Transactional(readOnly = true)})
+ * to read replicas, and all other connections to the primary.
+ * <p>
+ * Transaction managers obtain the connection when the transaction begins, before its read-only flag is set, so the
+ * transaction must be known in another way when the connection is obtained:
+ * <ul>
+ *     <li>with JPA, the transaction manager uses {@link ReadReplicaJpaDialect}, which marks the beginning of read-only transactions</li>
+ *     <li>otherwise, this data source is wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ *     which obtains the connection on its first use</li>
+ * </ul>
+ * <p>
+ * Replicas are used in turn (round-robin). A replica which fails to provide a connection is marked unhealthy
+ * and the connection is obtained from the primary instead, until {@link #checkReplicas()} finds the replica healthy again.
+ * Without healthy replicas, all connections are routed to the primary.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup key of the primary.
+     */
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Names of the replicas which are currently healthy, replaced on each change.
+     */
+    private volatile List<String> healthyReplicas;
+
+    /**
+     * @param primary  data source of the primary
+     * @param replicas data sources of the read replicas, by name
+     */
+    public ReadReplicaRoutingDataSource(@NotNull final DataSource primary, @NotNull final Map<String, DataSource> replicas) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.healthyReplicas = List.copyOf(replicas.keySet());
+        final Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        // Unknown keys are a bug, not a reason to use the primary
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @NotNull
+    @Override
+    protected Object determineCurrentLookupKey() {
+        final boolean readOnly = DataSourceRouting.isReadOnlyBeginning() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (!readOnly || DataSourceRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        final List<String> healthy = this.healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(this.nextReplica.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Obtains a connection from the selected data source, or from the primary if the selected replica fails.
+     */
+    @NotNull
+    @Override
+    public Connection getConnection() throws SQLException {
+        final Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return getResolvedDefaultDataSource().getConnection();
+        }
+        try {
+            return this.replicas.get(key).getConnection();
+        } catch (final SQLException e) {
+            log.warn("Read replica {} failed to provide a connection, using the primary", key, e);
+            setHealthy((String) key, false);
+            return getResolvedDefaultDataSource().getConnection();
+        }
+    }
+
+    /**
+     * Checks whether each replica provides a valid connection, and updates which replicas are used.
+     *
+     * @param timeoutSeconds maximum time to wait for the validation of a connection
+     */
+    public void checkReplicas(final int timeoutSeconds) {
+        for (final Map.Entry<String, DataSource> replica : this.replicas.entrySet()) {
+            boolean healthy;
+            try (Connection connection = replica.getValue().getConnection()) {
+                healthy = connection.isValid(timeoutSeconds);
+            } catch (final SQLException e) {
+                log.debug("Health check of read replica {} failed", replica.getKey(), e);
+                healthy = false;
+            }
+            setHealthy(replica.getKey(), healthy);
+        }
+    }
+
+    /**
+     * @return names of the replicas which are currently used
+     */
+    @NotNull
+    public List<String> getHealthyReplicas() {
+        return this.healthyReplicas;
+    }
+
+    /**
+     * @return data sources of all replicas, by name
+     */
+    @NotNull
+    public Map<String, DataSource> getReplicas() {
+        return Map.copyOf(this.replicas);
+    }
+
+    private synchronized void setHealthy(final String replica, final boolean healthy) {
+        if (this.healthyReplicas.contains(replica) == healthy) {
+            return;
+        }
+        // Keeps the configured order of replicas
+        final List<String> updated = new ArrayList<>();
+        for (final String name : this.replicas.keySet()) {
+            if (name.equals(replica) ? healthy : this.healthyReplicas.contains(name)) {
+                updated.add(name);
+            }
+        }
+        this.healthyReplicas = List.copyOf(updated);
+        if (healthy) {
+            log.info("Read replica {} is healthy, routing read-only transactions to it", replica);
+        } else {
+            log.warn("Read replica {} is unhealthy, {} healthy replicas left", replica, updated.size());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.example.store.persistence.entity;
 
+import org.hibernate.annotations.TenantId;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -24,7 +28,9 @@ import lombok.Setter;
 public class Product {
     @Id
     @Column(name = "id", nullable = false)
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Allocation size must match the increment of the sequence
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -42,4 +48,27 @@ public class Product {
     @Column(name = "price", nullable = false)
     private float price;
 
+    /**
+     * Incremented on each update, used for optimistic locking and as the ETag of the product.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Tenant (storefront) of the product, set from the tenant of the session when the product is created.
+     * Queries of a session only return products of its tenant (see TenantContext).
+     */
+    @TenantId
+    @Column(name = "tenant_id", nullable = false, updatable = false)
+    private String tenantId;
+
+    public Product(final Long id, final String name, final String description, final float price) {
+        this(id, name, description, price, 0);
+    }
+
+    public Product(final Long id, final String name, final String description, final float price, final long version) {
+        this(id, name, description, price, version, null);
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.example.store.persistence.entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entry of the change feed of a tenant - a created or updated product, or a tombstone of a deleted product.
+ * Entries are written and read with JDBC (see ProductChangeLog), the entity maps the table.
+ */
+@Entity
+@Table(name = "product_change",
+        indexes = @Index(name = "idx_product_change_product", columnList = "tenant_id, product_id, seq"))
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(name = "deleted", nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    /**
+     * @param tenantId tenant of the product
+     * @param seq      sequence number of the change within the tenant's feed
+     */
+    @Embeddable
+    public record Key(@Column(name = "tenant_id", nullable = false, length = 63) String tenantId,
+                      @Column(name = "seq", nullable = false) long seq) {
+    }
+}
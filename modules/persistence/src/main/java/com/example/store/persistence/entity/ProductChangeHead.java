@@ -0,0 +1,37 @@
+package com.example.store.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Head of the change feed of a tenant (see ProductChange).
+ */
+@Entity
+@Table(name = "product_change_head")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeHead {
+
+    @Id
+    @Column(name = "tenant_id", nullable = false, length = 63)
+    private String tenantId;
+
+    /**
+     * Sequence number of the last change of the tenant. Incremented by each transaction recording changes,
+     * which locks the row until it commits.
+     */
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    /**
+     * Sequence number of the last removed tombstone - readers of older changes may have missed a deletion.
+     */
+    @Column(name = "horizon_seq", nullable = false)
+    private long horizonSeq;
+}
@@ -0,0 +1,77 @@
+package com.example.store.persistence.jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Writes product rows to a {@code COPY ... FROM STDIN WITH (FORMAT csv)} operation.
+ * Rows are encoded into a buffer, which is sent to the database whenever it is full.
+ */
+class CopyRowWriter implements ProductRowWriter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CopyIn copyIn;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+    private final StringBuilder row = new StringBuilder(256);
+
+    CopyRowWriter(final CopyIn copyIn) {
+        this.copyIn = copyIn;
+    }
+
+    @Override
+    public void write(final long rowNumber, final Long id, final String name, final String description, final float price)
+            throws IOException {
+        row.setLength(0);
+        row.append(rowNumber).append(',');
+        if (id != null) {
+            row.append(id);
+        }
+        row.append(',');
+        appendQuoted(row, name);
+        row.append(',');
+        appendQuoted(row, description);
+        row.append(',').append(price).append('\n');
+        buffer.write(row.toString().getBytes(StandardCharsets.UTF_8));
+        if (buffer.size() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the buffered rows to the database.
+     *
+     * @throws IOException if sending fails
+     */
+    void flush() throws IOException {
+        if (buffer.size() == 0) {
+            return;
+        }
+        try {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+        } catch (final SQLException e) {
+            throw new IOException("Failed to write rows to COPY", e);
+        }
+        buffer.reset();
+    }
+
+    /**
+     * Appends a CSV quoted value - quotes inside the value are escaped by doubling them.
+     * Quoting also distinguishes an empty string from NULL, which is an unquoted empty value.
+     */
+    private static void appendQuoted(final StringBuilder builder, final String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"') {
+                builder.append('"');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.store.persistence.jdbc;
+
+import java.time.Instant;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.example.store.persistence.entity.Product;
+
+/**
+ * Entry of the change feed of a tenant, with the current state of the product.
+ *
+ * @param seq       sequence number of the change
+ * @param productId ID of the changed product
+ * @param deleted   whether the product was deleted (tombstone)
+ * @param changedAt time of the change
+ * @param product   current state of the product, {@code null} if it was deleted (by this or a later change)
+ */
+public record ProductChangeEntry(long seq, long productId, boolean deleted, Instant changedAt, @Nullable Product product) {
+}
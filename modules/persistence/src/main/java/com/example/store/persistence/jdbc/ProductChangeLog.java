@@ -0,0 +1,196 @@
+package com.example.store.persistence.jdbc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.entity.ProductChangeHead;
+
+/**
+ * Change feed of products - an append-only log of created, updated and deleted products of each tenant
+ * (tables product_change and product_change_head, see db-schema).
+ * <p>
+ * Changes are recorded in the transaction which changes the products, so they are committed (or rolled back) together.
+ * Sequence numbers of a tenant are allocated by incrementing the last number of its head row, which stays locked until
+ * the transaction commits - changes of a tenant are committed in the order of their numbers, so a reader which has read
+ * up to a number never misses a change committed later. The head row should be locked after the changed products
+ * (record after the product statements), so writers lock rows in the same order.
+ * <p>
+ * The log is bounded by {@link #compact} and {@link #expireTombstones}.
+ */
+@Repository
+public class ProductChangeLog {
+
+    private static final String ALLOCATE_SEQ = "UPDATE product_change_head SET last_seq = last_seq + ? WHERE tenant_id = ?";
+
+    private static final String SELECT_LAST_SEQ = "SELECT last_seq FROM product_change_head WHERE tenant_id = ?";
+
+    private static final String INSERT_HEAD = "INSERT INTO product_change_head (tenant_id, last_seq, horizon_seq) VALUES (?, 0, 0)";
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO product_change (tenant_id, seq, product_id, deleted, changed_at)
+            VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)""";
+
+    private static final String SELECT_HEADS = "SELECT tenant_id, last_seq, horizon_seq FROM product_change_head";
+
+    /**
+     * Products are joined by ID and tenant, and only to changes which are not tombstones.
+     */
+    private static final String SELECT_CHANGES = """
+            SELECT c.seq, c.product_id, c.deleted, c.changed_at, p.name, p.description, p.price, p.version
+            FROM product_change c
+            LEFT JOIN product p ON p.id = c.product_id AND p.tenant_id = c.tenant_id AND NOT c.deleted
+            WHERE c.tenant_id = ? AND c.seq > ?
+            ORDER BY c.seq
+            LIMIT ?""";
+
+    private static final String DELETE_SUPERSEDED = """
+            DELETE FROM product_change c
+            WHERE c.tenant_id = ? AND EXISTS (
+                SELECT 1 FROM product_change n WHERE n.tenant_id = c.tenant_id AND n.product_id = c.product_id AND n.seq > c.seq)""";
+
+    private static final String ADVANCE_HORIZON = """
+            UPDATE product_change_head SET horizon_seq = (
+                SELECT max(seq) FROM product_change WHERE tenant_id = ? AND deleted AND changed_at < ?)
+            WHERE tenant_id = ? AND EXISTS (
+                SELECT 1 FROM product_change WHERE tenant_id = ? AND deleted AND changed_at < ?)""";
+
+    private static final String DELETE_TOMBSTONES = "DELETE FROM product_change WHERE tenant_id = ? AND deleted AND changed_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+
+    @Autowired
+    public ProductChangeLog(final JdbcTemplate jdbcTemplate, final PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Records changes of the specified products of the tenant, in the current transaction.
+     *
+     * @param tenantId   tenant of the products
+     * @param productIds IDs of the created or updated products, or of the deleted products
+     * @param deleted    whether the products were deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(final String tenantId, final Collection<Long> productIds, final boolean deleted) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        if (this.jdbcTemplate.update(ALLOCATE_SEQ, productIds.size(), tenantId) == 0) {
+            createHead(tenantId);
+            this.jdbcTemplate.update(ALLOCATE_SEQ, productIds.size(), tenantId);
+        }
+        final Long lastSeq = this.jdbcTemplate.queryForObject(SELECT_LAST_SEQ, Long.class, tenantId);
+        long seq = lastSeq - productIds.size();
+        final List<Object[]> changes = new ArrayList<>(productIds.size());
+        for (final Long productId : productIds) {
+            changes.add(new Object[] {tenantId, ++seq, productId, deleted});
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_CHANGE, changes);
+    }
+
+    /**
+     * Creates the head of the tenant's change feed if it does not exist yet, in its own transaction -
+     * so concurrent transactions of a new tenant wait for each other's sequence numbers like for an existing one.
+     *
+     * @param tenantId tenant
+     */
+    public void createHead(final String tenantId) {
+        try {
+            this.newTransactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.update(INSERT_HEAD, tenantId));
+        } catch (final DuplicateKeyException e) {
+            // Created by a concurrent transaction
+        }
+    }
+
+    /**
+     * Gets the heads of the change feeds of all tenants which have recorded changes.
+     *
+     * @return heads by tenant
+     */
+    public Map<String, ProductChangeHead> getHeads() {
+        final Map<String, ProductChangeHead> heads = new LinkedHashMap<>();
+        this.jdbcTemplate.query(SELECT_HEADS, resultSet -> {
+            final ProductChangeHead head = new ProductChangeHead(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3));
+            heads.put(head.getTenantId(), head);
+        });
+        return heads;
+    }
+
+    /**
+     * Gets the head of the tenant's change feed.
+     *
+     * @param tenantId tenant
+     * @return head, with sequence numbers 0 if the tenant has no recorded changes
+     */
+    public ProductChangeHead getHead(final String tenantId) {
+        final List<ProductChangeHead> heads = this.jdbcTemplate.query(SELECT_HEADS + " WHERE tenant_id = ?",
+                (resultSet, row) -> new ProductChangeHead(resultSet.getString(1), resultSet.getLong(2), resultSet.getLong(3)),
+                tenantId);
+        return heads.isEmpty() ? new ProductChangeHead(tenantId, 0, 0) : heads.get(0);
+    }
+
+    /**
+     * Gets the changes of the tenant after the specified sequence number, ordered by sequence number.
+     *
+     * @param tenantId tenant
+     * @param since    sequence number after which the changes are returned (exclusive)
+     * @param limit    maximum number of changes
+     * @return changes, with the current state of the changed products
+     */
+    public List<ProductChangeEntry> findChanges(final String tenantId, final long since, final int limit) {
+        return this.jdbcTemplate.query(SELECT_CHANGES, (resultSet, row) -> {
+            final long productId = resultSet.getLong(2);
+            final String name = resultSet.getString(5);
+            final Product product = name == null ? null
+                    : new Product(productId, name, resultSet.getString(6), resultSet.getFloat(7), resultSet.getLong(8));
+            return new ProductChangeEntry(resultSet.getLong(1), productId, resultSet.getBoolean(3),
+                    resultSet.getTimestamp(4).toInstant(), product);
+        }, tenantId, since, limit);
+    }
+
+    /**
+     * Removes changes of the tenant which are superseded by a later change of the same product -
+     * a reader of the later change reads the current state of the product anyway.
+     *
+     * @param tenantId tenant
+     * @return number of removed changes
+     */
+    @Transactional
+    public int compact(final String tenantId) {
+        return this.jdbcTemplate.update(DELETE_SUPERSEDED, tenantId);
+    }
+
+    /**
+     * Removes tombstones of the tenant older than the specified time, and moves the horizon of its feed after them -
+     * readers of changes before the horizon may have missed a deletion, and have to read the feed from the start.
+     *
+     * @param tenantId tenant
+     * @param before   time before which tombstones are removed
+     * @return number of removed tombstones
+     */
+    @Transactional
+    public int expireTombstones(final String tenantId, final Instant before) {
+        final Timestamp timestamp = Timestamp.from(before);
+        this.jdbcTemplate.update(ADVANCE_HORIZON, tenantId, timestamp, tenantId, tenantId, timestamp);
+        return this.jdbcTemplate.update(DELETE_TOMBSTONES, tenantId, timestamp);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.store.persistence.jdbc;
+
+/**
+ * Consumes the columns of product rows, without creating an object per row.
+ */
+@FunctionalInterface
+public interface ProductColumnConsumer {
+
+    /**
+     * Consumes a single product row.
+     *
+     * @param id    product ID
+     * @param name  product name
+     * @param price product price
+     */
+    void accept(long id, String name, float price);
+}
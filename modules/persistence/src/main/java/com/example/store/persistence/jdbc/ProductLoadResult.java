@@ -0,0 +1,15 @@
+package com.example.store.persistence.jdbc;
+
+import java.util.List;
+
+/**
+ * Result of a bulk load of products.
+ *
+ * @param inserted     number of inserted products
+ * @param updated      number of updated (existing) products
+ * @param rejected     number of rows with the ID of no product of the tenant, which were not loaded
+ * @param rejectedRows numbers of the rejected rows (see {@link ProductRowWriter#write}), in ascending order - limited to
+ *                     the first ones
+ */
+public record ProductLoadResult(long inserted, long updated, long rejected, List<Long> rejectedRows) {
+}
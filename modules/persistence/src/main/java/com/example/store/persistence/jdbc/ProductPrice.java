@@ -0,0 +1,11 @@
+package com.example.store.persistence.jdbc;
+
+/**
+ * New price of a product.
+ *
+ * @param tenantId tenant of the product
+ * @param id       product ID
+ * @param price    new price
+ */
+public record ProductPrice(String tenantId, long id, float price) {
+}
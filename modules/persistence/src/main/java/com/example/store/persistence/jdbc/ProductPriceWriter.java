@@ -0,0 +1,84 @@
+package com.example.store.persistence.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+/**
+ * Writes product prices with a single JDBC batch of updates, which only change the price (and the version) of each product.
+ * Updated products are recorded in the change feed (see {@link ProductChangeLog}).
+ * <p>
+ * Prices are written behind, so a product may be updated by a later request while its price is being written.
+ * The caller tells whether the prices are still current once the products are updated (and locked) - an update
+ * which discards prices before it commits is then either written after the prices, or the prices are rolled back.
+ */
+@Repository
+public class ProductPriceWriter {
+
+    private static final String UPDATE_PRICE = "UPDATE product SET price = ?, version = version + 1 WHERE id = ? AND tenant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductChangeLog productChangeLog;
+
+    @Autowired
+    public ProductPriceWriter(final JdbcTemplate jdbcTemplate, final ProductChangeLog productChangeLog) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productChangeLog = productChangeLog;
+    }
+
+    /**
+     * Updates the prices of the specified products, in a single transaction.
+     * Prices should be ordered by product ID, so concurrent writers lock the rows in the same order.
+     *
+     * @param prices  new prices, at most one per product
+     * @param current tells whether all prices are still current, called once the products are locked
+     * @return whether each product was updated - {@code false} if the tenant has no product with the ID,
+     * {@code null} if the transaction was rolled back because some prices were not current anymore
+     */
+    @Nullable
+    @Transactional
+    public boolean[] updatePrices(final List<ProductPrice> prices, final BooleanSupplier current) {
+        final int[] updateCounts = this.jdbcTemplate.batchUpdate(UPDATE_PRICE, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(final PreparedStatement statement, final int i) throws SQLException {
+                statement.setFloat(1, prices.get(i).price());
+                statement.setLong(2, prices.get(i).id());
+                statement.setString(3, prices.get(i).tenantId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return prices.size();
+            }
+        });
+        if (!current.getAsBoolean()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return null;
+        }
+        final boolean[] updated = new boolean[updateCounts.length];
+        // Ordered by tenant, so concurrent writers lock the heads of the change feeds in the same order
+        final Map<String, List<Long>> updatedIds = new TreeMap<>();
+        for (int i = 0; i < updateCounts.length; i++) {
+            // Drivers may not report the count of each statement of a batch
+            updated[i] = updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO;
+            if (updated[i]) {
+                updatedIds.computeIfAbsent(prices.get(i).tenantId(), tenantId -> new ArrayList<>()).add(prices.get(i).id());
+            }
+        }
+        updatedIds.forEach((tenantId, ids) -> this.productChangeLog.record(tenantId, ids, false));
+        return updated;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.store.persistence.jdbc;
+
+import java.io.IOException;
+
+/**
+ * Source of product rows for a bulk load, e.g. a parsed upload.
+ */
+@FunctionalInterface
+public interface ProductRowSource {
+
+    /**
+     * Writes all rows of this source to the specified writer.
+     *
+     * @param writer row writer
+     * @throws IOException if reading the source or writing the rows fails
+     */
+    void writeTo(ProductRowWriter writer) throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.example.store.persistence.jdbc;
+
+import java.io.IOException;
+
+/**
+ * Writes product rows to a bulk load.
+ */
+@FunctionalInterface
+public interface ProductRowWriter {
+
+    /**
+     * Writes a single product row.
+     *
+     * @param row         number of the row in the source, which identifies rejected rows (see {@link ProductLoadResult})
+     * @param id          product ID, {@code null} for new products
+     * @param name        product name
+     * @param description product description
+     * @param price       product price
+     * @throws IOException if the row cannot be written
+     */
+    void write(long row, Long id, String name, String description, float price) throws IOException;
+}
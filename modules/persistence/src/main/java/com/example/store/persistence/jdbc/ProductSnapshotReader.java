@@ -0,0 +1,56 @@
+package com.example.store.persistence.jdbc;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads the columns of all products of a tenant which are needed for an in-memory snapshot, together with
+ * the position in the tenant's change feed (see {@link ProductChangeLog}) the products are current at.
+ */
+@Repository
+public class ProductSnapshotReader {
+
+    /**
+     * Number of rows fetched from the database per round-trip.
+     */
+    static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT_LAST_SEQ = "SELECT last_seq FROM product_change_head WHERE tenant_id = ?";
+
+    private static final String SELECT_PRODUCTS = "SELECT id, name, price FROM product WHERE tenant_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductSnapshotReader(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads all products of the tenant. The transaction is required - the JDBC driver only uses a cursor (instead of
+     * fetching all rows at once) when auto-commit is disabled - and repeatable read, so the products and the sequence
+     * number are read from the same database snapshot.
+     *
+     * @param tenantId tenant of the products
+     * @param consumer consumer of the product rows
+     * @return sequence number of the last change of the tenant contained in the products, 0 if the tenant has no changes
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public long read(final String tenantId, final ProductColumnConsumer consumer) {
+        final List<Long> lastSeq = this.jdbcTemplate.queryForList(SELECT_LAST_SEQ, Long.class, tenantId);
+        this.jdbcTemplate.query(connection -> {
+            final PreparedStatement statement = connection.prepareStatement(SELECT_PRODUCTS);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, tenantId);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(resultSet.getLong(1), resultSet.getString(2), resultSet.getFloat(3)));
+        return lastSeq.isEmpty() ? 0 : lastSeq.get(0);
+    }
+}
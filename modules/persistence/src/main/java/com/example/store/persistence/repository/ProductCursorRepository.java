@@ -0,0 +1,21 @@
+package com.example.store.persistence.repository;
+
+import java.util.function.Consumer;
+
+import com.example.store.persistence.entity.Product;
+
+/**
+ * Repository fragment for reading all products through a forward-only database cursor,
+ * without loading the whole table into memory.
+ */
+public interface ProductCursorRepository {
+
+    /**
+     * Passes every product, ordered by ID, to the specified consumer.
+     * Products are read in chunks of {@link ProductCursorRepositoryImpl#FETCH_SIZE} rows
+     * and detached after they are consumed, so memory usage does not depend on the table size.
+     *
+     * @param consumer consumer of products
+     */
+    void forEachProduct(Consumer<Product> consumer);
+}
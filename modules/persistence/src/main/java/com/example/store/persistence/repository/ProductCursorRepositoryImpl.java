@@ -0,0 +1,46 @@
+package com.example.store.persistence.repository;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.store.persistence.entity.Product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Default implementation of {@link ProductCursorRepository}.
+ */
+class ProductCursorRepositoryImpl implements ProductCursorRepository {
+
+    /**
+     * Number of rows fetched from the database per round-trip.
+     */
+    static final int FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The transaction is required - the JDBC driver only uses a cursor (instead of fetching all rows at once)
+     * when auto-commit is disabled.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachProduct(final Consumer<Product> consumer) {
+        try (Stream<Product> products = this.entityManager
+                .createQuery("select p from Product p order by p.id", Product.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            products.forEach(product -> {
+                consumer.accept(product);
+                // Keep the persistence context from growing with every row
+                this.entityManager.detach(product);
+            });
+        }
+    }
+}
@@ -1,13 +1,120 @@
 package com.example.store.persistence.repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.store.persistence.entity.Product;
 
+/**
+ * Repository of products. JPA queries only return products of the current tenant (restricted by Hibernate),
+ * native queries are restricted to it explicitly (see {@link com.example.store.persistence.tenant.TenantContext}).
+ */
 @Repository
 @Transactional
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductCursorRepository, ProductUpdateRepository {
+
+    // Reading methods run in read-only transactions, which can be routed to read replicas (see ReadReplicaRoutingDataSource)
+
+    @Override
+    @Transactional(readOnly = true)
+    List<Product> findAll();
+
+    @Override
+    @Transactional(readOnly = true)
+    Optional<Product> findById(Long id);
+
+    @Override
+    @Transactional(readOnly = true)
+    <S extends Product, R> R findBy(Specification<Product> spec, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction);
+
+    /**
+     * Finds products with an ID greater than the specified one, ordered by ID (keyset pagination).
+     *
+     * @param after ID after which the products are returned (exclusive)
+     * @param limit maximum number of returned products
+     * @return products ordered by ID
+     */
+    @Transactional(readOnly = true)
+    List<Product> findByIdGreaterThanOrderByIdAsc(long after, Limit limit);
+
+    /**
+     * Finds which of the specified IDs exist, with a single query.
+     *
+     * @param ids product IDs
+     * @return IDs of existing products
+     */
+    @Transactional(readOnly = true)
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the product with the specified ID with a single statement, without loading it first.
+     *
+     * @param id product ID
+     * @return number of deleted products, 0 if the product does not exist
+     */
+    @Modifying
+    @Query("delete from Product p where p.id = :id")
+    int deleteProductById(@Param("id") long id);
+
+    /**
+     * Searches products of the current tenant with a full-text query over name and description (PostgreSQL only,
+     * see db-schema), ordered by rank (descending) and ID. Only the most relevant matches are paged through, which bounds
+     * the memory of sorting queries matching a large part of the catalog and keeps pages of such queries consistent.
+     *
+     * @param tsquery       full-text query, in {@code to_tsquery} syntax
+     * @param afterRank     rank of the last product of the previous page, {@link Float#MAX_VALUE} for the first page
+     * @param afterId       ID of the last product of the previous page, 0 for the first page
+     * @param maxCandidates maximum number of the most relevant matching products which are paged through
+     * @param limit         maximum number of returned products
+     * @return found products with their rank
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value = """
+            SELECT id, name, description, price, version, rank FROM (
+                SELECT p.id, p.name, p.description, p.price, p.version,
+                    CAST(ts_rank_cd(p.search_vector, q.query) AS real) AS rank
+                FROM to_tsquery('english', :tsquery) AS q(query)
+                JOIN product p ON p.tenant_id = :#{T(com.example.store.persistence.tenant.TenantContext).getTenantId()}
+                    AND p.search_vector @@ q.query
+                ORDER BY rank DESC, p.id LIMIT :maxCandidates
+            ) AS hits
+            WHERE rank < :afterRank OR (rank = :afterRank AND id > :afterId)
+            ORDER BY rank DESC, id
+            LIMIT :limit""")
+    List<ProductSearchHit> searchProducts(@Param("tsquery") String tsquery,
+                                          @Param("afterRank") float afterRank,
+                                          @Param("afterId") long afterId,
+                                          @Param("maxCandidates") int maxCandidates,
+                                          @Param("limit") int limit);
 
+    /**
+     * Finds words of product names of the current tenant similar to the specified word, by trigram similarity
+     * (PostgreSQL only, see db-schema).
+     *
+     * @param word  word, in lower case
+     * @param limit maximum number of returned words
+     * @return similar words, the word itself first if it is used in product names, then the most similar ones
+     */
+    @Transactional(readOnly = true)
+    @Query(nativeQuery = true, value = """
+            SELECT word FROM product_search_word
+            WHERE tenant_id = :#{T(com.example.store.persistence.tenant.TenantContext).getTenantId()} AND word % :word
+            ORDER BY word = :word DESC, similarity(word, :word) DESC, word
+            LIMIT :limit""")
+    List<String> findSimilarSearchWords(@Param("word") String word, @Param("limit") int limit);
 }
@@ -0,0 +1,22 @@
+package com.example.store.persistence.repository;
+
+/**
+ * Product found by {@link ProductRepository#searchProducts}, with its relevance.
+ */
+public interface ProductSearchHit {
+
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Float getPrice();
+
+    Long getVersion();
+
+    /**
+     * Relevance of the product, greater is more relevant.
+     */
+    Float getRank();
+}
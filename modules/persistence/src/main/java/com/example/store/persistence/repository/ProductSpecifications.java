@@ -0,0 +1,79 @@
+package com.example.store.persistence.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.store.persistence.entity.Product;
+
+import jakarta.persistence.criteria.Path;
+
+/**
+ * Predicates of filtered product listings, used with {@link ProductRepository#findBy}.
+ * Each predicate matches a range of an index (see db-schema), so the listing reads only the matching products.
+ */
+public final class ProductSpecifications {
+
+    public static final String ID = "id";
+    public static final String NAME = "name";
+    public static final String PRICE = "price";
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * Matches products with a price greater than or equal to the specified one.
+     */
+    public static Specification<Product> priceAtLeast(final float minPrice) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get(PRICE), minPrice);
+    }
+
+    /**
+     * Matches products with a price less than or equal to the specified one.
+     */
+    public static Specification<Product> priceAtMost(final float maxPrice) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get(PRICE), maxPrice);
+    }
+
+    /**
+     * Matches products with a name starting with the specified prefix (case-sensitive).
+     */
+    public static Specification<Product> nameStartsWith(final String prefix) {
+        final String pattern = prefix
+                .replace(String.valueOf(LIKE_ESCAPE), "" + LIKE_ESCAPE + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_") + "%";
+        return (root, query, builder) -> builder.like(root.get(NAME), pattern, LIKE_ESCAPE);
+    }
+
+    /**
+     * Matches products after the specified one in a listing ordered by the attribute and then by ID (keyset pagination).
+     *
+     * @param attribute  attribute by which the listing is ordered
+     * @param value      attribute value of the last product of the previous page
+     * @param id         ID of the last product of the previous page
+     * @param descending whether the listing is in descending order (of both the attribute and ID)
+     */
+    public static <T extends Comparable<? super T>> Specification<Product> after(final String attribute, final T value,
+                                                                                  final long id, final boolean descending) {
+        return (root, query, builder) -> {
+            final Path<T> attributePath = root.get(attribute);
+            final Path<Long> idPath = root.get(ID);
+            if (descending) {
+                return builder.or(builder.lessThan(attributePath, value),
+                        builder.and(builder.equal(attributePath, value), builder.lessThan(idPath, id)));
+            }
+            return builder.or(builder.greaterThan(attributePath, value),
+                    builder.and(builder.equal(attributePath, value), builder.greaterThan(idPath, id)));
+        };
+    }
+
+    /**
+     * Matches products after the specified ID in a listing ordered by ID.
+     */
+    public static Specification<Product> afterId(final long id, final boolean descending) {
+        return (root, query, builder) -> descending
+                ? builder.lessThan(root.get(ID), id)
+                : builder.greaterThan(root.get(ID), id);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.store.persistence.repository;
+
+import java.util.Optional;
+
+import com.example.store.persistence.entity.Product;
+
+/**
+ * Repository fragment for updating a product with a single statement, without loading it first.
+ */
+public interface ProductUpdateRepository {
+
+    /**
+     * Updates name, description and price of the product with the ID of the specified product, and increments its version.
+     * Products already loaded in the current persistence context are not refreshed.
+     *
+     * @param product         product with the ID and the new values
+     * @param expectedVersion version the product must have to be updated, {@code null} to update any version
+     * @return updated product (detached), empty if there is no product with the ID and the expected version
+     */
+    Optional<Product> updateProduct(Product product, Long expectedVersion);
+}
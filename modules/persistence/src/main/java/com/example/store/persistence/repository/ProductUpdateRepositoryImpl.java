@@ -0,0 +1,72 @@
+package com.example.store.persistence.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.tenant.TenantContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+/**
+ * Default implementation of {@link ProductUpdateRepository}.
+ * <p>
+ * The updated row is returned by the update statement itself - with {@code RETURNING} on PostgreSQL,
+ * and with a data change delta table ({@code FINAL TABLE}) on H2, which is used by tests.
+ */
+class ProductUpdateRepositoryImpl implements ProductUpdateRepository {
+
+    private static final String UPDATE = """
+            UPDATE product SET name = :name, description = :description, price = :price, version = version + 1
+            WHERE id = :id AND tenant_id = :tenantId""";
+
+    private static final String VERSION_CONDITION = " AND version = :expectedVersion";
+
+    private static final String RETURNED_COLUMNS = "id, name, description, price, version";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public Optional<Product> updateProduct(final Product product, final Long expectedVersion) {
+        final String update = expectedVersion == null ? UPDATE : UPDATE + VERSION_CONDITION;
+        final String sql = isPostgreSql()
+                ? update + " RETURNING " + RETURNED_COLUMNS
+                : "SELECT " + RETURNED_COLUMNS + " FROM FINAL TABLE (" + update + ")";
+        final Query query = this.entityManager.createNativeQuery(sql)
+                .setParameter("id", product.getId())
+                // Native statements are not restricted to the tenant of the session by Hibernate
+                .setParameter("tenantId", TenantContext.getTenantId())
+                .setParameter("name", product.getName())
+                .setParameter("description", product.getDescription())
+                .setParameter("price", product.getPrice());
+        if (expectedVersion != null) {
+            query.setParameter("expectedVersion", expectedVersion);
+        }
+        final List<?> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        final Object[] row = (Object[]) rows.get(0);
+        return Optional.of(new Product(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                (String) row[2],
+                ((Number) row[3]).floatValue(),
+                ((Number) row[4]).longValue()));
+    }
+
+    private boolean isPostgreSql() {
+        return this.entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.store.persistence.tenant;
+
+import java.util.regex.Pattern;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Tenant (storefront) of the current thread. Products of a tenant are only visible to the tenant -
+ * JPA queries are restricted by Hibernate ({@link org.hibernate.annotations.TenantId} of the product),
+ * native queries with the tenant from this context.
+ * <p>
+ * Threads without a tenant (e.g. background tasks, single-tenant deployments) use the {@value #DEFAULT_TENANT} tenant.
+ */
+public final class TenantContext {
+
+    /**
+     * Tenant of products created before multi-tenancy, and of threads without a tenant.
+     */
+    public static final String DEFAULT_TENANT = "default";
+
+    /**
+     * Tenant IDs are lower case letters, digits and hyphens - safe as metric tags, cache keys and in notifications.
+     */
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z0-9][a-z0-9-]{0,62}");
+
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * Sets the tenant of the current thread, until {@link #clear()}.
+     *
+     * @throws IllegalArgumentException if the tenant ID is not valid
+     */
+    public static void setTenantId(@NotNull final String tenantId) {
+        if (!isValid(tenantId)) {
+            throw new IllegalArgumentException("Invalid tenant ID '" + tenantId + "'");
+        }
+        TENANT.set(tenantId);
+    }
+
+    /**
+     * Resets the tenant of the current thread to the default one.
+     */
+    public static void clear() {
+        TENANT.remove();
+    }
+
+    /**
+     * @return tenant of the current thread, {@value #DEFAULT_TENANT} if not set
+     */
+    @NotNull
+    public static String getTenantId() {
+        final String tenantId = TENANT.get();
+        return tenantId == null ? DEFAULT_TENANT : tenantId;
+    }
+
+    /**
+     * @return whether the specified tenant ID is valid
+     */
+    public static boolean isValid(final String tenantId) {
+        return tenantId != null && TENANT_ID.matcher(tenantId).matches();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.store.persistence.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Resolves the tenant of Hibernate sessions from {@link TenantContext} - set with the property
+ * {@code hibernate.tenant_identifier_resolver}. The tenant of a session is resolved when the session is opened,
+ * and restricts all its JPA queries and sets the tenant of the products it creates.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @NotNull
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.getTenantId();
+    }
+
+    /**
+     * Sessions are managed by Spring, not as Hibernate current sessions.
+     */
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.store.persistence.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests routing of {@link ReadReplicaRoutingDataSource}, with in-memory H2 databases as the primary and the replicas.
+ * Each database has a table with its name, so the queries show which database they were routed to.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private final List<Connection> openConnections = new ArrayList<>();
+
+    private ReadReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        final Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica1"));
+        replicas.put("replica-2", database("replica2"));
+        // Does not exist until created by a test
+        replicas.put("replica-3", new DriverManagerDataSource("jdbc:h2:mem:replica3;IFEXISTS=TRUE", "sa", ""));
+        routingDataSource = new ReadReplicaRoutingDataSource(database("primary"), replicas);
+
+        final DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        DataSourceRouting.clear();
+        for (final Connection connection : openConnections) {
+            connection.close();
+        }
+    }
+
+    @Test
+    void testReadWriteTransaction_primary() {
+        assertEquals("primary", readWriteTransaction.execute(status -> database()));
+        // Outside of transactions
+        assertEquals("primary", database());
+    }
+
+    @Test
+    void testReadOnlyTransaction_replicasInTurn() {
+        // replica-3 fails and is marked unhealthy
+        final List<String> databases = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            databases.add(readOnlyTransaction.execute(status -> database()));
+        }
+        // The connection of the failed replica is obtained from the primary
+        assertEquals(List.of("replica1", "replica2", "primary"), databases.subList(0, 3));
+        assertEquals(Set.of("replica1", "replica2"), Set.copyOf(databases.subList(3, 5)));
+        assertEquals(List.of("replica-1", "replica-2"), routingDataSource.getHealthyReplicas());
+    }
+
+    @Test
+    void testReadOnlyTransaction_primaryRequired() {
+        DataSourceRouting.requirePrimary();
+        assertEquals("primary", readOnlyTransaction.execute(status -> database()));
+        DataSourceRouting.clear();
+        assertEquals("replica1", readOnlyTransaction.execute(status -> database()));
+    }
+
+    @Test
+    void testReadOnlyTransaction_onPrimary() {
+        assertEquals("primary", DataSourceRouting.onPrimary(() -> readOnlyTransaction.execute(status -> database())));
+        assertEquals("replica1", readOnlyTransaction.execute(status -> database()));
+
+        // Primary required before stays required
+        DataSourceRouting.requirePrimary();
+        DataSourceRouting.onPrimary(() -> readOnlyTransaction.execute(status -> database()));
+        assertEquals("primary", readOnlyTransaction.execute(status -> database()));
+    }
+
+    @Test
+    void testReadOnlyBeginning_replica() throws SQLException {
+        // Connection obtained while ReadReplicaJpaDialect begins a read-only transaction, without a lazy proxy
+        DataSourceRouting.setReadOnlyBeginning(true);
+        try (Connection connection = routingDataSource.getConnection()) {
+            DataSourceRouting.setReadOnlyBeginning(false);
+            assertEquals("replica1", new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM node", String.class));
+        }
+        try (Connection connection = routingDataSource.getConnection()) {
+            assertEquals("primary", new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+
+    @Test
+    void testCheckReplicas() throws SQLException {
+        routingDataSource.checkReplicas(1);
+        assertEquals(List.of("replica-1", "replica-2"), routingDataSource.getHealthyReplicas());
+
+        database("replica3");
+        routingDataSource.checkReplicas(1);
+        assertEquals(List.of("replica-1", "replica-2", "replica-3"), routingDataSource.getHealthyReplicas());
+    }
+
+    @Test
+    void testNoHealthyReplicas_primary() throws SQLException {
+        final ReadReplicaRoutingDataSource primaryOnly = new ReadReplicaRoutingDataSource(database("primary"), Map.of(
+                "replica-1", new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "")));
+        primaryOnly.checkReplicas(1);
+        final TransactionTemplate transaction = new TransactionTemplate(
+                new DataSourceTransactionManager(new LazyConnectionDataSourceProxy(primaryOnly)));
+        transaction.setReadOnly(true);
+        assertEquals("primary", transaction.execute(status -> new JdbcTemplate(new LazyConnectionDataSourceProxy(primaryOnly))
+                .queryForObject("SELECT name FROM node", String.class)));
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    /**
+     * Creates an in-memory database with its name in table node. The database exists while the test runs.
+     */
+    private DataSource database(final String name) throws SQLException {
+        final DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name, "sa", "");
+        final Connection connection = dataSource.getConnection();
+        openConnections.add(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS node (name varchar(20))");
+            statement.execute("DELETE FROM node");
+            statement.execute("INSERT INTO node VALUES ('" + name + "')");
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.store.persistence.jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyIn;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests CSV encoding of {@link CopyRowWriter}.
+ */
+class CopyRowWriterTest {
+
+    private CopyIn copyIn;
+    private ByteArrayOutputStream copied;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        copyIn = mock(CopyIn.class);
+        copied = new ByteArrayOutputStream();
+        doAnswer(i -> {
+            copied.write(i.getArgument(0, byte[].class), i.getArgument(1, Integer.class), i.getArgument(2, Integer.class));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+    }
+
+    @Test
+    void testWrite() throws Exception {
+        final CopyRowWriter writer = new CopyRowWriter(copyIn);
+        writer.write(1, 1L, "Chair", "Wooden chair", 35f);
+        writer.write(2, null, "Table", "Says \"hi\", \nin two lines", 0.5f);
+        writer.flush();
+
+        final String expected = "1,1,\"Chair\",\"Wooden chair\",35.0\n"
+                + "2,,\"Table\",\"Says \"\"hi\"\", \nin two lines\",0.5\n";
+        assertEquals(expected, copied.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testWrite_buffered() throws Exception {
+        final CopyRowWriter writer = new CopyRowWriter(copyIn);
+        writer.write(1, 1L, "Chair", "Wooden chair", 35f);
+        // Nothing is sent until the buffer is full or flushed
+        verify(copyIn, never()).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        final String description = "x".repeat(CopyRowWriter.BUFFER_SIZE);
+        writer.write(2, 2L, "Table", description, 1f);
+        verify(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+    }
+}
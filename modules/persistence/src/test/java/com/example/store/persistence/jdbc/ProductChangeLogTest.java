@@ -0,0 +1,90 @@
+package com.example.store.persistence.jdbc;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.TestConfig;
+import com.example.store.persistence.tenant.TenantContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ProductChangeLog}. Heads of new tenants are created in their own transactions (committed),
+ * so each test uses its own tenant, or sequence numbers relative to the head.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestConfig.class)
+@Import(ProductChangeLog.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductChangeLogTest {
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testRecord() {
+        final String tenant = TenantContext.DEFAULT_TENANT;
+        final long lastSeq = productChangeLog.getHead(tenant).getLastSeq();
+        final Product chair = productRepository.saveAndFlush(new Product(null, "Chair", "Wooden chair", 35f));
+        final Product table = productRepository.saveAndFlush(new Product(null, "Table", "Wooden table", 120f));
+
+        productChangeLog.record(tenant, List.of(chair.getId(), table.getId()), false);
+        productRepository.delete(table);
+        productRepository.flush();
+        productChangeLog.record(tenant, List.of(table.getId()), true);
+        // Sequence numbers are allocated per tenant
+        productChangeLog.record("record-other", List.of(chair.getId()), false);
+
+        final List<ProductChangeEntry> changes = productChangeLog.findChanges(tenant, lastSeq, 10);
+        assertEquals(List.of(lastSeq + 1, lastSeq + 2, lastSeq + 3), changes.stream().map(ProductChangeEntry::seq).toList());
+        assertEquals("Chair", changes.get(0).product().getName());
+        // Deleted product
+        assertNull(changes.get(1).product());
+        assertTrue(changes.get(2).deleted());
+        assertEquals(1, productChangeLog.findChanges(tenant, lastSeq + 2, 10).size());
+        assertEquals(1, productChangeLog.findChanges(tenant, lastSeq, 1).size());
+
+        assertEquals(lastSeq + 3, productChangeLog.getHead(tenant).getLastSeq());
+        assertEquals(1, productChangeLog.getHeads().get("record-other").getLastSeq());
+        // Products of another tenant are not joined
+        assertNull(productChangeLog.findChanges("record-other", 0, 10).get(0).product());
+    }
+
+    @Test
+    void testGetHead_noChanges() {
+        final ProductChangeHead head = productChangeLog.getHead("none");
+        assertEquals(0, head.getLastSeq());
+        assertEquals(0, head.getHorizonSeq());
+    }
+
+    @Test
+    void testCompact() {
+        productChangeLog.record("compact", List.of(1L, 2L), false);
+        productChangeLog.record("compact", List.of(1L), false);
+        productChangeLog.record("compact", List.of(2L), true);
+
+        assertEquals(2, productChangeLog.compact("compact"));
+        assertEquals(List.of(3L, 4L), productChangeLog.findChanges("compact", 0, 10).stream().map(ProductChangeEntry::seq).toList());
+
+        // Tombstones expire after the retention, readers before them have to start over
+        assertEquals(0, productChangeLog.expireTombstones("compact", Instant.now().minusSeconds(60)));
+        assertEquals(1, productChangeLog.expireTombstones("compact", Instant.now().plusSeconds(60)));
+        assertEquals(List.of(3L), productChangeLog.findChanges("compact", 0, 10).stream().map(ProductChangeEntry::seq).toList());
+        assertEquals(4, productChangeLog.getHead("compact").getHorizonSeq());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.store.persistence.jdbc;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import liquibase.integration.spring.SpringLiquibase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests of {@link ProductCopyLoader} with an embedded PostgreSQL, since COPY and the merge statement are
+ * PostgreSQL specific. The schema is created by the changelog of db-schema. Each test loads products of its own tenant.
+ */
+class ProductCopyLoaderIT {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+    private static ProductChangeLog productChangeLog;
+    private static ProductCopyLoader productCopyLoader;
+
+    @BeforeAll
+    static void setUpDatabase() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        final DataSource dataSource = postgres.getPostgresDatabase();
+        final SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:/db/changelog.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        productChangeLog = new ProductChangeLog(jdbcTemplate, transactionManager);
+        productCopyLoader = new ProductCopyLoader(jdbcTemplate, productChangeLog);
+    }
+
+    @AfterAll
+    static void tearDownDatabase() throws IOException {
+        postgres.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void testLoad_insert() {
+        final ProductLoadResult result = load("insert", row(null, "Chair", 35f), row(null, "Table", 120f));
+
+        assertEquals(new ProductLoadResult(2, 0, 0, List.of()), result);
+        final List<Long> ids = findIds("insert");
+        assertEquals(List.of("Chair", "Table"), findNames("insert"));
+        // Inserted products are recorded in the change feed
+        assertEquals(ids, productChangeLog.findChanges("insert", 0, 10).stream()
+                .map(change -> change.product().getId()).toList());
+    }
+
+    @Test
+    void testLoad_updateById() {
+        load("update", row(null, "Chair", 35f), row(null, "Table", 120f));
+        final long chairId = findIds("update").get(0);
+
+        // The last row of the same ID wins
+        final ProductLoadResult result = load("update", row(chairId, "Stool", 20f), row(chairId, "Armchair", 90f));
+
+        assertEquals(new ProductLoadResult(0, 1, 0, List.of()), result);
+        assertEquals(List.of("Armchair", "Table"), findNames("update"));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT version FROM product WHERE id = ?", Long.class, chairId));
+        assertEquals(3, productChangeLog.getHead("update").getLastSeq());
+    }
+
+    @Test
+    void testLoad_idOfOtherTenant() {
+        load("owner", row(null, "Chair", 35f));
+        final long chairId = findIds("owner").get(0);
+
+        final ProductLoadResult result = load("other", row(chairId, "Stool", 20f), row(null, "Table", 120f));
+
+        assertEquals(new ProductLoadResult(1, 0, 1, List.of(1L)), result);
+        // The product of the owner is not changed, nor inserted again for the other tenant
+        assertEquals(List.of("Chair"), findNames("owner"));
+        assertEquals(List.of("Table"), findNames("other"));
+    }
+
+    @Test
+    void testLoad_mixed() {
+        load("mixed", row(null, "Chair", 35f));
+        final long chairId = findIds("mixed").get(0);
+        final long unknownId = jdbcTemplate.queryForObject("SELECT max(id) + 1000 FROM product", Long.class);
+
+        // More new products than one block of sequence IDs (50), with IDs between them
+        final Row[] rows = Stream.concat(
+                Stream.of(row(unknownId, "Bench", 80f), row(chairId, "Stool", 20f)),
+                IntStream.range(0, 60).mapToObj(i -> row(i == 30 ? unknownId + 1 : null, "Box " + i, i))).toArray(Row[]::new);
+        final ProductLoadResult result = load("mixed", rows);
+
+        assertEquals(new ProductLoadResult(59, 1, 2, List.of(1L, 33L)), result);
+        final List<Long> ids = findIds("mixed");
+        assertEquals(60, ids.size());
+        assertEquals(ids.size(), ids.stream().distinct().count());
+        assertEquals("Stool", jdbcTemplate.queryForObject("SELECT name FROM product WHERE id = ?", String.class, chairId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM product WHERE id IN (?, ?)", Long.class,
+                unknownId, unknownId + 1));
+        assertEquals(61, productChangeLog.getHead("mixed").getLastSeq());
+    }
+
+    @Test
+    void testLoad_rejectedRowsAreLimited() {
+        TenantContext.setTenantId("limited");
+        final ProductLoadResult result = transactionTemplate.execute(status -> productCopyLoader.load(writer -> {
+            for (long row = 1; row <= 5; row++) {
+                writer.write(row, -row, "Chair", "Wooden chair", 35f);
+            }
+        }, 2));
+
+        assertEquals(new ProductLoadResult(0, 0, 5, List.of(1L, 2L)), result);
+    }
+
+    private static ProductLoadResult load(final String tenantId, final Row... rows) {
+        TenantContext.setTenantId(tenantId);
+        return transactionTemplate.execute(status -> productCopyLoader.load(writer -> {
+            for (int i = 0; i < rows.length; i++) {
+                writer.write(i + 1, rows[i].id(), rows[i].name(), rows[i].name(), rows[i].price());
+            }
+        }, 10));
+    }
+
+    private static List<Long> findIds(final String tenantId) {
+        return jdbcTemplate.queryForList("SELECT id FROM product WHERE tenant_id = ? ORDER BY id", Long.class, tenantId);
+    }
+
+    private static List<String> findNames(final String tenantId) {
+        return jdbcTemplate.queryForList("SELECT name FROM product WHERE tenant_id = ? ORDER BY id", String.class, tenantId);
+    }
+
+    private static Row row(final Long id, final String name, final float price) {
+        return new Row(id, name, price);
+    }
+
+    private record Row(Long id, String name, float price) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.store.persistence.jdbc;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.TestConfig;
+import com.example.store.persistence.tenant.TenantContext;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ContextConfiguration(classes = TestConfig.class)
+@Import({ProductPriceWriter.class, ProductChangeLog.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductPriceWriterTest {
+
+    @Autowired
+    private ProductPriceWriter productPriceWriter;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void testUpdatePrices() {
+        final Product chair = productRepository.saveAndFlush(new Product(null, "Chair", "Wooden chair", 35f));
+        final Product table = productRepository.saveAndFlush(new Product(null, "Table", "Wooden table", 120f));
+
+        final boolean[] updated = productPriceWriter.updatePrices(List.of(
+                new ProductPrice(TenantContext.DEFAULT_TENANT, chair.getId(), 29.9f),
+                new ProductPrice(TenantContext.DEFAULT_TENANT, table.getId(), 99f),
+                new ProductPrice(TenantContext.DEFAULT_TENANT, 999L, 1f),
+                // Products of other tenants are not updated
+                new ProductPrice("other", table.getId(), 1f)), () -> true);
+
+        assertArrayEquals(new boolean[] {true, true, false, false}, updated);
+        // Written with JDBC, so the products are loaded again
+        entityManager.clear();
+        final Product updatedChair = productRepository.findById(chair.getId()).orElseThrow();
+        assertEquals(29.9f, updatedChair.getPrice());
+        // Price updates change the version (ETag) of the product
+        assertEquals(chair.getVersion() + 1, updatedChair.getVersion());
+        assertEquals(99f, productRepository.findById(table.getId()).orElseThrow().getPrice());
+        // Updated products are recorded in the change feed
+        final long lastSeq = productChangeLog.getHead(TenantContext.DEFAULT_TENANT).getLastSeq();
+        assertEquals(List.of(chair.getId(), table.getId()), productChangeLog.findChanges(TenantContext.DEFAULT_TENANT, lastSeq - 2, 10)
+                .stream().map(ProductChangeEntry::productId).toList());
+    }
+
+    @Test
+    void testUpdatePrices_notCurrent() {
+        final Product chair = productRepository.saveAndFlush(new Product(null, "Chair", "Wooden chair", 35f));
+
+        // The price is discarded (e.g. by an update of the chair) once the chair is locked
+        final boolean[] updated = productPriceWriter.updatePrices(List.of(
+                new ProductPrice(TenantContext.DEFAULT_TENANT, chair.getId(), 29.9f)), () -> false);
+
+        assertNull(updated);
+        assertTrue(TestTransaction.isFlaggedForRollback());
+    }
+}
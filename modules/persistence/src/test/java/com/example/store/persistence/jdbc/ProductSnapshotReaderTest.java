@@ -0,0 +1,62 @@
+package com.example.store.persistence.jdbc;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.TestConfig;
+import com.example.store.persistence.tenant.TenantContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ProductSnapshotReader}.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestConfig.class)
+@Import({ProductSnapshotReader.class, ProductChangeLog.class})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductSnapshotReaderTest {
+
+    @Autowired
+    private ProductSnapshotReader productSnapshotReader;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void testRead() {
+        final String tenant = TenantContext.DEFAULT_TENANT;
+        final Product lamp = productRepository.saveAndFlush(new Product(null, "Lamp", "Desk lamp", 19.5f));
+        final Product rug = productRepository.saveAndFlush(new Product(null, "Rug", "Wool rug", 89f));
+        productChangeLog.record(tenant, List.of(lamp.getId(), rug.getId()), false);
+
+        final Map<Long, String> rows = new HashMap<>();
+        final long seq = productSnapshotReader.read(tenant, (id, name, price) -> rows.put(id, name + ":" + price));
+
+        assertEquals(productChangeLog.getHead(tenant).getLastSeq(), seq);
+        assertEquals("Lamp:19.5", rows.get(lamp.getId()));
+        assertEquals("Rug:89.0", rows.get(rug.getId()));
+    }
+
+    @Test
+    void testRead_tenantWithoutProducts() {
+        final Map<Long, String> rows = new HashMap<>();
+
+        assertEquals(0, productSnapshotReader.read("snapshot-empty", (id, name, price) -> rows.put(id, name)));
+        assertTrue(rows.isEmpty());
+    }
+}
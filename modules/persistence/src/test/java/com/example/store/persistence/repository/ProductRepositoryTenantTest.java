@@ -0,0 +1,95 @@
+package com.example.store.persistence.repository;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.tenant.TenantContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the tenant restriction of {@link ProductRepository}. The tenant of a session is resolved when it is opened,
+ * so each repository call runs in its own transaction (in its own database, the products are committed).
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:tenantdb")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductRepositoryTenantTest {
+
+    private static final String TENANT_A = "tenant-a";
+    private static final String TENANT_B = "tenant-b";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @AfterEach
+    void tearDown() {
+        for (final String tenant : List.of(TENANT_A, TENANT_B)) {
+            asTenant(tenant, () -> {
+                productRepository.deleteAllInBatch();
+                return null;
+            });
+        }
+        TenantContext.clear();
+    }
+
+    @Test
+    void testSave_setsTenant() {
+        final Product product = asTenant(TENANT_A, () -> productRepository.save(new Product(null, "Chair", "Wooden chair", 35f)));
+        assertEquals(TENANT_A, product.getTenantId());
+    }
+
+    @Test
+    void testQueries_onlyProductsOfTenant() {
+        final Product chair = asTenant(TENANT_A, () -> productRepository.save(new Product(null, "Chair", "Wooden chair", 35f)));
+        asTenant(TENANT_B, () -> productRepository.save(new Product(null, "Table", "Wooden table", 120f)));
+
+        assertTrue(asTenant(TENANT_A, () -> productRepository.findById(chair.getId())).isPresent());
+        assertTrue(asTenant(TENANT_B, () -> productRepository.findById(chair.getId())).isEmpty());
+        assertFalse(asTenant(TENANT_B, () -> productRepository.existsById(chair.getId())));
+        assertEquals(List.of("Table"), asTenant(TENANT_B, () -> productRepository.findAll()).stream().map(Product::getName).toList());
+        assertEquals(1, asTenant(TENANT_B, () -> productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(10))).size());
+        assertEquals(List.of(), asTenant(TENANT_B, () -> productRepository.findExistingIds(List.of(chair.getId()))));
+        assertEquals(1, asTenant(TENANT_A, () -> productRepository.count()));
+    }
+
+    @Test
+    void testWrites_onlyProductsOfTenant() {
+        final Product chair = asTenant(TENANT_A, () -> productRepository.save(new Product(null, "Chair", "Wooden chair", 35f)));
+
+        assertTrue(asTenant(TENANT_B, () -> productRepository.updateProduct(
+                new Product(chair.getId(), "Chair", "Metal chair", 49f), null)).isEmpty());
+        assertEquals(0, asTenant(TENANT_B, () -> productRepository.deleteProductById(chair.getId())));
+        asTenant(TENANT_B, () -> {
+            productRepository.deleteAllByIdInBatch(List.of(chair.getId()));
+            return null;
+        });
+
+        final Product unchanged = asTenant(TENANT_A, () -> productRepository.findById(chair.getId())).orElseThrow();
+        assertEquals("Wooden chair", unchanged.getDescription());
+        assertEquals(TENANT_A, unchanged.getTenantId());
+    }
+
+    private static <T> T asTenant(final String tenantId, final Supplier<T> action) {
+        TenantContext.setTenantId(tenantId);
+        try {
+            return action.get();
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
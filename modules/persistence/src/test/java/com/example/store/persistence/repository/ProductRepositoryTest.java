@@ -1,9 +1,12 @@
 package com.example.store.persistence.repository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import org.apache.commons.lang3.RandomStringUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -11,10 +14,15 @@ import org.junit.jupiter.api.TestMethodOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.Rollback;
 
 import com.example.store.persistence.entity.Product;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 
@@ -32,6 +40,9 @@ class ProductRepositoryTest {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     @Order(1)
     void testSave() {
@@ -64,13 +75,113 @@ class ProductRepositoryTest {
         assertEquals("Plastic chair", entities.get(0).getDescription());
     }
 
+    @Test
+    @Order(5)
+    void testFindByIdGreaterThan() {
+        productRepository.save(new Product(null, "Table", "Wooden table", 120f));
+        productRepository.save(new Product(null, "Lamp", "Desk lamp", 25f));
+
+        final List<Product> firstPage = productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        assertEquals(List.of("Chair", "Table"), firstPage.stream().map(Product::getName).toList());
+        final List<Product> secondPage = productRepository.findByIdGreaterThanOrderByIdAsc(firstPage.get(1).getId(), Limit.of(2));
+        assertEquals(List.of("Lamp"), secondPage.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    @Order(6)
+    void testForEachProduct() {
+        final List<Product> products = new ArrayList<>();
+        productRepository.forEachProduct(products::add);
+        assertEquals(List.of("Chair", "Table", "Lamp"), products.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    @Order(7)
+    void testFindExistingIds() {
+        final List<Long> existingIds = productRepository.findExistingIds(List.of(1L, 999L));
+        assertEquals(List.of(1L), existingIds);
+    }
+
+    @Test
+    @Order(8)
+    void testUpdateProduct() {
+        statistics().clear();
+        final Optional<Product> updatedProduct = productRepository.updateProduct(new Product(1L, "Chair", "Office chair", 89f), 1L);
+        assertTrue(updatedProduct.isPresent());
+        assertEquals("Office chair", updatedProduct.get().getDescription());
+        assertEquals(2, updatedProduct.get().getVersion());
+        // Updated and returned with a single statement
+        assertEquals(1, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    @Order(9)
+    void testUpdateProduct_notUpdated() {
+        statistics().clear();
+        // Stale version
+        assertTrue(productRepository.updateProduct(new Product(1L, "Chair", "Metal chair", 49f), 1L).isEmpty());
+        // Non-existing product
+        assertTrue(productRepository.updateProduct(new Product(999L, "Chair", "Metal chair", 49f), null).isEmpty());
+        assertEquals(2, statistics().getPrepareStatementCount());
+        assertEquals("Office chair", productRepository.findById(1L).orElseThrow().getDescription());
+    }
+
+    @Test
+    @Order(10)
+    void testDeleteProductById() {
+        final long lampId = productRepository.findAll().stream().mapToLong(Product::getId).max().orElseThrow();
+        statistics().clear();
+        assertEquals(1, productRepository.deleteProductById(lampId));
+        assertEquals(0, productRepository.deleteProductById(lampId));
+        // One statement per deletion, the product is not loaded first
+        assertEquals(2, statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    @Order(11)
+    @Rollback
+    void testFindBy_specification() {
+        // Chair (89) and Table (120) remain
+        productRepository.save(new Product(null, "Chalk", "White chalk", 2f));
+        productRepository.save(new Product(null, "Ch%ir", "Not a chair", 89f));
+
+        final List<Product> byName = productRepository.findBy(ProductSpecifications.nameStartsWith("Ch"),
+                q -> q.sortBy(Sort.by("name", "id")).all());
+        assertEquals(List.of("Ch%ir", "Chair", "Chalk"), byName.stream().map(Product::getName).toList());
+        // Wildcards in the prefix are matched literally
+        final List<Product> byPattern = productRepository.findBy(ProductSpecifications.nameStartsWith("Ch%"), q -> q.all());
+        assertEquals(List.of("Ch%ir"), byPattern.stream().map(Product::getName).toList());
+
+        // Second page of products from 50 to 150, by price descending
+        final Sort byPriceDescending = Sort.by(Sort.Direction.DESC, "price", "id");
+        final List<Product> firstPage = productRepository.findBy(
+                Specification.allOf(ProductSpecifications.priceAtLeast(50f), ProductSpecifications.priceAtMost(150f)),
+                q -> q.sortBy(byPriceDescending).limit(2).all());
+        assertEquals(List.of("Table", "Ch%ir"), firstPage.stream().map(Product::getName).toList());
+        final Product last = firstPage.get(1);
+        final List<Product> secondPage = productRepository.findBy(
+                Specification.allOf(ProductSpecifications.priceAtLeast(50f), ProductSpecifications.priceAtMost(150f),
+                        ProductSpecifications.after("price", last.getPrice(), last.getId(), true)),
+                q -> q.sortBy(byPriceDescending).limit(2).all());
+        assertEquals(List.of("Chair"), secondPage.stream().map(Product::getName).toList());
+    }
+
+    @Test
+    @Rollback
+    void testSave_staleVersion() {
+        // Chair has version 1 after the update
+        final Product staleProduct = new Product(1L, "Chair", "Metal chair", 49f, 0);
+        assertThrowsExactly(ObjectOptimisticLockingFailureException.class, () -> productRepository.save(staleProduct));
+    }
+
     @Test
     @Rollback
     void testSave_invalidProduct() {
         // Invalid product -> ConstraintViolationException should be thrown with constraint violation messages
         final String longString = RandomStringUtils.insecure().next(1001);
         final Product product = new Product(null, longString, longString, -1f);
-        final ConstraintViolationException exception = assertThrowsExactly(ConstraintViolationException.class, () -> productRepository.save(product));
+        // Sequence ids do not require an immediate insert, so the product is validated on flush
+        final ConstraintViolationException exception = assertThrowsExactly(ConstraintViolationException.class, () -> productRepository.saveAndFlush(product));
         final List<String> expectedMessages = List.of(
                 "size must be between 2 and 100",       // name
                 "size must be between 2 and 1000",      // description
@@ -82,4 +193,11 @@ class ProductRepositoryTest {
                         .containsAll(expectedMessages),
                 "Expected constraint violations not found when saving invalid product");
     }
+
+    /**
+     * Hibernate statistics, enabled with hibernate.generate_statistics in the test configuration.
+     */
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
 }
@@ -0,0 +1,14 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+
+/**
+ * Bucket of a price histogram - products with a price from {@code from} (inclusive) to {@code to} (exclusive,
+ * inclusive in the last bucket).
+ *
+ * @param from  lowest price of the bucket
+ * @param to    highest price of the bucket
+ * @param count number of products in the bucket
+ */
+public record PriceBucketDto(float from, float to, long count) implements Serializable {
+}
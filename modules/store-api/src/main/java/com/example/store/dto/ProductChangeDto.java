@@ -0,0 +1,16 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Change of a product in the change feed (GET /api/products/changes).
+ *
+ * @param seq       sequence number of the change
+ * @param id        ID of the changed product
+ * @param deleted   whether the product was deleted
+ * @param changedAt time of the change
+ * @param product   current state of the product, {@code null} if it was deleted
+ */
+public record ProductChangeDto(long seq, long id, boolean deleted, Instant changedAt, ProductDto product) implements Serializable {
+}
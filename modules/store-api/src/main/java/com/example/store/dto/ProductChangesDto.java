@@ -0,0 +1,13 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Changes of products after a sequence number, ordered by sequence number.
+ *
+ * @param items     changes - only the latest change of each product is kept, with its current state
+ * @param nextSince sequence number to pass as the {@code since} parameter to get the following changes
+ */
+public record ProductChangesDto(List<ProductChangeDto> items, long nextSince) implements Serializable {
+}
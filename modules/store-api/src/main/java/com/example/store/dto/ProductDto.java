@@ -2,7 +2,8 @@ package com.example.store.dto;
 
 import java.io.Serializable;
 
-import com.example.store.persistence.entity.Product;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,9 +11,10 @@ import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 
 /**
- * DTO for {@link Product}
+ * DTO of a product, shared by the store applications
  */
 @Data
 @AllArgsConstructor
@@ -27,4 +29,15 @@ public class ProductDto implements Serializable {
     @NotNull
     @PositiveOrZero
     private final float price;
+    /**
+     * Version of the product, sent as its ETag instead of in the body.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private final long version;
+
+    @JsonCreator
+    public ProductDto(final Long id, final String name, final String description, final float price) {
+        this(id, name, description, price, 0);
+    }
 }
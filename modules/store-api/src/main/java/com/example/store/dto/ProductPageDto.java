@@ -0,0 +1,13 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A single page of products, returned by keyset (cursor) pagination.
+ *
+ * @param items      products on this page
+ * @param nextCursor cursor to pass as the {@code after} parameter to get the next page, {@code null} on the last page
+ */
+public record ProductPageDto(List<ProductDto> items, String nextCursor) implements Serializable {
+}
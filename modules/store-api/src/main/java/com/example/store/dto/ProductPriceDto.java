@@ -0,0 +1,14 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * New price of a product, sent by price updates (PUT /api/products/{id}/price).
+ *
+ * @param price new price
+ */
+public record ProductPriceDto(@NotNull @PositiveOrZero Float price) implements Serializable {
+}
@@ -0,0 +1,20 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates of product prices (GET /api/products/stats). Prices are {@code null} if there are no products.
+ *
+ * @param count       number of products
+ * @param min         lowest price
+ * @param max         highest price
+ * @param avg         average price
+ * @param percentiles prices at percentiles (nearest rank), by percentile - e.g. {@code p50} is the median
+ * @param histogram   numbers of products in price buckets of equal width, from the lowest to the highest price
+ * @param seq         sequence number of the last change of the change feed the aggregates include
+ */
+public record ProductStatsDto(long count, Float min, Float max, Double avg, Map<String, Float> percentiles,
+                              List<PriceBucketDto> histogram, long seq) implements Serializable {
+}
@@ -0,0 +1,211 @@
+package com.example.store.protobuf;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Protobuf encoding of the product payloads, as defined by {@code proto/product.proto} (media type
+ * {@value #MEDIA_TYPE}). Encodes the DTOs directly with the protobuf runtime, without generated message classes,
+ * so no intermediate messages are allocated - clients may use classes generated from the schema instead.
+ * <p>
+ * Absent strings are decoded as {@code null}, same as absent JSON properties. Unknown fields are skipped,
+ * so clients can read payloads of newer versions.
+ */
+@UtilityClass
+public final class ProductProtobuf {
+
+    public static final String MEDIA_TYPE = "application/x-protobuf";
+
+    /**
+     * Parameter of the media type of streamed listings - a sequence of products, each preceded by its size.
+     */
+    public static final String DELIMITED_PARAMETER = "delimited";
+
+    private static final int PRODUCT_ID = 1;
+    private static final int PRODUCT_NAME = 2;
+    private static final int PRODUCT_DESCRIPTION = 3;
+    private static final int PRODUCT_PRICE = 4;
+
+    private static final int LIST_ITEMS = 1;
+    private static final int PAGE_NEXT_CURSOR = 2;
+
+    /**
+     * Writes a {@code Product} message.
+     */
+    public static void writeProduct(final ProductDto product, final CodedOutputStream output) throws IOException {
+        if (product.getId() != null) {
+            output.writeInt64(PRODUCT_ID, product.getId());
+        }
+        if (product.getName() != null) {
+            output.writeString(PRODUCT_NAME, product.getName());
+        }
+        if (product.getDescription() != null) {
+            output.writeString(PRODUCT_DESCRIPTION, product.getDescription());
+        }
+        if (Float.floatToRawIntBits(product.getPrice()) != 0) {
+            output.writeFloat(PRODUCT_PRICE, product.getPrice());
+        }
+    }
+
+    /**
+     * @return size of the {@code Product} message in bytes
+     */
+    public static int productSize(final ProductDto product) {
+        int size = 0;
+        if (product.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(PRODUCT_ID, product.getId());
+        }
+        if (product.getName() != null) {
+            size += CodedOutputStream.computeStringSize(PRODUCT_NAME, product.getName());
+        }
+        if (product.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(PRODUCT_DESCRIPTION, product.getDescription());
+        }
+        if (Float.floatToRawIntBits(product.getPrice()) != 0) {
+            size += CodedOutputStream.computeFloatSize(PRODUCT_PRICE, product.getPrice());
+        }
+        return size;
+    }
+
+    /**
+     * Reads a {@code Product} message, until the end of the input (or of the current limit).
+     */
+    public static ProductDto readProduct(final CodedInputStream input) throws IOException {
+        Long id = null;
+        String name = null;
+        String description = null;
+        float price = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (tag) {
+                case (PRODUCT_ID << 3) | WireFormat.WIRETYPE_VARINT -> id = input.readInt64();
+                case (PRODUCT_NAME << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED -> name = input.readStringRequireUtf8();
+                case (PRODUCT_DESCRIPTION << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED -> description = input.readStringRequireUtf8();
+                case (PRODUCT_PRICE << 3) | WireFormat.WIRETYPE_FIXED32 -> price = input.readFloat();
+                default -> input.skipField(tag);
+            }
+        }
+        return new ProductDto(id, name, description, price);
+    }
+
+    /**
+     * Writes products as the {@code items} of a {@code ProductList} or {@code ProductPage} message.
+     */
+    public static void writeItems(final List<ProductDto> products, final CodedOutputStream output) throws IOException {
+        for (final ProductDto product : products) {
+            writeItem(product, output);
+        }
+    }
+
+    /**
+     * Writes a product as an item of a {@code ProductList} or {@code ProductPage} message - a list written item by item
+     * is the same as one written at once.
+     */
+    public static void writeItem(final ProductDto product, final CodedOutputStream output) throws IOException {
+        output.writeTag(LIST_ITEMS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(productSize(product));
+        writeProduct(product, output);
+    }
+
+    /**
+     * Writes a {@code ProductList} message.
+     */
+    public static void writeList(final List<ProductDto> products, final OutputStream outputStream) throws IOException {
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        writeItems(products, output);
+        output.flush();
+    }
+
+    /**
+     * Reads a {@code ProductList} message.
+     */
+    public static List<ProductDto> readList(final InputStream inputStream) throws IOException {
+        final CodedInputStream input = CodedInputStream.newInstance(inputStream);
+        final List<ProductDto> products = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ((LIST_ITEMS << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+                products.add(readEmbeddedProduct(input));
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Writes a {@code ProductPage} message.
+     */
+    public static void writePage(final ProductPageDto page, final OutputStream outputStream) throws IOException {
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        writeItems(page.items(), output);
+        if (page.nextCursor() != null) {
+            output.writeString(PAGE_NEXT_CURSOR, page.nextCursor());
+        }
+        output.flush();
+    }
+
+    /**
+     * Reads a {@code ProductPage} message.
+     */
+    public static ProductPageDto readPage(final InputStream inputStream) throws IOException {
+        final CodedInputStream input = CodedInputStream.newInstance(inputStream);
+        final List<ProductDto> products = new ArrayList<>();
+        String nextCursor = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ((LIST_ITEMS << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+                products.add(readEmbeddedProduct(input));
+            } else if (tag == ((PAGE_NEXT_CURSOR << 3) | WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+                nextCursor = input.readStringRequireUtf8();
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return new ProductPageDto(products, nextCursor);
+    }
+
+    /**
+     * Writes a {@code Product} message preceded by its size (element of a streamed listing).
+     */
+    public static void writeDelimited(final ProductDto product, final CodedOutputStream output) throws IOException {
+        output.writeUInt32NoTag(productSize(product));
+        writeProduct(product, output);
+    }
+
+    /**
+     * Reads a {@code Product} message preceded by its size (element of a streamed listing).
+     *
+     * @return product, {@code null} at the end of the input
+     */
+    public static ProductDto readDelimited(final CodedInputStream input) throws IOException {
+        if (input.isAtEnd()) {
+            return null;
+        }
+        return readEmbeddedProduct(input);
+    }
+
+    private static ProductDto readEmbeddedProduct(final CodedInputStream input) throws IOException {
+        // Fails for negative sizes
+        final int oldLimit = input.pushLimit(input.readRawVarint32());
+        final ProductDto product = readProduct(input);
+        // The end of a stream also ends the message, even before its size is reached
+        if (input.getBytesUntilLimit() != 0) {
+            throw new InvalidProtocolBufferException("Product message is truncated");
+        }
+        input.popLimit(oldLimit);
+        return product;
+    }
+}
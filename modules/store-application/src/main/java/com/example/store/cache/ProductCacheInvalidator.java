@@ -0,0 +1,159 @@
+package com.example.store.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.jetbrains.annotations.NotNull;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.example.store.config.CacheConfig;
+import com.example.store.persistence.tenant.TenantContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the product cache of this node coherent with changes made by other nodes.
+ * <p>
+ * Listens on the PostgreSQL channel {@value #CHANNEL}, to which a trigger on the product table (see db-schema)
+ * sends the tenants and IDs of changed products, and evicts these products from the cache.
+ * Notifications are only delivered while listening, so the whole cache is cleared whenever the listener (re)connects.
+ * <p>
+ * Uses its own connection instead of one from the connection pool, since it is held for the lifetime of the application.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "store.cache.invalidation.enabled", havingValue = "true")
+public class ProductCacheInvalidator implements SmartLifecycle {
+
+    static final String CHANNEL = "product_changes";
+
+    /**
+     * Payload of notifications about too many changed products to list them.
+     */
+    static final String ALL_PRODUCTS = "*";
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+    private static final long MIN_RECONNECT_DELAY_MILLIS = 1000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final Cache cache;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    @Autowired
+    public ProductCacheInvalidator(final DataSourceProperties dataSourceProperties, final CacheManager cacheManager) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+    }
+
+    @Override
+    public void start() {
+        this.running = true;
+        this.listenerThread = new Thread(this::listen, "product-cache-invalidator");
+        this.listenerThread.setDaemon(true);
+        this.listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        this.running = false;
+        if (this.listenerThread != null) {
+            this.listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Listens for notifications until stopped, reconnecting with an increasing delay if the connection fails.
+     */
+    private void listen() {
+        long reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+        while (this.running) {
+            try (Connection connection = DriverManager.getConnection(this.dataSourceProperties.determineUrl(),
+                    this.dataSourceProperties.determineUsername(), this.dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Changes made while not listening are lost, so nothing cached before can be trusted
+                clear();
+                log.info("Listening for product changes on channel {}", CHANNEL);
+                reconnectDelay = MIN_RECONNECT_DELAY_MILLIS;
+
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (this.running) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (final PGNotification notification : notifications) {
+                            handleNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (final SQLException e) {
+                if (!this.running) {
+                    break;
+                }
+                log.warn("Product change notifications interrupted, reconnecting in {} ms", reconnectDelay, e);
+                // Changes are missed until reconnected, which clears the cache again
+                clear();
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+        log.info("Stopped listening for product changes");
+    }
+
+    /**
+     * Evicts the products listed in the notification payload from the cache.
+     *
+     * @param payload comma separated products as {@code tenant:id} (or only the ID, of the default tenant),
+     *                or {@value #ALL_PRODUCTS} to clear the cache
+     */
+    void handleNotification(@NotNull final String payload) {
+        if (ALL_PRODUCTS.equals(payload)) {
+            clear();
+            return;
+        }
+        try {
+            for (final String product : payload.split(",")) {
+                this.cache.evict(toCacheKey(product.trim()));
+            }
+        } catch (final NumberFormatException e) {
+            log.warn("Unexpected product change notification '{}', clearing product cache", payload);
+            clear();
+        }
+    }
+
+    private static ProductCacheKey toCacheKey(final String product) {
+        final int separator = product.lastIndexOf(':');
+        if (separator < 0) {
+            return new ProductCacheKey(TenantContext.DEFAULT_TENANT, Long.parseLong(product));
+        }
+        return new ProductCacheKey(product.substring(0, separator), Long.parseLong(product.substring(separator + 1)));
+    }
+
+    private void clear() {
+        this.cache.clear();
+        log.debug("Cleared product cache");
+    }
+}
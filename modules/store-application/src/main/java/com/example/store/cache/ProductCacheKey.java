@@ -0,0 +1,22 @@
+package com.example.store.cache;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.example.store.persistence.tenant.TenantContext;
+
+/**
+ * Key of a product in the product cache - products of different tenants may have the same ID.
+ *
+ * @param tenantId tenant of the product
+ * @param id       product ID
+ */
+public record ProductCacheKey(@NotNull String tenantId, long id) {
+
+    /**
+     * @return key of the product with the specified ID of the current tenant
+     */
+    @NotNull
+    public static ProductCacheKey of(final long id) {
+        return new ProductCacheKey(TenantContext.getTenantId(), id);
+    }
+}
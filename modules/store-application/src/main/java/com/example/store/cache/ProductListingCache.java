@@ -0,0 +1,236 @@
+package com.example.store.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.persistence.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cache of serialized full product listings ({@code GET /api/products}), so an unchanged listing is neither loaded
+ * nor serialized again - responses are written from the cached bytes.
+ * <p>
+ * Listings are cached by tenant, media type and catalog version (see
+ * {@link com.example.store.service.ProductService#getCatalogVersion()}), which changes with every change of a product -
+ * by this node or another, including imports and price updates - so a stale listing is never served. Older versions
+ * of a listing are removed once a newer one is cached, and a listing is not kept if a newer version is cached already
+ * (e.g. it was read from a replica which lags behind). Listings of at least {@code compressionThreshold} bytes are also
+ * cached gzip compressed, for clients accepting it.
+ * <p>
+ * The cache is bounded by the total size of the cached listings, and listings which are not requested for a while
+ * are removed. Concurrent requests of a listing which is not cached yet wait for a single serialization.
+ * Listings larger than {@code maxListingSize} are not cached - before a listing is loaded, its size is estimated from
+ * the number of products and the size of a product in the last serialized listing of the media type, and listings
+ * which would be too large are not loaded at all, so the caller writes them directly from a database cursor.
+ * Statistics are published as metrics {@code cache.*} of the cache {@value #CACHE_NAME}.
+ */
+@Component
+public class ProductListingCache implements MeterBinder {
+
+    static final String CACHE_NAME = "productListings";
+
+    private static final Type LISTING_TYPE = new ParameterizedTypeReference<List<ProductDto>>() {
+    }.getType();
+
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+
+    /**
+     * Estimated size of a serialized product in bytes, until a listing of the media type has been serialized.
+     */
+    static final int ESTIMATED_PRODUCT_SIZE = 128;
+
+    private final AsyncCache<ListingKey, SerializedListing> listings;
+    private final List<HttpMessageConverter<?>> messageConverters;
+    private final long maxListingSize;
+    private final long compressionThreshold;
+
+    /**
+     * Size of a serialized product in the last serialized listing of each media type.
+     */
+    private final Map<MediaType, Integer> productSizes = new ConcurrentHashMap<>();
+
+    /**
+     * @param messageConverters    message converters of the application, which serialize the listings
+     * @param maxSize              maximum total size of the cached listings
+     * @param maxListingSize       maximum size of a cached listing
+     * @param compressionThreshold minimum size of a listing which is cached gzip compressed too
+     */
+    @Autowired
+    public ProductListingCache(final HttpMessageConverters messageConverters,
+                               @Value("${store.cache.listings.max-size:64MB}") final DataSize maxSize,
+                               @Value("${store.cache.listings.max-listing-size:16MB}") final DataSize maxListingSize,
+                               @Value("${server.compression.min-response-size:2KB}") final DataSize compressionThreshold) {
+        this.messageConverters = messageConverters.getConverters();
+        this.maxListingSize = maxListingSize.toBytes();
+        this.compressionThreshold = compressionThreshold.toBytes();
+        this.listings = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<ListingKey, SerializedListing>weigher((key, listing) -> listing.size())
+                .expireAfterAccess(IDLE_EXPIRY)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Gets the listing of the current tenant in the specified version and media type, loads and serializes
+     * the products if it is not cached and not too large to be cached.
+     *
+     * @param catalogVersion current catalog version of the tenant, the number of its last change
+     * @param mediaType      media type of the listing
+     * @param productCount   counts the products of the listing, only called if the listing is not cached
+     * @param products       loads the products of the listing
+     * @return serialized listing, {@code null} if the listing would be larger than the maximum size of a cached listing
+     * @throws IOException if the serialization fails
+     */
+    @Nullable
+    public SerializedListing get(@NotNull final String catalogVersion, @NotNull final MediaType mediaType,
+                                 @NotNull final LongSupplier productCount,
+                                 @NotNull final Supplier<List<ProductDto>> products) throws IOException {
+        final ListingKey key = new ListingKey(TenantContext.getTenantId(), mediaType, Long.parseLong(catalogVersion));
+        if (!this.listings.asMap().containsKey(key) && estimateSize(mediaType, productCount.getAsLong()) > this.maxListingSize) {
+            return null;
+        }
+        final CompletableFuture<SerializedListing> future = new CompletableFuture<>();
+        final CompletableFuture<SerializedListing> cached = this.listings.get(key, (k, executor) -> future);
+        if (cached != future) {
+            try {
+                return cached.join();
+            } catch (final CompletionException e) {
+                // Serialization of the other request failed (e.g. the database was busy), this request tries on its own
+                return serialize(mediaType, products.get());
+            }
+        }
+        try {
+            final SerializedListing listing = serialize(mediaType, products.get());
+            future.complete(listing);
+            final Set<ListingKey> keys = this.listings.asMap().keySet();
+            keys.removeIf(other -> other.isOlderVersionOf(key));
+            if (listing.body().length > this.maxListingSize || keys.stream().anyMatch(key::isOlderVersionOf)) {
+                // Larger than estimated, or outdated already - served to the waiting requests, but not kept
+                this.listings.synchronous().invalidate(key);
+            }
+            return listing;
+        } finally {
+            // Releases the waiting requests if the serialization failed, which also removes the listing from the cache
+            future.completeExceptionally(new IllegalStateException("Product listing was not serialized"));
+        }
+    }
+
+    /**
+     * Removes all cached listings.
+     */
+    public void invalidateAll() {
+        this.listings.synchronous().invalidateAll();
+    }
+
+    @Override
+    public void bindTo(@NotNull final MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.listings, CACHE_NAME);
+    }
+
+    private long estimateSize(final MediaType mediaType, final long productCount) {
+        return productCount * this.productSizes.getOrDefault(mediaType, ESTIMATED_PRODUCT_SIZE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SerializedListing serialize(final MediaType mediaType, final List<ProductDto> products) throws IOException {
+        for (final HttpMessageConverter<?> converter : this.messageConverters) {
+            if (converter instanceof GenericHttpMessageConverter<?> genericConverter
+                    && genericConverter.canWrite(LISTING_TYPE, List.class, mediaType)) {
+                final BufferedOutputMessage outputMessage = new BufferedOutputMessage();
+                ((GenericHttpMessageConverter<Object>) genericConverter).write(products, LISTING_TYPE, mediaType, outputMessage);
+                final byte[] body = outputMessage.body.toByteArray();
+                if (!products.isEmpty()) {
+                    this.productSizes.put(mediaType, Math.max(1, body.length / products.size()));
+                }
+                final MediaType contentType = outputMessage.headers.getContentType();
+                return new SerializedListing(contentType != null ? contentType : mediaType, body,
+                        body.length >= this.compressionThreshold ? gzip(body) : null);
+            }
+        }
+        throw new HttpMessageNotWritableException("No converter for product listings of type " + mediaType);
+    }
+
+    private static byte[] gzip(final byte[] body) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Serialized listing.
+     *
+     * @param contentType media type of the body
+     * @param body        serialized products
+     * @param gzipBody    gzip compressed body, {@code null} if the body is smaller than the compression threshold
+     */
+    public record SerializedListing(@NotNull MediaType contentType, byte @NotNull [] body, byte @Nullable [] gzipBody) {
+
+        int size() {
+            return body.length + (gzipBody != null ? gzipBody.length : 0);
+        }
+    }
+
+    private record ListingKey(String tenantId, MediaType mediaType, long catalogVersion) {
+
+        boolean isOlderVersionOf(final ListingKey key) {
+            return tenantId.equals(key.tenantId) && mediaType.equals(key.mediaType) && catalogVersion < key.catalogVersion;
+        }
+    }
+
+    /**
+     * Output message writing the body to memory.
+     */
+    private static final class BufferedOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @NotNull
+        @Override
+        public OutputStream getBody() {
+            return this.body;
+        }
+
+        @NotNull
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+    }
+}
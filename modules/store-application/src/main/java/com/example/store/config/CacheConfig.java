@@ -0,0 +1,21 @@
+package com.example.store.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables caching of service results.
+ * <p>
+ * The cache provider and its limits are set with the {@code spring.cache.*} properties - by default an in-process
+ * Caffeine cache (size bounded, W-TinyLFU eviction) with expiry and statistics, which are exposed as {@code cache.*} metrics.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Cache of product DTOs, by {@link com.example.store.cache.ProductCacheKey} (tenant and product ID).
+     */
+    public static final String PRODUCTS_CACHE = "products";
+
+}
@@ -0,0 +1,115 @@
+package com.example.store.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import com.example.store.datasource.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Limits concurrent use of the database (see {@link ConcurrencyLimitedDataSource}), enabled with
+ * {@code store.datasource.concurrency-limit.enabled}. The limit is the maximum size of the connection pool.
+ * <p>
+ * Limits are set with the properties:
+ * <ul>
+ *     <li>{@code store.datasource.concurrency-limit.max-waiting} - maximum number of requests waiting for a connection</li>
+ *     <li>{@code store.datasource.concurrency-limit.acquire-timeout} - maximum time a request waits for a connection</li>
+ * </ul>
+ * The state of the limiter is published as metrics {@code store.datasource.concurrency.*} (next to the {@code hikaricp.*}
+ * metrics of the pool).
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.datasource.concurrency-limit.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    private static final String PREFIX = "store.datasource.concurrency-limit.";
+
+    /**
+     * Default maximum size of the Hikari connection pool.
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(final Environment environment) {
+        return new ConcurrencyLimitPostProcessor(environment);
+    }
+
+    @Bean
+    MeterBinder concurrencyLimitedDataSourceMetrics(final ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.ifAvailable(dataSource -> {
+            final ConcurrencyLimitedDataSource limiter;
+            try {
+                if (!dataSource.isWrapperFor(ConcurrencyLimitedDataSource.class)) {
+                    return;
+                }
+                limiter = dataSource.unwrap(ConcurrencyLimitedDataSource.class);
+            } catch (final SQLException e) {
+                throw new IllegalStateException("Failed to unwrap the concurrency limited data source", e);
+            }
+            Gauge.builder("store.datasource.concurrency.available", limiter, ConcurrencyLimitedDataSource::getAvailable)
+                    .description("Connections which can be obtained without waiting")
+                    .register(registry);
+            Gauge.builder("store.datasource.concurrency.waiting", limiter, ConcurrencyLimitedDataSource::getWaiting)
+                    .description("Threads waiting for a connection")
+                    .register(registry);
+            FunctionCounter.builder("store.datasource.concurrency.rejected", limiter, ConcurrencyLimitedDataSource::getRejected)
+                    .description("Connection requests rejected because the database is busy (503)")
+                    .register(registry);
+        });
+    }
+
+    /**
+     * Limits concurrent use of the specified connection pool, with the limits set by the properties.
+     *
+     * @param dataSource  connection pool, the limit is its maximum size
+     * @param environment environment with the limiter properties
+     * @return limited data source
+     */
+    public static ConcurrencyLimitedDataSource limitConcurrency(final HikariDataSource dataSource, final Environment environment) {
+        // Not set (-1) until the pool is started, if not configured
+        final int maxPoolSize = dataSource.getMaximumPoolSize() > 0 ? dataSource.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+        return new ConcurrencyLimitedDataSource(dataSource, maxPoolSize,
+                environment.getProperty(PREFIX + "max-waiting", Integer.class, 1000),
+                environment.getProperty(PREFIX + "acquire-timeout", Duration.class, Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Wraps the connection pool into the limiter. Ordered before other post processors wrapping the data source
+     * (e.g. read replica routing), so the limiter wraps the pool itself.
+     */
+    private static final class ConcurrencyLimitPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private ConcurrencyLimitPostProcessor(final Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if (bean instanceof HikariDataSource dataSource) {
+                return limitConcurrency(dataSource, this.environment);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
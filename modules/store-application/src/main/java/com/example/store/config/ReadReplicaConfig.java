@@ -0,0 +1,127 @@
+package com.example.store.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import com.example.store.datasource.ReadReplicaMonitor;
+import com.example.store.datasource.ReadYourWritesFilter;
+import com.example.store.persistence.datasource.ReadReplicaJpaDialect;
+import com.example.store.persistence.datasource.ReadReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Routes read-only transactions to read replicas (see {@link ReadReplicaRoutingDataSource}), enabled with
+ * {@code store.datasource.read-replicas.enabled}.
+ * <p>
+ * Replicas are set with the properties:
+ * <ul>
+ *     <li>{@code store.datasource.read-replicas.urls} - JDBC URLs of the replicas, each gets its own connection pool
+ *     (configured with {@code spring.datasource.hikari.*}, overridden by {@code store.datasource.read-replicas.hikari.*})</li>
+ *     <li>{@code store.datasource.read-replicas.username}, {@code password} - credentials, by default the ones of the primary</li>
+ *     <li>{@code store.datasource.read-replicas.read-your-writes-window} - time after a write of a client, in which
+ *     its requests only use the primary (see {@link ReadYourWritesFilter})</li>
+ *     <li>{@code store.datasource.read-replicas.health-check-interval} - interval of replica health checks</li>
+ * </ul>
+ * Replica pools are also limited by the concurrency limiter, if enabled (see {@link DataSourceConfig}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "store.datasource.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private static final String PREFIX = "store.datasource.read-replicas.";
+
+    @Bean
+    static BeanPostProcessor readReplicaRoutingPostProcessor(final Environment environment) {
+        return new ReadReplicaRoutingPostProcessor(environment);
+    }
+
+    @Bean
+    ReadReplicaMonitor readReplicaMonitor(final DataSource dataSource, final MeterRegistry meterRegistry,
+                                          final Environment environment) {
+        return new ReadReplicaMonitor(dataSource, meterRegistry,
+                environment.getProperty(PREFIX + "health-check-interval", Duration.class, Duration.ofSeconds(5)));
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(final Environment environment) {
+        return new ReadYourWritesFilter(
+                environment.getProperty(PREFIX + "read-your-writes-window", Duration.class, Duration.ofSeconds(5)));
+    }
+
+    /**
+     * Creates a connection pool for each replica, with the properties of the primary's pool and the replica overrides.
+     * Connections are read-only, so writes sent to a replica by mistake fail.
+     */
+    static Map<String, DataSource> createReplicas(final Environment environment) {
+        final Binder binder = Binder.get(environment);
+        final List<String> urls = binder.bind(PREFIX + "urls", Bindable.listOf(String.class)).orElse(List.of());
+        final boolean concurrencyLimited = environment.getProperty("store.datasource.concurrency-limit.enabled", Boolean.class, false);
+        final Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            final HikariDataSource replica = new HikariDataSource();
+            binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+            binder.bind(PREFIX + "hikari", Bindable.ofInstance(replica));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(environment.getProperty(PREFIX + "username", environment.getProperty("spring.datasource.username")));
+            replica.setPassword(environment.getProperty(PREFIX + "password", environment.getProperty("spring.datasource.password")));
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), concurrencyLimited ? DataSourceConfig.limitConcurrency(replica, environment) : replica);
+        }
+        return replicas;
+    }
+
+    /**
+     * Wraps the data source (primary) into the routing data source, after it has been wrapped by the concurrency limiter.
+     * JDBC observations wrap the routing data source, so they include the queries of replicas.
+     * Ordered before the tenant limiter (see {@link TenancyConfig}), which wraps the routing data source.
+     * <p>
+     * The entity manager factory gets {@link ReadReplicaJpaDialect}, which the JPA transaction manager takes over,
+     * so read-only transactions obtain their connection from a replica while they begin.
+     */
+    private static final class ReadReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private ReadReplicaRoutingPostProcessor(final Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+            if (bean instanceof AbstractEntityManagerFactoryBean entityManagerFactory) {
+                entityManagerFactory.setJpaDialect(new ReadReplicaJpaDialect());
+            }
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            if (bean instanceof DataSource primary && "dataSource".equals(beanName)) {
+                return new ReadReplicaRoutingDataSource(primary, createReplicas(this.environment));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+    }
+}
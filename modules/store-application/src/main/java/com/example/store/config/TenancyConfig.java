@@ -0,0 +1,118 @@
+package com.example.store.config;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+
+import com.example.store.datasource.TenantConcurrencyLimitedDataSource;
+import com.example.store.persistence.tenant.TenantContext;
+import com.example.store.tenant.TenantFilter;
+import com.example.store.tenant.TenantTaskDecorator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Multi-tenancy - each request belongs to a tenant (see {@link TenantFilter}), and only uses the products of its tenant
+ * (see {@link TenantContext}). Tasks of the application task executor (e.g. streamed responses) run with the tenant
+ * of the request which submitted them.
+ * <p>
+ * Tenants and their budgets are set with the properties:
+ * <ul>
+ *     <li>{@code store.tenancy.tenants} - allowed tenants, by default only the default tenant</li>
+ *     <li>{@code store.tenancy.rate-limit.requests-per-second}, {@code burst} - average and peak requests of a tenant,
+ *     further requests are rejected with 429 (0 for no rate limit)</li>
+ *     <li>{@code store.tenancy.connection-limit.max-connections} - maximum database connections in use by a tenant
+ *     (0 for no limit), further requests of the tenant wait up to {@code store.datasource.concurrency-limit.acquire-timeout}
+ *     and are rejected with 503 if more than {@code store.tenancy.connection-limit.max-waiting} are already waiting
+ *     (see {@link TenantConcurrencyLimitedDataSource})</li>
+ * </ul>
+ */
+@Configuration
+public class TenancyConfig {
+
+    private static final String PREFIX = "store.tenancy.";
+
+    @Bean
+    TenantFilter tenantFilter(final Environment environment, final MeterRegistry meterRegistry) {
+        final List<String> tenants = Binder.get(environment).bind(PREFIX + "tenants", Bindable.listOf(String.class))
+                .orElse(List.of(TenantContext.DEFAULT_TENANT));
+        for (final String tenant : tenants) {
+            if (!TenantContext.isValid(tenant)) {
+                throw new IllegalArgumentException("Invalid tenant ID '" + tenant + "' in " + PREFIX + "tenants");
+            }
+        }
+        return new TenantFilter(new HashSet<>(tenants),
+                environment.getProperty(PREFIX + "rate-limit.requests-per-second", Double.class, 0d),
+                environment.getProperty(PREFIX + "rate-limit.burst", Integer.class, 100),
+                meterRegistry);
+    }
+
+    @Bean
+    TaskDecorator tenantTaskDecorator() {
+        return new TenantTaskDecorator();
+    }
+
+    @Bean
+    static BeanPostProcessor tenantConcurrencyLimitPostProcessor(final Environment environment) {
+        return new TenantConcurrencyLimitPostProcessor(environment);
+    }
+
+    @Bean
+    MeterBinder tenantConcurrencyLimitedDataSourceMetrics(final ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.ifAvailable(dataSource -> {
+            try {
+                if (dataSource.isWrapperFor(TenantConcurrencyLimitedDataSource.class)) {
+                    dataSource.unwrap(TenantConcurrencyLimitedDataSource.class).bindTo(registry);
+                }
+            } catch (final SQLException e) {
+                throw new IllegalStateException("Failed to unwrap the tenant concurrency limited data source", e);
+            }
+        });
+    }
+
+    /**
+     * Wraps the data source into the tenant limiter, if {@code store.tenancy.connection-limit.max-connections} is set.
+     * Ordered after the other post processors wrapping the data source (concurrency limiter, read replica routing),
+     * so a tenant waits for its own budget before it waits for a connection of the pool, and the budget covers
+     * connections of read replicas too.
+     */
+    private static final class TenantConcurrencyLimitPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+
+        private TenantConcurrencyLimitPostProcessor(final Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+            final int maxConnections = this.environment.getProperty(PREFIX + "connection-limit.max-connections", Integer.class, 0);
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName) && maxConnections > 0) {
+                return new TenantConcurrencyLimitedDataSource(dataSource, maxConnections,
+                        this.environment.getProperty(PREFIX + "connection-limit.max-waiting", Integer.class, 100),
+                        this.environment.getProperty("store.datasource.concurrency-limit.acquire-timeout", Duration.class,
+                                Duration.ofSeconds(5)));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.store.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.ProductDto;
+import com.example.store.service.ProductService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for batch operations on the product resource.
+ * Reachable at /api/products:batch.
+ * <p>
+ * Items are validated and processed individually - the response is 200 OK with a result for each item,
+ * unless the request itself is invalid.
+ */
+@Slf4j
+@RestController
+public class ProductBatchController {
+
+    /**
+     * Maximum number of items in a single batch request.
+     */
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private static final String BATCH_PATH = "/products:batch";
+
+    private final ProductService productService;
+
+    @Autowired
+    public ProductBatchController(final ProductService productService) {
+        this.productService = productService;
+    }
+
+    @PostMapping(value = BATCH_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResponse> createProducts(@RequestBody final List<ProductDto> productDtos) {
+        if (productDtos.size() > MAX_BATCH_SIZE) {
+            log.error("Invalid batch create request - {} items exceed the limit of {}", productDtos.size(), MAX_BATCH_SIZE);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new BatchResponse(productService.createProducts(productDtos)));
+    }
+
+    @PutMapping(value = BATCH_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResponse> updateProducts(@RequestBody final List<ProductDto> productDtos) {
+        if (productDtos.size() > MAX_BATCH_SIZE) {
+            log.error("Invalid batch update request - {} items exceed the limit of {}", productDtos.size(), MAX_BATCH_SIZE);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new BatchResponse(productService.updateProducts(productDtos)));
+    }
+
+    @DeleteMapping(value = BATCH_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BatchResponse> deleteProducts(@RequestBody final List<Long> ids) {
+        if (ids.size() > MAX_BATCH_SIZE) {
+            log.error("Invalid batch delete request - {} items exceed the limit of {}", ids.size(), MAX_BATCH_SIZE);
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new BatchResponse(productService.deleteProducts(ids)));
+    }
+
+}
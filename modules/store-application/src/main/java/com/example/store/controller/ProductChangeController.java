@@ -0,0 +1,52 @@
+package com.example.store.controller;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.service.ProductChangeService;
+
+/**
+ * Controller for the change feed of products, for incremental sync of the catalog.
+ * Reachable at /api/products/changes.
+ */
+@RestController
+public class ProductChangeController {
+
+    /**
+     * Maximum time a request waits for changes, in seconds.
+     */
+    static final int MAX_WAIT_SECONDS = 60;
+
+    private final ProductChangeService productChangeService;
+
+    @Autowired
+    public ProductChangeController(final ProductChangeService productChangeService) {
+        this.productChangeService = productChangeService;
+    }
+
+    /**
+     * Returns the changes of products after the specified sequence number - 0 for all products, otherwise
+     * {@code nextSince} of the previous response. Deleted products are returned as tombstones ({@code deleted}).
+     * If there are no changes yet, the request waits for them up to {@code wait} seconds (long polling).
+     * Returns 410 GONE if changes after the sequence number are no longer available - the client then reads
+     * all products again, with {@code since=0}.
+     */
+    @GetMapping(value = "/products/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ProductChangesDto> getChanges(@RequestParam final long since,
+                                                           @RequestParam(defaultValue = "1000") final int limit,
+                                                           @RequestParam(defaultValue = "0") final int wait) {
+        if (wait < 0 || wait > MAX_WAIT_SECONDS) {
+            throw new InvalidRequestException("Wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        return productChangeService.getChanges(since, limit, Duration.ofSeconds(wait));
+    }
+
+}
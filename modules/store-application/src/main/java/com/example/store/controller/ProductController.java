@@ -1,56 +1,256 @@
 package com.example.store.controller;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.example.store.cache.ProductListingCache;
+import com.example.store.cache.ProductListingCache.SerializedListing;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.exception.PreconditionFailedException;
+import com.example.store.protobuf.ProductProtobuf;
 import com.example.store.service.ProductService;
+import com.example.store.stream.ProductStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Controller for the product resource, represented by {@link ProductDto}.
  * Reachable at /api/products.
+ * <p>
+ * Products are read and written as JSON by default, or in a binary format selected by the Accept and Content-Type
+ * headers - Smile ({@value #SMILE}), CBOR ({@value MediaType#APPLICATION_CBOR_VALUE}) or Protobuf
+ * ({@value ProductProtobuf#MEDIA_TYPE}, see {@code proto/product.proto} in store-api).
  */
 @Slf4j
 @RestController
-@RequestMapping(value = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequestMapping(value = "/products", produces = {MediaType.APPLICATION_JSON_VALUE, ProductController.SMILE,
+        MediaType.APPLICATION_CBOR_VALUE, ProductProtobuf.MEDIA_TYPE})
 public class ProductController {
 
+    static final String SMILE = "application/x-jackson-smile";
+    static final String PROTOBUF_DELIMITED = ProductProtobuf.MEDIA_TYPE + ";" + ProductProtobuf.DELIMITED_PARAMETER + "=true";
+
+    /**
+     * Media types of products and full listings, in the order of preference if the client accepts several equally.
+     */
+    private static final List<MediaType> MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType(SMILE),
+            MediaType.APPLICATION_CBOR, MediaType.parseMediaType(ProductProtobuf.MEDIA_TYPE));
+
+    /**
+     * Formats of the media types in ETags - representations in different formats have different ETags.
+     */
+    private static final Map<MediaType, String> ETAG_FORMATS = Map.of(MEDIA_TYPES.get(0), "json", MEDIA_TYPES.get(1), "smile",
+            MEDIA_TYPES.get(2), "cbor", MEDIA_TYPES.get(3), "protobuf");
+
+    /**
+     * Mappers of the binary Jackson formats, configured like those of their message converters - for streamed listings.
+     */
+    private static final ObjectMapper SMILE_MAPPER = Jackson2ObjectMapperBuilder.smile().build();
+    private static final ObjectMapper CBOR_MAPPER = Jackson2ObjectMapperBuilder.cbor().build();
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final ProductListingCache productListingCache;
+    private final ContentNegotiationManager contentNegotiationManager;
 
     @Autowired
-    public ProductController(final ProductService productService) {
+    public ProductController(final ProductService productService, final ObjectMapper objectMapper,
+                             final ProductListingCache productListingCache,
+                             final ContentNegotiationManager contentNegotiationManager) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.productListingCache = productListingCache;
+        this.contentNegotiationManager = contentNegotiationManager;
     }
 
+    /**
+     * Returns all products, with the version of all products, the format and the encoding as the ETag.
+     * If the client already has the current version (If-None-Match), 304 is returned without loading the products.
+     * Otherwise the listing is written from its serialized form cached for this version (see {@link ProductListingCache}),
+     * gzip compressed if it is large enough and the client accepts it. A listing too large to be cached is written
+     * directly from a database cursor instead, like {@link #streamAllProducts()}. Either way the products are not older
+     * than the version in the ETag, also when read from a lagging read replica.
+     */
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<byte[]> getAllProducts(final NativeWebRequest webRequest, final HttpServletResponse servletResponse)
+            throws IOException, HttpMediaTypeNotAcceptableException {
+        for (final String parameter : ProductListQuery.PARAMETERS) {
+            if (webRequest.getParameter(parameter) != null) {
+                throw new InvalidRequestException("Filtered and sorted listings are paged, limit is required");
+            }
+        }
+        final MediaType mediaType = selectMediaType(webRequest);
+        final boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        // Also on 304 responses, like the ETag
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // Also sets the ETag header of the response. Listings too small to be compressed get the gzip ETag too,
+        // which only means the same body has two ETags
+        final String catalogVersion = productService.getCatalogVersion();
+        if (webRequest.checkNotModified(eTag(catalogVersion, mediaType, gzip))) {
+            return null;
+        }
+        final SerializedListing listing = productListingCache.get(catalogVersion, mediaType,
+                productService::countProducts, () -> productService.getAllProducts(catalogVersion));
+        if (listing == null) {
+            writeListing(catalogVersion, mediaType, gzip, servletResponse);
+            return null;
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(listing.contentType());
+        if (listing.gzipBody() != null && gzip) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(listing.gzipBody());
+        }
+        return response.body(listing.body());
+    }
+
+    /**
+     * Returns a page of products (keyset pagination), optionally filtered by price range or name prefix and sorted
+     * by ID (default), price or name - e.g. {@code ?minPrice=10&maxPrice=20&sort=-price&limit=50}.
+     * If there are more products, the response contains a Link header with the URI of the next page.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<ProductPageDto> getProductPage(@RequestParam(required = false) final String after,
+                                                         @RequestParam final int limit,
+                                                         @RequestParam(required = false) final Float minPrice,
+                                                         @RequestParam(required = false) final Float maxPrice,
+                                                         @RequestParam(required = false) final String nameStartsWith,
+                                                         @RequestParam(required = false) final String sort) {
+        final ProductListQuery query = new ProductListQuery(minPrice, maxPrice, nameStartsWith, sort);
+        final ProductPageDto page = query.isEmpty()
+                ? productService.getProductPage(parseIdCursor(after), limit)
+                : productService.getProductPage(query, after, limit);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT);
+        if (page.nextCursor() != null) {
+            // The query of the current request is already encoded, cursors do not need encoding
+            final URI nextUri = ServletUriComponentsBuilder
+                    .fromCurrentRequest()
+                    .replaceQueryParam("after", page.nextCursor())
+                    .build(true)
+                    .toUri();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page);
     }
 
+    /**
+     * Returns all products as a JSON array, written directly from a database cursor,
+     * so the products are never held in memory all at once.
+     */
+    @GetMapping(params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        final StreamingResponseBody body = outputStream ->
+                ProductStreamWriter.writeJsonArray(objectMapper, outputStream, productService::forEachProduct);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Returns all products as length-delimited Protobuf messages (each {@code Product} preceded by its size),
+     * written directly from a database cursor - the binary counterpart of {@link #streamAllProducts()}.
+     */
+    @GetMapping(params = "stream=true", produces = PROTOBUF_DELIMITED)
+    public ResponseEntity<StreamingResponseBody> streamAllProductsProtobuf() {
+        final StreamingResponseBody body = outputStream ->
+                ProductStreamWriter.writeDelimitedProtobuf(outputStream, productService::forEachProduct);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(PROTOBUF_DELIMITED))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    /**
+     * Exports all products as newline delimited JSON (one product per line), written directly from a database cursor.
+     * The response is gzip compressed if the client accepts it.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) final String acceptEncoding) {
+        final boolean gzip = acceptsGzip(acceptEncoding);
+        final StreamingResponseBody body = outputStream -> {
+            try {
+                if (gzip) {
+                    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE)) {
+                        ProductStreamWriter.writeNdjson(objectMapper, gzipOutputStream, productService::forEachProduct);
+                    }
+                } else {
+                    ProductStreamWriter.writeNdjson(objectMapper, outputStream, productService::forEachProduct);
+                }
+            } catch (final IOException e) {
+                log.warn("Product export aborted - {}", e.getMessage());
+                throw e;
+            }
+        };
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Returns the product, with its version and the format as the ETag.
+     * If the client already has the current version (If-None-Match), 304 is returned without a body.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable final Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable final Long id, final NativeWebRequest webRequest)
+            throws HttpMediaTypeNotAcceptableException {
+        final MediaType mediaType = selectMediaType(webRequest);
         final ProductDto productById = productService.getProductById(id);
-        return ResponseEntity.ok(productById);
+        return withProductHeaders(ResponseEntity.ok(), productById, mediaType)
+                .body(productById);
     }
 
     @PostMapping
-    public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody final ProductDto productDto) {
+    public ResponseEntity<ProductDto> createProduct(@Valid @RequestBody final ProductDto productDto,
+                                                    final NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        final MediaType mediaType = selectMediaType(webRequest);
         final ProductDto product = productService.createProduct(productDto);
         // Return header with URI of new resource
         final URI createdUri = ServletUriComponentsBuilder
@@ -58,19 +258,28 @@ public class ProductController {
                 .path("/{id}")
                 .buildAndExpand(product.getId())
                 .toUri();
-        return ResponseEntity
-                .created(createdUri)
+        return withProductHeaders(ResponseEntity.created(createdUri), product, mediaType)
                 .body(product);
     }
 
+    /**
+     * Updates the product. If the request has an If-Match header, the product is only updated if its current ETag
+     * matches, otherwise 412 is returned - only the version of the ETag is compared, so the ETag of the product
+     * in any format matches.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable final Long id, @Valid @RequestBody final ProductDto productDto) {
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable final Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch,
+                                                    @Valid @RequestBody final ProductDto productDto,
+                                                    final NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
         if (!id.equals(productDto.getId())) {
             log.error("Invalid update request - IDs in path and body do not match");
             return ResponseEntity.badRequest().build();
         }
-        final ProductDto updatedProduct = productService.updateProduct(id, productDto);
-        return ResponseEntity.ok(updatedProduct);
+        final MediaType mediaType = selectMediaType(webRequest);
+        final ProductDto updatedProduct = productService.updateProduct(id, productDto, parseExpectedVersion(ifMatch));
+        return withProductHeaders(ResponseEntity.ok(), updatedProduct, mediaType)
+                .body(updatedProduct);
     }
 
     @DeleteMapping("/{id}")
@@ -79,4 +288,151 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Writes a full listing of the catalog version in the media type directly from a database cursor to the response,
+     * gzip compressed if the client accepts it.
+     */
+    private void writeListing(final String catalogVersion, final MediaType mediaType, final boolean gzip,
+                              final HttpServletResponse response) throws IOException {
+        response.setContentType(mediaType.toString());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE)) {
+                writeListing(mediaType, gzipOutputStream, consumer -> productService.forEachProduct(catalogVersion, consumer));
+            }
+        } else {
+            writeListing(mediaType, response.getOutputStream(), consumer -> productService.forEachProduct(catalogVersion, consumer));
+        }
+    }
+
+    private void writeListing(final MediaType mediaType, final OutputStream outputStream,
+                              final ProductStreamWriter.ProductSource products) throws IOException {
+        if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+            ProductStreamWriter.writeJsonArray(CBOR_MAPPER, outputStream, products);
+        } else if (mediaType.isCompatibleWith(MediaType.parseMediaType(SMILE))) {
+            ProductStreamWriter.writeJsonArray(SMILE_MAPPER, outputStream, products);
+        } else if (mediaType.isCompatibleWith(MediaType.parseMediaType(ProductProtobuf.MEDIA_TYPE))) {
+            ProductStreamWriter.writeProtobufList(outputStream, products);
+        } else {
+            ProductStreamWriter.writeJsonArray(objectMapper, outputStream, products);
+        }
+    }
+
+    /**
+     * Selects the media type of a response - the first of the product media types which the client accepts,
+     * in the order of its preference.
+     */
+    private MediaType selectMediaType(final NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        final List<MediaType> acceptedTypes = new ArrayList<>(contentNegotiationManager.resolveMediaTypes(webRequest));
+        MimeTypeUtils.sortBySpecificity(acceptedTypes);
+        for (final MediaType acceptedType : acceptedTypes) {
+            for (final MediaType mediaType : MEDIA_TYPES) {
+                if (acceptedType.isCompatibleWith(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(MEDIA_TYPES);
+    }
+
+    /**
+     * Sets the media type, the ETag and Vary headers of a response with a product. Tomcat never compresses responses
+     * with a strong ETag, so their encoding is always the same.
+     */
+    private static ResponseEntity.BodyBuilder withProductHeaders(final ResponseEntity.BodyBuilder response,
+                                                                 final ProductDto product, final MediaType mediaType) {
+        return response
+                .contentType(mediaType)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .eTag(eTag(String.valueOf(product.getVersion()), mediaType, false));
+    }
+
+    /**
+     * ETag of a representation - the version of the product or listing, its format and encoding,
+     * e.g. {@code "5-json"} or {@code "124082-protobuf-gzip"}.
+     */
+    private static String eTag(final String version, final MediaType mediaType, final boolean gzip) {
+        return version + "-" + ETAG_FORMATS.get(mediaType) + (gzip ? "-gzip" : "");
+    }
+
+    /**
+     * Whether the client accepts gzip - listed (or covered by {@code *}) with a quality above 0.
+     */
+    static boolean acceptsGzip(@Nullable final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Float gzipQuality = null;
+        Float anyQuality = null;
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parts = coding.split(";");
+            final String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            float quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                final String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2).trim());
+                    } catch (final NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzipQuality = quality;
+            } else if (name.equals("*")) {
+                anyQuality = quality;
+            }
+        }
+        if (gzipQuality != null) {
+            return gzipQuality > 0;
+        }
+        return anyQuality != null && anyQuality > 0;
+    }
+
+    /**
+     * Parses the product version from an If-Match header.
+     *
+     * @param ifMatch If-Match header value
+     * @return expected product version, {@code null} if any version matches (no header or {@code *})
+     * @throws PreconditionFailedException if the header does not contain a single strong product ETag
+     *                                     (the version, optionally followed by the format)
+     */
+    @Nullable
+    private static Long parseExpectedVersion(@Nullable final String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        final List<ETag> etags = ETag.parse(ifMatch);
+        if (etags.size() == 1 && etags.get(0).isWildcard()) {
+            return null;
+        }
+        // Weak ETags never match in If-Match (strong comparison)
+        if (etags.size() != 1 || etags.get(0).weak()) {
+            throw new PreconditionFailedException("If-Match must contain a single strong ETag of the product");
+        }
+        final String tag = etags.get(0).tag();
+        final int formatStart = tag.indexOf('-');
+        try {
+            return Long.valueOf(formatStart < 0 ? tag : tag.substring(0, formatStart));
+        } catch (final NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not contain an ETag of the product");
+        }
+    }
+
+    /**
+     * Parses the cursor of a listing ordered by ID, which is the ID of the last product of the previous page.
+     */
+    @Nullable
+    private static Long parseIdCursor(@Nullable final String after) {
+        if (after == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(after);
+        } catch (final NumberFormatException e) {
+            throw new InvalidRequestException("Invalid cursor '" + after + "'", e);
+        }
+    }
+
 }
@@ -0,0 +1,43 @@
+package com.example.store.controller;
+
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.ImportReport;
+import com.example.store.service.ProductImportService;
+
+/**
+ * Controller for bulk imports of products, e.g. initial loads and re-syncs.
+ * Reachable at /api/products:import.
+ * <p>
+ * The request body is streamed to the database while it is uploaded, so its size is not limited by memory.
+ */
+@RestController
+public class ProductImportController {
+
+    private static final String IMPORT_PATH = "/products:import";
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductImportService productImportService;
+
+    @Autowired
+    public ProductImportController(final ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    @PostMapping(value = IMPORT_PATH, consumes = TEXT_CSV_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importCsv(final InputStream inputStream) {
+        return ResponseEntity.ok(productImportService.importCsv(inputStream));
+    }
+
+    @PostMapping(value = IMPORT_PATH, consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importNdjson(final InputStream inputStream) {
+        return ResponseEntity.ok(productImportService.importNdjson(inputStream));
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.store.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.ProductPriceDto;
+import com.example.store.service.ProductPriceService;
+
+import jakarta.validation.Valid;
+
+/**
+ * Controller for price updates of products, which are written behind (see {@link ProductPriceService}).
+ * Reachable at /api/products/{id}/price.
+ * <ul>
+ *     <li>{@code PUT /api/products/{id}/price} - 202 ACCEPTED as soon as the update is buffered,
+ *     updates of non-existing products are discarded</li>
+ *     <li>{@code PUT /api/products/{id}/price?sync=true} - 204 NO CONTENT once the price is written,
+ *     or 404 NOT FOUND if the product does not exist</li>
+ * </ul>
+ * If too many price updates are pending, the update is rejected with 503 SERVICE UNAVAILABLE.
+ */
+@RestController
+public class ProductPriceController {
+
+    private static final String PRICE_PATH = "/products/{id}/price";
+
+    private final ProductPriceService productPriceService;
+
+    @Autowired
+    public ProductPriceController(final ProductPriceService productPriceService) {
+        this.productPriceService = productPriceService;
+    }
+
+    @PutMapping(PRICE_PATH)
+    public ResponseEntity<Void> updatePrice(@PathVariable final Long id, @Valid @RequestBody final ProductPriceDto priceDto) {
+        productPriceService.updatePrice(id, priceDto.price());
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Responds when the price is written, without holding the request thread until then.
+     */
+    @PutMapping(value = PRICE_PATH, params = "sync=true")
+    public CompletableFuture<ResponseEntity<Void>> updatePriceSync(@PathVariable final Long id,
+                                                                   @Valid @RequestBody final ProductPriceDto priceDto) {
+        return productPriceService.updatePrice(id, priceDto.price())
+                .thenApply(written -> written
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.store.controller;
+
+import java.net.URI;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.store.dto.ProductPageDto;
+import com.example.store.service.ProductSearchService;
+
+/**
+ * Controller for searching products by name and description.
+ * Reachable at /api/products/search.
+ */
+@RestController
+public class ProductSearchController {
+
+    private final ProductSearchService productSearchService;
+
+    @Autowired
+    public ProductSearchController(final ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    /**
+     * Returns a page of products matching the query, the most relevant first.
+     * If there are more products, the response contains a Link header with the URI of the next page.
+     */
+    @GetMapping(value = "/products/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductPageDto> searchProducts(@RequestParam("q") final String query,
+                                                         @RequestParam(required = false) final String after,
+                                                         @RequestParam(defaultValue = "20") final int limit) {
+        final ProductPageDto page = productSearchService.searchProducts(query, after, limit);
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            // The query of the current request is already encoded, the cursor does not need encoding
+            final URI nextUri = ServletUriComponentsBuilder
+                    .fromCurrentRequest()
+                    .replaceQueryParam("after", page.nextCursor())
+                    .build(true)
+                    .toUri();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(page);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.example.store.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.store.dto.ProductStatsDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.service.ProductStatsService;
+
+/**
+ * Controller for aggregates of product prices, for reporting.
+ * Reachable at /api/products/stats.
+ */
+@RestController
+public class ProductStatsController {
+
+    /**
+     * Maximum number of histogram buckets.
+     */
+    static final int MAX_BUCKETS = 1000;
+
+    private final ProductStatsService productStatsService;
+
+    @Autowired
+    public ProductStatsController(final ProductStatsService productStatsService) {
+        this.productStatsService = productStatsService;
+    }
+
+    /**
+     * Returns the number of products and the min, max, average and percentiles of their prices, with a histogram
+     * of {@code buckets} price buckets of equal width - of all products, or of products whose name starts with
+     * {@code nameStartsWith} (case-sensitive). Aggregates are computed from an in-memory snapshot of the products,
+     * which includes changes within about half a second ({@code seq} is the last included change of the change feed).
+     * Returns 503 SERVICE UNAVAILABLE while the snapshot is loaded after startup.
+     */
+    @GetMapping("/products/stats")
+    public ProductStatsDto getStats(@RequestParam(required = false) final String nameStartsWith,
+                                    @RequestParam(defaultValue = "10") final int buckets) {
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw new InvalidRequestException("Buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        return productStatsService.getStats(nameStartsWith == null || nameStartsWith.isEmpty() ? null : nameStartsWith, buckets);
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.example.store.controller;
+
+import java.time.Duration;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.stream.ProductUpdateHub;
+
+/**
+ * Controller for live updates of products, as Server-Sent Events.
+ * Reachable at /api/products/updates.
+ */
+@RestController
+public class ProductUpdateController {
+
+    /**
+     * Maximum number of products a client can subscribe to, otherwise it subscribes to the whole catalog.
+     */
+    static final int MAX_PRODUCT_IDS = 1000;
+
+    private final ProductUpdateHub productUpdateHub;
+    private final Duration timeout;
+
+    /**
+     * @param productUpdateHub hub of the subscribers
+     * @param timeout          how long a subscription lasts, before the client has to subscribe again
+     */
+    @Autowired
+    public ProductUpdateController(final ProductUpdateHub productUpdateHub,
+                                   @Value("${store.live-updates.timeout:30m}") final Duration timeout) {
+        this.productUpdateHub = productUpdateHub;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Subscribes to updates of the specified products, or of all products if no IDs are specified.
+     * The first event ({@code subscribed}) has the sequence number of the change feed after which all updates are sent,
+     * each update is sent as a {@code product} event with a change of the change feed
+     * (see {@link ProductChangeController}), with its sequence number as event ID.
+     * If the client does not read the updates fast enough, it gets a {@code resync} event with the sequence number
+     * of the last update it got, and the stream ends - the client then reads the missed changes from the change feed,
+     * and subscribes again. Returns 503 SERVICE UNAVAILABLE if there are too many subscribers.
+     */
+    @GetMapping(value = "/products/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) final Set<Long> ids) {
+        if (ids != null && ids.size() > MAX_PRODUCT_IDS) {
+            throw new InvalidRequestException("At most " + MAX_PRODUCT_IDS + " products can be subscribed to");
+        }
+        final SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        productUpdateHub.subscribe(emitter, ids == null || ids.isEmpty() ? null : ids);
+        return emitter;
+    }
+
+}
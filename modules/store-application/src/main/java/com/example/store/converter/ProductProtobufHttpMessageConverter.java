@@ -0,0 +1,126 @@
+package com.example.store.converter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.protobuf.ProductProtobuf;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Reads and writes product payloads in the Protobuf wire format ({@value ProductProtobuf#MEDIA_TYPE}, see
+ * {@link ProductProtobuf}) - {@link ProductDto} as {@code Product}, a list of products as {@code ProductList}
+ * and {@link ProductPageDto} as {@code ProductPage}.
+ * <p>
+ * Streamed listings ({@code delimited=true}) are written directly by the controller, not by this converter.
+ */
+@Component
+public class ProductProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(ProductProtobuf.MEDIA_TYPE);
+
+    public ProductProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(@NotNull final Class<?> clazz) {
+        return clazz == ProductDto.class || clazz == ProductPageDto.class;
+    }
+
+    @Override
+    public boolean canRead(@NotNull final Type type, @Nullable final Class<?> contextClass, @Nullable final MediaType mediaType) {
+        return isProductPayload(type) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable final Type type, @NotNull final Class<?> clazz, @Nullable final MediaType mediaType) {
+        return isProductPayload(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    protected boolean canRead(@Nullable final MediaType mediaType) {
+        return !isDelimited(mediaType) && super.canRead(mediaType);
+    }
+
+    @Override
+    protected boolean canWrite(@Nullable final MediaType mediaType) {
+        return !isDelimited(mediaType) && super.canWrite(mediaType);
+    }
+
+    @NotNull
+    @Override
+    public Object read(@NotNull final Type type, @Nullable final Class<?> contextClass,
+                       @NotNull final HttpInputMessage inputMessage) throws IOException {
+        return readPayload(ResolvableType.forType(type).toClass(), inputMessage);
+    }
+
+    @NotNull
+    @Override
+    protected Object readInternal(@NotNull final Class<?> clazz, @NotNull final HttpInputMessage inputMessage) throws IOException {
+        return readPayload(clazz, inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(@NotNull final Object payload, @Nullable final Type type,
+                                 @NotNull final HttpOutputMessage outputMessage) throws IOException {
+        if (payload instanceof ProductDto product) {
+            final CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+            ProductProtobuf.writeProduct(product, output);
+            output.flush();
+        } else if (payload instanceof ProductPageDto page) {
+            ProductProtobuf.writePage(page, outputMessage.getBody());
+        } else {
+            ProductProtobuf.writeList((List<ProductDto>) payload, outputMessage.getBody());
+        }
+    }
+
+    @Override
+    protected Long getContentLength(@NotNull final Object payload, @Nullable final MediaType contentType) {
+        return payload instanceof ProductDto product ? (long) ProductProtobuf.productSize(product) : null;
+    }
+
+    private static Object readPayload(final Class<?> clazz, final HttpInputMessage inputMessage) throws IOException {
+        try {
+            if (clazz == ProductDto.class) {
+                return ProductProtobuf.readProduct(CodedInputStream.newInstance(inputMessage.getBody()));
+            } else if (clazz == ProductPageDto.class) {
+                return ProductProtobuf.readPage(inputMessage.getBody());
+            }
+            return ProductProtobuf.readList(inputMessage.getBody());
+        } catch (final InvalidProtocolBufferException e) {
+            throw new HttpMessageNotReadableException("Invalid Protobuf message - " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    /**
+     * @return whether the type is a product, a page of products or a list of products
+     */
+    private static boolean isProductPayload(final Type type) {
+        final ResolvableType resolvableType = ResolvableType.forType(type);
+        final Class<?> clazz = resolvableType.toClass();
+        if (clazz == List.class) {
+            return resolvableType.getGeneric(0).toClass() == ProductDto.class;
+        }
+        return clazz == ProductDto.class || clazz == ProductPageDto.class;
+    }
+
+    private static boolean isDelimited(@Nullable final MediaType mediaType) {
+        return mediaType != null && Boolean.parseBoolean(mediaType.getParameter(ProductProtobuf.DELIMITED_PARAMETER));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.store.datasource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.example.store.exception.DatabaseBusyException;
+
+/**
+ * Data source which limits the number of connections in use, and the number of threads waiting for one.
+ * <p>
+ * The limit matches the size of the connection pool, so threads wait here instead of in the pool. When more than
+ * {@code maxWaiting} threads are already waiting, or a connection is not available within {@code acquireTimeout},
+ * {@link DatabaseBusyException} is thrown immediately - requests fail fast with 503 instead of queueing without bound.
+ * This matters with virtual threads, as the number of concurrent requests is no longer limited by the size
+ * of the request thread pool.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param dataSource     target data source
+     * @param maxConcurrency maximum number of connections in use at once
+     * @param maxWaiting     maximum number of threads waiting for a connection
+     * @param acquireTimeout maximum time to wait for a connection
+     */
+    public ConcurrencyLimitedDataSource(@NotNull final DataSource dataSource, final int maxConcurrency,
+                                        final int maxWaiting, @NotNull final Duration acquireTimeout) {
+        super(dataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @NotNull
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return releaseOnClose(obtainTargetDataSource()::getConnection);
+    }
+
+    @NotNull
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        acquire();
+        return releaseOnClose(() -> obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * @return number of threads currently waiting for a connection
+     */
+    public int getWaiting() {
+        return this.waiting.get();
+    }
+
+    /**
+     * @return number of connections which can currently be obtained without waiting
+     */
+    public int getAvailable() {
+        return this.permits.availablePermits();
+    }
+
+    /**
+     * @return number of connection requests rejected with {@link DatabaseBusyException} so far
+     */
+    public long getRejected() {
+        return this.rejected.get();
+    }
+
+    private void acquire() throws SQLException {
+        if (this.permits.tryAcquire()) {
+            return;
+        }
+        if (this.waiting.incrementAndGet() > this.maxWaiting) {
+            this.waiting.decrementAndGet();
+            this.rejected.incrementAndGet();
+            throw new DatabaseBusyException("Too many requests are waiting for a database connection");
+        }
+        try {
+            if (!this.permits.tryAcquire(this.acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                this.rejected.incrementAndGet();
+                throw new DatabaseBusyException("Database connection not available within "
+                        + TimeUnit.NANOSECONDS.toMillis(this.acquireTimeoutNanos) + " ms");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            this.waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets a connection from the target data source, which releases the permit when it is closed (returned to the pool).
+     */
+    private Connection releaseOnClose(final ConnectionSupplier supplier) throws SQLException {
+        final Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (final SQLException | RuntimeException e) {
+            this.permits.release();
+            throw e;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        // Closing a closed connection has no effect
+                        if (released.compareAndSet(false, true)) {
+                            try {
+                                connection.close();
+                            } finally {
+                                this.permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (final InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
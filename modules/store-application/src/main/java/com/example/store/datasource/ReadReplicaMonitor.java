@@ -0,0 +1,94 @@
+package com.example.store.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.SmartLifecycle;
+
+import com.example.store.persistence.datasource.ReadReplicaRoutingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks the health of the read replicas periodically, so unhealthy replicas are no longer used and recovered ones
+ * are used again (see {@link ReadReplicaRoutingDataSource#checkReplicas}). Closes the replica connection pools
+ * when the application context is closed.
+ * <p>
+ * The number of healthy replicas is published as the metric {@code store.datasource.replicas.healthy}.
+ */
+@Slf4j
+public class ReadReplicaMonitor implements SmartLifecycle, DisposableBean {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ReadReplicaRoutingDataSource routingDataSource;
+    private final Duration interval;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param dataSource    data source wrapping a {@link ReadReplicaRoutingDataSource}
+     * @param meterRegistry registry of the health metric
+     * @param interval      interval of the health checks
+     */
+    public ReadReplicaMonitor(@NotNull final DataSource dataSource, @NotNull final MeterRegistry meterRegistry,
+                              @NotNull final Duration interval) {
+        try {
+            this.routingDataSource = dataSource.unwrap(ReadReplicaRoutingDataSource.class);
+        } catch (final SQLException e) {
+            throw new IllegalStateException("Data source does not route to read replicas", e);
+        }
+        this.interval = interval;
+        Gauge.builder("store.datasource.replicas.healthy", this.routingDataSource, routing -> routing.getHealthyReplicas().size())
+                .description("Read replicas which are used by read-only transactions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "read-replica-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(() -> this.routingDataSource.checkReplicas(VALIDATION_TIMEOUT_SECONDS),
+                0, this.interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.executor != null;
+    }
+
+    @Override
+    public void destroy() {
+        for (final DataSource replica : this.routingDataSource.getReplicas().values()) {
+            try {
+                if (replica.isWrapperFor(Closeable.class)) {
+                    replica.unwrap(Closeable.class).close();
+                }
+            } catch (final SQLException | IOException e) {
+                log.warn("Failed to close read replica connection pool", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.store.datasource;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import com.example.store.persistence.datasource.DataSourceRouting;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lets clients read their own writes, although read replicas lag behind the primary.
+ * <p>
+ * A write request (any method except GET, HEAD and OPTIONS) sets the cookie {@value #COOKIE} with the time
+ * until which requests of the client only use the primary (see {@link DataSourceRouting}).
+ * Clients which do not send cookies back may read stale data from a replica after their writes.
+ */
+@Slf4j
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "store-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Duration window;
+
+    /**
+     * @param window time after a write, in which requests of the client only use the primary
+     */
+    public ReadYourWritesFilter(@NotNull final Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull final HttpServletRequest request, @NotNull final HttpServletResponse response,
+                                    @NotNull final FilterChain filterChain) throws ServletException, IOException {
+        final long now = System.currentTimeMillis();
+        if (!READ_METHODS.contains(request.getMethod())) {
+            // Set before the response is committed
+            final Cookie cookie = new Cookie(COOKIE, String.valueOf(now + this.window.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, this.window.toSeconds()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            DataSourceRouting.requirePrimary();
+        } else if (primaryRequiredUntil(request) > now) {
+            DataSourceRouting.requirePrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.clear();
+        }
+    }
+
+    private static long primaryRequiredUntil(final HttpServletRequest request) {
+        final Cookie cookie = WebUtils.getCookie(request, COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (final NumberFormatException e) {
+            log.debug("Invalid cookie {} value '{}'", COOKIE, cookie.getValue());
+            return 0;
+        }
+    }
+}
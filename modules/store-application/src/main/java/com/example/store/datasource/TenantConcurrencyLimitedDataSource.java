@@ -0,0 +1,133 @@
+package com.example.store.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.example.store.exception.DatabaseBusyException;
+import com.example.store.persistence.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Data source which limits the number of connections in use by each tenant (see {@link TenantContext}),
+ * so a tenant with many slow or concurrent requests cannot take all connections of the pool - requests of other
+ * tenants still get one without waiting behind it.
+ * <p>
+ * Each tenant has its own {@link ConcurrencyLimitedDataSource} over the target data source: when more than
+ * {@code maxWaiting} threads of the tenant are already waiting, or a connection is not available within
+ * {@code acquireTimeout}, {@link DatabaseBusyException} is thrown (503). Limiters of tenants which have not used
+ * the database for a while are removed.
+ * <p>
+ * The state of the limiters is published as metrics {@code store.tenant.datasource.concurrency.*}, tagged by tenant.
+ */
+public class TenantConcurrencyLimitedDataSource extends DelegatingDataSource implements MeterBinder {
+
+    /**
+     * Limiters are removed this long after their last use - much longer than a connection is held.
+     */
+    private static final Duration IDLE_EXPIRY = Duration.ofHours(1);
+
+    private static final String METER_PREFIX = "store.tenant.datasource.concurrency.";
+    private static final String TENANT_TAG = "tenant";
+
+    /**
+     * Registry of the limiter metrics, once bound.
+     */
+    private volatile MeterRegistry meterRegistry;
+    private final LoadingCache<String, ConcurrencyLimitedDataSource> limiters;
+
+    /**
+     * @param dataSource     target data source
+     * @param maxConcurrency maximum number of connections in use at once by a tenant
+     * @param maxWaiting     maximum number of threads of a tenant waiting for a connection
+     * @param acquireTimeout maximum time to wait for a connection
+     */
+    public TenantConcurrencyLimitedDataSource(@NotNull final DataSource dataSource, final int maxConcurrency,
+                                              final int maxWaiting, @NotNull final Duration acquireTimeout) {
+        super(dataSource);
+        this.limiters = Caffeine.newBuilder()
+                .expireAfterAccess(IDLE_EXPIRY)
+                .<String, ConcurrencyLimitedDataSource>removalListener((tenantId, limiter, cause) -> removeMeters(tenantId))
+                .build(tenantId -> {
+                    final ConcurrencyLimitedDataSource limiter =
+                            new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, maxWaiting, acquireTimeout);
+                    final MeterRegistry registry = this.meterRegistry;
+                    if (registry != null) {
+                        registerMeters(registry, tenantId, limiter);
+                    }
+                    return limiter;
+                });
+    }
+
+    @NotNull
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limiter().getConnection();
+    }
+
+    @NotNull
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return limiter().getConnection(username, password);
+    }
+
+    /**
+     * Publishes the metrics of the limiters, including the ones of tenants which use the database later.
+     */
+    @Override
+    public void bindTo(@NotNull final MeterRegistry registry) {
+        this.meterRegistry = registry;
+        this.limiters.asMap().forEach((tenantId, limiter) -> registerMeters(registry, tenantId, limiter));
+    }
+
+    /**
+     * @return limiters of the tenants which used the database recently, by tenant
+     */
+    @NotNull
+    public Map<String, ConcurrencyLimitedDataSource> getLimiters() {
+        return Map.copyOf(this.limiters.asMap());
+    }
+
+    private ConcurrencyLimitedDataSource limiter() {
+        return this.limiters.get(TenantContext.getTenantId());
+    }
+
+    private static void registerMeters(final MeterRegistry registry, final String tenantId,
+                                       final ConcurrencyLimitedDataSource limiter) {
+        Gauge.builder(METER_PREFIX + "available", limiter, ConcurrencyLimitedDataSource::getAvailable)
+                .description("Connections which the tenant can obtain without waiting")
+                .tag(TENANT_TAG, tenantId)
+                .register(registry);
+        Gauge.builder(METER_PREFIX + "waiting", limiter, ConcurrencyLimitedDataSource::getWaiting)
+                .description("Threads of the tenant waiting for a connection")
+                .tag(TENANT_TAG, tenantId)
+                .register(registry);
+        FunctionCounter.builder(METER_PREFIX + "rejected", limiter, ConcurrencyLimitedDataSource::getRejected)
+                .description("Connection requests of the tenant rejected because it uses all its connections (503)")
+                .tag(TENANT_TAG, tenantId)
+                .register(registry);
+    }
+
+    private void removeMeters(final String tenantId) {
+        final MeterRegistry registry = this.meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        for (final String name : List.of("available", "waiting", "rejected")) {
+            registry.find(METER_PREFIX + name).tag(TENANT_TAG, tenantId).meters().forEach(registry::remove);
+        }
+    }
+}
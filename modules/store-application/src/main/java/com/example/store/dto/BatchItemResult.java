@@ -0,0 +1,25 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.example.store.error.ValidationError;
+
+/**
+ * Result of a single item of a batch request.
+ *
+ * @param index  index of the item in the request
+ * @param status HTTP status code the item would get as a single request, e.g. 201 (created), 400 (invalid), 404 (not found)
+ * @param id     ID of the product, if known
+ * @param errors errors of the item, empty if the item was successful
+ */
+public record BatchItemResult(int index, int status, Long id, List<ValidationError> errors) implements Serializable {
+
+    public static BatchItemResult success(final int index, final int status, final Long id) {
+        return new BatchItemResult(index, status, id, List.of());
+    }
+
+    public static BatchItemResult failure(final int index, final int status, final Long id, final List<ValidationError> errors) {
+        return new BatchItemResult(index, status, id, errors);
+    }
+}
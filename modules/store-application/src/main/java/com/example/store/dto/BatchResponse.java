@@ -0,0 +1,12 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Response of a batch request, containing a result for each item, in the same order as the items in the request.
+ *
+ * @param results item results
+ */
+public record BatchResponse(List<BatchItemResult> results) implements Serializable {
+}
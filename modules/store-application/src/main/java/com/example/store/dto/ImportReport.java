@@ -0,0 +1,17 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Report of a product import.
+ *
+ * @param accepted     number of valid rows, which were imported
+ * @param rejected     number of invalid rows, which were skipped
+ * @param inserted     number of inserted products
+ * @param updated      number of updated products
+ * @param rejectedRows details of rejected rows, limited to the first 1000
+ */
+public record ImportReport(long accepted, long rejected, long inserted, long updated,
+                           List<RejectedRow> rejectedRows) implements Serializable {
+}
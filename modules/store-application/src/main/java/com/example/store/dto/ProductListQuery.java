@@ -0,0 +1,33 @@
+package com.example.store.dto;
+
+/**
+ * Filters and order of a product listing.
+ *
+ * @param minPrice       minimum price (inclusive), {@code null} for no minimum
+ * @param maxPrice       maximum price (inclusive), {@code null} for no maximum
+ * @param nameStartsWith prefix of product names (case-sensitive), {@code null} for any name
+ * @param sort           attribute by which products are ordered, prefixed with {@code -} for descending order,
+ *                       {@code null} for the default order
+ */
+public record ProductListQuery(Float minPrice, Float maxPrice, String nameStartsWith, String sort) {
+
+    /**
+     * Names of the request parameters of a product listing query.
+     */
+    public static final String[] PARAMETERS = {"minPrice", "maxPrice", "nameStartsWith", "sort"};
+
+    /**
+     * @return whether the query neither filters nor orders products
+     */
+    public boolean isEmpty() {
+        return minPrice == null && maxPrice == null && nameStartsWith == null && sort == null;
+    }
+
+    public boolean filtersByPrice() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean filtersByName() {
+        return nameStartsWith != null;
+    }
+}
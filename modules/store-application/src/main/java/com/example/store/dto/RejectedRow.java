@@ -0,0 +1,15 @@
+package com.example.store.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.example.store.error.ValidationError;
+
+/**
+ * Row of an import which was rejected.
+ *
+ * @param row    1-based number of the row in the upload (CSV header is not counted)
+ * @param errors reasons for rejection
+ */
+public record RejectedRow(long row, List<ValidationError> errors) implements Serializable {
+}
@@ -41,7 +41,8 @@ public final class ProductDtoMapper {
                 product.getId(),
                 product.getName(),
                 product.getDescription(),
-                product.getPrice()
+                product.getPrice(),
+                product.getVersion()
         );
     }
 }
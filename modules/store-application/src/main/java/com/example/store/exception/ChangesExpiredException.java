@@ -0,0 +1,16 @@
+package com.example.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when changes after a sequence number are no longer available in the change feed.
+ * Will return 410 GONE by the handler.
+ */
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesExpiredException extends RuntimeException {
+
+    public ChangesExpiredException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.store.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown instead of a database connection, when too many requests are already waiting for one.
+ * Will return 503 SERVICE UNAVAILABLE by the handler, also when wrapped by the persistence layer.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DatabaseBusyException extends SQLTransientConnectionException {
+
+    public DatabaseBusyException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception which will return 400 BAD REQUEST by the handler.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(final String message) {
+        super(message);
+    }
+
+    public InvalidRequestException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
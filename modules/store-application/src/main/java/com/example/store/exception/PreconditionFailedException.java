@@ -0,0 +1,15 @@
+package com.example.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception which will return 412 PRECONDITION FAILED by the handler.
+ */
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(final String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.store.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request cannot be accepted because the service is overloaded or shutting down.
+ * Will return 503 SERVICE UNAVAILABLE by the handler.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(final String message) {
+        super(message);
+    }
+}
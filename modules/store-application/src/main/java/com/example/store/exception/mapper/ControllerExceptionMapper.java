@@ -3,6 +3,7 @@ package com.example.store.exception.mapper;
 import java.util.List;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +19,7 @@ public class ControllerExceptionMapper {
     /**
      * Maps {@link MethodArgumentNotValidException} to a 400 bad request,
      * and a {@link ValidationErrorResponse} body containing the validation errors.
+     * The body is always JSON, also for requests accepting only a binary format (e.g. Protobuf has no error message).
      *
      * @param e validation exception
      * @return response entity
@@ -29,6 +31,7 @@ public class ControllerExceptionMapper {
                 .map(fieldError -> new ValidationError(fieldError.getField(), fieldError.getDefaultMessage()))
                 .toList();
         return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
                 .body(new ValidationErrorResponse(validationErrors));
     }
 
@@ -0,0 +1,11 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.store.dto.ProductChangesDto;
+
+public interface ProductChangeService {
+
+    CompletableFuture<ProductChangesDto> getChanges(long since, int limit, Duration wait);
+}
@@ -0,0 +1,241 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.mapper.ProductDtoMapper;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeEntry;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default implementation of {@link ProductChangeService} - reads the change feed of the current tenant
+ * (see {@link ProductChangeLog}).
+ * <p>
+ * Requests without changes can wait for them (long polling) - the heads of the change feeds are checked every
+ * {@code store.changes.poll-interval} while requests are waiting, with a single query for all tenants, and waiting
+ * requests of a tenant with new changes are completed. Requests waiting for the same changes share a single read.
+ * The number of waiting requests is published as the metric {@code store.changes.waiting}.
+ * <p>
+ * The feed is compacted every {@code store.changes.compaction-interval} - changes superseded by a later change
+ * of the same product are removed, and so are tombstones older than {@code store.changes.tombstone-retention}.
+ * Readers which have not read the feed for longer than the retention get 410 GONE, and read it from the start again.
+ */
+@Slf4j
+@Service
+public class ProductChangeServiceImpl implements ProductChangeService, SmartLifecycle {
+
+    /**
+     * Maximum number of changes returned at once.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final ProductChangeLog productChangeLog;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Duration pollInterval;
+    private final Duration compactionInterval;
+    private final Duration tombstoneRetention;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public ProductChangeServiceImpl(final ProductChangeLog productChangeLog,
+                                    final PlatformTransactionManager transactionManager,
+                                    final MeterRegistry meterRegistry,
+                                    @Value("${store.changes.poll-interval:500ms}") final Duration pollInterval,
+                                    @Value("${store.changes.compaction-interval:1h}") final Duration compactionInterval,
+                                    @Value("${store.changes.tombstone-retention:7d}") final Duration tombstoneRetention) {
+        this.productChangeLog = productChangeLog;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.pollInterval = pollInterval;
+        this.compactionInterval = compactionInterval;
+        this.tombstoneRetention = tombstoneRetention;
+
+        Gauge.builder("store.changes.waiting", this.waiters, Set::size)
+                .description("Change feed requests waiting for changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets the changes of products of the current tenant after the specified sequence number.
+     * The number of changes is bounded to [1, {@value #MAX_PAGE_SIZE}].
+     *
+     * @param since sequence number after which the changes are returned, 0 for all products
+     * @param limit requested number of changes
+     * @param wait  how long to wait for changes if there are none yet, zero to return immediately
+     * @return future completed with the changes - without changes if there were none until the wait elapsed
+     * @throws ChangesExpiredException if changes after the sequence number are no longer available (handler will
+     *                                 return 410 gone)
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<ProductChangesDto> getChanges(final long since, final int limit, @NotNull final Duration wait) {
+        final Position position = new Position(TenantContext.getTenantId(), Math.max(0, since),
+                Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+        final ProductChangesDto changes = readChanges(position);
+        if (changes.nextSince() > position.since() || wait.isZero() || !isRunning()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+        final Waiter waiter = new Waiter(position, new CompletableFuture<>());
+        this.waiters.add(waiter);
+        waiter.future().whenComplete((result, e) -> this.waiters.remove(waiter));
+        return waiter.future().completeOnTimeout(changes, wait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        this.executor = Executors.newScheduledThreadPool(2, runnable -> {
+            final Thread thread = new Thread(runnable, "product-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::completeWaiters,
+                this.pollInterval.toMillis(), this.pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        this.executor.scheduleWithFixedDelay(this::compact,
+                this.compactionInterval.toMillis(), this.compactionInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+        // Waiting requests are completed without changes, so clients ask again (another node)
+        for (final Waiter waiter : this.waiters) {
+            waiter.future().complete(new ProductChangesDto(List.of(), waiter.position().since()));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.executor != null;
+    }
+
+    /**
+     * Completes the waiting requests of tenants with new changes.
+     */
+    void completeWaiters() {
+        if (this.waiters.isEmpty()) {
+            return;
+        }
+        try {
+            final Map<String, ProductChangeHead> heads = this.productChangeLog.getHeads();
+            final Map<Position, ProductChangesDto> readChanges = new HashMap<>();
+            for (final Waiter waiter : this.waiters) {
+                final ProductChangeHead head = heads.get(waiter.position().tenantId());
+                if (head == null || head.getLastSeq() <= waiter.position().since()) {
+                    continue;
+                }
+                try {
+                    final ProductChangesDto changes = readChanges.computeIfAbsent(waiter.position(), this::readChangesOfTenant);
+                    if (changes.nextSince() > waiter.position().since()) {
+                        waiter.future().complete(changes);
+                    }
+                } catch (final ChangesExpiredException e) {
+                    waiter.future().completeExceptionally(e);
+                }
+            }
+        } catch (final RuntimeException e) {
+            // Requests keep waiting, until the next check or their timeout
+            log.warn("Failed to check the change feed for waiting requests", e);
+        }
+    }
+
+    /**
+     * Removes superseded changes and expired tombstones from the change feeds of all tenants.
+     */
+    void compact() {
+        final Instant tombstoneExpiry = Instant.now().minus(this.tombstoneRetention);
+        try {
+            for (final String tenantId : this.productChangeLog.getHeads().keySet()) {
+                TenantContext.setTenantId(tenantId);
+                try {
+                    final int superseded = this.productChangeLog.compact(tenantId);
+                    final int tombstones = this.productChangeLog.expireTombstones(tenantId, tombstoneExpiry);
+                    log.debug("Compacted change feed of tenant {} - removed {} superseded changes and {} expired tombstones",
+                            tenantId, superseded, tombstones);
+                } finally {
+                    TenantContext.clear();
+                }
+            }
+        } catch (final RuntimeException e) {
+            log.warn("Failed to compact the change feed", e);
+        }
+    }
+
+    private ProductChangesDto readChangesOfTenant(final Position position) {
+        TenantContext.setTenantId(position.tenantId());
+        try {
+            return readChanges(position);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    /**
+     * Reads the changes after the position, in a single read-only transaction.
+     *
+     * @throws ChangesExpiredException if tombstones after the position have been removed
+     */
+    private ProductChangesDto readChanges(final Position position) {
+        return this.readOnlyTransactionTemplate.execute(status -> {
+            final ProductChangeHead head = this.productChangeLog.getHead(position.tenantId());
+            if (position.since() > 0 && position.since() < head.getHorizonSeq()) {
+                throw new ChangesExpiredException("Changes after " + position.since()
+                        + " are no longer available - read the changes since 0 again");
+            }
+            final List<ProductChangeEntry> entries = this.productChangeLog.findChanges(position.tenantId(),
+                    position.since(), position.limit());
+            final List<ProductChangeDto> items = entries.stream()
+                    // Changes of products which were deleted later are followed by a tombstone
+                    .filter(entry -> entry.deleted() || entry.product() != null)
+                    .map(entry -> new ProductChangeDto(entry.seq(), entry.productId(), entry.deleted(), entry.changedAt(),
+                            entry.product() == null ? null : ProductDtoMapper.toDto(entry.product())))
+                    .toList();
+            long nextSince = entries.isEmpty() ? position.since() : entries.getLast().seq();
+            if (entries.size() < position.limit()) {
+                // All changes up to the head were committed before they were read - later ones were removed
+                nextSince = Math.max(nextSince, head.getLastSeq());
+            }
+            return new ProductChangesDto(items, nextSince);
+        });
+    }
+
+    /**
+     * Position of a reader in the change feed of a tenant.
+     */
+    private record Position(String tenantId, long since, int limit) {
+    }
+
+    private record Waiter(Position position, CompletableFuture<ProductChangesDto> future) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.store.service;
+
+import java.io.InputStream;
+
+import com.example.store.dto.ImportReport;
+
+public interface ProductImportService {
+
+    ImportReport importCsv(InputStream inputStream);
+
+    ImportReport importNdjson(InputStream inputStream);
+}
@@ -0,0 +1,269 @@
+package com.example.store.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+
+import com.example.store.config.CacheConfig;
+import com.example.store.dto.ImportReport;
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.RejectedRow;
+import com.example.store.error.ValidationError;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.persistence.jdbc.ProductCopyLoader;
+import com.example.store.persistence.jdbc.ProductLoadResult;
+import com.example.store.persistence.jdbc.ProductRowWriter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default implementation of {@link ProductImportService}.
+ * <p>
+ * Uploads are parsed and validated row by row, while valid rows are streamed to the database with {@link ProductCopyLoader}.
+ * The whole import runs in a single transaction - rejected rows are skipped, but any other failure rolls back the import.
+ * Rows are rejected if they are not valid, or if their ID is not the ID of an existing product of the tenant.
+ * Imports clear the product cache, since they may update any product.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    /**
+     * Maximum number of rejected rows included in the report.
+     */
+    static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    private static final ValidationError UNKNOWN_ID = new ValidationError("id", "must be the ID of an existing product");
+
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema CSV_SCHEMA = CsvSchema.emptySchema().withHeader();
+
+    private final ProductCopyLoader productCopyLoader;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Autowired
+    public ProductImportServiceImpl(final ProductCopyLoader productCopyLoader,
+                                    final ObjectMapper objectMapper,
+                                    final Validator validator) {
+        this.productCopyLoader = productCopyLoader;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Imports products from CSV with a header row. Columns are {@code id} (optional), {@code name}, {@code description}
+     * and {@code price}. Rows with an ID update the product with that ID, rows without an ID create new products.
+     * Rows with the ID of no product of the tenant are rejected.
+     *
+     * @param inputStream CSV input
+     * @return import report
+     * @throws InvalidRequestException if the CSV is malformed
+     */
+    @NotNull
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public ImportReport importCsv(@NotNull final InputStream inputStream) {
+        return importRows(rowConsumer -> {
+            try (MappingIterator<Map<String, String>> rows = CSV_MAPPER.readerFor(Map.class).with(CSV_SCHEMA).readValues(inputStream)) {
+                long row = 0;
+                while (rows.hasNextValue()) {
+                    rowConsumer.accept(++row, rows.nextValue());
+                }
+            } catch (final JsonProcessingException e) {
+                throw new InvalidRequestException("Malformed CSV - " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Imports products from newline delimited JSON - one product object per line, with the same fields as {@link ProductDto}.
+     * Objects with an ID update the product with that ID, objects without an ID create new products.
+     * Objects with the ID of no product of the tenant are rejected.
+     *
+     * @param inputStream NDJSON input
+     * @return import report
+     */
+    @NotNull
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public ImportReport importNdjson(@NotNull final InputStream inputStream) {
+        return importRows(rowConsumer -> {
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            long row = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                row++;
+                rowConsumer.accept(row, parseJsonLine(line));
+            }
+        });
+    }
+
+    /**
+     * Parses a line of NDJSON into field values.
+     *
+     * @return field values, {@code null} if the line is not a valid JSON object
+     */
+    @Nullable
+    private Map<String, String> parseJsonLine(final String line) {
+        final JsonNode node;
+        try {
+            node = this.objectMapper.readTree(line);
+        } catch (final JsonProcessingException e) {
+            return null;
+        }
+        if (!node.isObject()) {
+            return null;
+        }
+        final Map<String, String> fields = new HashMap<>();
+        final Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+        while (iterator.hasNext()) {
+            final Map.Entry<String, JsonNode> field = iterator.next();
+            if (!field.getValue().isNull()) {
+                fields.put(field.getKey(), field.getValue().asText());
+            }
+        }
+        return fields;
+    }
+
+    private ImportReport importRows(final RowReader rowReader) {
+        final ImportProgress progress = new ImportProgress();
+        final ProductLoadResult loadResult = this.productCopyLoader.load(writer ->
+                rowReader.read((row, fields) -> importRow(row, fields, writer, progress)), MAX_REPORTED_REJECTIONS);
+        final long accepted = progress.accepted - loadResult.rejected();
+        final long rejected = progress.rejected + loadResult.rejected();
+        log.info("Imported products - {} rows accepted, {} rejected, {} products inserted, {} updated",
+                accepted, rejected, loadResult.inserted(), loadResult.updated());
+        return new ImportReport(accepted, rejected, loadResult.inserted(), loadResult.updated(),
+                rejectedRows(progress.rejectedRows, loadResult.rejectedRows()));
+    }
+
+    /**
+     * Merges rows rejected by validation with rows rejected by the loader, ordered by row number.
+     */
+    private static List<RejectedRow> rejectedRows(final List<RejectedRow> invalidRows, final List<Long> unknownIdRows) {
+        final List<RejectedRow> rejectedRows = new ArrayList<>(invalidRows);
+        for (final long row : unknownIdRows) {
+            rejectedRows.add(new RejectedRow(row, List.of(UNKNOWN_ID)));
+        }
+        rejectedRows.sort(Comparator.comparingLong(RejectedRow::row));
+        return rejectedRows.size() > MAX_REPORTED_REJECTIONS
+                ? List.copyOf(rejectedRows.subList(0, MAX_REPORTED_REJECTIONS))
+                : rejectedRows;
+    }
+
+    private void importRow(final long row, @Nullable final Map<String, String> fields,
+                           final ProductRowWriter writer, final ImportProgress progress) throws IOException {
+        final List<ValidationError> errors = new ArrayList<>();
+        final ProductDto productDto = fields == null ? null : toProductDto(fields, errors);
+        if (fields == null) {
+            errors.add(new ValidationError("", "must be a JSON object"));
+        } else if (productDto != null) {
+            for (final ConstraintViolation<ProductDto> violation : this.validator.validate(productDto)) {
+                errors.add(new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()));
+            }
+        }
+
+        if (errors.isEmpty() && productDto != null) {
+            writer.write(row, productDto.getId(), productDto.getName(), productDto.getDescription(), productDto.getPrice());
+            progress.accepted++;
+        } else {
+            progress.rejected++;
+            if (progress.rejectedRows.size() < MAX_REPORTED_REJECTIONS) {
+                progress.rejectedRows.add(new RejectedRow(row, errors));
+            }
+        }
+        if (row % PROGRESS_LOG_INTERVAL == 0) {
+            log.info("Product import progress - {} rows read, {} rejected", row, progress.rejected);
+        }
+    }
+
+    /**
+     * Converts field values to a product DTO.
+     *
+     * @param fields field values
+     * @param errors list to which conversion errors are added
+     * @return product DTO, {@code null} if ID or price are not valid numbers
+     */
+    @Nullable
+    private static ProductDto toProductDto(final Map<String, String> fields, final List<ValidationError> errors) {
+        Long id = null;
+        final String idValue = fields.get("id");
+        if (StringUtils.isNotBlank(idValue)) {
+            try {
+                id = Long.valueOf(idValue.trim());
+            } catch (final NumberFormatException e) {
+                errors.add(new ValidationError("id", "must be a number"));
+            }
+        }
+        Float price = null;
+        final String priceValue = fields.get("price");
+        if (StringUtils.isBlank(priceValue)) {
+            errors.add(new ValidationError("price", "must not be null"));
+        } else {
+            try {
+                price = Float.valueOf(priceValue.trim());
+                if (price.isNaN() || price.isInfinite()) {
+                    price = null;
+                    errors.add(new ValidationError("price", "must be a number"));
+                }
+            } catch (final NumberFormatException e) {
+                errors.add(new ValidationError("price", "must be a number"));
+            }
+        }
+        if (price == null || !errors.isEmpty()) {
+            return null;
+        }
+        return new ProductDto(id, fields.get("name"), fields.get("description"), price);
+    }
+
+    /**
+     * Reads rows of an upload and passes them to the row consumer.
+     */
+    @FunctionalInterface
+    private interface RowReader {
+        void read(RowConsumer rowConsumer) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(long row, @Nullable Map<String, String> fields) throws IOException;
+    }
+
+    /**
+     * Mutable counters of a running import.
+     */
+    private static final class ImportProgress {
+        private long accepted;
+        private long rejected;
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+    }
+}
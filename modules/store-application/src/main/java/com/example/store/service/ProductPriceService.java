@@ -0,0 +1,10 @@
+package com.example.store.service;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface ProductPriceService {
+
+    CompletableFuture<Boolean> updatePrice(Long id, float price);
+
+    void discardPendingPrice(Long id);
+}
@@ -0,0 +1,533 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.example.store.cache.ProductCacheKey;
+import com.example.store.config.CacheConfig;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.jdbc.ProductPrice;
+import com.example.store.persistence.jdbc.ProductPriceWriter;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default implementation of {@link ProductPriceService} - write-behind of price updates.
+ * <p>
+ * Price updates are put into an in-memory buffer, which keeps only the latest price of each product (coalescing),
+ * and are written by a background thread every {@code store.price-updates.flush-interval}, or as soon as
+ * {@code store.price-updates.batch-size} products are pending. Each batch of prices is written in its own transaction
+ * with a single JDBC batch, and the written products are evicted from the product cache. Batches only contain prices
+ * of a single tenant, and are written as that tenant - within its connection budget.
+ * <p>
+ * At most {@code store.price-updates.max-pending} products are pending - updates of further products wait for a flush
+ * up to {@code store.price-updates.max-wait}, and are rejected if the buffer is still full (backpressure).
+ * Prices of a failed flush are put back into the buffer and retried with the next flush, unless they are replaced
+ * by newer prices in the meantime, and are dropped after {@value #MAX_ATTEMPTS} failed flushes. A batch which fails
+ * because of its data (e.g. a violated constraint) is written in halves instead, so only the failing prices are dropped.
+ * <p>
+ * A pending price is discarded when the whole product is updated or deleted (see {@link #discardPendingPrice(Long)}),
+ * so it does not overwrite the later update. A batch is checked for discarded prices once its products are locked,
+ * and is written again without them if it has any.
+ * <p>
+ * Pending prices are lost if the application terminates abruptly - a client which must know that a price is stored
+ * waits for the returned future. On shutdown, pending prices are written after the web server has stopped.
+ * <p>
+ * The state of the buffer is published as metrics {@code store.price.updates.*}.
+ */
+@Slf4j
+@Service
+public class ProductPriceServiceImpl implements ProductPriceService, SmartLifecycle {
+
+    /**
+     * Order in which pending prices are written - by tenant, so concurrent writers lock the rows in the same order.
+     */
+    private static final Comparator<ProductCacheKey> KEY_ORDER =
+            Comparator.comparing(ProductCacheKey::tenantId).thenComparingLong(ProductCacheKey::id);
+
+    /**
+     * Maximum number of flushes which try to write a price.
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    private final ProductPriceWriter productPriceWriter;
+    private final Cache cache;
+
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final int maxPending;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signalled when pending prices are taken by a flush.
+     */
+    private final Condition notFull = lock.newCondition();
+    /**
+     * Signalled when a flush should not wait for the flush interval.
+     */
+    private final Condition flushNeeded = lock.newCondition();
+
+    /**
+     * Pending prices by tenant and product ID, replaced by an empty map on each flush. Guarded by the lock.
+     */
+    private volatile Map<ProductCacheKey, PendingPrice> pending = new HashMap<>();
+    /**
+     * Prices taken by the running flush, which are not written yet. Guarded by the lock.
+     */
+    private Map<ProductCacheKey, PendingPrice> flushing = Map.of();
+
+    /**
+     * Whether the background thread writes prices. Updates are accepted before it is started, and rejected once stopped.
+     */
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private Thread flushThread;
+
+    private final Counter queued;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter updated;
+    private final Counter notFound;
+    private final Counter superseded;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Timer flushSuccess;
+    private final Timer flushFailure;
+    private final DistributionSummary flushSize;
+
+    @Autowired
+    public ProductPriceServiceImpl(final ProductPriceWriter productPriceWriter,
+                                   final CacheManager cacheManager,
+                                   final MeterRegistry meterRegistry,
+                                   @Value("${store.price-updates.flush-interval:100ms}") final Duration flushInterval,
+                                   @Value("${store.price-updates.batch-size:500}") final int batchSize,
+                                   @Value("${store.price-updates.max-pending:100000}") final int maxPending,
+                                   @Value("${store.price-updates.max-wait:1s}") final Duration maxWait) {
+        this.productPriceWriter = productPriceWriter;
+        this.cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        Gauge.builder("store.price.updates.pending", this, service -> service.pending.size())
+                .description("Products with a price update which has not been written yet")
+                .register(meterRegistry);
+        this.queued = updates(meterRegistry, "queued");
+        this.coalesced = updates(meterRegistry, "coalesced");
+        this.rejected = updates(meterRegistry, "rejected");
+        this.updated = written(meterRegistry, "updated");
+        this.notFound = written(meterRegistry, "not_found");
+        this.superseded = written(meterRegistry, "superseded");
+        this.failed = written(meterRegistry, "failed");
+        this.dropped = written(meterRegistry, "dropped");
+        this.flushSuccess = flushTimer(meterRegistry, "success");
+        this.flushFailure = flushTimer(meterRegistry, "failure");
+        this.flushSize = DistributionSummary.builder("store.price.updates.flush.size")
+                .description("Prices written by a single JDBC batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Puts the price update into the buffer, replacing a pending price of the same product.
+     * The product is one of the current tenant.
+     *
+     * @param id    product ID
+     * @param price new price
+     * @return future completed when the price is written - with {@code false} if the product does not exist,
+     * or exceptionally if writing failed. Coalesced updates of a product share the future.
+     * @throws ServiceBusyException if the buffer is still full after waiting (handler will return 503 service unavailable)
+     */
+    @NotNull
+    @Override
+    public CompletableFuture<Boolean> updatePrice(@NotNull final Long id, final float price) {
+        final ProductCacheKey key = ProductCacheKey.of(id);
+        this.lock.lock();
+        try {
+            long remainingNanos = this.maxWaitNanos;
+            while (!this.pending.containsKey(key) && this.pending.size() >= this.maxPending) {
+                if (this.stopped || remainingNanos <= 0) {
+                    break;
+                }
+                this.flushNeeded.signal();
+                remainingNanos = this.notFull.awaitNanos(remainingNanos);
+            }
+            if (this.stopped) {
+                this.rejected.increment();
+                throw new ServiceBusyException("Price updates are not accepted - shutting down");
+            }
+            PendingPrice pendingPrice = this.pending.get(key);
+            if (pendingPrice != null) {
+                this.coalesced.increment();
+            } else if (this.pending.size() >= this.maxPending) {
+                this.rejected.increment();
+                log.warn("Rejected price update of product with id {} - {} products pending", id, this.pending.size());
+                throw new ServiceBusyException("Too many pending price updates");
+            } else {
+                pendingPrice = new PendingPrice();
+                this.pending.put(key, pendingPrice);
+                this.queued.increment();
+                if (this.pending.size() >= this.batchSize) {
+                    this.flushNeeded.signal();
+                }
+            }
+            pendingPrice.price = price;
+            return pendingPrice.written;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.rejected.increment();
+            throw new ServiceBusyException("Interrupted while waiting for pending price updates");
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the pending price of the product of the current tenant - called when the whole product is updated
+     * or deleted, which the price must not overwrite, before the update commits. A price taken by a running flush
+     * is discarded too - if its batch has already locked the product, the update waits for the batch and overwrites
+     * the price, otherwise the batch is rolled back and written without it. The future of the price completes
+     * as if it was written before the later update.
+     *
+     * @param id product ID
+     */
+    @Override
+    public void discardPendingPrice(@NotNull final Long id) {
+        final ProductCacheKey key = ProductCacheKey.of(id);
+        this.lock.lock();
+        try {
+            final PendingPrice pendingPrice = this.pending.remove(key);
+            if (pendingPrice != null) {
+                supersede(key, pendingPrice);
+                this.notFull.signalAll();
+            }
+            final PendingPrice flushingPrice = this.flushing.get(key);
+            if (flushingPrice != null) {
+                flushingPrice.superseded = true;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        this.lock.lock();
+        try {
+            this.running = true;
+            this.stopped = false;
+        } finally {
+            this.lock.unlock();
+        }
+        this.flushThread = new Thread(this::flushPeriodically, "product-price-writer");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+    }
+
+    /**
+     * Stops accepting price updates and writes the pending ones.
+     */
+    @Override
+    public void stop() {
+        this.lock.lock();
+        try {
+            this.running = false;
+            this.stopped = true;
+            this.flushNeeded.signalAll();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        if (this.flushThread == null) {
+            return;
+        }
+        try {
+            this.flushThread.join(TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos) + 30_000);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Stopped after the web server, so price updates accepted until then are still written.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Flushes pending prices until stopped, and once more after that.
+     */
+    private void flushPeriodically() {
+        while (this.running) {
+            this.lock.lock();
+            try {
+                long remainingNanos = this.flushIntervalNanos;
+                while (this.running && remainingNanos > 0 && this.pending.size() < this.batchSize) {
+                    remainingNanos = this.flushNeeded.awaitNanos(remainingNanos);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                this.lock.unlock();
+            }
+            flush();
+        }
+        final int written = flush();
+        log.info("Stopped writing price updates, {} pending prices written", written);
+    }
+
+    /**
+     * Takes all pending prices and writes them ordered by tenant and product ID, in batches of up to {@code batchSize}
+     * prices of a tenant.
+     *
+     * @return number of products which were written
+     */
+    int flush() {
+        final Map<ProductCacheKey, PendingPrice> flushed;
+        this.lock.lock();
+        try {
+            if (this.pending.isEmpty()) {
+                return 0;
+            }
+            flushed = this.pending;
+            this.pending = new HashMap<>();
+            this.flushing = flushed;
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        final List<Map.Entry<ProductCacheKey, PendingPrice>> entries = new ArrayList<>(flushed.entrySet());
+        entries.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        int written = 0;
+        try {
+            int from = 0;
+            while (from < entries.size()) {
+                final String tenantId = entries.get(from).getKey().tenantId();
+                int to = from + 1;
+                while (to < entries.size() && to - from < this.batchSize && tenantId.equals(entries.get(to).getKey().tenantId())) {
+                    to++;
+                }
+                written += write(tenantId, withoutSuperseded(entries.subList(from, to)));
+                from = to;
+            }
+        } finally {
+            this.lock.lock();
+            try {
+                this.flushing = Map.of();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * @return prices of the batch which have not been discarded, the futures of discarded ones are completed
+     */
+    private List<Map.Entry<ProductCacheKey, PendingPrice>> withoutSuperseded(final List<Map.Entry<ProductCacheKey, PendingPrice>> batch) {
+        this.lock.lock();
+        try {
+            final List<Map.Entry<ProductCacheKey, PendingPrice>> current = new ArrayList<>(batch.size());
+            for (final Map.Entry<ProductCacheKey, PendingPrice> entry : batch) {
+                if (entry.getValue().superseded) {
+                    supersede(entry.getKey(), entry.getValue());
+                } else {
+                    current.add(entry);
+                }
+            }
+            return current;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return whether none of the prices of the batch have been discarded
+     */
+    private boolean isCurrent(final List<Map.Entry<ProductCacheKey, PendingPrice>> batch) {
+        this.lock.lock();
+        try {
+            return batch.stream().noneMatch(entry -> entry.getValue().superseded);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void supersede(final ProductCacheKey key, final PendingPrice pendingPrice) {
+        log.debug("Price update of product with id {} of tenant {} discarded - product updated", key.id(), key.tenantId());
+        this.superseded.increment();
+        pendingPrice.written.complete(true);
+    }
+
+    /**
+     * Writes a batch of prices of the tenant, as the tenant, and completes their futures. If the batch fails
+     * because of its data, its halves are written separately, down to single prices.
+     *
+     * @return number of products which were written
+     */
+    private int write(final String tenantId, final List<Map.Entry<ProductCacheKey, PendingPrice>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        final List<ProductPrice> prices = batch.stream()
+                .map(entry -> new ProductPrice(entry.getKey().tenantId(), entry.getKey().id(), entry.getValue().price))
+                .toList();
+        final long startTime = System.nanoTime();
+        final boolean[] updated;
+        TenantContext.setTenantId(tenantId);
+        try {
+            updated = this.productPriceWriter.updatePrices(prices, () -> isCurrent(batch));
+        } catch (final RuntimeException e) {
+            this.flushFailure.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            this.failed.increment(batch.size());
+            if (!isDataError(e)) {
+                log.error("Failed to write {} price updates, retrying with the next flush", batch.size(), e);
+                retry(batch, false);
+                return 0;
+            }
+            if (batch.size() == 1) {
+                log.error("Failed to write price of product with id {} of tenant {}", batch.get(0).getKey().id(), tenantId, e);
+                retry(batch, true);
+                return 0;
+            }
+            log.warn("Failed to write {} price updates, writing them in halves: {}", batch.size(), e.getMessage());
+            final int half = batch.size() / 2;
+            return write(tenantId, batch.subList(0, half)) + write(tenantId, batch.subList(half, batch.size()));
+        } finally {
+            TenantContext.clear();
+        }
+        if (updated == null) {
+            log.debug("Price updates of {} products discarded while written, writing the batch again without them", batch.size());
+            return write(tenantId, withoutSuperseded(batch));
+        }
+        this.flushSuccess.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        this.flushSize.record(batch.size());
+        int written = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            final ProductCacheKey key = batch.get(i).getKey();
+            if (updated[i]) {
+                written++;
+                this.cache.evict(key);
+            } else {
+                log.debug("Price update of non-existing product with id {} of tenant {} discarded", key.id(), key.tenantId());
+            }
+            batch.get(i).getValue().written.complete(updated[i]);
+        }
+        this.updated.increment(written);
+        this.notFound.increment(batch.size() - written);
+        log.debug("Written {} price updates", written);
+        return written;
+    }
+
+    /**
+     * Fails the futures of the batch, and puts its prices back into the buffer, unless newer ones are pending,
+     * they were discarded, or they failed {@value #MAX_ATTEMPTS} times. The buffer may exceed its maximum size
+     * by the prices put back.
+     *
+     * @param drop whether the prices are dropped anyway, as writing them again would fail too
+     */
+    private void retry(final List<Map.Entry<ProductCacheKey, PendingPrice>> batch, final boolean drop) {
+        this.lock.lock();
+        try {
+            for (final Map.Entry<ProductCacheKey, PendingPrice> entry : batch) {
+                final PendingPrice failedPrice = entry.getValue();
+                failedPrice.written.completeExceptionally(
+                        new IllegalStateException("Failed to write price of product with id " + entry.getKey().id()));
+                if (failedPrice.superseded) {
+                    continue;
+                }
+                if (drop || failedPrice.attempts + 1 >= MAX_ATTEMPTS) {
+                    log.warn("Price update of product with id {} of tenant {} dropped after {} failed attempts",
+                            entry.getKey().id(), entry.getKey().tenantId(), failedPrice.attempts + 1);
+                    this.dropped.increment();
+                    continue;
+                }
+                final PendingPrice retried = new PendingPrice();
+                retried.price = failedPrice.price;
+                retried.attempts = failedPrice.attempts + 1;
+                this.pending.putIfAbsent(entry.getKey(), retried);
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Whether writing failed because of the written data (e.g. a violated constraint), so it fails again
+     * unless the failing prices are left out - rather than because of the database (e.g. a timeout).
+     */
+    private static boolean isDataError(final RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    private static Counter updates(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("store.price.updates")
+                .description("Received price updates - queued, coalesced with a pending update, or rejected (503)")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter written(final MeterRegistry meterRegistry, final String result) {
+        return Counter.builder("store.price.updates.written")
+                .description("Written prices - updated, discarded because the product does not exist or was updated since,"
+                        + " failed, or dropped after failing repeatedly")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer flushTimer(final MeterRegistry meterRegistry, final String outcome) {
+        return Timer.builder("store.price.updates.flush")
+                .description("Writes of a JDBC batch of prices")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Latest price of a product, which has not been written yet. Guarded by the lock while in the buffer.
+     */
+    private static final class PendingPrice {
+        private float price;
+        private final CompletableFuture<Boolean> written = new CompletableFuture<>();
+        /**
+         * Number of failed flushes of the price.
+         */
+        private int attempts;
+        /**
+         * Whether the price was discarded while taken by a flush.
+         */
+        private boolean superseded;
+    }
+}
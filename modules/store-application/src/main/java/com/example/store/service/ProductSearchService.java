@@ -0,0 +1,8 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductPageDto;
+
+public interface ProductSearchService {
+
+    ProductPageDto searchProducts(String query, String after, int limit);
+}
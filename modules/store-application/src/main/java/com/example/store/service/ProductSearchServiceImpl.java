@@ -0,0 +1,151 @@
+package com.example.store.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.ProductSearchHit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default implementation of {@link ProductSearchService}.
+ * <p>
+ * Every word of the query must match the name or description of a product (full-text search, with stemming),
+ * while the last word also matches as a prefix (search as you type). Words which do not appear in any product name
+ * are also matched as the most similar words of product names, to tolerate typos.
+ */
+@Slf4j
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    /**
+     * Maximum number of products returned in a single page.
+     */
+    static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Maximum number of matching products which are paged through. Queries matching more products
+     * only return the most relevant ones - they should be refined instead of paged through.
+     */
+    static final int MAX_CANDIDATES = 1000;
+
+    static final int MAX_QUERY_LENGTH = 200;
+    static final int MAX_QUERY_WORDS = 8;
+
+    /**
+     * Maximum number of similar words a misspelled word is matched as.
+     */
+    static final int MAX_CORRECTIONS = 3;
+
+    /**
+     * Words shorter than this are not corrected - they have too few trigrams to find similar words.
+     */
+    private static final int MIN_CORRECTED_WORD_LENGTH = 3;
+
+    private static final String CURSOR_SEPARATOR = "_";
+
+    private final ProductRepository productRepository;
+
+    @Autowired
+    public ProductSearchServiceImpl(final ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Searches products by name and description, ordered by relevance.
+     *
+     * @param query search query
+     * @param after cursor of the page, returned with the previous page, {@code null} for the first page
+     * @param limit requested page size, bounded to [1, {@value #MAX_PAGE_SIZE}]
+     * @return page of found product DTOs, with the cursor of the next page if there are more products
+     * @throws InvalidRequestException if the query has no words or is too long, or the cursor is not valid
+     */
+    @NotNull
+    @Override
+    public ProductPageDto searchProducts(@NotNull final String query, @Nullable final String after, final int limit) {
+        final String tsquery = toTsquery(query);
+        final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        float afterRank = Float.MAX_VALUE;
+        long afterId = 0;
+        if (after != null) {
+            final String[] cursor = after.split(CURSOR_SEPARATOR, -1);
+            try {
+                if (cursor.length != 2) {
+                    throw new NumberFormatException();
+                }
+                afterRank = Float.parseFloat(cursor[0]);
+                afterId = Long.parseLong(cursor[1]);
+            } catch (final NumberFormatException e) {
+                throw new InvalidRequestException("Invalid cursor '" + after + "'", e);
+            }
+        }
+
+        // Fetch one extra product to find out if there is a next page
+        final List<ProductSearchHit> hits = this.productRepository.searchProducts(tsquery, afterRank, afterId,
+                MAX_CANDIDATES, pageSize + 1);
+        final List<ProductDto> items = hits.stream()
+                .limit(pageSize)
+                .map(hit -> new ProductDto(hit.getId(), hit.getName(), hit.getDescription(), hit.getPrice(), hit.getVersion()))
+                .toList();
+        final String nextCursor = hits.size() > pageSize
+                ? hits.get(pageSize - 1).getRank() + CURSOR_SEPARATOR + hits.get(pageSize - 1).getId()
+                : null;
+        log.debug("Searched products with '{}' - {} found", tsquery, items.size());
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    /**
+     * Converts a search query to a full-text query (in {@code to_tsquery} syntax), e.g. {@code stainless ketle}
+     * to {@code (stainless) & (ketle:* | kettle)}. Only letters and digits of the query are used,
+     * so the full-text query is always valid.
+     */
+    private String toTsquery(final String query) {
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new InvalidRequestException("Search query must not be longer than " + MAX_QUERY_LENGTH + " characters");
+        }
+        final List<String> words = Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(StringUtils::isNotEmpty)
+                .limit(MAX_QUERY_WORDS)
+                .toList();
+        if (words.isEmpty()) {
+            throw new InvalidRequestException("Search query must contain at least one word");
+        }
+        final List<String> terms = new ArrayList<>(words.size());
+        for (int i = 0; i < words.size(); i++) {
+            final String word = words.get(i);
+            final List<String> alternatives = new ArrayList<>();
+            // The last word may not be complete yet
+            alternatives.add(i == words.size() - 1 ? word + ":*" : word);
+            alternatives.addAll(corrections(word));
+            terms.add("(" + String.join(" | ", alternatives) + ")");
+        }
+        return String.join(" & ", terms);
+    }
+
+    /**
+     * Finds the words of product names most similar to the specified word, if it is not used in product names itself.
+     */
+    private List<String> corrections(final String word) {
+        if (word.length() < MIN_CORRECTED_WORD_LENGTH) {
+            return List.of();
+        }
+        final List<String> similarWords = this.productRepository.findSimilarSearchWords(word, MAX_CORRECTIONS);
+        if (!similarWords.isEmpty() && similarWords.get(0).equals(word)) {
+            return List.of();
+        }
+        // Similar words only contain letters and digits, as they are split the same way as the query
+        return similarWords;
+    }
+}
@@ -1,18 +1,40 @@
 package com.example.store.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import com.example.store.dto.BatchItemResult;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
 
 public interface ProductService {
 
-    List<ProductDto> getAllProducts();
+    List<ProductDto> getAllProducts(String catalogVersion);
+
+    String getCatalogVersion();
+
+    long countProducts();
+
+    ProductPageDto getProductPage(Long after, int limit);
+
+    ProductPageDto getProductPage(ProductListQuery query, String after, int limit);
+
+    void forEachProduct(Consumer<ProductDto> consumer);
+
+    void forEachProduct(String catalogVersion, Consumer<ProductDto> consumer);
 
     ProductDto getProductById(Long id);
 
     ProductDto createProduct(ProductDto productDto);
 
-    ProductDto updateProduct(Long id, ProductDto productDto);
+    ProductDto updateProduct(Long id, ProductDto productDto, Long expectedVersion);
 
     void deleteProduct(Long id);
+
+    List<BatchItemResult> createProducts(List<ProductDto> productDtos);
+
+    List<BatchItemResult> updateProducts(List<ProductDto> productDtos);
+
+    List<BatchItemResult> deleteProducts(List<Long> ids);
 }
@@ -1,49 +1,352 @@
 package com.example.store.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.store.config.CacheConfig;
+import com.example.store.dto.BatchItemResult;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
 import com.example.store.dto.mapper.ProductDtoMapper;
+import com.example.store.error.ValidationError;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.exception.PreconditionFailedException;
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.persistence.datasource.DataSourceRouting;
 import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.jdbc.ProductChangeLog;
 import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.ProductSpecifications;
+import com.example.store.persistence.tenant.TenantContext;
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Default implementation of {@link ProductService}.
+ * Each method call is observed - timed as the metric {@code product.service} (tags class and method) and traced as a span.
+ * Changed products are recorded in the change feed (see {@link ProductChangeLog}), in the transaction of the change.
  */
 @Slf4j
 @Service
+@Observed(name = "product.service")
 public class ProductServiceImpl implements ProductService {
 
+    /**
+     * Maximum number of products returned in a single page.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Number of items of a batch request processed in a single transaction.
+     * Matches the JDBC batch size (hibernate.jdbc.batch_size), so each chunk is written with a single JDBC batch.
+     */
+    static final int BATCH_CHUNK_SIZE = 50;
+
+    static final int MAX_NAME_PREFIX_LENGTH = 100;
+
+    /**
+     * Attributes by which products can be ordered - each has an index (see db-schema).
+     */
+    static final List<String> SORT_ATTRIBUTES = List.of(ProductSpecifications.ID, ProductSpecifications.PRICE, ProductSpecifications.NAME);
+
+    private static final String DESCENDING_PREFIX = "-";
+    private static final String CURSOR_SEPARATOR = "_";
+
     private final ProductRepository productRepository;
+    private final ProductChangeLog productChangeLog;
+    private final ProductPriceService productPriceService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final Validator validator;
 
     @Autowired
-    public ProductServiceImpl(final ProductRepository productRepository) {
+    public ProductServiceImpl(final ProductRepository productRepository,
+                              final ProductChangeLog productChangeLog,
+                              final ProductPriceService productPriceService,
+                              final PlatformTransactionManager transactionManager,
+                              final Validator validator) {
         this.productRepository = productRepository;
+        this.productChangeLog = productChangeLog;
+        this.productPriceService = productPriceService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.validator = validator;
     }
 
     /**
-     * Gets all product from the database.
+     * Gets all product from the database, at least in the specified catalog version (see {@link #readCatalog}).
      *
+     * @param catalogVersion version of all products which the products must not be older than
      * @return list of all product DTOs, empty list if none are found
      */
     @NotNull
     @Override
-    public List<ProductDto> getAllProducts() {
-        return this.productRepository.findAll()
+    public List<ProductDto> getAllProducts(@NotNull final String catalogVersion) {
+        return readCatalog(catalogVersion, () -> this.productRepository.findAll()
                 .stream()
                 .map(ProductDtoMapper::toDto)
+                .toList());
+    }
+
+    /**
+     * Gets the version of all products of the tenant - the sequence number of its last change in the change feed, which
+     * only increases with every created, updated or deleted product (also when a deleted product is created again).
+     * Read from the head of the feed, without scanning the products.
+     *
+     * @return version of all products
+     */
+    @NotNull
+    @Override
+    public String getCatalogVersion() {
+        return Long.toString(this.productChangeLog.getHead(TenantContext.getTenantId()).getLastSeq());
+    }
+
+    /**
+     * Counts all products, without loading them.
+     *
+     * @return number of products
+     */
+    @Override
+    public long countProducts() {
+        return this.productRepository.count();
+    }
+
+    /**
+     * Gets a page of products with an ID greater than the specified one, ordered by ID.
+     * The page size is bounded to [1, {@value #MAX_PAGE_SIZE}].
+     *
+     * @param after ID after which the products are returned (exclusive), {@code null} for the first page
+     * @param limit requested page size
+     * @return page of product DTOs, with the cursor of the next page if there are more products
+     */
+    @NotNull
+    @Override
+    public ProductPageDto getProductPage(@Nullable final Long after, final int limit) {
+        final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra product to find out if there is a next page
+        final List<Product> products = this.productRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+        final List<ProductDto> items = products.stream()
+                .limit(pageSize)
+                .map(ProductDtoMapper::toDto)
                 .toList();
+        final String nextCursor = products.size() > pageSize
+                ? String.valueOf(items.get(items.size() - 1).getId())
+                : null;
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    /**
+     * Gets a page of products matching the filters of the query, in the order of the query (keyset pagination).
+     * Only listings which are read from a single index range are supported (see {@link #getSortAttribute}),
+     * so the cost of every page is bounded by the page size. The page size is bounded to [1, {@value #MAX_PAGE_SIZE}].
+     *
+     * @param query filters and order of the listing
+     * @param after cursor of the page, returned with the previous page, {@code null} for the first page
+     * @param limit requested page size
+     * @return page of product DTOs, with the cursor of the next page if there are more products
+     * @throws InvalidRequestException if the listing is not supported by an index, or the cursor is not valid
+     */
+    @NotNull
+    @Override
+    public ProductPageDto getProductPage(@NotNull final ProductListQuery query, @Nullable final String after, final int limit) {
+        final String sortAttribute = getSortAttribute(query);
+        final boolean descending = query.sort() != null && query.sort().startsWith(DESCENDING_PREFIX);
+        final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        final List<Specification<Product>> specifications = new ArrayList<>();
+        if (query.minPrice() != null) {
+            specifications.add(ProductSpecifications.priceAtLeast(query.minPrice()));
+        }
+        if (query.maxPrice() != null) {
+            specifications.add(ProductSpecifications.priceAtMost(query.maxPrice()));
+        }
+        if (query.nameStartsWith() != null) {
+            specifications.add(ProductSpecifications.nameStartsWith(query.nameStartsWith()));
+        }
+        if (after != null) {
+            specifications.add(afterCursor(sortAttribute, after, descending));
+        }
+        final Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        final Sort sort = ProductSpecifications.ID.equals(sortAttribute)
+                ? Sort.by(direction, ProductSpecifications.ID)
+                : Sort.by(direction, sortAttribute, ProductSpecifications.ID);
+
+        // Fetch one extra product to find out if there is a next page
+        final List<Product> products = this.productRepository.findBy(Specification.allOf(specifications),
+                q -> q.sortBy(sort).limit(pageSize + 1).all());
+        final List<ProductDto> items = products.stream()
+                .limit(pageSize)
+                .map(ProductDtoMapper::toDto)
+                .toList();
+        final String nextCursor = products.size() > pageSize
+                ? toCursor(sortAttribute, items.get(items.size() - 1))
+                : null;
+        return new ProductPageDto(items, nextCursor);
+    }
+
+    /**
+     * Gets the attribute by which the listing is ordered - the requested one, or the filtered attribute (ID if not filtered).
+     * Listings filtered by an attribute must also be ordered by it, and can not be filtered by another attribute,
+     * so that all products of a page are read from a single range of the index of the attribute.
+     *
+     * @throws InvalidRequestException if the listing is not supported by an index
+     */
+    private static String getSortAttribute(final ProductListQuery query) {
+        if (query.filtersByPrice() && query.filtersByName()) {
+            throw new InvalidRequestException("Products can not be filtered by price and name at once");
+        }
+        if (query.filtersByName()
+                && (query.nameStartsWith().isEmpty() || query.nameStartsWith().length() > MAX_NAME_PREFIX_LENGTH)) {
+            throw new InvalidRequestException("Name prefix must have between 1 and " + MAX_NAME_PREFIX_LENGTH + " characters");
+        }
+        final String filteredAttribute = query.filtersByPrice() ? ProductSpecifications.PRICE
+                : query.filtersByName() ? ProductSpecifications.NAME
+                : null;
+        if (query.sort() == null) {
+            return filteredAttribute == null ? ProductSpecifications.ID : filteredAttribute;
+        }
+        final String sortAttribute = StringUtils.removeStart(query.sort(), DESCENDING_PREFIX);
+        if (!SORT_ATTRIBUTES.contains(sortAttribute)) {
+            throw new InvalidRequestException("Products can only be sorted by " + String.join(", ", SORT_ATTRIBUTES));
+        }
+        if (filteredAttribute != null && !filteredAttribute.equals(sortAttribute)) {
+            throw new InvalidRequestException("Products filtered by " + filteredAttribute + " can only be sorted by " + filteredAttribute);
+        }
+        return sortAttribute;
+    }
+
+    /**
+     * Encodes the position of the product in a listing ordered by the specified attribute, e.g. {@code 19.99_42} for
+     * price. Names are Base64 encoded, so the cursor is safe in URIs.
+     */
+    private static String toCursor(final String sortAttribute, final ProductDto product) {
+        return switch (sortAttribute) {
+            case ProductSpecifications.PRICE -> product.getPrice() + CURSOR_SEPARATOR + product.getId();
+            case ProductSpecifications.NAME -> Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(product.getName().getBytes(StandardCharsets.UTF_8)) + CURSOR_SEPARATOR + product.getId();
+            default -> String.valueOf(product.getId());
+        };
+    }
+
+    /**
+     * Decodes the cursor created by {@link #toCursor} to a predicate matching the products after it.
+     *
+     * @throws InvalidRequestException if the cursor is not valid
+     */
+    private static Specification<Product> afterCursor(final String sortAttribute, final String cursor, final boolean descending) {
+        try {
+            if (ProductSpecifications.ID.equals(sortAttribute)) {
+                return ProductSpecifications.afterId(Long.parseLong(cursor), descending);
+            }
+            // Base64 (URL) may contain the separator, IDs can not
+            final int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("No separator");
+            }
+            final String value = cursor.substring(0, separator);
+            final long id = Long.parseLong(cursor.substring(separator + 1));
+            if (ProductSpecifications.PRICE.equals(sortAttribute)) {
+                return ProductSpecifications.after(ProductSpecifications.PRICE, Float.valueOf(value), id, descending);
+            }
+            final String name = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            return ProductSpecifications.after(ProductSpecifications.NAME, name, id, descending);
+        } catch (final IllegalArgumentException e) {
+            // Includes NumberFormatException
+            throw new InvalidRequestException("Invalid cursor '" + cursor + "'", e);
+        }
+    }
+
+    /**
+     * Passes all products from the database, ordered by ID, to the specified consumer,
+     * without loading them all into memory.
+     *
+     * @param consumer consumer of product DTOs
+     */
+    @Override
+    public void forEachProduct(@NotNull final Consumer<ProductDto> consumer) {
+        this.productRepository.forEachProduct(product -> consumer.accept(ProductDtoMapper.toDto(product)));
+    }
+
+    /**
+     * Passes all products from the database, ordered by ID, to the specified consumer, at least in the specified catalog
+     * version (see {@link #readCatalog}), without loading them all into memory.
+     *
+     * @param catalogVersion version of all products which the products must not be older than
+     * @param consumer       consumer of product DTOs
+     */
+    @Override
+    public void forEachProduct(@NotNull final String catalogVersion, @NotNull final Consumer<ProductDto> consumer) {
+        readCatalog(catalogVersion, () -> {
+            forEachProduct(consumer);
+            return null;
+        });
+    }
+
+    /**
+     * Reads products in a read-only transaction which sees at least the specified catalog version - e.g. the version in
+     * the ETag of a listing, read from the primary. The transaction's connection may be a read replica lagging behind it,
+     * so the version is read again on the same connection first. A lagging replica is not used, the products are read
+     * from the primary instead - otherwise outdated products would be cached, and sent, with the newer version.
+     *
+     * @param catalogVersion version of all products (see {@link #getCatalogVersion()})
+     * @param read           reading of the products
+     * @return result of the reading
+     */
+    private <T> T readCatalog(final String catalogVersion, final Supplier<T> read) {
+        final long version = Long.parseLong(catalogVersion);
+        final String tenantId = TenantContext.getTenantId();
+        final AtomicReference<T> result = new AtomicReference<>();
+        final Boolean current = this.readOnlyTransactionTemplate.execute(status -> {
+            if (this.productChangeLog.getHead(tenantId).getLastSeq() < version) {
+                return false;
+            }
+            result.set(read.get());
+            return true;
+        });
+        if (Boolean.TRUE.equals(current)) {
+            return result.get();
+        }
+        log.debug("Read replica is behind catalog version {} of tenant {}, reading from the primary", catalogVersion, tenantId);
+        return DataSourceRouting.onPrimary(() -> this.readOnlyTransactionTemplate.execute(status -> read.get()));
     }
 
     /**
      * Gets the product by the specified ID.
+     * Products are cached - concurrent requests for a product which is not cached yet load it from the database only once.
+     * They are loaded from the primary, as a read replica may still have the product before a change which evicted it,
+     * which would then stay cached.
      *
      * @param id product ID
      * @return product DTO
@@ -51,8 +354,9 @@ public class ProductServiceImpl implements ProductService {
      */
     @NotNull
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "T(com.example.store.cache.ProductCacheKey).of(#id)", sync = true)
     public ProductDto getProductById(@NotNull final Long id) {
-        return this.productRepository.findById(id)
+        return DataSourceRouting.onPrimary(() -> this.productRepository.findById(id))
                 .map(ProductDtoMapper::toDto)
                 .orElseThrow(() -> new ResourceNotFoundException("Product with id " + id + " not found"));
     }
@@ -65,46 +369,250 @@ public class ProductServiceImpl implements ProductService {
      */
     @NotNull
     @Override
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "T(com.example.store.cache.ProductCacheKey).of(#result.id)")
     public ProductDto createProduct(@NotNull final ProductDto productDto) {
-        final Product entity = this.productRepository.save(ProductDtoMapper.fromDto(productDto));
+        final Product entity = this.transactionTemplate.execute(status -> {
+            final Product savedEntity = this.productRepository.save(ProductDtoMapper.fromDto(productDto));
+            this.productChangeLog.record(TenantContext.getTenantId(), List.of(savedEntity.getId()), false);
+            return savedEntity;
+        });
         log.debug("Created new product with id {}", entity.getId());
         return ProductDtoMapper.toDto(entity);
     }
 
     /**
-     * Updates the specified product in the database.
+     * Updates the specified product in the database, with a single statement. A pending price update
+     * of the product is discarded (see {@link ProductPriceService}).
      *
-     * @param id         ID of the product
-     * @param productDto product DTO
+     * @param id              ID of the product
+     * @param productDto      product DTO
+     * @param expectedVersion version the product must have to be updated, {@code null} to update any version
      * @return updated product DTO
-     * @throws ResourceNotFoundException if product does not exist in the database (handler will return 404 not found)
+     * @throws ResourceNotFoundException   if product does not exist in the database (handler will return 404 not found)
+     * @throws PreconditionFailedException if product does not have the expected version (handler will return 412 precondition failed)
      */
     @NotNull
     @Override
-    public ProductDto updateProduct(@NotNull final Long id, @NotNull final ProductDto productDto) {
-        if (!this.productRepository.existsById(id)) {
-            log.error("Trying to update non-existing product with id {}", id);
-            throw new ResourceNotFoundException("Failed update - product with id " + id + " does not exist");
-        }
-        final Product updatedEntity = this.productRepository.save(ProductDtoMapper.fromDto(productDto));
+    @CachePut(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "T(com.example.store.cache.ProductCacheKey).of(#id)")
+    public ProductDto updateProduct(@NotNull final Long id, @NotNull final ProductDto productDto,
+                                    @Nullable final Long expectedVersion) {
+        final Product product = new Product(id, productDto.getName(), productDto.getDescription(), productDto.getPrice());
+        final Product updatedEntity = this.transactionTemplate.execute(status -> {
+            final Product updated = this.productRepository.updateProduct(product, expectedVersion).orElseThrow(() -> {
+                // Only a failed update needs another statement, to tell why it failed
+                if (expectedVersion != null && this.productRepository.existsById(id)) {
+                    log.debug("Rejected update of product with id {} - version does not match {}", id, expectedVersion);
+                    return new PreconditionFailedException("Failed update - product with id " + id + " has been modified");
+                }
+                log.error("Trying to update non-existing product with id {}", id);
+                return new ResourceNotFoundException("Failed update - product with id " + id + " does not exist");
+            });
+            this.productChangeLog.record(TenantContext.getTenantId(), List.of(id), false);
+            // Buffered price must not overwrite the update - discarded before commit, see ProductPriceService
+            this.productPriceService.discardPendingPrice(id);
+            return updated;
+        });
         log.debug("Updated product with id {}", updatedEntity.getId());
         return ProductDtoMapper.toDto(updatedEntity);
     }
 
     /**
-     * Deletes the product with the specified ID from the database.
+     * Deletes the product with the specified ID from the database, with a single statement,
+     * and discards its pending price update.
      *
      * @param id product ID
      * @throws ResourceNotFoundException if product does not exist in the database (handler will return 404 not found)
      */
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "T(com.example.store.cache.ProductCacheKey).of(#id)")
     public void deleteProduct(@NotNull final Long id) {
-        if (!this.productRepository.existsById(id)) {
-            log.error("Trying to delete non-existing product with id {}", id);
-            throw new ResourceNotFoundException("Failed deletion - product with id " + id + " does not exist");
-        }
-        this.productRepository.deleteById(id);
+        this.transactionTemplate.executeWithoutResult(status -> {
+            if (this.productRepository.deleteProductById(id) == 0) {
+                log.error("Trying to delete non-existing product with id {}", id);
+                throw new ResourceNotFoundException("Failed deletion - product with id " + id + " does not exist");
+            }
+            this.productChangeLog.record(TenantContext.getTenantId(), List.of(id), true);
+            this.productPriceService.discardPendingPrice(id);
+        });
         log.debug("Deleted product with id {}", id);
     }
 
+    /**
+     * Adds the specified products to the database, in chunks of {@value #BATCH_CHUNK_SIZE} products per transaction.
+     * Invalid products are skipped.
+     *
+     * @param productDtos product DTOs, IDs are ignored
+     * @return result for each product - 201 with the ID of the created product, or 400 with validation errors
+     */
+    @NotNull
+    @Override
+    public List<BatchItemResult> createProducts(@NotNull final List<ProductDto> productDtos) {
+        final BatchItemResult[] results = new BatchItemResult[productDtos.size()];
+        final List<Integer> validIndexes = validate(productDtos, results, false);
+        forEachChunk(validIndexes, results, chunk -> {
+            final List<Product> entities = chunk.stream()
+                    .map(index -> {
+                        final Product entity = ProductDtoMapper.fromDto(productDtos.get(index));
+                        entity.setId(null);
+                        return entity;
+                    })
+                    .toList();
+            final List<Product> savedEntities = this.productRepository.saveAll(entities);
+            this.productChangeLog.record(TenantContext.getTenantId(), savedEntities.stream().map(Product::getId).toList(), false);
+            final List<BatchItemResult> chunkResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkResults.add(BatchItemResult.success(chunk.get(i), HttpStatus.CREATED.value(), savedEntities.get(i).getId()));
+            }
+            return chunkResults;
+        });
+        log.debug("Created {} of {} products in batch", validIndexes.size(), productDtos.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Updates the specified products in the database, in chunks of {@value #BATCH_CHUNK_SIZE} products per transaction.
+     * Existing products of a chunk are loaded with a single query, and their changes are written with a single JDBC batch.
+     * Clears the product cache.
+     *
+     * @param productDtos product DTOs, including IDs
+     * @return result for each product - 200, 400 with validation errors, or 404 if the product does not exist
+     */
+    @NotNull
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public List<BatchItemResult> updateProducts(@NotNull final List<ProductDto> productDtos) {
+        final BatchItemResult[] results = new BatchItemResult[productDtos.size()];
+        final List<Integer> validIndexes = validate(productDtos, results, true);
+        forEachChunk(validIndexes, results, chunk -> {
+            final Set<Long> ids = chunk.stream()
+                    .map(index -> productDtos.get(index).getId())
+                    .collect(Collectors.toSet());
+            final Map<Long, Product> entities = this.productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            final List<BatchItemResult> chunkResults = chunk.stream()
+                    .map(index -> {
+                        final ProductDto productDto = productDtos.get(index);
+                        final Product entity = entities.get(productDto.getId());
+                        if (entity == null) {
+                            return notFound(index, productDto.getId());
+                        }
+                        entity.setName(productDto.getName());
+                        entity.setDescription(productDto.getDescription());
+                        entity.setPrice(productDto.getPrice());
+                        return BatchItemResult.success(index, HttpStatus.OK.value(), entity.getId());
+                    })
+                    .toList();
+            // Changes of managed entities are written before they are recorded, so the products are locked
+            // before the head of the change feed, like by other writers
+            this.productRepository.flush();
+            this.productChangeLog.record(TenantContext.getTenantId(), entities.keySet(), false);
+            entities.keySet().forEach(this.productPriceService::discardPendingPrice);
+            return chunkResults;
+        });
+        log.debug("Updated products in batch of {}", productDtos.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deletes the products with the specified IDs from the database, in chunks of {@value #BATCH_CHUNK_SIZE} IDs per transaction.
+     * Each chunk is deleted with a single statement. Clears the product cache.
+     *
+     * @param ids product IDs
+     * @return result for each ID - 204, or 404 if the product does not exist
+     */
+    @NotNull
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public List<BatchItemResult> deleteProducts(@NotNull final List<Long> ids) {
+        final BatchItemResult[] results = new BatchItemResult[ids.size()];
+        final List<Integer> validIndexes = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null) {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(), null,
+                        List.of(new ValidationError("id", "must not be null")));
+            } else {
+                validIndexes.add(i);
+            }
+        }
+        forEachChunk(validIndexes, results, chunk -> {
+            final List<Long> chunkIds = chunk.stream().map(ids::get).toList();
+            final Set<Long> existingIds = new HashSet<>(this.productRepository.findExistingIds(chunkIds));
+            this.productRepository.deleteAllByIdInBatch(existingIds);
+            this.productChangeLog.record(TenantContext.getTenantId(), existingIds, true);
+            existingIds.forEach(this.productPriceService::discardPendingPrice);
+            return chunk.stream()
+                    .map(index -> existingIds.contains(ids.get(index))
+                            ? BatchItemResult.success(index, HttpStatus.NO_CONTENT.value(), ids.get(index))
+                            : notFound(index, ids.get(index)))
+                    .toList();
+        });
+        log.debug("Deleted products in batch of {}", ids.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Validates the specified products. Results of invalid products are set to 400 with validation errors.
+     *
+     * @param productDtos product DTOs
+     * @param results     results, indexed as the products
+     * @param requireId   whether products must have an ID
+     * @return indexes of valid products
+     */
+    private List<Integer> validate(final List<ProductDto> productDtos, final BatchItemResult[] results, final boolean requireId) {
+        final List<Integer> validIndexes = new ArrayList<>(productDtos.size());
+        for (int i = 0; i < productDtos.size(); i++) {
+            final ProductDto productDto = productDtos.get(i);
+            final List<ValidationError> errors = new ArrayList<>();
+            if (productDto == null) {
+                errors.add(new ValidationError("", "must not be null"));
+            } else {
+                for (final ConstraintViolation<ProductDto> violation : this.validator.validate(productDto)) {
+                    errors.add(new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()));
+                }
+                if (requireId && productDto.getId() == null) {
+                    errors.add(new ValidationError("id", "must not be null"));
+                }
+            }
+            if (errors.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                results[i] = BatchItemResult.failure(i, HttpStatus.BAD_REQUEST.value(),
+                        productDto == null ? null : productDto.getId(), errors);
+            }
+        }
+        return validIndexes;
+    }
+
+    /**
+     * Processes the specified item indexes in chunks of {@value #BATCH_CHUNK_SIZE}, each chunk in its own transaction.
+     * If a chunk fails, all of its items get a 500 result and the remaining chunks are still processed.
+     *
+     * @param indexes        item indexes to process
+     * @param results        results, indexed as the items
+     * @param chunkProcessor processes a chunk of item indexes and returns their results
+     */
+    private void forEachChunk(final List<Integer> indexes, final BatchItemResult[] results,
+                              final Function<List<Integer>, List<BatchItemResult>> chunkProcessor) {
+        for (int from = 0; from < indexes.size(); from += BATCH_CHUNK_SIZE) {
+            final List<Integer> chunk = indexes.subList(from, Math.min(from + BATCH_CHUNK_SIZE, indexes.size()));
+            try {
+                final List<BatchItemResult> chunkResults = this.transactionTemplate.execute(status -> chunkProcessor.apply(chunk));
+                if (chunkResults != null) {
+                    chunkResults.forEach(result -> results[result.index()] = result);
+                }
+            } catch (final RuntimeException e) {
+                log.error("Failed to process batch chunk of {} items", chunk.size(), e);
+                for (final Integer index : chunk) {
+                    results[index] = BatchItemResult.failure(index, HttpStatus.INTERNAL_SERVER_ERROR.value(), null,
+                            List.of(new ValidationError("", "chunk could not be processed")));
+                }
+            }
+        }
+    }
+
+    private static BatchItemResult notFound(final int index, final Long id) {
+        return BatchItemResult.failure(index, HttpStatus.NOT_FOUND.value(), id,
+                List.of(new ValidationError("id", "product with id " + id + " does not exist")));
+    }
+
 }
@@ -0,0 +1,8 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductStatsDto;
+
+public interface ProductStatsService {
+
+    ProductStatsDto getStats(String nameStartsWith, int buckets);
+}
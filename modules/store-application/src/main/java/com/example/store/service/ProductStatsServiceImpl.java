@@ -0,0 +1,199 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductStatsDto;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.jdbc.ProductSnapshotReader;
+import com.example.store.persistence.tenant.TenantContext;
+import com.example.store.snapshot.ProductSnapshot;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default implementation of {@link ProductStatsService} - aggregates are computed from in-memory columnar snapshots
+ * of the products of each tenant (see {@link ProductSnapshot}), without the database.
+ * <p>
+ * Snapshots of all tenants are loaded at startup, in the background - until then, requests return 503 SERVICE
+ * UNAVAILABLE. They are kept current from the change feed (see {@link ProductChangeService}), which records the changes
+ * of all nodes: every {@code store.changes.poll-interval}, new changes of each tenant are applied to a new snapshot,
+ * so aggregates include changes within about the poll interval. Requests compute aggregates from the snapshot which
+ * is current when they start, replaced snapshots stay valid until they are garbage collected. A tenant with more than {@value #MAX_APPLIED_CHANGES}
+ * new changes (e.g. after an import) is loaded again instead, and so is a tenant whose changes are no longer available.
+ * <p>
+ * Published as metrics {@code store.snapshot.products} and {@code store.snapshot.bytes} (size of the off-heap columns).
+ */
+@Slf4j
+@Service
+public class ProductStatsServiceImpl implements ProductStatsService, SmartLifecycle {
+
+    /**
+     * Maximum number of new changes of a tenant which are merged into its snapshot, more are loaded again.
+     */
+    static final int MAX_APPLIED_CHANGES = 10_000;
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final ProductSnapshot EMPTY = ProductSnapshot.builder().build(0);
+
+    private final ProductSnapshotReader productSnapshotReader;
+    private final ProductChangeLog productChangeLog;
+    private final ProductChangeService productChangeService;
+    private final Duration pollInterval;
+
+    private final Map<String, ProductSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the snapshots of all tenants with products have been loaded - tenants without a snapshot then have no products.
+     */
+    private volatile boolean loaded;
+
+    private ScheduledExecutorService executor;
+
+    @Autowired
+    public ProductStatsServiceImpl(final ProductSnapshotReader productSnapshotReader,
+                                   final ProductChangeLog productChangeLog,
+                                   final ProductChangeService productChangeService,
+                                   final MeterRegistry meterRegistry,
+                                   @Value("${store.changes.poll-interval:500ms}") final Duration pollInterval) {
+        this.productSnapshotReader = productSnapshotReader;
+        this.productChangeLog = productChangeLog;
+        this.productChangeService = productChangeService;
+        this.pollInterval = pollInterval;
+
+        Gauge.builder("store.snapshot.products", this.snapshots,
+                        snapshots -> snapshots.values().stream().mapToLong(ProductSnapshot::size).sum())
+                .description("Products in the in-memory snapshots")
+                .register(meterRegistry);
+        Gauge.builder("store.snapshot.bytes", this.snapshots,
+                        snapshots -> snapshots.values().stream().mapToLong(ProductSnapshot::getColumnBytes).sum())
+                .description("Off-heap memory of the columns of the in-memory snapshots")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Gets aggregates of the prices of products of the current tenant.
+     *
+     * @param nameStartsWith prefix of the names of the aggregated products (case-sensitive), {@code null} for all products
+     * @param buckets        number of histogram buckets
+     * @return aggregates
+     * @throws ServiceBusyException if the snapshots are not loaded yet (handler will return 503 service unavailable)
+     */
+    @NotNull
+    @Override
+    public ProductStatsDto getStats(@Nullable final String nameStartsWith, final int buckets) {
+        final ProductSnapshot snapshot = this.snapshots.get(TenantContext.getTenantId());
+        if (snapshot != null) {
+            return snapshot.stats(nameStartsWith, Math.max(1, buckets));
+        }
+        if (!this.loaded) {
+            throw new ServiceBusyException("Product statistics are not available yet - products are being loaded");
+        }
+        return EMPTY.stats(nameStartsWith, buckets);
+    }
+
+    @Override
+    public void start() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "product-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Loads the snapshots right away
+        this.executor.scheduleWithFixedDelay(this::refresh, 0, this.pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.executor != null;
+    }
+
+    /**
+     * Loads the snapshots of new tenants, and applies new changes to the snapshots of the others.
+     */
+    void refresh() {
+        try {
+            for (final ProductChangeHead head : this.productChangeLog.getHeads().values()) {
+                final ProductSnapshot snapshot = this.snapshots.get(head.getTenantId());
+                TenantContext.setTenantId(head.getTenantId());
+                try {
+                    if (snapshot == null || head.getLastSeq() - snapshot.getSeq() > MAX_APPLIED_CHANGES) {
+                        load(head.getTenantId());
+                    } else if (head.getLastSeq() > snapshot.getSeq()) {
+                        applyChanges(head.getTenantId(), snapshot);
+                    }
+                } finally {
+                    TenantContext.clear();
+                }
+            }
+            this.loaded = true;
+        } catch (final RuntimeException e) {
+            // Snapshots are refreshed again after the poll interval
+            log.warn("Failed to refresh product snapshots", e);
+        }
+    }
+
+    private void load(final String tenantId) {
+        final long start = System.nanoTime();
+        final ProductSnapshot.Builder builder = ProductSnapshot.builder();
+        final long seq = this.productSnapshotReader.read(tenantId, builder::add);
+        final ProductSnapshot snapshot = builder.build(seq);
+        this.snapshots.put(tenantId, snapshot);
+        log.info("Loaded snapshot of {} products of tenant {} in {} ms", snapshot.size(), tenantId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void applyChanges(final String tenantId, final ProductSnapshot snapshot) {
+        try {
+            final List<ProductChangeDto> changes = new ArrayList<>();
+            long seq = snapshot.getSeq();
+            ProductChangesDto page;
+            do {
+                page = this.productChangeService.getChanges(seq, PAGE_SIZE, Duration.ZERO).join();
+                changes.addAll(page.items());
+                if (page.nextSince() <= seq) {
+                    break;
+                }
+                seq = page.nextSince();
+            } while (page.items().size() == PAGE_SIZE && changes.size() <= MAX_APPLIED_CHANGES);
+            if (changes.size() > MAX_APPLIED_CHANGES) {
+                load(tenantId);
+            } else {
+                this.snapshots.put(tenantId, snapshot.apply(seq, changes));
+            }
+        } catch (final ChangesExpiredException e) {
+            // Not refreshed for longer than the retention of tombstones
+            load(tenantId);
+        }
+    }
+}
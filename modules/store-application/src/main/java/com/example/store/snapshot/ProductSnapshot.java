@@ -0,0 +1,584 @@
+package com.example.store.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.example.store.dto.PriceBucketDto;
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductStatsDto;
+
+/**
+ * Immutable columnar snapshot of the products of a tenant, for aggregates of their prices without the database.
+ * <p>
+ * Rows are ordered by price, and each column is a direct (off-heap) buffer - IDs as longs, prices as floats, and names
+ * as int codes into a sorted dictionary of the distinct names (the dictionary is on the heap, a single string per
+ * distinct name). Aggregates are computed by primitive loops over the columns, without an object per row:
+ * min, max and percentiles of all products are read at their rank, histogram buckets are found by binary search,
+ * and the names starting with a prefix are a range of codes.
+ * <p>
+ * Changes of the change feed are applied over the columns ({@link #apply}): rows of changed products are marked
+ * as removed, and their current state is kept in a small overlay on the heap, also ordered by price, which aggregates
+ * merge with the columns. Once the overlay exceeds an eighth of the products, the columns are compacted - merged
+ * with the overlay into new columns, with a dictionary of only the names in use.
+ * <p>
+ * Snapshots which apply changes over the same columns share them. The memory of the columns is freed by the garbage
+ * collector, once no snapshot and no running aggregate references them anymore - columns are only replaced by
+ * compactions and loads, so few replaced columns wait for a collection at a time.
+ */
+public final class ProductSnapshot {
+
+    /**
+     * Percentiles of the aggregates.
+     */
+    static final int[] PERCENTILES = {50, 90, 95, 99};
+
+    /**
+     * Changed rows which are kept in the overlay at least, however few products there are.
+     */
+    static final int MIN_OVERLAY_SIZE = 1024;
+
+    private static final String[] NO_NAMES = {};
+
+    private final long seq;
+    private final Columns columns;
+    /**
+     * Rows of the columns of products which changed since - replaced by a row of the overlay, or deleted.
+     */
+    private final BitSet removed;
+    /**
+     * Current rows of changed products, ordered by price.
+     */
+    private final Overlay overlay;
+    private final int size;
+
+    private ProductSnapshot(final long seq, final Columns columns, final BitSet removed, final Overlay overlay) {
+        this.seq = seq;
+        this.columns = columns;
+        this.removed = removed;
+        this.overlay = overlay;
+        this.size = columns.size - removed.cardinality() + overlay.size();
+    }
+
+    /**
+     * Creates a builder of a snapshot, to which all products are added.
+     */
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return sequence number of the last change of the change feed the snapshot includes
+     */
+    public long getSeq() {
+        return this.seq;
+    }
+
+    /**
+     * @return number of products
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return size of the columns, in bytes
+     */
+    public long getColumnBytes() {
+        return (long) this.columns.size * Columns.ROW_BYTES;
+    }
+
+    /**
+     * @return number of names in the dictionary of the columns
+     */
+    int getDictionarySize() {
+        return this.columns.names.length;
+    }
+
+    /**
+     * @return number of rows in the overlay
+     */
+    int getOverlaySize() {
+        return this.overlay.size();
+    }
+
+    /**
+     * Creates a new snapshot with the changes applied - changed products are replaced by their current state,
+     * deleted products are removed. Only the latest change of each product is applied.
+     * <p>
+     * The new snapshot shares the columns of this one, unless they are compacted. This snapshot stays valid.
+     *
+     * @param seq     sequence number of the last change
+     * @param changes changes after the sequence number of this snapshot, ordered by sequence number
+     * @return new snapshot
+     */
+    @NotNull
+    public ProductSnapshot apply(final long seq, @NotNull final List<ProductChangeDto> changes) {
+        final Map<Long, ProductChangeDto> latest = new HashMap<>();
+        for (final ProductChangeDto change : changes) {
+            latest.put(change.id(), change);
+        }
+        final long[] changedIds = new long[latest.size()];
+        int c = 0;
+        for (final ProductChangeDto change : latest.values()) {
+            changedIds[c++] = change.id();
+        }
+        Arrays.sort(changedIds);
+
+        final BitSet newRemoved = (BitSet) this.removed.clone();
+        for (int i = 0; i < this.columns.size; i++) {
+            if (Arrays.binarySearch(changedIds, this.columns.ids.get(i)) >= 0) {
+                newRemoved.set(i);
+            }
+        }
+        // Rows of the overlay which did not change again, and the current rows of the changed products
+        final Builder rows = new Builder();
+        for (int i = 0; i < this.overlay.size(); i++) {
+            if (Arrays.binarySearch(changedIds, this.overlay.ids[i]) < 0) {
+                rows.add(this.overlay.ids[i], this.overlay.names[i], this.overlay.prices[i]);
+            }
+        }
+        for (final ProductChangeDto change : latest.values()) {
+            if (!change.deleted() && change.product() != null) {
+                rows.add(change.id(), change.product().getName(), change.product().getPrice());
+            }
+        }
+        final Overlay newOverlay = rows.overlay();
+        if (newRemoved.cardinality() + newOverlay.size() <= Math.max(MIN_OVERLAY_SIZE, this.columns.size / 8)) {
+            return new ProductSnapshot(seq, this.columns, newRemoved, newOverlay);
+        }
+        return new ProductSnapshot(seq, this.columns.compact(newRemoved, newOverlay), new BitSet(), Overlay.EMPTY);
+    }
+
+    /**
+     * Computes aggregates of the prices of the products.
+     *
+     * @param nameStartsWith prefix of the names of the aggregated products (case-sensitive), {@code null} for all
+     * @param buckets        number of histogram buckets
+     * @return aggregates
+     */
+    @NotNull
+    public ProductStatsDto stats(@Nullable final String nameStartsWith, final int buckets) {
+        if (nameStartsWith == null && this.removed.isEmpty() && this.overlay.size() == 0) {
+            return statsOfAll(buckets);
+        }
+        return statsOfMatching(nameStartsWith, buckets);
+    }
+
+    /**
+     * Aggregates of the products whose name starts with the prefix (or of all products), with a scan of the columns
+     * and of the overlay.
+     */
+    private ProductStatsDto statsOfMatching(@Nullable final String prefix, final int buckets) {
+        final int fromCode = prefix == null ? 0 : this.columns.firstCodeNotBefore(prefix);
+        final int toCode = prefix == null ? this.columns.names.length : this.columns.firstCodeAfterPrefix(prefix, fromCode);
+
+        // First pass - count, sum, and the first and last matching row of the columns and of the overlay
+        // (lowest and highest price)
+        long count = 0;
+        double sum = 0;
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < this.columns.size; i++) {
+            if (matches(i, fromCode, toCode)) {
+                count++;
+                sum += this.columns.prices.get(i);
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        int firstChanged = -1;
+        int lastChanged = -1;
+        for (int i = 0; i < this.overlay.size(); i++) {
+            if (this.overlay.matches(i, prefix)) {
+                count++;
+                sum += this.overlay.prices[i];
+                if (firstChanged < 0) {
+                    firstChanged = i;
+                }
+                lastChanged = i;
+            }
+        }
+        if (count == 0) {
+            return new ProductStatsDto(0, null, null, null, Map.of(), List.of(), this.seq);
+        }
+        final float min = Math.min(first < 0 ? Float.POSITIVE_INFINITY : this.columns.prices.get(first),
+                firstChanged < 0 ? Float.POSITIVE_INFINITY : this.overlay.prices[firstChanged]);
+        final float max = Math.max(last < 0 ? Float.NEGATIVE_INFINITY : this.columns.prices.get(last),
+                lastChanged < 0 ? Float.NEGATIVE_INFINITY : this.overlay.prices[lastChanged]);
+        final float[] bounds = bucketBounds(min, max, buckets);
+        final long[] ranks = percentileRanks(count);
+
+        // Second pass - rows of the columns and of the overlay are merged by price, so buckets and ranks are reached
+        // in order
+        final long[] bucketCounts = new long[bounds.length - 1];
+        final float[] percentilePrices = new float[ranks.length];
+        int bucket = 0;
+        int percentile = 0;
+        long rank = 0;
+        int i = first < 0 ? 0 : first;
+        final int end = last + 1;
+        int o = firstChanged < 0 ? 0 : firstChanged;
+        final int overlayEnd = lastChanged + 1;
+        while (i < end || o < overlayEnd) {
+            final float price;
+            if (o >= overlayEnd || (i < end && this.columns.prices.get(i) <= this.overlay.prices[o])) {
+                if (!matches(i, fromCode, toCode)) {
+                    i++;
+                    continue;
+                }
+                price = this.columns.prices.get(i++);
+            } else {
+                if (!this.overlay.matches(o, prefix)) {
+                    o++;
+                    continue;
+                }
+                price = this.overlay.prices[o++];
+            }
+            while (bucket < bucketCounts.length - 1 && price >= bounds[bucket + 1]) {
+                bucket++;
+            }
+            bucketCounts[bucket]++;
+            rank++;
+            while (percentile < ranks.length && ranks[percentile] == rank) {
+                percentilePrices[percentile++] = price;
+            }
+        }
+        return toDto(count, min, max, sum / count, percentilePrices, bounds, bucketCounts);
+    }
+
+    /**
+     * Whether the row of the columns is current and its name code is in the range.
+     */
+    private boolean matches(final int row, final int fromCode, final int toCode) {
+        final int code = this.columns.nameCodes.get(row);
+        return code >= fromCode && code < toCode && !this.removed.get(row);
+    }
+
+    /**
+     * Aggregates of all products, read at their rank - only without changes since the columns were written.
+     */
+    private ProductStatsDto statsOfAll(final int buckets) {
+        final Columns all = this.columns;
+        if (all.size == 0) {
+            return new ProductStatsDto(0, null, null, null, Map.of(), List.of(), this.seq);
+        }
+        final float min = all.prices.get(0);
+        final float max = all.prices.get(all.size - 1);
+        final long[] ranks = percentileRanks(all.size);
+        final float[] percentilePrices = new float[ranks.length];
+        for (int i = 0; i < ranks.length; i++) {
+            percentilePrices[i] = all.prices.get((int) ranks[i] - 1);
+        }
+        final float[] bounds = bucketBounds(min, max, buckets);
+        final long[] bucketCounts = new long[bounds.length - 1];
+        int from = 0;
+        for (int bucket = 0; bucket < bucketCounts.length; bucket++) {
+            final int to = bucket == bucketCounts.length - 1 ? all.size : all.firstRowNotBelow(bounds[bucket + 1], from);
+            bucketCounts[bucket] = to - from;
+            from = to;
+        }
+        return toDto(all.size, min, max, all.priceSum / all.size, percentilePrices, bounds, bucketCounts);
+    }
+
+    private ProductStatsDto toDto(final long count, final float min, final float max, final double avg,
+                                  final float[] percentilePrices, final float[] bounds, final long[] bucketCounts) {
+        final Map<String, Float> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put("p" + PERCENTILES[i], percentilePrices[i]);
+        }
+        final PriceBucketDto[] histogram = new PriceBucketDto[bucketCounts.length];
+        for (int i = 0; i < bucketCounts.length; i++) {
+            histogram[i] = new PriceBucketDto(bounds[i], bounds[i + 1], bucketCounts[i]);
+        }
+        return new ProductStatsDto(count, min, max, avg, percentiles, List.of(histogram), this.seq);
+    }
+
+    /**
+     * Ranks (1-based) of the percentiles among the specified number of products - nearest rank.
+     */
+    private static long[] percentileRanks(final long count) {
+        final long[] ranks = new long[PERCENTILES.length];
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            ranks[i] = Math.max(1, (long) Math.ceil(PERCENTILES[i] / 100.0 * count));
+        }
+        return ranks;
+    }
+
+    /**
+     * Bounds of buckets of equal width from the lowest to the highest price - a single bucket if all prices are equal.
+     */
+    private static float[] bucketBounds(final float min, final float max, final int buckets) {
+        final int count = min == max ? 1 : buckets;
+        final float[] bounds = new float[count + 1];
+        for (int i = 0; i < count; i++) {
+            bounds[i] = (float) (min + ((double) max - min) * i / count);
+        }
+        bounds[count] = max;
+        return bounds;
+    }
+
+    /**
+     * Key ordering rows by price, with the row in the lower bits - the float bits are flipped so that the keys of all
+     * prices (including negative ones) are ordered like the prices.
+     */
+    private static long sortKey(final float price, final int row) {
+        final int bits = Float.floatToIntBits(price);
+        return (long) (bits ^ ((bits >> 31) & 0x7fffffff)) << 32 | row;
+    }
+
+    /**
+     * Builder of a snapshot - collects the products in primitive arrays on the heap, and writes them ordered by price
+     * into the columns.
+     */
+    public static final class Builder {
+
+        private long[] ids = new long[1024];
+        private float[] prices = new float[1024];
+        private String[] names = new String[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a product.
+         *
+         * @param id    product ID
+         * @param name  product name
+         * @param price product price
+         */
+        public void add(final long id, @NotNull final String name, final float price) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+                this.prices = Arrays.copyOf(this.prices, this.size * 2);
+                this.names = Arrays.copyOf(this.names, this.size * 2);
+            }
+            this.ids[this.size] = id;
+            this.prices[this.size] = price;
+            this.names[this.size++] = name;
+        }
+
+        /**
+         * Builds the snapshot of the added products.
+         *
+         * @param seq sequence number of the last change of the change feed the products include
+         * @return snapshot
+         */
+        @NotNull
+        public ProductSnapshot build(final long seq) {
+            final String[] dictionary = size == 0 ? NO_NAMES
+                    : Arrays.stream(this.names, 0, this.size).distinct().sorted().toArray(String[]::new);
+            final long[] order = priceOrder();
+            final Columns columns = new Columns(this.size, dictionary);
+            for (int i = 0; i < order.length; i++) {
+                final int row = (int) order[i];
+                columns.put(i, this.ids[row], this.prices[row], Arrays.binarySearch(dictionary, this.names[row]));
+            }
+            return new ProductSnapshot(seq, columns, new BitSet(), Overlay.EMPTY);
+        }
+
+        /**
+         * @return overlay of the added products
+         */
+        private Overlay overlay() {
+            final long[] order = priceOrder();
+            final Overlay overlay = new Overlay(new long[order.length], new float[order.length], new String[order.length]);
+            for (int i = 0; i < order.length; i++) {
+                final int row = (int) order[i];
+                overlay.ids[i] = this.ids[row];
+                overlay.prices[i] = this.prices[row];
+                overlay.names[i] = this.names[row];
+            }
+            return overlay;
+        }
+
+        /**
+         * Sort keys of the added rows, ordered by price - the row is the int value of a key.
+         */
+        private long[] priceOrder() {
+            final long[] keys = new long[this.size];
+            for (int i = 0; i < this.size; i++) {
+                keys[i] = sortKey(this.prices[i], i);
+            }
+            Arrays.sort(keys);
+            return keys;
+        }
+    }
+
+    /**
+     * Rows of products which changed since the columns were written, ordered by price - on the heap, as there are few.
+     */
+    private static final class Overlay {
+
+        private static final Overlay EMPTY = new Overlay(new long[0], new float[0], NO_NAMES);
+
+        private final long[] ids;
+        private final float[] prices;
+        private final String[] names;
+
+        private Overlay(final long[] ids, final float[] prices, final String[] names) {
+            this.ids = ids;
+            this.prices = prices;
+            this.names = names;
+        }
+
+        private int size() {
+            return this.ids.length;
+        }
+
+        /**
+         * Whether the name of the row starts with the prefix ({@code null} for any name).
+         */
+        private boolean matches(final int row, @Nullable final String prefix) {
+            return prefix == null || this.names[row].startsWith(prefix);
+        }
+    }
+
+    /**
+     * Off-heap columns of rows ordered by price, with the dictionary of their names.
+     */
+    private static final class Columns {
+
+        private static final int ROW_BYTES = Long.BYTES + Float.BYTES + Integer.BYTES;
+
+        private final int size;
+        private final LongBuffer ids;
+        private final FloatBuffer prices;
+        private final IntBuffer nameCodes;
+        private final String[] names;
+        private double priceSum;
+
+        private Columns(final int size, final String[] names) {
+            this.size = size;
+            this.ids = allocate((long) size * Long.BYTES).asLongBuffer();
+            this.prices = allocate((long) size * Float.BYTES).asFloatBuffer();
+            this.nameCodes = allocate((long) size * Integer.BYTES).asIntBuffer();
+            this.names = names;
+        }
+
+        private void put(final int row, final long id, final float price, final int nameCode) {
+            this.ids.put(row, id);
+            this.prices.put(row, price);
+            this.nameCodes.put(row, nameCode);
+            this.priceSum += price;
+        }
+
+        /**
+         * @return direct buffer of the specified capacity in bytes, in the native byte order
+         */
+        private static ByteBuffer allocate(final long capacity) {
+            return ByteBuffer.allocateDirect(Math.toIntExact(capacity)).order(ByteOrder.nativeOrder());
+        }
+
+        /**
+         * Writes new columns of the current rows of these columns (without the removed ones) and of the overlay, merged
+         * by price. The dictionary only contains the names of these rows - names of removed rows are dropped.
+         */
+        private Columns compact(final BitSet removed, final Overlay overlay) {
+            // Names of the current rows, merged with the names of the overlay
+            final boolean[] used = new boolean[this.names.length];
+            for (int i = 0; i < this.size; i++) {
+                if (!removed.get(i)) {
+                    used[this.nameCodes.get(i)] = true;
+                }
+            }
+            final String[] overlayNames = Arrays.stream(overlay.names).distinct().sorted().toArray(String[]::new);
+            final int[] codeMapping = new int[this.names.length];
+            final String[] merged = new String[this.names.length + overlayNames.length];
+            int code = 0;
+            int o = 0;
+            for (int oldCode = 0; oldCode < this.names.length; oldCode++) {
+                if (!used[oldCode]) {
+                    continue;
+                }
+                for (; o < overlayNames.length && overlayNames[o].compareTo(this.names[oldCode]) < 0; o++) {
+                    merged[code++] = overlayNames[o];
+                }
+                if (o < overlayNames.length && overlayNames[o].equals(this.names[oldCode])) {
+                    o++;
+                }
+                codeMapping[oldCode] = code;
+                merged[code++] = this.names[oldCode];
+            }
+            for (; o < overlayNames.length; o++) {
+                merged[code++] = overlayNames[o];
+            }
+            final String[] dictionary = Arrays.copyOf(merged, code);
+
+            final Columns compacted = new Columns(this.size - removed.cardinality() + overlay.size(), dictionary);
+            int row = 0;
+            int u = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (removed.get(i)) {
+                    continue;
+                }
+                final float price = this.prices.get(i);
+                for (; u < overlay.size() && overlay.prices[u] < price; u++) {
+                    compacted.put(row++, overlay.ids[u], overlay.prices[u], Arrays.binarySearch(dictionary, overlay.names[u]));
+                }
+                compacted.put(row++, this.ids.get(i), price, codeMapping[this.nameCodes.get(i)]);
+            }
+            for (; u < overlay.size(); u++) {
+                compacted.put(row++, overlay.ids[u], overlay.prices[u], Arrays.binarySearch(dictionary, overlay.names[u]));
+            }
+            return compacted;
+        }
+
+        /**
+         * Index of the first row (from the specified one) with a price of at least the specified one.
+         */
+        private int firstRowNotBelow(final float price, final int from) {
+            int low = from;
+            int high = this.size;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (this.prices.get(middle) < price) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Code of the first name which is not before the prefix.
+         */
+        private int firstCodeNotBefore(final String prefix) {
+            final int index = Arrays.binarySearch(this.names, prefix);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * Code of the first name after the names starting with the prefix, which follow each other in the dictionary.
+         */
+        private int firstCodeAfterPrefix(final String prefix, final int from) {
+            int low = from;
+            int high = this.names.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (this.names[middle].startsWith(prefix)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
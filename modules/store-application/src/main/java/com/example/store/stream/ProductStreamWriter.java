@@ -0,0 +1,133 @@
+package com.example.store.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.protobuf.ProductProtobuf;
+import com.example.store.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedOutputStream;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Writes all products directly to an output stream, one at a time,
+ * so the response size does not affect memory usage.
+ * <p>
+ * Writes block while the client is not reading fast enough, which in turn pauses reading from the database cursor.
+ * If the client disconnects, the write fails and the iteration (and the cursor) is aborted.
+ */
+@UtilityClass
+public final class ProductStreamWriter {
+
+    private static final int PROTOBUF_BUFFER_SIZE = 8192;
+
+    /**
+     * Writes all products as a JSON array - or an array in the binary format of the object mapper (Smile, CBOR).
+     *
+     * @param objectMapper   object mapper used for serialization
+     * @param outputStream   target stream
+     * @param products       source of the products
+     * @throws IOException if writing fails, e.g. the client disconnected
+     */
+    public static void writeJsonArray(@NotNull final ObjectMapper objectMapper,
+                                      @NotNull final OutputStream outputStream,
+                                      @NotNull final ProductSource products) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            writeAll(products, generator, false);
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Writes all products as newline delimited JSON (NDJSON) - one JSON object per line.
+     *
+     * @param objectMapper   object mapper used for serialization
+     * @param outputStream   target stream
+     * @param products       source of the products
+     * @throws IOException if writing fails, e.g. the client disconnected
+     */
+    public static void writeNdjson(@NotNull final ObjectMapper objectMapper,
+                                   @NotNull final OutputStream outputStream,
+                                   @NotNull final ProductSource products) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // Root values are written one per line, without any separator in between
+            generator.setRootValueSeparator(null);
+            writeAll(products, generator, true);
+        }
+    }
+
+    /**
+     * Writes all products as length-delimited Protobuf messages - each {@code Product} preceded by its size
+     * (see {@link ProductProtobuf#writeDelimited}).
+     *
+     * @param outputStream   target stream
+     * @param products       source of the products
+     * @throws IOException if writing fails, e.g. the client disconnected
+     */
+    public static void writeDelimitedProtobuf(@NotNull final OutputStream outputStream,
+                                              @NotNull final ProductSource products) throws IOException {
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream, PROTOBUF_BUFFER_SIZE);
+        forEachProduct(products, productDto -> ProductProtobuf.writeDelimited(productDto, output));
+        output.flush();
+    }
+
+    /**
+     * Writes all products as a {@code ProductList} Protobuf message, item by item (see {@link ProductProtobuf#writeItem}).
+     *
+     * @param outputStream   target stream
+     * @param products       source of the products
+     * @throws IOException if writing fails, e.g. the client disconnected
+     */
+    public static void writeProtobufList(@NotNull final OutputStream outputStream,
+                                         @NotNull final ProductSource products) throws IOException {
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream, PROTOBUF_BUFFER_SIZE);
+        forEachProduct(products, productDto -> ProductProtobuf.writeItem(productDto, output));
+        output.flush();
+    }
+
+    private static void writeAll(final ProductSource products, final JsonGenerator generator,
+                                 final boolean newLineDelimited) throws IOException {
+        forEachProduct(products, productDto -> {
+            generator.writeObject(productDto);
+            if (newLineDelimited) {
+                generator.writeRaw('\n');
+            }
+        });
+    }
+
+    private static void forEachProduct(final ProductSource products, final ProductWriter writer) throws IOException {
+        try {
+            products.forEachProduct(productDto -> {
+                try {
+                    writer.write(productDto);
+                } catch (final IOException e) {
+                    // Aborts the iteration, which closes the database cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Source of all products, ordered by ID - e.g. {@link ProductService#forEachProduct(Consumer)}.
+     */
+    @FunctionalInterface
+    public interface ProductSource {
+        void forEachProduct(Consumer<ProductDto> consumer);
+    }
+
+    @FunctionalInterface
+    private interface ProductWriter {
+        void write(ProductDto productDto) throws IOException;
+    }
+}
@@ -0,0 +1,473 @@
+package com.example.store.stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.tenant.TenantContext;
+import com.example.store.service.ProductChangeService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes product updates to subscribed clients as Server-Sent Events ({@code GET /api/products/updates}).
+ * <p>
+ * Updates are read from the change feed (see {@link ProductChangeService}), which records the changes of all nodes -
+ * single and batch operations, price updates and imports. While a tenant has subscribers, its feed is checked every
+ * {@code store.changes.poll-interval}, new changes are read once, serialized once, and put into the buffers of the
+ * subscribers of the whole catalog and of the changed product. Each event has the sequence number of the change as ID.
+ * <p>
+ * Every subscriber has a buffer of {@code store.live-updates.buffer-size} events, which is written to the client
+ * by a virtual thread - the buffered events at once, with a single flush - so a slow client blocks neither the fan-out
+ * nor other clients. A subscriber whose buffer is full
+ * is dropped - it gets a {@value #RESYNC_EVENT} event with the sequence number of the last update it got, reads the
+ * missed changes from the change feed and subscribes again. At most {@code store.live-updates.max-subscribers}
+ * clients are subscribed at once, further subscriptions are rejected with 503. Idle connections get a comment
+ * every {@code store.live-updates.heartbeat-interval}, which also detects disconnected clients.
+ * <p>
+ * Published as metrics {@code store.live.subscribers}, {@code store.live.events.sent} and
+ * {@code store.live.subscribers.dropped}.
+ */
+@Slf4j
+@Component
+public class ProductUpdateHub implements SmartLifecycle {
+
+    static final String SUBSCRIBED_EVENT = "subscribed";
+    static final String PRODUCT_EVENT = "product";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * Maximum number of events written to a subscriber at once, with a single flush.
+     */
+    private static final int SEND_BATCH_SIZE = 64;
+
+    private static final Event HEARTBEAT = new Event(0, render(SseEmitter.event().comment("heartbeat")));
+
+    private final ProductChangeService productChangeService;
+    private final ProductChangeLog productChangeLog;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration pollInterval;
+    private final Duration heartbeatInterval;
+
+    /**
+     * Subscribers by tenant. Tenants without subscribers are removed, and their changes are not read.
+     */
+    private final Map<String, TenantSubscribers> tenants = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter sent;
+    private final Counter dropped;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+
+    @Autowired
+    public ProductUpdateHub(final ProductChangeService productChangeService,
+                            final ProductChangeLog productChangeLog,
+                            final ObjectMapper objectMapper,
+                            final MeterRegistry meterRegistry,
+                            @Value("${store.live-updates.buffer-size:256}") final int bufferSize,
+                            @Value("${store.live-updates.max-subscribers:10000}") final int maxSubscribers,
+                            @Value("${store.changes.poll-interval:500ms}") final Duration pollInterval,
+                            @Value("${store.live-updates.heartbeat-interval:30s}") final Duration heartbeatInterval) {
+        this.productChangeService = productChangeService;
+        this.productChangeLog = productChangeLog;
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.pollInterval = pollInterval;
+        this.heartbeatInterval = heartbeatInterval;
+
+        Gauge.builder("store.live.subscribers", this.subscriberCount, AtomicInteger::get)
+                .description("Clients subscribed to product updates")
+                .register(meterRegistry);
+        this.sent = Counter.builder("store.live.events.sent")
+                .description("Product update events written to subscribers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("store.live.subscribers.dropped")
+                .description("Subscribers dropped because they did not read their updates fast enough")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribes the emitter to updates of products of the current tenant. The first event ({@value #SUBSCRIBED_EVENT})
+     * has the sequence number after which the subscriber gets all updates.
+     *
+     * @param emitter    emitter of the response
+     * @param productIds IDs of the products, {@code null} for all products
+     * @throws ServiceBusyException if there are too many subscribers, or the hub is stopped (handler will return
+     *                              503 service unavailable)
+     */
+    public void subscribe(@NotNull final SseEmitter emitter, @Nullable final Set<Long> productIds) {
+        if (!isRunning()) {
+            throw new ServiceBusyException("Product updates are not available - shutting down");
+        }
+        if (this.subscriberCount.incrementAndGet() > this.maxSubscribers) {
+            this.subscriberCount.decrementAndGet();
+            throw new ServiceBusyException("Too many subscribers of product updates");
+        }
+        final String tenantId = TenantContext.getTenantId();
+        final Subscriber subscriber = new Subscriber(tenantId, productIds, emitter, new LinkedBlockingQueue<>(this.bufferSize));
+        try {
+            // Only the first subscriber of a tenant reads the head of its change feed, not every reconnecting client
+            if (this.tenants.computeIfPresent(tenantId, (key, subscribers) -> subscribers.add(subscriber)) == null) {
+                final long lastSeq = this.productChangeLog.getHead(tenantId).getLastSeq();
+                this.tenants.compute(tenantId, (key, subscribers) ->
+                        (subscribers != null ? subscribers : new TenantSubscribers(lastSeq)).add(subscriber));
+            }
+        } catch (final RuntimeException e) {
+            this.subscriberCount.decrementAndGet();
+            throw e;
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        // Writes the subscribed event
+        schedule(subscriber);
+        log.debug("Subscribed to updates of {} products of tenant {}", productIds == null ? "all" : productIds.size(), tenantId);
+    }
+
+    @Override
+    public void start() {
+        this.senders = Executors.newVirtualThreadPerTaskExecutor();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "product-update-hub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::publishChanges,
+                this.pollInterval.toMillis(), this.pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        this.scheduler.scheduleAtFixedRate(this::sendHeartbeats,
+                this.heartbeatInterval.toMillis(), this.heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+        // Clients reconnect, to another node
+        for (final TenantSubscribers tenantSubscribers : this.tenants.values()) {
+            tenantSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+        if (this.senders != null) {
+            this.senders.shutdownNow();
+            this.senders = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.scheduler != null;
+    }
+
+    /**
+     * Reads new changes of tenants with subscribers, and puts them into the buffers of their subscribers.
+     */
+    void publishChanges() {
+        if (this.tenants.isEmpty()) {
+            return;
+        }
+        try {
+            final Map<String, ProductChangeHead> heads = this.productChangeLog.getHeads();
+            this.tenants.forEach((tenantId, tenantSubscribers) -> {
+                final ProductChangeHead head = heads.get(tenantId);
+                if (head != null && head.getLastSeq() > tenantSubscribers.seq) {
+                    publishChanges(tenantId, tenantSubscribers, head.getLastSeq());
+                }
+            });
+        } catch (final RuntimeException e) {
+            log.warn("Failed to publish product updates", e);
+        }
+    }
+
+    private void publishChanges(final String tenantId, final TenantSubscribers tenantSubscribers, final long lastSeq) {
+        TenantContext.setTenantId(tenantId);
+        try {
+            long since;
+            do {
+                since = tenantSubscribers.seq;
+                final ProductChangesDto changes = this.productChangeService.getChanges(since, PAGE_SIZE, Duration.ZERO).join();
+                synchronized (tenantSubscribers) {
+                    for (final ProductChangeDto change : changes.items()) {
+                        publish(tenantSubscribers, change);
+                    }
+                    tenantSubscribers.seq = changes.nextSince();
+                }
+            } while (tenantSubscribers.seq > since && tenantSubscribers.seq < lastSeq);
+        } catch (final ChangesExpiredException e) {
+            // Not read for longer than the retention of tombstones
+            log.warn("Changes of tenant {} are no longer available, dropping its subscribers", tenantId);
+            tenantSubscribers.forEach(this::drop);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private void publish(final TenantSubscribers tenantSubscribers, final ProductChangeDto change) {
+        final Event event;
+        try {
+            event = new Event(change.seq(), render(SseEmitter.event()
+                    .id(String.valueOf(change.seq()))
+                    .name(PRODUCT_EVENT)
+                    .data(this.objectMapper.writeValueAsString(change))));
+        } catch (final JsonProcessingException e) {
+            throw new IllegalStateException("Product change can not be serialized", e);
+        }
+        for (final Subscriber subscriber : tenantSubscribers.catalog) {
+            enqueue(subscriber, event);
+        }
+        final Set<Subscriber> productSubscribers = tenantSubscribers.byProduct.get(change.id());
+        if (productSubscribers != null) {
+            for (final Subscriber subscriber : productSubscribers) {
+                enqueue(subscriber, event);
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        for (final TenantSubscribers tenantSubscribers : this.tenants.values()) {
+            tenantSubscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT));
+        }
+    }
+
+    /**
+     * Puts the event into the buffer of the subscriber, or drops the subscriber if the buffer is full.
+     */
+    private void enqueue(final Subscriber subscriber, final Event event) {
+        if (subscriber.dropped) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            drop(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void drop(final Subscriber subscriber) {
+        if (!subscriber.dropped) {
+            subscriber.dropped = true;
+            this.dropped.increment();
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Writes the buffered events of the subscriber by a virtual thread, unless one is writing them already.
+     */
+    private void schedule(final Subscriber subscriber) {
+        final ExecutorService executor = this.senders;
+        if (executor != null && subscriber.sending.compareAndSet(false, true)) {
+            executor.execute(() -> send(subscriber));
+        }
+    }
+
+    private void send(final Subscriber subscriber) {
+        if (subscriber.unsubscribed.get()) {
+            return;
+        }
+        try {
+            if (!subscriber.subscribed) {
+                subscriber.emitter.send(SseEmitter.event().name(SUBSCRIBED_EVENT).data(subscriber.sentSeq).build());
+                subscriber.subscribed = true;
+            }
+            final List<Event> batch = new ArrayList<>(Math.min(SEND_BATCH_SIZE, this.bufferSize));
+            while (!subscriber.dropped && subscriber.queue.drainTo(batch, SEND_BATCH_SIZE) > 0) {
+                send(subscriber, batch);
+                batch.clear();
+            }
+            if (subscriber.dropped) {
+                log.debug("Dropped slow subscriber of tenant {} at {}", subscriber.tenantId, subscriber.sentSeq);
+                subscriber.queue.clear();
+                subscriber.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(subscriber.sentSeq).build());
+                subscriber.emitter.complete();
+                unsubscribe(subscriber);
+                return;
+            }
+        } catch (final IOException | IllegalStateException e) {
+            // Client disconnected or the response completed - the emitter is completed by the container
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Events or a drop which came while the events were written
+        if (!subscriber.queue.isEmpty() || subscriber.dropped) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Writes the events to the subscriber, and flushes them at once.
+     */
+    private void send(final Subscriber subscriber, final List<Event> events) throws IOException {
+        final Set<DataWithMediaType> data = new LinkedHashSet<>(events.size() * 2);
+        long seq = 0;
+        int changes = 0;
+        for (final Event event : events) {
+            data.add(event.data());
+            if (event.seq() > 0) {
+                seq = event.seq();
+                changes++;
+            }
+        }
+        subscriber.emitter.send(data);
+        if (changes > 0) {
+            subscriber.sentSeq = seq;
+            this.sent.increment(changes);
+        }
+    }
+
+    /**
+     * Renders the event once, as UTF-8 bytes written to all its subscribers as they are.
+     */
+    private static DataWithMediaType render(final SseEmitter.SseEventBuilder event) {
+        final StringBuilder text = new StringBuilder();
+        for (final DataWithMediaType part : event.build()) {
+            text.append(part.getData());
+        }
+        return new DataWithMediaType(text.toString().getBytes(StandardCharsets.UTF_8), MediaType.TEXT_PLAIN);
+    }
+
+    private void unsubscribe(final Subscriber subscriber) {
+        if (!subscriber.unsubscribed.compareAndSet(false, true)) {
+            return;
+        }
+        this.subscriberCount.decrementAndGet();
+        this.tenants.computeIfPresent(subscriber.tenantId, (key, tenantSubscribers) -> {
+            tenantSubscribers.remove(subscriber);
+            return tenantSubscribers.isEmpty() ? null : tenantSubscribers;
+        });
+    }
+
+    /**
+     * Serialized event.
+     *
+     * @param seq  sequence number of the change, 0 for other events
+     * @param data event, shared by all subscribers
+     */
+    private record Event(long seq, DataWithMediaType data) {
+    }
+
+    /**
+     * Subscribers of a tenant, by subscribed products.
+     */
+    private static final class TenantSubscribers {
+
+        private final Set<Subscriber> catalog = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Set<Subscriber>> byProduct = new ConcurrentHashMap<>();
+
+        /**
+         * Sequence number of the last change put into the buffers. Updated together with the buffers (synchronized),
+         * so a new subscriber gets all changes after the number it starts from.
+         */
+        private volatile long seq;
+
+        private TenantSubscribers(final long seq) {
+            this.seq = seq;
+        }
+
+        private synchronized TenantSubscribers add(final Subscriber subscriber) {
+            subscriber.sentSeq = this.seq;
+            if (subscriber.productIds == null) {
+                this.catalog.add(subscriber);
+            } else {
+                for (final Long productId : subscriber.productIds) {
+                    this.byProduct.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+                }
+            }
+            return this;
+        }
+
+        private void remove(final Subscriber subscriber) {
+            if (subscriber.productIds == null) {
+                this.catalog.remove(subscriber);
+            } else {
+                for (final Long productId : subscriber.productIds) {
+                    this.byProduct.computeIfPresent(productId, (id, subscribers) -> {
+                        subscribers.remove(subscriber);
+                        return subscribers.isEmpty() ? null : subscribers;
+                    });
+                }
+            }
+        }
+
+        private boolean isEmpty() {
+            return this.catalog.isEmpty() && this.byProduct.isEmpty();
+        }
+
+        private void forEach(final Consumer<Subscriber> action) {
+            this.catalog.forEach(action);
+            this.byProduct.values().forEach(subscribers -> subscribers.forEach(action));
+        }
+    }
+
+    /**
+     * Subscribed client.
+     */
+    private static final class Subscriber {
+
+        private final String tenantId;
+        private final Set<Long> productIds;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Event> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean unsubscribed = new AtomicBoolean();
+
+        /**
+         * Sequence number of the last change written to the client, or after which it was subscribed.
+         */
+        private volatile long sentSeq;
+        private volatile boolean subscribed;
+        private volatile boolean dropped;
+
+        private Subscriber(final String tenantId, final Set<Long> productIds, final SseEmitter emitter,
+                           final BlockingQueue<Event> queue) {
+            this.tenantId = tenantId;
+            this.productIds = productIds;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.store.tenant;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.store.persistence.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resolves the tenant of a request from the header {@value #TENANT_HEADER}, and sets it for the request
+ * (see {@link TenantContext}). Requests without the header belong to the default tenant.
+ * <p>
+ * Requests are rejected with 400 bad request if the tenant ID is not one of the allowed tenants - state of a tenant
+ * (metrics, budgets, caches) is kept per tenant, so the tenants must be bounded. If a rate limit is set, each tenant may send that many requests per second on average
+ * (and bursts of up to {@code burst} requests) - further requests are rejected with 429 too many requests,
+ * so a noisy tenant does not take the capacity of the others. Rejections are counted by the metric
+ * {@code store.tenant.requests.rejected}, tagged by tenant and reason, which is removed with the rate limiter
+ * of the tenant.
+ */
+@Slf4j
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-ID";
+
+    /**
+     * Rate limiters of tenants which have not sent a request for this long are removed (and start with a full burst).
+     */
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+
+    private static final String REJECTED_METER = "store.tenant.requests.rejected";
+
+    private final Set<String> tenants;
+    private final double requestsPerSecond;
+    private final int burst;
+    private final MeterRegistry meterRegistry;
+    private final LoadingCache<String, TokenBucket> rateLimiters;
+
+    /**
+     * @param tenants           allowed tenants
+     * @param requestsPerSecond average requests per second of a tenant, 0 for no rate limit
+     * @param burst             maximum number of requests of a tenant at once, above the average
+     * @param meterRegistry     registry of the rejection metrics
+     * @throws IllegalArgumentException if no tenant is allowed
+     */
+    public TenantFilter(@NotNull final Set<String> tenants, final double requestsPerSecond, final int burst,
+                        @NotNull final MeterRegistry meterRegistry) {
+        this(tenants, requestsPerSecond, burst, meterRegistry, Ticker.systemTicker());
+    }
+
+    TenantFilter(@NotNull final Set<String> tenants, final double requestsPerSecond, final int burst,
+                 @NotNull final MeterRegistry meterRegistry, @NotNull final Ticker ticker) {
+        if (tenants.isEmpty()) {
+            throw new IllegalArgumentException("No tenants allowed");
+        }
+        this.tenants = Set.copyOf(tenants);
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = Math.max(1, burst);
+        this.meterRegistry = meterRegistry;
+        this.rateLimiters = Caffeine.newBuilder()
+                .expireAfterAccess(IDLE_EXPIRY.toNanos(), TimeUnit.NANOSECONDS)
+                .ticker(ticker)
+                // Meters are removed by the thread which expires the limiter
+                .executor(Runnable::run)
+                .<String, TokenBucket>removalListener((tenantId, limiter, cause) -> removeRejected(tenantId))
+                .build(tenantId -> new TokenBucket(this.burst, this.requestsPerSecond));
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull final HttpServletRequest request, @NotNull final HttpServletResponse response,
+                                    @NotNull final FilterChain filterChain) throws ServletException, IOException {
+        final String header = request.getHeader(TENANT_HEADER);
+        final String tenantId = header == null ? TenantContext.DEFAULT_TENANT : header;
+        if (!this.tenants.contains(tenantId)) {
+            log.debug("Rejected request of unknown tenant '{}'", tenantId);
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Unknown tenant");
+            return;
+        }
+        if (this.requestsPerSecond > 0) {
+            final long waitNanos = this.rateLimiters.get(tenantId).tryAcquire(System.nanoTime());
+            if (waitNanos > 0) {
+                rejected(tenantId, "rate_limit").increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, Duration.ofNanos(waitNanos).toSeconds())));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many requests of tenant " + tenantId);
+                return;
+            }
+        }
+        TenantContext.setTenantId(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private Counter rejected(final String tenantId, final String reason) {
+        return Counter.builder(REJECTED_METER)
+                .description("Requests rejected because the tenant exceeded its budget (429)")
+                .tag("tenant", tenantId)
+                .tag("reason", reason)
+                .register(this.meterRegistry);
+    }
+
+    private void removeRejected(final String tenantId) {
+        this.meterRegistry.find(REJECTED_METER).tag("tenant", tenantId).meters().forEach(this.meterRegistry::remove);
+    }
+
+    /**
+     * Token bucket of a tenant - holds up to {@code capacity} tokens, refilled at {@code tokensPerSecond},
+     * and each request takes one.
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(final int capacity, final double tokensPerSecond) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerSecond / 1e9;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        /**
+         * Takes a token, if there is one.
+         *
+         * @param now current {@link System#nanoTime()}
+         * @return 0 if a token was taken, otherwise the time in nanoseconds until the next token
+         */
+        synchronized long tryAcquire(final long now) {
+            this.tokens = Math.min(this.capacity, this.tokens + (now - this.refilledAt) * this.tokensPerNano);
+            this.refilledAt = now;
+            if (this.tokens >= 1) {
+                this.tokens--;
+                return 0;
+            }
+            return (long) Math.ceil((1 - this.tokens) / this.tokensPerNano);
+        }
+    }
+}
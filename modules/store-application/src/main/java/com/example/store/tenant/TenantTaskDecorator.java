@@ -0,0 +1,27 @@
+package com.example.store.tenant;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.task.TaskDecorator;
+
+import com.example.store.persistence.tenant.TenantContext;
+
+/**
+ * Runs tasks with the tenant of the thread which submitted them - e.g. streamed responses, which are written
+ * by the application task executor, read the products of the tenant of the request.
+ */
+public class TenantTaskDecorator implements TaskDecorator {
+
+    @NotNull
+    @Override
+    public Runnable decorate(@NotNull final Runnable runnable) {
+        final String tenantId = TenantContext.getTenantId();
+        return () -> {
+            TenantContext.setTenantId(tenantId);
+            try {
+                runnable.run();
+            } finally {
+                TenantContext.clear();
+            }
+        };
+    }
+}
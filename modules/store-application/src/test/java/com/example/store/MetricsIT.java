@@ -0,0 +1,71 @@
+package com.example.store;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.store.dto.ProductDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests of the metrics of the product endpoints, published on the Prometheus endpoint.
+ * Metrics properties are the same as in the application.properties of the application, which the test one replaces.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.observations.annotations.enabled=true",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "management.tracing.sampling.probability=1.0"})
+@AutoConfigureObservability
+class MetricsIT {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testPrometheusEndpoint() {
+        final ResponseEntity<ProductDto> created = restTemplate.postForEntity("/api/products",
+                new ProductDto(null, "Pencil", "Wooden pencil", 0.5f), ProductDto.class);
+        assertNotNull(created.getBody());
+        restTemplate.getForEntity("/api/products/" + created.getBody().getId(), ProductDto.class);
+
+        final ResponseEntity<String> response = restTemplate.getForEntity("/api/actuator/prometheus", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        final String metrics = response.getBody();
+        assertNotNull(metrics);
+        // Controller, service, repository and SQL query timings
+        assertTrue(metrics.contains("http_server_requests_seconds_count{error=\"none\",exception=\"none\",method=\"POST\",outcome=\"SUCCESS\",status=\"201\",uri=\"/products\"} 1"), metrics);
+        assertTrue(metrics.contains("product_service_seconds_count{class=\"com.example.store.service.ProductServiceImpl\",error=\"none\",method=\"createProduct\"} 1"), metrics);
+        assertTrue(metrics.contains("spring_data_repository_invocations_seconds_count{exception=\"None\",method=\"save\",repository=\"ProductRepository\",state=\"SUCCESS\"} 1"), metrics);
+        assertTrue(metrics.contains("jdbc_query_seconds_count"), metrics);
+        // Connection pool, concurrency limiter and Hibernate
+        assertTrue(metrics.contains("hikaricp_connections_pending{pool="), metrics);
+        assertTrue(metrics.contains("store_datasource_concurrency_waiting 0.0"), metrics);
+        assertTrue(metrics.contains("hibernate_statements_total{entityManagerFactory=\"entityManagerFactory\",status=\"prepared\"}"), metrics);
+    }
+
+    @Test
+    void testPrometheusEndpoint_exemplars() {
+        restTemplate.getForEntity("/api/products", ProductDto[].class);
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT, "application/openmetrics-text; version=1.0.0");
+        final ResponseEntity<String> response = restTemplate.exchange("/api/actuator/prometheus", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertNotNull(response.getBody());
+        // Histogram buckets link to the trace of a request
+        assertTrue(response.getBody().lines()
+                .anyMatch(line -> line.startsWith("http_server_requests_seconds_bucket") && line.contains("trace_id=")), response.getBody());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.store;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductDto;
+import com.zaxxer.hikari.HikariDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Integration tests of the change feed - requests waiting for changes (long polling) must not hold a connection.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductChangeIT {
+
+    private static final int WAITING_REQUESTS = 4;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testGetChanges_waitingRequestsReleaseConnections() throws Exception {
+        restTemplate.postForEntity("/api/products", new ProductDto(null, "Pencil", "Wooden pencil", 0.5f), ProductDto.class);
+        final ProductChangesDto changes = restTemplate.getForObject("/api/products/changes?since=0", ProductChangesDto.class);
+        assertNotNull(changes);
+
+        final CompletableFuture<?>[] requests = new CompletableFuture<?>[WAITING_REQUESTS];
+        for (int i = 0; i < WAITING_REQUESTS; i++) {
+            requests[i] = CompletableFuture.supplyAsync(() -> restTemplate.getForEntity(
+                    "/api/products/changes?since=" + changes.nextSince() + "&wait=3", ProductChangesDto.class));
+        }
+        // Requests are waiting for changes
+        TimeUnit.SECONDS.sleep(1);
+        assertFalse(requests[0].isDone());
+        assertEquals(0, activeConnections());
+
+        for (final CompletableFuture<?> request : requests) {
+            final ResponseEntity<?> response = (ResponseEntity<?>) request.get(10, TimeUnit.SECONDS);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+        }
+    }
+
+    private int activeConnections() throws SQLException {
+        return dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean().getActiveConnections();
+    }
+}
@@ -9,15 +9,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 
+import com.example.store.dto.BatchItemResult;
+import com.example.store.dto.BatchResponse;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Integration tests for product CRUD methods.
@@ -54,6 +60,36 @@ class ProductIT {
         assertEquals(Arrays.asList(allProducts), List.of(PRODUCT_DTO_1, PRODUCT_DTO_2));
     }
 
+    @Test
+    void testGetProductPage() {
+        final ResponseEntity<ProductPageDto> firstPage = restTemplate.getForEntity("/api/products?limit=1", ProductPageDto.class);
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertNotNull(firstPage.getBody());
+        assertEquals(List.of(PRODUCT_DTO_1), firstPage.getBody().items());
+        assertEquals("1", firstPage.getBody().nextCursor());
+
+        final ResponseEntity<ProductPageDto> secondPage = restTemplate.getForEntity("/api/products?limit=1&after=1", ProductPageDto.class);
+        assertNotNull(secondPage.getBody());
+        assertEquals(List.of(PRODUCT_DTO_2), secondPage.getBody().items());
+        assertNull(secondPage.getBody().nextCursor());
+    }
+
+    @Test
+    void testStreamAllProducts() {
+        final ResponseEntity<ProductDto[]> response = restTemplate.getForEntity("/api/products?stream=true", ProductDto[].class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(List.of(PRODUCT_DTO_1, PRODUCT_DTO_2), Arrays.asList(response.getBody()));
+    }
+
+    @Test
+    void testExportProducts() {
+        final ResponseEntity<String> response = restTemplate.getForEntity("/api/products/export", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(2, response.getBody().lines().count());
+    }
+
     @Test
     void testGetProductById() {
         final ResponseEntity<ProductDto> response = restTemplate.getForEntity("/api/products/1", ProductDto.class);
@@ -86,6 +122,44 @@ class ProductIT {
         assertEquals(productDto, response.getBody());
     }
 
+    @Test
+    void testConditionalRequests() {
+        // Unchanged product -> 304
+        final HttpHeaders json = new HttpHeaders();
+        json.setAccept(List.of(MediaType.APPLICATION_JSON));
+        final ResponseEntity<ProductDto> getResponse = restTemplate.exchange("/api/products/1", HttpMethod.GET,
+                new HttpEntity<>(json), ProductDto.class);
+        assertEquals("\"0-json\"", getResponse.getHeaders().getETag());
+        final HttpHeaders ifNoneMatch = new HttpHeaders();
+        ifNoneMatch.setAccept(List.of(MediaType.APPLICATION_JSON));
+        ifNoneMatch.setIfNoneMatch("\"0-json\"");
+        assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange("/api/products/1", HttpMethod.GET,
+                new HttpEntity<>(ifNoneMatch), ProductDto.class).getStatusCode());
+
+        // Update of the current version succeeds, then the same version is stale -> 412
+        final ProductDto productDto = new ProductDto(1L, "Pencil 2.0", "Metal pencil", 3.4f);
+        // Only the version of the ETag is compared
+        final HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setAccept(List.of(MediaType.APPLICATION_JSON));
+        ifMatch.setIfMatch("\"0\"");
+        final ResponseEntity<ProductDto> updateResponse = restTemplate.exchange("/api/products/1", HttpMethod.PUT,
+                new HttpEntity<>(productDto, ifMatch), ProductDto.class);
+        assertEquals(HttpStatus.OK, updateResponse.getStatusCode());
+        assertEquals("\"1-json\"", updateResponse.getHeaders().getETag());
+        assertEquals(HttpStatus.PRECONDITION_FAILED, restTemplate.exchange("/api/products/1", HttpMethod.PUT,
+                new HttpEntity<>(productDto, ifMatch), ProductDto.class).getStatusCode());
+
+        // Unchanged list -> 304, changed list -> 200
+        final String listETag = restTemplate.getForEntity("/api/products", ProductDto[].class).getHeaders().getETag();
+        final HttpHeaders listIfNoneMatch = new HttpHeaders();
+        listIfNoneMatch.setIfNoneMatch(listETag);
+        assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange("/api/products", HttpMethod.GET,
+                new HttpEntity<>(listIfNoneMatch), ProductDto[].class).getStatusCode());
+        restTemplate.delete("/api/products/2");
+        assertEquals(HttpStatus.OK, restTemplate.exchange("/api/products", HttpMethod.GET,
+                new HttpEntity<>(listIfNoneMatch), ProductDto[].class).getStatusCode());
+    }
+
     @Test
     void testUpdateProduct_whenResourceNotFound() {
         final ProductDto productDto = new ProductDto(5L, "Pencil 2.0", "Metal pencil", 3.4f);
@@ -94,6 +168,36 @@ class ProductIT {
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
 
+    @Test
+    void testBatchOperations() {
+        // Create
+        final List<ProductDto> newProducts = List.of(
+                new ProductDto(null, "Box", "Small box", 10.0f),
+                new ProductDto(null, "", "Invalid", 1.0f));
+        final ResponseEntity<BatchResponse> createResponse = restTemplate.postForEntity("/api/products:batch", newProducts, BatchResponse.class);
+        assertEquals(HttpStatus.OK, createResponse.getStatusCode());
+        assertNotNull(createResponse.getBody());
+        final List<BatchItemResult> createResults = createResponse.getBody().results();
+        assertEquals(List.of(201, 400), createResults.stream().map(BatchItemResult::status).toList());
+        final Long boxId = createResults.get(0).id();
+
+        // Update
+        final List<ProductDto> updatedProducts = List.of(
+                new ProductDto(boxId, "Box", "Big box", 20.0f),
+                new ProductDto(99L, "Box", "Missing box", 20.0f));
+        final ResponseEntity<BatchResponse> updateResponse = restTemplate.exchange("/api/products:batch", HttpMethod.PUT, new HttpEntity<>(updatedProducts), BatchResponse.class);
+        assertNotNull(updateResponse.getBody());
+        assertEquals(List.of(200, 404), updateResponse.getBody().results().stream().map(BatchItemResult::status).toList());
+        assertEquals(new ProductDto(boxId, "Box", "Big box", 20.0f), restTemplate.getForObject("/api/products/" + boxId, ProductDto.class));
+
+        // Delete
+        final ResponseEntity<BatchResponse> deleteResponse = restTemplate.exchange("/api/products:batch", HttpMethod.DELETE, new HttpEntity<>(List.of(1L, boxId, 99L)), BatchResponse.class);
+        assertNotNull(deleteResponse.getBody());
+        assertEquals(List.of(204, 204, 404), deleteResponse.getBody().results().stream().map(BatchItemResult::status).toList());
+        final ProductDto[] remainingProducts = restTemplate.getForObject("/api/products", ProductDto[].class);
+        assertEquals(List.of(PRODUCT_DTO_2), Arrays.asList(remainingProducts));
+    }
+
     @Test
     void testDeleteProduct() {
         final ResponseEntity<ProductDto> deleteResponse = restTemplate.exchange("/api/products/1", HttpMethod.DELETE, null, ProductDto.class);
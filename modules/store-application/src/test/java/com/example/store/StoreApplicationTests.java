@@ -6,8 +6,13 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.example.store.controller.ProductController;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.jdbc.ProductCopyLoader;
+import com.example.store.persistence.jdbc.ProductPriceWriter;
+import com.example.store.persistence.jdbc.ProductSnapshotReader;
 import com.example.store.persistence.repository.ProductRepository;
 import com.example.store.service.ProductService;
 
@@ -20,6 +25,21 @@ class StoreApplicationTests {
     @MockitoBean
     private ProductRepository productRepository;
 
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private ProductCopyLoader productCopyLoader;
+
+    @MockitoBean
+    private ProductPriceWriter productPriceWriter;
+
+    @MockitoBean
+    private ProductChangeLog productChangeLog;
+
+    @MockitoBean
+    private ProductSnapshotReader productSnapshotReader;
+
     @Autowired
     private ProductService productService;
 
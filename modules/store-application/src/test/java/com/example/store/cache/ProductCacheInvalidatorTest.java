@@ -0,0 +1,67 @@
+package com.example.store.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.example.store.config.CacheConfig;
+import com.example.store.persistence.tenant.TenantContext;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Class contains unit tests for {@link ProductCacheInvalidator}.
+ */
+class ProductCacheInvalidatorTest {
+
+    private Cache cache;
+    private ProductCacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        invalidator = new ProductCacheInvalidator(new DataSourceProperties(), cacheManager);
+        cache.put(key(1), "Banana");
+        cache.put(key(2), "Orange");
+        cache.put(key(3), "Kiwi");
+    }
+
+    @Test
+    void testHandleNotification_evictsListedProducts() {
+        invalidator.handleNotification("1,3");
+        assertNull(cache.get(key(1)));
+        assertNotNull(cache.get(key(2)));
+        assertNull(cache.get(key(3)));
+    }
+
+    @Test
+    void testHandleNotification_evictsProductsOfTenant() {
+        cache.put(new ProductCacheKey("other", 1L), "Apple");
+        invalidator.handleNotification("other:1,default:2");
+        assertNull(cache.get(new ProductCacheKey("other", 1L)));
+        assertNotNull(cache.get(key(1)));
+        assertNull(cache.get(key(2)));
+    }
+
+    @Test
+    void testHandleNotification_allProducts() {
+        invalidator.handleNotification(ProductCacheInvalidator.ALL_PRODUCTS);
+        assertNull(cache.get(key(1)));
+        assertNull(cache.get(key(2)));
+        assertNull(cache.get(key(3)));
+    }
+
+    @Test
+    void testHandleNotification_invalidPayloadClearsCache() {
+        invalidator.handleNotification("1,x");
+        assertNull(cache.get(key(2)));
+    }
+
+    private static ProductCacheKey key(final long id) {
+        return new ProductCacheKey(TenantContext.DEFAULT_TENANT, id);
+    }
+}
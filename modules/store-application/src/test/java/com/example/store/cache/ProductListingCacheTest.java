@@ -0,0 +1,147 @@
+package com.example.store.cache;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import com.example.store.cache.ProductListingCache.SerializedListing;
+import com.example.store.dto.ProductDto;
+import com.example.store.persistence.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Class contains unit tests for {@link ProductListingCache}.
+ */
+class ProductListingCacheTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final List<ProductDto> PRODUCTS = List.of(new ProductDto(1L, "Chips", "Crispy!", 2.49f));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private ProductListingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductListingCache(new HttpMessageConverters(), DataSize.ofMegabytes(1), DataSize.ofKilobytes(64),
+                DataSize.ofKilobytes(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void testGet_serializedOncePerVersion() throws Exception {
+        final SerializedListing listing = cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+
+        assertEquals(MediaType.APPLICATION_JSON, listing.contentType());
+        assertArrayEquals(OBJECT_MAPPER.writeValueAsBytes(PRODUCTS), listing.body());
+        assertSame(listing, cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS)));
+        assertEquals(1, loads.get());
+
+        // Changed catalog
+        final SerializedListing changed = cache.get("2", MediaType.APPLICATION_JSON, () -> 0, load(List.of()));
+        assertArrayEquals("[]".getBytes(), changed.body());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_olderVersionNotKept() throws Exception {
+        final SerializedListing current = cache.get("2", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+        // Older version, e.g. read while another request already read a newer one
+        final SerializedListing older = cache.get("1", MediaType.APPLICATION_JSON, () -> 0, load(List.of()));
+
+        assertArrayEquals("[]".getBytes(), older.body());
+        // The newer version is still cached, the older one is not
+        assertSame(current, cache.get("2", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS)));
+        cache.get("1", MediaType.APPLICATION_JSON, () -> 0, load(List.of()));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void testGet_byTenant() throws Exception {
+        cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+        TenantContext.setTenantId("tenant-a");
+        // Same version, but the products of another tenant
+        assertArrayEquals("[]".getBytes(), cache.get("1", MediaType.APPLICATION_JSON, () -> 0, load(List.of())).body());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_compressedAboveThreshold() throws Exception {
+        assertNull(cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS)).gzipBody());
+
+        final List<ProductDto> products = LongStream.rangeClosed(1, 100)
+                .mapToObj(id -> new ProductDto(id, "Product " + id, "Description of product " + id, id))
+                .toList();
+        final SerializedListing listing = cache.get("3", MediaType.APPLICATION_JSON, products::size, load(products));
+        assertNotNull(listing.gzipBody());
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(listing.gzipBody()))) {
+            assertArrayEquals(listing.body(), inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testGet_failedSerializationNotCached() throws Exception {
+        assertThrows(IllegalStateException.class, () -> cache.get("1", MediaType.APPLICATION_JSON, () -> 1, () -> {
+            throw new IllegalStateException("Database is busy");
+        }));
+        cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGet_tooLarge() throws Exception {
+        // 1000 products of the estimated size - larger than a cached listing may be
+        assertNull(cache.get("1", MediaType.APPLICATION_JSON, () -> 1000, load(PRODUCTS)));
+        assertEquals(0, loads.get());
+
+        // Larger than estimated - returned, but not cached
+        final List<ProductDto> products = LongStream.rangeClosed(1, 400)
+                .mapToObj(id -> new ProductDto(id, "Product " + id, "Description of product " + id + " ".repeat(200), id))
+                .toList();
+        assertNotNull(cache.get("2", MediaType.APPLICATION_JSON, () -> 400, load(products)));
+        // The size of the serialized products is known now
+        assertNull(cache.get("2", MediaType.APPLICATION_JSON, () -> 400, load(products)));
+        assertNotNull(cache.get("3", MediaType.APPLICATION_JSON, () -> 100, load(products.subList(0, 100))));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testMetrics() throws Exception {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+        cache.get("1", MediaType.APPLICATION_JSON, PRODUCTS::size, load(PRODUCTS));
+
+        assertEquals(1, registry.get("cache.gets").tag("cache", ProductListingCache.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    private Supplier<List<ProductDto>> load(final List<ProductDto> products) {
+        return () -> {
+            loads.incrementAndGet();
+            return products;
+        };
+    }
+}
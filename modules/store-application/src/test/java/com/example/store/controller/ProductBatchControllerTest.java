@@ -0,0 +1,103 @@
+package com.example.store.controller;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.dto.BatchItemResult;
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.ProductDto;
+import com.example.store.error.ValidationError;
+import com.example.store.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductBatchController}.
+ */
+@WebMvcTest(controllers = ProductBatchController.class)
+class ProductBatchControllerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @MockitoBean
+    private final ProductService productService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductBatchControllerTest(final ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Test
+    void testCreateProducts() throws Exception {
+        final List<ProductDto> productDtos = List.of(
+                new ProductDto(null, "Apple juice", "Homemade juice, 1L", 8.5f),
+                new ProductDto(null, "", "Homemade juice, 1L", 8.5f));
+        final List<BatchItemResult> results = List.of(
+                BatchItemResult.success(0, 201, 18L),
+                BatchItemResult.failure(1, 400, null, List.of(new ValidationError("name", "must not be blank"))));
+        when(productService.createProducts(productDtos)).thenReturn(results);
+
+        this.mockMvc.perform(post("/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDtos)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(new BatchResponse(results))));
+    }
+
+    @Test
+    void testCreateProducts_tooManyItems() throws Exception {
+        final List<ProductDto> productDtos = Collections.nCopies(ProductBatchController.MAX_BATCH_SIZE + 1,
+                new ProductDto(null, "Apple juice", "Homemade juice, 1L", 8.5f));
+
+        this.mockMvc.perform(post("/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDtos)))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).createProducts(anyList());
+    }
+
+    @Test
+    void testUpdateProducts() throws Exception {
+        final List<ProductDto> productDtos = List.of(new ProductDto(1L, "Chips", "Crispy!", 2.49f));
+        final List<BatchItemResult> results = List.of(BatchItemResult.success(0, 200, 1L));
+        when(productService.updateProducts(productDtos)).thenReturn(results);
+
+        this.mockMvc.perform(put("/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDtos)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(new BatchResponse(results))));
+    }
+
+    @Test
+    void testDeleteProducts() throws Exception {
+        final List<BatchItemResult> results = List.of(BatchItemResult.success(0, 204, 1L),
+                BatchItemResult.failure(1, 404, 5L, List.of(new ValidationError("id", "product with id 5 does not exist"))));
+        when(productService.deleteProducts(List.of(1L, 5L))).thenReturn(results);
+
+        this.mockMvc.perform(delete("/products:batch")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("[1, 5]"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(new BatchResponse(results))));
+    }
+}
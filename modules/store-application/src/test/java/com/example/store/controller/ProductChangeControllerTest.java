@@ -0,0 +1,97 @@
+package com.example.store.controller;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductDto;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.service.ProductChangeService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductChangeController}.
+ */
+@WebMvcTest(controllers = ProductChangeController.class)
+class ProductChangeControllerTest {
+
+    @MockitoBean
+    private final ProductChangeService productChangeService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductChangeControllerTest(final ProductChangeService productChangeService) {
+        this.productChangeService = productChangeService;
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+        final ProductChangesDto changes = new ProductChangesDto(List.of(
+                new ProductChangeDto(11, 1L, false, Instant.parse("2026-10-18T10:15:30Z"), new ProductDto(1L, "Kettle", "Electric kettle", 25f)),
+                new ProductChangeDto(12, 2L, true, Instant.parse("2026-10-18T10:16:00Z"), null)), 12);
+        when(productChangeService.getChanges(10, 100, Duration.ofSeconds(30))).thenReturn(CompletableFuture.completedFuture(changes));
+
+        final MvcResult result = this.mockMvc.perform(get("/products/changes?since=10&limit=100&wait=30"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextSince").value(12))
+                .andExpect(jsonPath("$.items[0].product.name").value("Kettle"))
+                .andExpect(jsonPath("$.items[0].changedAt").value("2026-10-18T10:15:30Z"))
+                // Tombstone
+                .andExpect(jsonPath("$.items[1].id").value(2))
+                .andExpect(jsonPath("$.items[1].deleted").value(true));
+    }
+
+    @Test
+    void testGetChanges_defaults() throws Exception {
+        when(productChangeService.getChanges(0, 1000, Duration.ZERO))
+                .thenReturn(CompletableFuture.completedFuture(new ProductChangesDto(List.of(), 0)));
+
+        final MvcResult result = this.mockMvc.perform(get("/products/changes?since=0")).andReturn();
+        this.mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        verify(productChangeService).getChanges(0, 1000, Duration.ZERO);
+    }
+
+    @Test
+    void testGetChanges_expired() throws Exception {
+        when(productChangeService.getChanges(anyLong(), anyInt(), any()))
+                .thenThrow(new ChangesExpiredException("Changes after 5 are no longer available"));
+
+        this.mockMvc.perform(get("/products/changes?since=5"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void testGetChanges_invalidWait() throws Exception {
+        this.mockMvc.perform(get("/products/changes?since=5&wait=61"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/products/changes"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productChangeService);
+    }
+}
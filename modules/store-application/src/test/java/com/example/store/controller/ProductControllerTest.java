@@ -1,37 +1,62 @@
 package com.example.store.controller;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.example.store.cache.ProductListingCache;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
 import com.example.store.error.ValidationError;
 import com.example.store.error.ValidationErrorResponse;
+import com.example.store.exception.PreconditionFailedException;
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.protobuf.ProductProtobuf;
 import com.example.store.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -39,6 +64,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * including validation errors.
  */
 @WebMvcTest(controllers = ProductController.class)
+@Import(ProductListingCache.class)
 class ProductControllerTest {
 
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
@@ -49,6 +75,9 @@ class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ProductListingCache productListingCache;
+
     private List<ProductDto> allProducts;
 
     @Autowired
@@ -65,7 +94,9 @@ class ProductControllerTest {
         // Mocks returns from the service layer
         when(productService.getProductById(1L)).thenReturn(chips);
         when(productService.getProductById(2L)).thenReturn(cheese);
-        when(productService.getAllProducts()).thenReturn(allProducts);
+        when(productService.getAllProducts(anyString())).thenReturn(allProducts);
+        when(productService.getCatalogVersion()).thenReturn("12");
+        productListingCache.invalidateAll();
     }
 
     @Test
@@ -76,14 +107,348 @@ class ProductControllerTest {
                 .andExpect(MockMvcResultMatchers.header().string("content-type", "application/json"));
     }
 
+    @Test
+    void testGetAllProducts_notModified() throws Exception {
+        when(productService.getCatalogVersion()).thenReturn("12");
+
+        this.mockMvc.perform(get("/products").header("If-None-Match", "\"12-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"12-json\""))
+                .andExpect(header().stringValues("Vary", "Accept", "Accept-Encoding"))
+                .andExpect(content().string(""));
+        // Products are not loaded if they did not change
+        verify(productService, never()).getAllProducts(anyString());
+    }
+
+    @Test
+    void testGetAllProducts_notModifiedInOtherFormat() throws Exception {
+        // ETag of the JSON listing does not match the Protobuf and gzip listings
+        this.mockMvc.perform(get("/products").accept(ProductProtobuf.MEDIA_TYPE).header("If-None-Match", "\"12-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"12-protobuf\""));
+        this.mockMvc.perform(get("/products").header("Accept-Encoding", "gzip").header("If-None-Match", "\"12-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"12-json-gzip\""));
+    }
+
+    @Test
+    void testGetAllProducts_modified() throws Exception {
+        when(productService.getCatalogVersion()).thenReturn("13");
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products").header("If-None-Match", "\"12-json\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(allProducts)))
+                .andReturn();
+        assertEquals(List.of("\"13-json\""), mvcResult.getResponse().getHeaders("ETag"));
+    }
+
+    @Test
+    void testGetAllProducts_cached() throws Exception {
+        final String json = OBJECT_MAPPER.writeValueAsString(allProducts);
+        this.mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(json));
+        this.mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues("Vary", "Accept", "Accept-Encoding"))
+                .andExpect(content().string(json));
+        // Each format is serialized once per catalog version
+        this.mockMvc.perform(get("/products").accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(status().isOk());
+        verify(productService, times(2)).getAllProducts("12");
+
+        // New version after a change
+        when(productService.getCatalogVersion()).thenReturn("13");
+        when(productService.getAllProducts("13")).thenReturn(List.of(allProducts.get(0)));
+        this.mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(List.of(allProducts.get(0)))));
+    }
+
+    @Test
+    void testGetAllProducts_tooLargeToCache() throws Exception {
+        // Estimated size is above the maximum size of a cached listing
+        when(productService.countProducts()).thenReturn(1_000_000L);
+        mockForEachProduct();
+
+        this.mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/json"))
+                .andExpect(header().string("ETag", "\"12-json\""))
+                .andExpect(header().stringValues("Vary", "Accept", "Accept-Encoding"))
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(allProducts)));
+        final byte[] protobuf = this.mockMvc.perform(get("/products").accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(allProducts, ProductProtobuf.readList(new ByteArrayInputStream(protobuf)));
+        // Products are neither loaded at once nor cached, and not older than the version in the ETag
+        verify(productService, never()).getAllProducts(anyString());
+        verify(productService, times(2)).forEachProduct(eq("12"), any());
+    }
+
+    @Test
+    void testGetAllProducts_preferredFormat() throws Exception {
+        // Client prefers Smile, but accepts JSON too
+        this.mockMvc.perform(get("/products").header("Accept", "application/json;q=0.5, application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/x-jackson-smile"));
+        this.mockMvc.perform(get("/products").header("Accept", "*/*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/json"));
+    }
+
+    @Test
+    void testGetProductById_notModified() throws Exception {
+        when(productService.getProductById(3L)).thenReturn(new ProductDto(3L, "Salsa", "Hot", 3.1f, 5));
+
+        this.mockMvc.perform(get("/products/3").header("If-None-Match", "\"5-json\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"))
+                .andExpect(content().string(""));
+        this.mockMvc.perform(get("/products/3").header("If-None-Match", "\"4-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5-json\""));
+        // Same version in another format
+        this.mockMvc.perform(get("/products/3").accept(MediaType.APPLICATION_CBOR).header("If-None-Match", "\"5-json\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"5-cbor\""))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"));
+    }
+
     @Test
     void testGetAllProducts_invalidAcceptHeader() throws Exception {
-        // Only application/json is supported
+        // Only JSON and the binary formats are supported
         this.mockMvc.perform(get("/products")
                         .accept(MediaType.MULTIPART_FORM_DATA_VALUE))
                 .andExpect(status().isNotAcceptable());
     }
 
+    @Test
+    void testGetProductPage() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(allProducts.get(0)), "1");
+        when(productService.getProductPage(null, 1)).thenReturn(page);
+
+        this.mockMvc.perform(get("/products?limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(page)))
+                // Link to the next page
+                .andExpect(header().string("Link", "<http://localhost/products?limit=1&after=1>; rel=\"next\""));
+    }
+
+    @Test
+    void testGetProductPage_lastPage() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(allProducts.get(1)), null);
+        when(productService.getProductPage(1L, 10)).thenReturn(page);
+
+        this.mockMvc.perform(get("/products").param("after", "1").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(page)))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void testGetFilteredProductPage() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(allProducts.get(0)), "T3Jhbmdl_2");
+        final ProductListQuery query = new ProductListQuery(null, null, "Or", "-name");
+        when(productService.getProductPage(query, null, 1)).thenReturn(page);
+
+        this.mockMvc.perform(get("/products?nameStartsWith=Or&sort=-name&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(page)))
+                .andExpect(header().string("Link",
+                        "<http://localhost/products?nameStartsWith=Or&sort=-name&limit=1&after=T3Jhbmdl_2>; rel=\"next\""));
+    }
+
+    @Test
+    void testGetAllProducts_filterWithoutLimit() throws Exception {
+        // Filtered listings are always paged
+        this.mockMvc.perform(get("/products").param("minPrice", "10"))
+                .andExpect(status().isBadRequest());
+        verify(productService, never()).getAllProducts(anyString());
+    }
+
+    @Test
+    void testGetProductPage_invalidCursor() throws Exception {
+        this.mockMvc.perform(get("/products").param("after", "abc").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamAllProducts() throws Exception {
+        mockForEachProduct();
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Streamed response should be identical to the non-streamed one
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(allProducts)));
+        verify(productService, never()).getAllProducts(anyString());
+    }
+
+    @Test
+    void testExportProducts() throws Exception {
+        mockForEachProduct();
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // One product per line
+        final String expectedContent = OBJECT_MAPPER.writeValueAsString(allProducts.get(0)) + "\n"
+                + OBJECT_MAPPER.writeValueAsString(allProducts.get(1)) + "\n";
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/x-ndjson"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(expectedContent));
+    }
+
+    @Test
+    void testExportProducts_gzipNotAcceptable() throws Exception {
+        mockForEachProduct();
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products/export")
+                        .header("Accept-Encoding", "gzip;q=0, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(ProductController.acceptsGzip("gzip, deflate"));
+        assertTrue(ProductController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(ProductController.acceptsGzip("*"));
+        assertTrue(ProductController.acceptsGzip("x-gzip"));
+        assertFalse(ProductController.acceptsGzip(null));
+        assertFalse(ProductController.acceptsGzip("identity"));
+        assertFalse(ProductController.acceptsGzip("gzip;q=0"));
+        assertFalse(ProductController.acceptsGzip("gzip; q=0.0, *"));
+        assertFalse(ProductController.acceptsGzip("*;q=0"));
+        assertFalse(ProductController.acceptsGzip("gzip;q=x"));
+    }
+
+    @Test
+    void testExportProducts_gzip() throws Exception {
+        mockForEachProduct();
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products/export")
+                        .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final MvcResult asyncResult = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(asyncResult.getResponse().getContentAsByteArray()))) {
+            final String content = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            final String expectedContent = OBJECT_MAPPER.writeValueAsString(allProducts.get(0)) + "\n"
+                    + OBJECT_MAPPER.writeValueAsString(allProducts.get(1)) + "\n";
+            assertEquals(expectedContent, content);
+        }
+    }
+
+    @Test
+    void testGetAllProducts_protobuf() throws Exception {
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products").accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", ProductProtobuf.MEDIA_TYPE))
+                .andReturn();
+        assertEquals(allProducts, ProductProtobuf.readList(new ByteArrayInputStream(mvcResult.getResponse().getContentAsByteArray())));
+    }
+
+    @Test
+    void testGetProductPage_binaryFormats() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(allProducts.get(0)), "1");
+        when(productService.getProductPage(null, 1)).thenReturn(page);
+
+        // Same page in each format, as the Jackson formats use the same mapping as JSON
+        final byte[] protobuf = this.mockMvc.perform(get("/products?limit=1").accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(page, ProductProtobuf.readPage(new ByteArrayInputStream(protobuf)));
+        final byte[] smile = this.mockMvc.perform(get("/products?limit=1").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(page, new SmileMapper().findAndRegisterModules().readValue(smile, ProductPageDto.class));
+        final byte[] cbor = this.mockMvc.perform(get("/products?limit=1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", MediaType.APPLICATION_CBOR_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(page, new CBORMapper().findAndRegisterModules().readValue(cbor, ProductPageDto.class));
+    }
+
+    @Test
+    void testGetProductById_protobuf() throws Exception {
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products/1").accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andReturn();
+        final byte[] content = mvcResult.getResponse().getContentAsByteArray();
+        assertEquals(content.length, mvcResult.getResponse().getContentLength());
+        assertEquals(allProducts.get(0), ProductProtobuf.readProduct(CodedInputStream.newInstance(content)));
+    }
+
+    @Test
+    void testStreamAllProducts_protobuf() throws Exception {
+        mockForEachProduct();
+
+        final MvcResult mvcResult = this.mockMvc.perform(get("/products").param("stream", "true")
+                        .accept(ProductProtobuf.MEDIA_TYPE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final MvcResult asyncResult = this.mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("content-type", "application/x-protobuf;delimited=true"))
+                .andReturn();
+        // Products preceded by their sizes
+        final CodedInputStream input = CodedInputStream.newInstance(asyncResult.getResponse().getContentAsByteArray());
+        final List<ProductDto> products = new ArrayList<>();
+        ProductDto product;
+        while ((product = ProductProtobuf.readDelimited(input)) != null) {
+            products.add(product);
+        }
+        assertEquals(allProducts, products);
+        verify(productService, never()).getAllProducts(anyString());
+    }
+
+    @Test
+    void testCreateProduct_protobuf() throws Exception {
+        final ProductDto productToAdd = new ProductDto(null, "Apple juice", "Homemade juice, 1L", 8.5f);
+        final ProductDto savedProduct = new ProductDto(18L, "Apple juice", "Homemade juice, 1L", 8.5f);
+        when(productService.createProduct(productToAdd)).thenReturn(savedProduct);
+
+        final MvcResult mvcResult = this.mockMvc.perform(post("/products")
+                        .contentType(ProductProtobuf.MEDIA_TYPE)
+                        .accept(ProductProtobuf.MEDIA_TYPE)
+                        .content(toProtobuf(productToAdd)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "http://localhost/products/18"))
+                .andReturn();
+        assertEquals(savedProduct, ProductProtobuf.readProduct(CodedInputStream.newInstance(mvcResult.getResponse().getContentAsByteArray())));
+    }
+
+    @Test
+    void testCreateProduct_invalidProtobufBody() throws Exception {
+        // Validation errors are returned as JSON, even if the client only accepts Protobuf
+        this.mockMvc.perform(post("/products")
+                        .contentType(ProductProtobuf.MEDIA_TYPE)
+                        .accept(ProductProtobuf.MEDIA_TYPE)
+                        .content(toProtobuf(new ProductDto(null, "Gold", null, 12))))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("content-type", "application/json"))
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(new ValidationErrorResponse(
+                        List.of(new ValidationError("description", "must not be blank"))))));
+        // Truncated message
+        this.mockMvc.perform(post("/products")
+                        .contentType(ProductProtobuf.MEDIA_TYPE)
+                        .content(new byte[]{0x12, 0x7f}))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetProductById() throws Exception {
         this.mockMvc.perform(get("/products/1"))
@@ -142,6 +507,7 @@ class ProductControllerTest {
 
     @Test
     void testUpdateProduct() throws Exception {
+        when(productService.updateProduct(1L, allProducts.get(0), null)).thenReturn(allProducts.get(0));
         this.mockMvc.perform(put("/products/1")
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .content(OBJECT_MAPPER.writeValueAsString(allProducts.get(0))))
@@ -180,13 +546,13 @@ class ProductControllerTest {
                         .content(OBJECT_MAPPER.writeValueAsString(productDto)))
                 .andExpect(status().isBadRequest());
         // Should fail in controller and not reach the service
-        verify(productService, never()).updateProduct(anyLong(), any(ProductDto.class));
+        verify(productService, never()).updateProduct(anyLong(), any(ProductDto.class), any());
     }
 
     @Test
     void testUpdateProduct_missingResource() throws Exception {
         final ProductDto productDto = new ProductDto(999L, "invalid", "I don't exist...", 99.99f);
-        when(productService.updateProduct(999L, productDto))
+        when(productService.updateProduct(999L, productDto, null))
                 .thenThrow(new ResourceNotFoundException("Product not found"));
 
         // path variable and dto match, so it continues to the service and throws there
@@ -194,7 +560,47 @@ class ProductControllerTest {
                         .contentType(MediaType.APPLICATION_JSON_VALUE)
                         .content(OBJECT_MAPPER.writeValueAsString(productDto)))
                 .andExpect(status().isNotFound());
-        verify(productService).updateProduct(anyLong(), any(ProductDto.class));
+        verify(productService).updateProduct(anyLong(), any(ProductDto.class), any());
+    }
+
+    @Test
+    void testUpdateProduct_ifMatch() throws Exception {
+        final ProductDto productDto = new ProductDto(1L, "Chips", "Extra crispy!", 2.49f);
+        when(productService.updateProduct(1L, productDto, 3L))
+                .thenReturn(new ProductDto(1L, "Chips", "Extra crispy!", 2.49f, 4));
+
+        this.mockMvc.perform(put("/products/1")
+                        .header("If-Match", "\"3-smile\"")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDto)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4-json\""));
+    }
+
+    @Test
+    void testUpdateProduct_staleIfMatch() throws Exception {
+        final ProductDto productDto = new ProductDto(1L, "Chips", "Extra crispy!", 2.49f);
+        when(productService.updateProduct(1L, productDto, 2L))
+                .thenThrow(new PreconditionFailedException("Product has been modified"));
+
+        this.mockMvc.perform(put("/products/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDto)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateProduct_weakIfMatch() throws Exception {
+        final ProductDto productDto = new ProductDto(1L, "Chips", "Extra crispy!", 2.49f);
+
+        // Weak ETags never match in If-Match
+        this.mockMvc.perform(put("/products/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content(OBJECT_MAPPER.writeValueAsString(productDto)))
+                .andExpect(status().isPreconditionFailed());
+        verify(productService, never()).updateProduct(anyLong(), any(ProductDto.class), any());
     }
 
     @Test
@@ -202,4 +608,28 @@ class ProductControllerTest {
         this.mockMvc.perform(delete("/products/1"))
                 .andExpect(status().isNoContent());
     }
+
+    private static byte[] toProtobuf(final ProductDto productDto) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        ProductProtobuf.writeProduct(productDto, output);
+        output.flush();
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Mocks {@link ProductService#forEachProduct(Consumer)} and {@link ProductService#forEachProduct(String, Consumer)}
+     * to pass all products to the consumer.
+     */
+    @SuppressWarnings("unchecked")
+    private void mockForEachProduct() {
+        doAnswer(i -> {
+            allProducts.forEach(i.getArgument(0, Consumer.class));
+            return null;
+        }).when(productService).forEachProduct(any());
+        doAnswer(i -> {
+            allProducts.forEach(i.getArgument(1, Consumer.class));
+            return null;
+        }).when(productService).forEachProduct(anyString(), any());
+    }
 }
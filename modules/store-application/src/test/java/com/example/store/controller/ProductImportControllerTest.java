@@ -0,0 +1,75 @@
+package com.example.store.controller;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.dto.ImportReport;
+import com.example.store.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductImportController}.
+ */
+@WebMvcTest(controllers = ProductImportController.class)
+class ProductImportControllerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ImportReport REPORT = new ImportReport(2, 0, 1, 1, List.of());
+
+    @MockitoBean
+    private final ProductImportService productImportService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductImportControllerTest(final ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        when(productImportService.importCsv(any(InputStream.class))).thenReturn(REPORT);
+
+        this.mockMvc.perform(post("/products:import")
+                        .contentType("text/csv")
+                        .content("name,description,price\nPencil,Wooden pencil,0.5\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(REPORT)));
+        verify(productImportService).importCsv(any(InputStream.class));
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        when(productImportService.importNdjson(any(InputStream.class))).thenReturn(REPORT);
+
+        this.mockMvc.perform(post("/products:import")
+                        .contentType(MediaType.APPLICATION_NDJSON_VALUE)
+                        .content("{\"name\":\"Pencil\",\"description\":\"Wooden pencil\",\"price\":0.5}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(REPORT)));
+        verify(productImportService).importNdjson(any(InputStream.class));
+    }
+
+    @Test
+    void testImport_unsupportedContentType() throws Exception {
+        this.mockMvc.perform(post("/products:import")
+                        .contentType(MediaType.APPLICATION_XML_VALUE)
+                        .content("<products/>"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
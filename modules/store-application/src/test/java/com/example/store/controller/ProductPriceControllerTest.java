@@ -0,0 +1,103 @@
+package com.example.store.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.service.ProductPriceService;
+
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductPriceController}.
+ */
+@WebMvcTest(controllers = ProductPriceController.class)
+class ProductPriceControllerTest {
+
+    @MockitoBean
+    private final ProductPriceService productPriceService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductPriceControllerTest(final ProductPriceService productPriceService) {
+        this.productPriceService = productPriceService;
+    }
+
+    @Test
+    void testUpdatePrice() throws Exception {
+        when(productPriceService.updatePrice(1L, 2.5f)).thenReturn(new CompletableFuture<>());
+
+        // Accepted without waiting for the write
+        this.mockMvc.perform(put("/products/1/price")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"price\":2.5}"))
+                .andExpect(status().isAccepted());
+        verify(productPriceService).updatePrice(1L, 2.5f);
+    }
+
+    @Test
+    void testUpdatePrice_sync() throws Exception {
+        when(productPriceService.updatePrice(1L, 2.5f)).thenReturn(CompletableFuture.completedFuture(true));
+
+        final MvcResult result = this.mockMvc.perform(put("/products/1/price?sync=true")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"price\":2.5}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void testUpdatePrice_syncNotFound() throws Exception {
+        when(productPriceService.updatePrice(3L, 2.5f)).thenReturn(CompletableFuture.completedFuture(false));
+
+        final MvcResult result = this.mockMvc.perform(put("/products/3/price?sync=true")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"price\":2.5}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testUpdatePrice_invalidPrice() throws Exception {
+        this.mockMvc.perform(put("/products/1/price")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"price\":-1}"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(put("/products/1/price")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(productPriceService, never()).updatePrice(anyLong(), anyFloat());
+    }
+
+    @Test
+    void testUpdatePrice_busy() throws Exception {
+        when(productPriceService.updatePrice(1L, 2.5f)).thenThrow(new ServiceBusyException("Too many pending price updates"));
+
+        this.mockMvc.perform(put("/products/1/price")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .content("{\"price\":2.5}"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.store.controller;
+
+import java.net.URI;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.service.ProductSearchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductSearchController}.
+ */
+@WebMvcTest(controllers = ProductSearchController.class)
+class ProductSearchControllerTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ProductDto KETTLE = new ProductDto(1L, "Kettle", "Electric kettle", 25f);
+
+    @MockitoBean
+    private final ProductSearchService productSearchService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductSearchControllerTest(final ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(KETTLE), "0.3_1");
+        when(productSearchService.searchProducts("kettle", null, 1)).thenReturn(page);
+
+        this.mockMvc.perform(get("/products/search?q=kettle&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(page)))
+                // Link to the next page
+                .andExpect(header().string("Link", "<http://localhost/products/search?q=kettle&limit=1&after=0.3_1>; rel=\"next\""));
+    }
+
+    @Test
+    void testSearchProducts_encodedQuery() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(KETTLE), "0.3_1");
+        when(productSearchService.searchProducts("steel kettle", null, 20)).thenReturn(page);
+
+        this.mockMvc.perform(get(URI.create("/products/search?q=steel%20kettle")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Link", "<http://localhost/products/search?q=steel%20kettle&after=0.3_1>; rel=\"next\""));
+    }
+
+    @Test
+    void testSearchProducts_lastPage() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(KETTLE), null);
+        when(productSearchService.searchProducts("kettle", "0.3_1", 20)).thenReturn(page);
+
+        this.mockMvc.perform(get("/products/search").param("q", "kettle").param("after", "0.3_1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(OBJECT_MAPPER.writeValueAsString(page)))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void testSearchProducts_invalidQuery() throws Exception {
+        when(productSearchService.searchProducts("!", null, 20)).thenThrow(new InvalidRequestException("No words"));
+
+        this.mockMvc.perform(get("/products/search").param("q", "!"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testSearchProducts_missingQuery() throws Exception {
+        this.mockMvc.perform(get("/products/search"))
+                .andExpect(status().isBadRequest());
+    }
+}
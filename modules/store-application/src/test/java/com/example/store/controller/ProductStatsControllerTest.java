@@ -0,0 +1,85 @@
+package com.example.store.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.dto.PriceBucketDto;
+import com.example.store.dto.ProductStatsDto;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.service.ProductStatsService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductStatsController}.
+ */
+@WebMvcTest(controllers = ProductStatsController.class)
+class ProductStatsControllerTest {
+
+    @MockitoBean
+    private final ProductStatsService productStatsService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductStatsControllerTest(final ProductStatsService productStatsService) {
+        this.productStatsService = productStatsService;
+    }
+
+    @Test
+    void testGetStats() throws Exception {
+        when(productStatsService.getStats("Ke", 2)).thenReturn(new ProductStatsDto(2, 20f, 30f, 25.0,
+                Map.of("p50", 20f, "p90", 30f), List.of(new PriceBucketDto(20f, 25f, 1), new PriceBucketDto(25f, 30f, 1)), 7));
+
+        this.mockMvc.perform(get("/products/stats?nameStartsWith=Ke&buckets=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.min").value(20.0))
+                .andExpect(jsonPath("$.avg").value(25.0))
+                .andExpect(jsonPath("$.percentiles.p90").value(30.0))
+                .andExpect(jsonPath("$.histogram[1].from").value(25.0))
+                .andExpect(jsonPath("$.histogram[1].count").value(1))
+                .andExpect(jsonPath("$.seq").value(7));
+    }
+
+    @Test
+    void testGetStats_defaults() throws Exception {
+        when(productStatsService.getStats(null, 10)).thenReturn(new ProductStatsDto(0, null, null, null, Map.of(), List.of(), 0));
+
+        this.mockMvc.perform(get("/products/stats?nameStartsWith="))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0))
+                .andExpect(jsonPath("$.histogram").isEmpty());
+    }
+
+    @Test
+    void testGetStats_invalidBuckets() throws Exception {
+        this.mockMvc.perform(get("/products/stats?buckets=0"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(get("/products/stats?buckets=" + (ProductStatsController.MAX_BUCKETS + 1)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(productStatsService);
+    }
+
+    @Test
+    void testGetStats_notLoaded() throws Exception {
+        when(productStatsService.getStats(any(), anyInt())).thenThrow(new ServiceBusyException("Loading"));
+
+        this.mockMvc.perform(get("/products/stats"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
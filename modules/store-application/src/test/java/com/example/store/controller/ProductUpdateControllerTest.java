@@ -0,0 +1,76 @@
+package com.example.store.controller;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.stream.ProductUpdateHub;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests HTTP responses of {@link ProductUpdateController}.
+ */
+@WebMvcTest(controllers = ProductUpdateController.class)
+class ProductUpdateControllerTest {
+
+    @MockitoBean
+    private final ProductUpdateHub productUpdateHub;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    ProductUpdateControllerTest(final ProductUpdateHub productUpdateHub) {
+        this.productUpdateHub = productUpdateHub;
+    }
+
+    @Test
+    void testSubscribe_products() throws Exception {
+        this.mockMvc.perform(get("/products/updates?ids=1,2").accept("text/event-stream"))
+                .andExpect(request().asyncStarted());
+        verify(productUpdateHub).subscribe(any(), eq(Set.of(1L, 2L)));
+    }
+
+    @Test
+    void testSubscribe_catalog() throws Exception {
+        this.mockMvc.perform(get("/products/updates"))
+                .andExpect(request().asyncStarted());
+        verify(productUpdateHub).subscribe(any(), isNull());
+    }
+
+    @Test
+    void testSubscribe_tooManyProducts() throws Exception {
+        final String ids = LongStream.rangeClosed(1, ProductUpdateController.MAX_PRODUCT_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        this.mockMvc.perform(get("/products/updates").param("ids", ids))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productUpdateHub);
+    }
+
+    @Test
+    void testSubscribe_tooManySubscribers() throws Exception {
+        doThrow(new ServiceBusyException("Too many subscribers of product updates"))
+                .when(productUpdateHub).subscribe(any(), any());
+
+        this.mockMvc.perform(get("/products/updates"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
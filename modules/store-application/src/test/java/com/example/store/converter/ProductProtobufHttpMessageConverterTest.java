@@ -0,0 +1,110 @@
+package com.example.store.converter;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnknownFieldSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link ProductProtobufHttpMessageConverter}, including the wire format defined by {@code proto/product.proto},
+ * which is checked with the generic message parser of the protobuf runtime.
+ */
+class ProductProtobufHttpMessageConverterTest {
+
+    private static final ProductProtobufHttpMessageConverter CONVERTER = new ProductProtobufHttpMessageConverter();
+    private static final ProductDto CHIPS = new ProductDto(1L, "Chips", "Crispy!", 2.49f);
+    private static final ProductDto CHEESE = new ProductDto(2L, "Cheese", "Mozzarella", 4.80f);
+
+    @Test
+    void testCanReadAndWrite() {
+        final MediaType protobuf = ProductProtobufHttpMessageConverter.PROTOBUF;
+        assertTrue(CONVERTER.canWrite(ProductDto.class, ProductDto.class, protobuf));
+        assertTrue(CONVERTER.canWrite(ProductPageDto.class, ProductPageDto.class, protobuf));
+        assertTrue(CONVERTER.canWrite(productListType(), List.class, protobuf));
+        assertTrue(CONVERTER.canRead(productListType(), null, protobuf));
+        assertTrue(CONVERTER.canRead(ProductDto.class, null, null));
+        // Lists of anything else, other media types and streamed listings are not supported
+        assertFalse(CONVERTER.canWrite(new ParameterizedTypeReference<List<String>>() { }.getType(), List.class, protobuf));
+        assertFalse(CONVERTER.canWrite(ProductDto.class, ProductDto.class, MediaType.APPLICATION_JSON));
+        assertFalse(CONVERTER.canWrite(ProductDto.class, ProductDto.class, MediaType.parseMediaType("application/x-protobuf;delimited=true")));
+    }
+
+    @Test
+    void testWriteProduct_wireFormat() throws Exception {
+        final UnknownFieldSet product = UnknownFieldSet.parseFrom(write(CHIPS, ProductDto.class));
+
+        assertEquals(List.of(1L), product.getField(1).getVarintList());
+        assertEquals("Chips", product.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("Crispy!", product.getField(3).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals(List.of(Float.floatToIntBits(2.49f)), product.getField(4).getFixed32List());
+    }
+
+    @Test
+    void testWritePage_wireFormat() throws Exception {
+        final UnknownFieldSet page = UnknownFieldSet.parseFrom(write(new ProductPageDto(List.of(CHIPS, CHEESE), "2"), ProductPageDto.class));
+
+        assertEquals(2, page.getField(1).getLengthDelimitedList().size());
+        final UnknownFieldSet cheese = UnknownFieldSet.parseFrom(page.getField(1).getLengthDelimitedList().get(1));
+        assertEquals("Cheese", cheese.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals("2", page.getField(2).getLengthDelimitedList().get(0).toStringUtf8());
+    }
+
+    @Test
+    void testReadWrite_roundTrip() throws Exception {
+        final ProductPageDto page = new ProductPageDto(List.of(CHIPS, CHEESE), null);
+        assertEquals(page, CONVERTER.read(ProductPageDto.class, null, new MockHttpInputMessage(write(page, ProductPageDto.class))));
+        assertEquals(List.of(CHIPS, CHEESE),
+                CONVERTER.read(productListType(), null, new MockHttpInputMessage(write(List.of(CHIPS, CHEESE), productListType()))));
+        // Absent fields are read as null / 0
+        final ProductDto empty = new ProductDto(null, null, null, 0);
+        assertEquals(0, write(empty, ProductDto.class).length);
+        assertEquals(empty, CONVERTER.read(ProductDto.class, null, new MockHttpInputMessage(new byte[0])));
+    }
+
+    @Test
+    void testRead_skipsUnknownFields() throws Exception {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+        output.writeString(2, "Chips");
+        output.writeString(15, "Field of a newer version");
+        output.writeInt64(1, 1L);
+        output.flush();
+
+        assertEquals(new ProductDto(1L, "Chips", null, 0),
+                CONVERTER.read(ProductDto.class, null, new MockHttpInputMessage(outputStream.toByteArray())));
+    }
+
+    @Test
+    void testRead_invalidMessage() {
+        // Product with a size larger than the rest of the message
+        final byte[] truncated = {0x0a, 0x10, 0x08, 0x01};
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> CONVERTER.read(productListType(), null, new MockHttpInputMessage(truncated)));
+    }
+
+    private static byte[] write(final Object payload, final Type type) throws Exception {
+        final MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        CONVERTER.write(payload, type, ProductProtobufHttpMessageConverter.PROTOBUF, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    private static Type productListType() {
+        return new ParameterizedTypeReference<List<ProductDto>>() { }.getType();
+    }
+}
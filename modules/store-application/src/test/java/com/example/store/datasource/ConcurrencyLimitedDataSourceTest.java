@@ -0,0 +1,103 @@
+package com.example.store.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.store.exception.DatabaseBusyException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ConcurrencyLimitedDataSource}.
+ */
+class ConcurrencyLimitedDataSourceTest {
+
+    private DataSource targetDataSource;
+    private Connection targetConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        targetConnection = mock(Connection.class);
+        when(targetDataSource.getConnection()).thenReturn(targetConnection);
+    }
+
+    @Test
+    void testGetConnection_releasedOnClose() throws SQLException {
+        final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, 0, Duration.ZERO);
+
+        final Connection connection = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailable());
+        connection.close();
+        // Closing twice releases only once
+        connection.close();
+        assertEquals(1, dataSource.getAvailable());
+        verify(targetConnection, times(1)).close();
+
+        dataSource.getConnection().close();
+        verify(targetDataSource, times(2)).getConnection();
+    }
+
+    @Test
+    void testGetConnection_tooManyWaiting() throws SQLException {
+        final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, 0, Duration.ofSeconds(5));
+
+        dataSource.getConnection();
+        // No waiting allowed -> rejected without waiting
+        assertThrowsExactly(DatabaseBusyException.class, dataSource::getConnection);
+        verify(targetDataSource, times(1)).getConnection();
+    }
+
+    @Test
+    void testGetConnection_waitsForRelease() throws Exception {
+        final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, 1, Duration.ofSeconds(5));
+
+        final Connection connection = dataSource.getConnection();
+        final CompletableFuture<Connection> waitingConnection = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (final SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (dataSource.getWaiting() == 0) {
+            Thread.onSpinWait();
+        }
+        connection.close();
+        waitingConnection.get(5, TimeUnit.SECONDS).close();
+        assertEquals(0, dataSource.getWaiting());
+        assertEquals(1, dataSource.getAvailable());
+    }
+
+    @Test
+    void testGetConnection_timeout() throws SQLException {
+        final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, 1, Duration.ofMillis(10));
+
+        dataSource.getConnection();
+        assertThrowsExactly(DatabaseBusyException.class, dataSource::getConnection);
+        assertEquals(0, dataSource.getWaiting());
+    }
+
+    @Test
+    void testGetConnection_targetFailure() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        final ConcurrencyLimitedDataSource dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, 0, Duration.ZERO);
+
+        assertThrowsExactly(SQLException.class, dataSource::getConnection);
+        // Permit is released if no connection is obtained
+        assertEquals(1, dataSource.getAvailable());
+    }
+}
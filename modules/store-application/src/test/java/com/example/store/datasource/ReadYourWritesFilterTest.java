@@ -0,0 +1,72 @@
+package com.example.store.datasource;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.store.persistence.datasource.DataSourceRouting;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class contains unit tests for {@link ReadYourWritesFilter}.
+ */
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    void testWrite_primaryAndCookie() throws Exception {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(primaryRequired(new MockHttpServletRequest("PUT", "/products/1"), response));
+
+        final Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE);
+        assertNotNull(cookie);
+        assertTrue(Long.parseLong(cookie.getValue()) > System.currentTimeMillis());
+        // Not required after the request
+        assertFalse(DataSourceRouting.isPrimaryRequired());
+    }
+
+    @Test
+    void testReadAfterWrite_primary() throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() + 5000)));
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(primaryRequired(request, response));
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE));
+    }
+
+    @Test
+    void testRead_replica() throws Exception {
+        assertFalse(primaryRequired(new MockHttpServletRequest("GET", "/products/1"), new MockHttpServletResponse()));
+
+        // Window has passed
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() - 1)));
+        assertFalse(primaryRequired(request, new MockHttpServletResponse()));
+
+        final MockHttpServletRequest invalidCookieRequest = new MockHttpServletRequest("GET", "/products/1");
+        invalidCookieRequest.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, "x"));
+        assertFalse(primaryRequired(invalidCookieRequest, new MockHttpServletResponse()));
+    }
+
+    /**
+     * @return whether the primary was required while the request was handled
+     */
+    private boolean primaryRequired(final MockHttpServletRequest request, final MockHttpServletResponse response) throws Exception {
+        final AtomicBoolean primaryRequired = new AtomicBoolean();
+        final FilterChain chain = (req, res) -> primaryRequired.set(DataSourceRouting.isPrimaryRequired());
+        filter.doFilter(request, response, chain);
+        return primaryRequired.get();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.store.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.store.exception.DatabaseBusyException;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link TenantConcurrencyLimitedDataSource}.
+ */
+class TenantConcurrencyLimitedDataSourceTest {
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void testGetConnection_limitedPerTenant() throws SQLException {
+        final DataSource targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenAnswer(i -> mock(Connection.class));
+        final TenantConcurrencyLimitedDataSource dataSource =
+                new TenantConcurrencyLimitedDataSource(targetDataSource, 1, 0, Duration.ZERO);
+        final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dataSource.bindTo(meterRegistry);
+
+        TenantContext.setTenantId("noisy");
+        final Connection connection = dataSource.getConnection();
+        // The tenant uses all its connections
+        assertThrowsExactly(DatabaseBusyException.class, dataSource::getConnection);
+
+        // Other tenants are not affected
+        TenantContext.setTenantId("quiet");
+        dataSource.getConnection().close();
+
+        TenantContext.setTenantId("noisy");
+        connection.close();
+        dataSource.getConnection().close();
+
+        assertEquals(1, meterRegistry.get("store.tenant.datasource.concurrency.rejected").tag("tenant", "noisy")
+                .functionCounter().count());
+        assertEquals(0, meterRegistry.get("store.tenant.datasource.concurrency.rejected").tag("tenant", "quiet")
+                .functionCounter().count());
+    }
+}
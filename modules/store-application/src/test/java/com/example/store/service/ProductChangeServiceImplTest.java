@@ -0,0 +1,140 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductDto;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeEntry;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductChangeServiceImpl}.
+ */
+class ProductChangeServiceImplTest {
+
+    private static final String TENANT = TenantContext.DEFAULT_TENANT;
+    private static final Instant CHANGED_AT = Instant.parse("2026-10-18T10:15:30Z");
+
+    private ProductChangeLog productChangeLog;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductChangeServiceImpl productChangeService;
+
+    @BeforeEach
+    void setUp() {
+        productChangeLog = mock(ProductChangeLog.class);
+        meterRegistry = new SimpleMeterRegistry();
+        productChangeService = new ProductChangeServiceImpl(productChangeLog, mock(PlatformTransactionManager.class),
+                meterRegistry, Duration.ofHours(1), Duration.ofHours(1), Duration.ofDays(7));
+        when(productChangeLog.getHead(TENANT)).thenReturn(new ProductChangeHead(TENANT, 12, 0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        productChangeService.stop();
+    }
+
+    @Test
+    void testGetChanges() {
+        when(productChangeLog.findChanges(TENANT, 0, 1000)).thenReturn(List.of(
+                new ProductChangeEntry(3, 1L, false, CHANGED_AT, new Product(1L, "Kettle", "Electric kettle", 25f)),
+                // Deleted later - followed by the tombstone
+                new ProductChangeEntry(7, 2L, false, CHANGED_AT, null),
+                new ProductChangeEntry(9, 2L, true, CHANGED_AT, null)));
+
+        final ProductChangesDto changes = productChangeService.getChanges(0, 5000, Duration.ZERO).join();
+
+        assertEquals(List.of(3L, 9L), changes.items().stream().map(ProductChangeDto::seq).toList());
+        assertEquals(new ProductDto(1L, "Kettle", "Electric kettle", 25f), changes.items().get(0).product());
+        assertTrue(changes.items().get(1).deleted());
+        assertNull(changes.items().get(1).product());
+        // Not a full page - changes up to the head were removed by compaction
+        assertEquals(12, changes.nextSince());
+    }
+
+    @Test
+    void testGetChanges_fullPage() {
+        when(productChangeLog.findChanges(TENANT, 0, 2)).thenReturn(List.of(
+                new ProductChangeEntry(3, 1L, false, CHANGED_AT, new Product(1L, "Kettle", "Electric kettle", 25f)),
+                new ProductChangeEntry(4, 2L, true, CHANGED_AT, null)));
+
+        assertEquals(4, productChangeService.getChanges(0, 2, Duration.ZERO).join().nextSince());
+    }
+
+    @Test
+    void testGetChanges_expired() {
+        when(productChangeLog.getHead(TENANT)).thenReturn(new ProductChangeHead(TENANT, 12, 6));
+
+        assertThrows(ChangesExpiredException.class, () -> productChangeService.getChanges(5, 100, Duration.ZERO));
+        // Readers from the start get the current state of all products
+        assertEquals(12, productChangeService.getChanges(0, 100, Duration.ZERO).join().nextSince());
+    }
+
+    @Test
+    void testGetChanges_waitsForChanges() {
+        productChangeService.start();
+        final CompletableFuture<ProductChangesDto> future = productChangeService.getChanges(12, 100, Duration.ofMinutes(1));
+        assertFalse(future.isDone());
+        assertEquals(1, meterRegistry.get("store.changes.waiting").gauge().value());
+
+        // No new changes
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 12, 0)));
+        productChangeService.completeWaiters();
+        assertFalse(future.isDone());
+
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 13, 0)));
+        when(productChangeLog.getHead(TENANT)).thenReturn(new ProductChangeHead(TENANT, 13, 0));
+        when(productChangeLog.findChanges(TENANT, 12, 100)).thenReturn(List.of(
+                new ProductChangeEntry(13, 1L, true, CHANGED_AT, null)));
+        productChangeService.completeWaiters();
+
+        assertEquals(13, future.join().nextSince());
+        assertEquals(0, meterRegistry.get("store.changes.waiting").gauge().value());
+    }
+
+    @Test
+    void testGetChanges_waitElapses() throws Exception {
+        productChangeService.start();
+        final ProductChangesDto changes = productChangeService.getChanges(12, 100, Duration.ofMillis(50)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(changes.items().isEmpty());
+        assertEquals(12, changes.nextSince());
+    }
+
+    @Test
+    void testCompact() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 12, 0)));
+
+        productChangeService.compact();
+
+        verify(productChangeLog).compact(TENANT);
+        verify(productChangeLog).expireTombstones(eq(TENANT), any());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.store.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.store.dto.ImportReport;
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.RejectedRow;
+import com.example.store.error.ValidationError;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.persistence.jdbc.ProductCopyLoader;
+import com.example.store.persistence.jdbc.ProductLoadResult;
+import com.example.store.persistence.jdbc.ProductRowSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.Validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductImportServiceImpl}.
+ */
+class ProductImportServiceImplTest {
+
+    private ProductImportServiceImpl productImportService;
+
+    /**
+     * ID which is not the ID of an existing product, so the (mocked) loader rejects it.
+     */
+    private static final long UNKNOWN_ID = 99L;
+
+    /**
+     * Rows written to the (mocked) loader.
+     */
+    private List<ProductDto> loadedRows;
+
+    @BeforeEach
+    void setUp() {
+        final ProductCopyLoader productCopyLoader = mock(ProductCopyLoader.class);
+        productImportService = new ProductImportServiceImpl(productCopyLoader, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator());
+
+        loadedRows = new ArrayList<>();
+        when(productCopyLoader.load(any(), anyInt())).thenAnswer(i -> {
+            final List<Long> unknownIdRows = new ArrayList<>();
+            i.getArgument(0, ProductRowSource.class).writeTo((row, id, name, description, price) -> {
+                loadedRows.add(new ProductDto(id, name, description, price));
+                if (id != null && id == UNKNOWN_ID) {
+                    unknownIdRows.add(row);
+                }
+            });
+            return new ProductLoadResult(loadedRows.stream().filter(p -> p.getId() == null).count(),
+                    loadedRows.stream().filter(p -> p.getId() != null).count() - unknownIdRows.size(),
+                    unknownIdRows.size(), unknownIdRows);
+        });
+    }
+
+    @Test
+    void testImportCsv() {
+        final String csv = """
+                id,name,description,price
+                ,Pencil,Wooden pencil,0.5
+                2,Eraser,"Super eraser, white",1.2
+                ,X,Too short name,1
+                ,Box,Small box,abc
+                """;
+        final ImportReport report = productImportService.importCsv(toInputStream(csv));
+
+        assertEquals(List.of(
+                new ProductDto(null, "Pencil", "Wooden pencil", 0.5f),
+                new ProductDto(2L, "Eraser", "Super eraser, white", 1.2f)), loadedRows);
+        assertEquals(2, report.accepted());
+        assertEquals(2, report.rejected());
+        assertEquals(1, report.inserted());
+        assertEquals(1, report.updated());
+        assertEquals(List.of(3L, 4L), report.rejectedRows().stream().map(RejectedRow::row).toList());
+        assertEquals("name", report.rejectedRows().get(0).errors().get(0).field());
+        assertEquals("price", report.rejectedRows().get(1).errors().get(0).field());
+    }
+
+    @Test
+    void testImportCsv_unknownId() {
+        final String csv = """
+                id,name,description,price
+                99,Pencil,Wooden pencil,0.5
+                ,X,Too short name,1
+                2,Eraser,Super eraser,1.2
+                99,Box,Small box,2
+                """;
+        final ImportReport report = productImportService.importCsv(toInputStream(csv));
+
+        assertEquals(1, report.accepted());
+        assertEquals(3, report.rejected());
+        assertEquals(0, report.inserted());
+        assertEquals(1, report.updated());
+        // Rows rejected by the loader are reported in order with invalid rows
+        assertEquals(List.of(1L, 2L, 4L), report.rejectedRows().stream().map(RejectedRow::row).toList());
+        assertEquals(List.of(new ValidationError("id", "must be the ID of an existing product")),
+                report.rejectedRows().get(0).errors());
+        assertEquals("name", report.rejectedRows().get(1).errors().get(0).field());
+    }
+
+    @Test
+    void testImportCsv_malformed() {
+        final String csv = """
+                id,name,description,price
+                ,Pencil,"Wooden pencil,0.5
+                """;
+        assertThrowsExactly(InvalidRequestException.class, () -> productImportService.importCsv(toInputStream(csv)));
+    }
+
+    @Test
+    void testImportNdjson() {
+        final String ndjson = """
+                {"name":"Pencil","description":"Wooden pencil","price":0.5}
+
+                {"id":2,"name":"Eraser","description":"Super eraser","price":1.2}
+                {"name":"Box","description":"Small box"}
+                not json
+                """;
+        final ImportReport report = productImportService.importNdjson(toInputStream(ndjson));
+
+        assertEquals(List.of(
+                new ProductDto(null, "Pencil", "Wooden pencil", 0.5f),
+                new ProductDto(2L, "Eraser", "Super eraser", 1.2f)), loadedRows);
+        assertEquals(2, report.accepted());
+        assertEquals(2, report.rejected());
+        // Blank lines are skipped
+        assertEquals(List.of(3L, 4L), report.rejectedRows().stream().map(RejectedRow::row).toList());
+    }
+
+    @Test
+    void testImport_reportedRejectionsAreLimited() {
+        final String ndjson = "{}\n".repeat(ProductImportServiceImpl.MAX_REPORTED_REJECTIONS + 10);
+        final ImportReport report = productImportService.importNdjson(toInputStream(ndjson));
+
+        assertEquals(ProductImportServiceImpl.MAX_REPORTED_REJECTIONS + 10, report.rejected());
+        assertEquals(ProductImportServiceImpl.MAX_REPORTED_REJECTIONS, report.rejectedRows().size());
+    }
+
+    private static InputStream toInputStream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
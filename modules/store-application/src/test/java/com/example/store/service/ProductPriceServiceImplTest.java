@@ -0,0 +1,276 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.example.store.cache.ProductCacheKey;
+import com.example.store.config.CacheConfig;
+import com.example.store.dto.ProductDto;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.jdbc.ProductPrice;
+import com.example.store.persistence.jdbc.ProductPriceWriter;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static com.example.store.persistence.tenant.TenantContext.DEFAULT_TENANT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductPriceServiceImpl}.
+ * The background thread is not started (except on stop), so prices are only written by explicit flushes.
+ */
+class ProductPriceServiceImplTest {
+
+    private static final long NON_EXISTING_ID = 999L;
+
+    private ProductPriceWriter productPriceWriter;
+    private CacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductPriceServiceImpl productPriceService;
+
+    /**
+     * Batches of prices written to the (mocked) writer, and the tenants which wrote them.
+     */
+    private List<List<ProductPrice>> writtenBatches;
+    private List<String> writingTenants;
+
+    @BeforeEach
+    void setUp() {
+        productPriceWriter = mock(ProductPriceWriter.class);
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.PRODUCTS_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        productPriceService = new ProductPriceServiceImpl(productPriceWriter, cacheManager, meterRegistry,
+                Duration.ofHours(1), 2, 3, Duration.ofMillis(50));
+
+        writtenBatches = new ArrayList<>();
+        writingTenants = new ArrayList<>();
+        when(productPriceWriter.updatePrices(anyList(), any())).thenAnswer(this::writePrices);
+    }
+
+    /**
+     * Answers writes of the (mocked) writer - rolled back ({@code null}) if the prices are not current.
+     */
+    private boolean[] writePrices(final InvocationOnMock invocation) {
+        final List<ProductPrice> prices = List.copyOf(invocation.getArgument(0));
+        if (!invocation.getArgument(1, BooleanSupplier.class).getAsBoolean()) {
+            return null;
+        }
+        writtenBatches.add(prices);
+        writingTenants.add(TenantContext.getTenantId());
+        final boolean[] updated = new boolean[prices.size()];
+        for (int j = 0; j < prices.size(); j++) {
+            updated[j] = prices.get(j).id() != NON_EXISTING_ID;
+        }
+        return updated;
+    }
+
+    @Test
+    void testUpdatePrice_coalesced() throws Exception {
+        final CompletableFuture<Boolean> first = productPriceService.updatePrice(1L, 1.5f);
+        final CompletableFuture<Boolean> second = productPriceService.updatePrice(1L, 2.5f);
+        assertFalse(first.isDone());
+
+        assertEquals(1, productPriceService.flush());
+
+        // Only the latest price is written
+        assertEquals(List.of(List.of(new ProductPrice(DEFAULT_TENANT, 1L, 2.5f))), writtenBatches);
+        assertTrue(first.get());
+        assertTrue(second.get());
+        assertEquals(1, meterRegistry.get("store.price.updates").tag("result", "queued").counter().count());
+        assertEquals(1, meterRegistry.get("store.price.updates").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void testFlush_batchesOrderedById() {
+        productPriceService.updatePrice(3L, 3f);
+        productPriceService.updatePrice(1L, 1f);
+        productPriceService.updatePrice(2L, 2f);
+
+        assertEquals(3, productPriceService.flush());
+
+        assertEquals(List.of(
+                List.of(new ProductPrice(DEFAULT_TENANT, 1L, 1f), new ProductPrice(DEFAULT_TENANT, 2L, 2f)),
+                List.of(new ProductPrice(DEFAULT_TENANT, 3L, 3f))), writtenBatches);
+        assertEquals(2, meterRegistry.get("store.price.updates.flush").tag("outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("store.price.updates.pending").gauge().value());
+        // Nothing left to write
+        assertEquals(0, productPriceService.flush());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void testUpdatePrice_tenantsNotCoalesced() {
+        productPriceService.updatePrice(1L, 1f);
+        TenantContext.setTenantId("other");
+        productPriceService.updatePrice(1L, 2f);
+        TenantContext.clear();
+
+        assertEquals(2, productPriceService.flush());
+
+        // Batch of each tenant, written as the tenant (within its connection budget)
+        assertEquals(List.of(List.of(new ProductPrice(DEFAULT_TENANT, 1L, 1f)), List.of(new ProductPrice("other", 1L, 2f))),
+                writtenBatches);
+        assertEquals(List.of(DEFAULT_TENANT, "other"), writingTenants);
+        assertEquals(DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+    @Test
+    void testFlush_nonExistingProduct() throws Exception {
+        final CompletableFuture<Boolean> written = productPriceService.updatePrice(NON_EXISTING_ID, 1f);
+
+        assertEquals(0, productPriceService.flush());
+
+        assertFalse(written.get());
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "not_found").counter().count());
+    }
+
+    @Test
+    void testFlush_evictsCachedProducts() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put(ProductCacheKey.of(1L), new ProductDto(1L, "Banana", "1kg of bananas", 1.8f));
+        productPriceService.updatePrice(1L, 2f);
+
+        productPriceService.flush();
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(ProductCacheKey.of(1L)));
+    }
+
+    @Test
+    void testFlush_failedIsRetried() throws Exception {
+        doThrow(new QueryTimeoutException("Timeout")).when(productPriceWriter).updatePrices(anyList(), any());
+        final CompletableFuture<Boolean> failed = productPriceService.updatePrice(1L, 1f);
+
+        assertEquals(0, productPriceService.flush());
+        assertThrowsExactly(ExecutionException.class, failed::get);
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "failed").counter().count());
+
+        // Written with the next flush
+        doReturn(new boolean[] {true}).when(productPriceWriter).updatePrices(anyList(), any());
+        assertEquals(1, productPriceService.flush());
+    }
+
+    @Test
+    void testFlush_retriesLimited() {
+        doThrow(new QueryTimeoutException("Timeout")).when(productPriceWriter).updatePrices(anyList(), any());
+        productPriceService.updatePrice(1L, 1f);
+
+        for (int i = 0; i < ProductPriceServiceImpl.MAX_ATTEMPTS; i++) {
+            productPriceService.flush();
+        }
+
+        // Not retried anymore
+        assertEquals(0, meterRegistry.get("store.price.updates.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void testFlush_failingPriceIsolated() throws Exception {
+        // Price of product 2 violates a constraint, and fails any batch with it
+        doAnswer(i -> {
+            final List<ProductPrice> prices = List.copyOf(i.getArgument(0));
+            if (prices.stream().anyMatch(price -> price.id() == 2L)) {
+                throw new DataIntegrityViolationException("Price out of range");
+            }
+            writtenBatches.add(prices);
+            return new boolean[prices.size()];
+        }).when(productPriceWriter).updatePrices(anyList(), any());
+        final CompletableFuture<Boolean> failing = productPriceService.updatePrice(2L, -1f);
+        productPriceService.updatePrice(1L, 1f);
+
+        productPriceService.flush();
+
+        // Other price of the batch is written, the failing one is dropped without retrying
+        assertEquals(List.of(List.of(new ProductPrice(DEFAULT_TENANT, 1L, 1f))), writtenBatches);
+        assertThrowsExactly(ExecutionException.class, failing::get);
+        assertEquals(0, meterRegistry.get("store.price.updates.pending").gauge().value());
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void testDiscardPendingPrice() throws Exception {
+        final CompletableFuture<Boolean> discarded = productPriceService.updatePrice(1L, 1f);
+        productPriceService.updatePrice(2L, 2f);
+
+        // Product 1 updated as a whole
+        productPriceService.discardPendingPrice(1L);
+
+        assertTrue(discarded.get());
+        assertEquals(1, productPriceService.flush());
+        assertEquals(List.of(List.of(new ProductPrice(DEFAULT_TENANT, 2L, 2f))), writtenBatches);
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "superseded").counter().count());
+    }
+
+    @Test
+    void testDiscardPendingPrice_whileWritten() throws Exception {
+        final CompletableFuture<Boolean> discarded = productPriceService.updatePrice(1L, 1f);
+        final CompletableFuture<Boolean> written = productPriceService.updatePrice(2L, 2f);
+        // Product 1 is updated as a whole after the batch was taken, but before the batch locked the products
+        doAnswer(i -> {
+            productPriceService.discardPendingPrice(1L);
+            return writePrices(i);
+        }).doAnswer(this::writePrices).when(productPriceWriter).updatePrices(anyList(), any());
+
+        assertEquals(1, productPriceService.flush());
+
+        // Rolled back and written again without the discarded price
+        assertEquals(List.of(List.of(new ProductPrice(DEFAULT_TENANT, 2L, 2f))), writtenBatches);
+        assertTrue(discarded.get());
+        assertTrue(written.get());
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "superseded").counter().count());
+        assertEquals(1, meterRegistry.get("store.price.updates.written").tag("result", "updated").counter().count());
+    }
+
+    @Test
+    void testUpdatePrice_bufferFull() {
+        productPriceService.updatePrice(1L, 1f);
+        productPriceService.updatePrice(2L, 2f);
+        productPriceService.updatePrice(3L, 3f);
+
+        // Another product is rejected after waiting for a flush, while pending products are still updated
+        assertThrowsExactly(ServiceBusyException.class, () -> productPriceService.updatePrice(4L, 4f));
+        productPriceService.updatePrice(3L, 4f);
+        assertEquals(1, meterRegistry.get("store.price.updates").tag("result", "rejected").counter().count());
+
+        productPriceService.flush();
+        productPriceService.updatePrice(4L, 4f);
+    }
+
+    @Test
+    void testStop_writesPendingPrices() throws Exception {
+        final CompletableFuture<Boolean> written = productPriceService.updatePrice(1L, 1f);
+
+        productPriceService.start();
+        productPriceService.stop();
+
+        assertTrue(written.get());
+        assertThrowsExactly(ServiceBusyException.class, () -> productPriceService.updatePrice(1L, 2f));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.store.service;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.store.dto.ProductPageDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.repository.ProductSearchHit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductSearchServiceImpl}.
+ */
+class ProductSearchServiceImplTest {
+
+    private ProductRepository productRepository;
+    private ProductSearchServiceImpl productSearchService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        productSearchService = new ProductSearchServiceImpl(productRepository);
+        when(productRepository.findSimilarSearchWords(anyString(), anyInt())).thenAnswer(i -> List.of(i.getArgument(0, String.class)));
+    }
+
+    @Test
+    void testSearchProducts_query() {
+        productSearchService.searchProducts("Stainless-steel kett", null, 20);
+
+        verify(productRepository).searchProducts("(stainless) & (steel) & (kett:*)", Float.MAX_VALUE, 0L,
+                ProductSearchServiceImpl.MAX_CANDIDATES, 21);
+    }
+
+    @Test
+    void testSearchProducts_correctsUnknownWords() {
+        when(productRepository.findSimilarSearchWords("ketle", ProductSearchServiceImpl.MAX_CORRECTIONS))
+                .thenReturn(List.of("kettle", "kettles"));
+
+        productSearchService.searchProducts("ketle pro", null, 20);
+
+        verify(productRepository).searchProducts(eq("(ketle | kettle | kettles) & (pro:*)"), anyFloat(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchProducts_shortWordsNotCorrected() {
+        productSearchService.searchProducts("tv", null, 20);
+
+        verify(productRepository, never()).findSimilarSearchWords(anyString(), anyInt());
+        verify(productRepository).searchProducts(eq("(tv:*)"), anyFloat(), anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testSearchProducts_paging() {
+        final List<ProductSearchHit> hits = List.of(hit(4L, 0.6f), hit(2L, 0.3f), hit(7L, 0.3f));
+        when(productRepository.searchProducts(anyString(), anyFloat(), anyLong(), anyInt(), eq(3))).thenReturn(hits);
+
+        final ProductPageDto page = productSearchService.searchProducts("kettle", null, 2);
+        assertEquals(List.of(4L, 2L), page.items().stream().map(p -> p.getId()).toList());
+        assertEquals("0.3_2", page.nextCursor());
+
+        productSearchService.searchProducts("kettle", page.nextCursor(), 2);
+        verify(productRepository).searchProducts("(kettle:*)", 0.3f, 2L, ProductSearchServiceImpl.MAX_CANDIDATES, 3);
+    }
+
+    @Test
+    void testSearchProducts_lastPage() {
+        final List<ProductSearchHit> hits = List.of(hit(4L, 0.6f));
+        when(productRepository.searchProducts(anyString(), anyFloat(), anyLong(), anyInt(), anyInt())).thenReturn(hits);
+
+        assertNull(productSearchService.searchProducts("kettle", null, 2).nextCursor());
+    }
+
+    @Test
+    void testSearchProducts_invalidCursor() {
+        assertThrowsExactly(InvalidRequestException.class, () -> productSearchService.searchProducts("kettle", "abc", 20));
+        assertThrowsExactly(InvalidRequestException.class, () -> productSearchService.searchProducts("kettle", "0.3_2_1", 20));
+    }
+
+    @Test
+    void testSearchProducts_invalidQuery() {
+        assertThrowsExactly(InvalidRequestException.class, () -> productSearchService.searchProducts(" &!| ", null, 20));
+        assertThrowsExactly(InvalidRequestException.class, () -> productSearchService.searchProducts("a".repeat(201), null, 20));
+    }
+
+    private static ProductSearchHit hit(final long id, final float rank) {
+        final ProductSearchHit hit = mock(ProductSearchHit.class);
+        when(hit.getId()).thenReturn(id);
+        when(hit.getName()).thenReturn("Kettle");
+        when(hit.getDescription()).thenReturn("Electric kettle");
+        when(hit.getPrice()).thenReturn(25f);
+        when(hit.getVersion()).thenReturn(0L);
+        when(hit.getRank()).thenReturn(rank);
+        return hit;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.store.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.store.config.CacheConfig;
+import com.example.store.dto.ProductDto;
+import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.tenant.TenantContext;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains tests of product caching in {@link ProductServiceImpl}.
+ */
+@SpringJUnitConfig
+class ProductServiceCacheTest {
+
+    @MockitoBean
+    private ProductRepository productRepository;
+
+    @MockitoBean
+    private ProductChangeLog productChangeLog;
+
+    @MockitoBean
+    private ProductPriceService productPriceService;
+
+    @MockitoBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).clear();
+        when(productRepository.findById(1L)).thenAnswer(i -> Optional.of(banana()));
+        when(productRepository.deleteProductById(1L)).thenReturn(1);
+    }
+
+    @Test
+    void testGetProductById_cached() {
+        assertEquals(1L, productService.getProductById(1L).getId());
+        assertEquals(1L, productService.getProductById(1L).getId());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testGetProductById_cachedPerTenant() {
+        productService.getProductById(1L);
+        TenantContext.setTenantId("other");
+        try {
+            productService.getProductById(1L);
+        } finally {
+            TenantContext.clear();
+        }
+        // Products of different tenants may have the same ID
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testGetProductById_notFoundIsNotCached() {
+        when(productRepository.findById(3L)).thenReturn(Optional.empty());
+        assertThrowsExactly(ResourceNotFoundException.class, () -> productService.getProductById(3L));
+        assertThrowsExactly(ResourceNotFoundException.class, () -> productService.getProductById(3L));
+        verify(productRepository, times(2)).findById(3L);
+    }
+
+    @Test
+    void testGetProductById_concurrentLoadsOnce() throws Exception {
+        final CountDownLatch loadStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoad = new CountDownLatch(1);
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            loadStarted.countDown();
+            releaseLoad.await(5, TimeUnit.SECONDS);
+            return Optional.of(banana());
+        });
+
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<ProductDto>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> productService.getProductById(1L)));
+            }
+            loadStarted.await(5, TimeUnit.SECONDS);
+            releaseLoad.countDown();
+            for (final Future<ProductDto> result : results) {
+                assertEquals(1L, result.get(5, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdateProduct_writesThrough() {
+        productService.getProductById(1L);
+        when(productRepository.updateProduct(any(Product.class), any())).thenAnswer(i -> Optional.of(i.getArgument(0, Product.class)));
+
+        productService.updateProduct(1L, new ProductDto(1L, "Banana", "2kg of bananas", 3.4f), null);
+
+        assertEquals("2kg of bananas", productService.getProductById(1L).getDescription());
+        verify(productRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testCreateProduct_writesThrough() {
+        when(productRepository.save(any(Product.class))).thenReturn(new Product(5L, "Kiwi", "1kg of kiwis", 4.1f));
+
+        productService.createProduct(new ProductDto(null, "Kiwi", "1kg of kiwis", 4.1f));
+
+        assertEquals("Kiwi", productService.getProductById(5L).getName());
+        verify(productRepository, times(0)).findById(5L);
+    }
+
+    @Test
+    void testDeleteProduct_evicts() {
+        productService.getProductById(1L);
+        productService.deleteProduct(1L);
+        productService.getProductById(1L);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testDeleteProducts_evictsAll() {
+        productService.getProductById(1L);
+        productService.deleteProducts(List.of());
+        productService.getProductById(1L);
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    private static Product banana() {
+        return new Product(1L, "Banana", "1kg of bananas", 1.8f);
+    }
+
+    @Configuration
+    @Import({CacheConfig.class, ProductServiceImpl.class})
+    static class TestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new CaffeineCacheManager(CacheConfig.PRODUCTS_CACHE);
+        }
+
+        @Bean
+        Validator validator() {
+            return Validation.buildDefaultValidatorFactory().getValidator();
+        }
+    }
+}
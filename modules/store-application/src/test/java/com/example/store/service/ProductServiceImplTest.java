@@ -1,22 +1,48 @@
 package com.example.store.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.example.store.dto.BatchItemResult;
 import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductListQuery;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.exception.InvalidRequestException;
+import com.example.store.exception.PreconditionFailedException;
 import com.example.store.exception.ResourceNotFoundException;
+import com.example.store.persistence.datasource.DataSourceRouting;
 import com.example.store.persistence.entity.Product;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeLog;
 import com.example.store.persistence.repository.ProductRepository;
+import com.example.store.persistence.tenant.TenantContext;
+
+import jakarta.validation.Validation;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrowsExactly;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,12 +52,17 @@ import static org.mockito.Mockito.when;
 class ProductServiceImplTest {
 
     private ProductRepository productRepository;
+    private ProductChangeLog productChangeLog;
+    private ProductPriceService productPriceService;
     private ProductServiceImpl productService;
 
     @BeforeEach
     void setUp() {
         productRepository = mock(ProductRepository.class);
-        productService = new ProductServiceImpl(productRepository);
+        productChangeLog = mock(ProductChangeLog.class);
+        productPriceService = mock(ProductPriceService.class);
+        productService = new ProductServiceImpl(productRepository, productChangeLog, productPriceService, mock(PlatformTransactionManager.class),
+                Validation.buildDefaultValidatorFactory().getValidator());
 
         final Product banana = new Product(1L, "Banana", "1kg of bananas", 1.8f);
         final Product orange = new Product(2L, "Orange", "1kg of oranges", 3.2f);
@@ -43,13 +74,115 @@ class ProductServiceImplTest {
 
     @Test
     void testGetAllProducts() {
-        final List<ProductDto> allProducts = productService.getAllProducts();
+        when(productChangeLog.getHead(TenantContext.DEFAULT_TENANT)).thenReturn(new ProductChangeHead(TenantContext.DEFAULT_TENANT, 5, 0));
+        final List<Boolean> onPrimary = recordRoutingOfFindAll();
+
+        final List<ProductDto> allProducts = productService.getAllProducts("5");
         assertEquals(2, allProducts.size());
-        verify(productRepository).findAll();
+        // Read where the version was read, the replica is current
+        assertEquals(List.of(false), onPrimary);
+    }
+
+    @Test
+    void testGetAllProducts_replicaBehindCatalogVersion() {
+        when(productChangeLog.getHead(TenantContext.DEFAULT_TENANT)).thenReturn(new ProductChangeHead(TenantContext.DEFAULT_TENANT, 4, 0));
+        final List<Boolean> onPrimary = recordRoutingOfFindAll();
+
+        assertEquals(2, productService.getAllProducts("5").size());
+        // Not read from the lagging replica
+        assertEquals(List.of(true), onPrimary);
+        assertFalse(DataSourceRouting.isPrimaryRequired());
+    }
+
+    @Test
+    void testGetProductPage() {
+        // One product more than requested is returned -> there is a next page
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(new Product(1L, "Banana", "1kg of bananas", 1.8f), new Product(2L, "Orange", "1kg of oranges", 3.2f)));
+
+        final ProductPageDto page = productService.getProductPage(null, 1);
+        assertEquals(1, page.items().size());
+        assertEquals(1L, page.items().get(0).getId());
+        assertEquals("1", page.nextCursor());
+    }
+
+    @Test
+    void testGetProductPage_lastPage() {
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(11)))
+                .thenReturn(List.of(new Product(2L, "Orange", "1kg of oranges", 3.2f)));
+
+        final ProductPageDto page = productService.getProductPage(1L, 10);
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetProductPage_limitIsBounded() {
+        productService.getProductPage(null, 1_000_000);
+        verify(productRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(ProductServiceImpl.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetFilteredProductPage() {
+        when(productRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(new Product(2L, "Orange", "1kg of oranges", 3.2f), new Product(1L, "Banana", "1kg of bananas", 1.8f)));
+
+        final ProductPageDto page = productService.getProductPage(new ProductListQuery(1f, 5f, null, "-price"), null, 1);
+        assertEquals(List.of(2L), page.items().stream().map(ProductDto::getId).toList());
+        assertEquals("3.2_2", page.nextCursor());
+
+        // Cursor of a listing by name is Base64 encoded
+        final ProductPageDto namePage = productService.getProductPage(new ProductListQuery(null, null, "Or", null), null, 1);
+        assertEquals("T3Jhbmdl_2", namePage.nextCursor());
+        productService.getProductPage(new ProductListQuery(null, null, "Or", null), namePage.nextCursor(), 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetFilteredProductPage_notIndexed() {
+        // Not an indexed attribute
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(null, null, null, "description"), null, 10));
+        // Filtered by two indexes
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(1f, null, "Or", null), null, 10));
+        // Filtered and sorted by different indexes
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(1f, 5f, null, "name"), null, 10));
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(null, null, "", null), null, 10));
+        verify(productRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void testGetFilteredProductPage_invalidCursor() {
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(null, null, null, "price"), "abc", 10));
+        assertThrowsExactly(InvalidRequestException.class,
+                () -> productService.getProductPage(new ProductListQuery(null, null, "Or", null), "!!_1", 10));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testForEachProduct() {
+        doAnswer(i -> {
+            productRepository.findAll().forEach(i.getArgument(0, Consumer.class));
+            return null;
+        }).when(productRepository).forEachProduct(any());
+
+        final List<ProductDto> products = new ArrayList<>();
+        productService.forEachProduct(products::add);
+        assertEquals(List.of(1L, 2L), products.stream().map(ProductDto::getId).toList());
     }
 
     @Test
     void testGetProductById() {
+        when(productRepository.findById(1L)).thenAnswer(invocation -> {
+            // Cached products are loaded from the primary
+            assertTrue(DataSourceRouting.isPrimaryRequired());
+            return Optional.of(new Product(1L, "Banana", "1kg of bananas", 1.8f));
+        });
         final ProductDto productById = productService.getProductById(1L);
         assertNotNull(productById);
         assertEquals(1L, productById.getId());
@@ -75,43 +208,181 @@ class ProductServiceImplTest {
         final ProductDto productDto = new ProductDto(null, "Watermelon", "Very watery", 2.5f);
         final ProductDto createdProduct = productService.createProduct(productDto);
         assertEquals(8L, createdProduct.getId(), "ID should be added on save() and returned in the Dto");
+        verify(productChangeLog).record(TenantContext.DEFAULT_TENANT, List.of(8L), false);
     }
 
     @Test
     void testUpdateProduct() {
-        // Banana exists in db
-        when(productRepository.existsById(1L)).thenReturn(true);
-        // Return identical entity on save
-        when(productRepository.save(any(Product.class)))
-                .thenAnswer(i -> i.getArgument(0, Product.class));
+        // Return updated entity, with incremented version
+        when(productRepository.updateProduct(any(Product.class), any()))
+                .thenAnswer(i -> {
+                    final Product product = i.getArgument(0, Product.class);
+                    product.setVersion(1);
+                    return Optional.of(product);
+                });
 
         final ProductDto productDto = new ProductDto(1L, "Banana", "Now 50% off!", 0.9f);
-        final ProductDto updatedProduct = productService.updateProduct(1L, productDto);
-        verify(productRepository).save(any());
+        final ProductDto updatedProduct = productService.updateProduct(1L, productDto, null);
+        verify(productRepository).updateProduct(argThat(product -> product.getId() == 1L), any());
         assertEquals(productDto, updatedProduct);
+        assertEquals(1L, updatedProduct.getVersion());
+        // Product is not loaded before the update
+        verify(productRepository, never()).findById(any());
+        verify(productRepository, never()).existsById(any());
+        verify(productChangeLog).record(TenantContext.DEFAULT_TENANT, List.of(1L), false);
+        // Buffered price would overwrite the update
+        verify(productPriceService).discardPendingPrice(1L);
     }
 
     @Test
     void testUpdateProduct_notFound() {
-        when(productRepository.existsById(50L)).thenReturn(false);
+        when(productRepository.updateProduct(any(Product.class), any())).thenReturn(Optional.empty());
 
         final ProductDto productDto = new ProductDto(50L, "Raspberry", "200g bag", 3.2f);
-        assertThrowsExactly(ResourceNotFoundException.class, () -> productService.updateProduct(1L, productDto));
-        // Verify that save was never called
-        verify(productRepository, never()).save(any());
+        assertThrowsExactly(ResourceNotFoundException.class, () -> productService.updateProduct(50L, productDto, null));
+        verify(productChangeLog, never()).record(any(), anyCollection(), eq(false));
+        verify(productPriceService, never()).discardPendingPrice(any());
+    }
+
+    @Test
+    void testUpdateProduct_expectedVersion() {
+        when(productRepository.updateProduct(any(Product.class), eq(7L)))
+                .thenReturn(Optional.of(new Product(3L, "Kiwi", "Now 50% off!", 2.05f, 8)));
+
+        final ProductDto productDto = new ProductDto(3L, "Kiwi", "Now 50% off!", 2.05f);
+        assertEquals(productDto, productService.updateProduct(3L, productDto, 7L));
+    }
+
+    @Test
+    void testUpdateProduct_versionMismatch() {
+        when(productRepository.updateProduct(any(Product.class), eq(6L))).thenReturn(Optional.empty());
+        when(productRepository.existsById(3L)).thenReturn(true);
+
+        final ProductDto productDto = new ProductDto(3L, "Kiwi", "Now 50% off!", 2.05f);
+        assertThrowsExactly(PreconditionFailedException.class, () -> productService.updateProduct(3L, productDto, 6L));
+    }
+
+    @Test
+    void testUpdateProduct_expectedVersionNotFound() {
+        when(productRepository.updateProduct(any(Product.class), eq(6L))).thenReturn(Optional.empty());
+
+        final ProductDto productDto = new ProductDto(50L, "Raspberry", "200g bag", 3.2f);
+        assertThrowsExactly(ResourceNotFoundException.class, () -> productService.updateProduct(50L, productDto, 6L));
+    }
+
+    @Test
+    void testGetCatalogVersion() {
+        when(productChangeLog.getHead(TenantContext.DEFAULT_TENANT)).thenReturn(new ProductChangeHead(TenantContext.DEFAULT_TENANT, 12, 3));
+        assertEquals("12", productService.getCatalogVersion());
     }
 
     @Test
     void testDeleteProduct() {
-        when(productRepository.existsById(5L)).thenReturn(true);
+        when(productRepository.deleteProductById(5L)).thenReturn(1);
         productService.deleteProduct(5L);
-        verify(productRepository).deleteById(5L);
+        verify(productRepository).deleteProductById(5L);
+        verify(productRepository, never()).existsById(any());
+        // Tombstone in the change feed
+        verify(productChangeLog).record(TenantContext.DEFAULT_TENANT, List.of(5L), true);
+        verify(productPriceService).discardPendingPrice(5L);
     }
 
     @Test
     void testDeleteProduct_notFound() {
-        // repository.existsById returns false
+        // repository.deleteProductById returns 0 - nothing deleted
         assertThrowsExactly(ResourceNotFoundException.class, () -> productService.deleteProduct(88L));
-        verify(productRepository, never()).deleteById(88L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateProducts() {
+        when(productRepository.saveAll(anyList()))
+                .thenAnswer(i -> {
+                    // Mock IDs which are created by the db
+                    final List<Product> products = i.getArgument(0, List.class);
+                    products.forEach(product -> product.setId(100L + products.indexOf(product)));
+                    return products;
+                });
+
+        final List<ProductDto> productDtos = List.of(
+                new ProductDto(null, "Watermelon", "Very watery", 2.5f),
+                new ProductDto(null, "", "Missing name", 2.5f),
+                new ProductDto(null, "Melon", "Sweet", 3f)
+        );
+        final List<BatchItemResult> results = productService.createProducts(productDtos);
+        assertEquals(List.of(201, 400, 201), results.stream().map(BatchItemResult::status).toList());
+        assertEquals(100L, results.get(0).id());
+        assertEquals(101L, results.get(2).id());
+        assertEquals("name", results.get(1).errors().get(0).field());
+        // Invalid product should not be saved
+        verify(productRepository).saveAll(argThat((List<Product> products) -> products.size() == 2));
+    }
+
+    @Test
+    void testCreateProducts_chunked() {
+        when(productRepository.saveAll(anyList())).thenAnswer(i -> i.getArgument(0));
+
+        final List<ProductDto> productDtos = new ArrayList<>();
+        for (int i = 0; i < ProductServiceImpl.BATCH_CHUNK_SIZE * 2 + 1; i++) {
+            productDtos.add(new ProductDto(null, "Product " + i, "Description", i));
+        }
+        final List<BatchItemResult> results = productService.createProducts(productDtos);
+        assertEquals(productDtos.size(), results.size());
+        // Each chunk is saved separately
+        verify(productRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateProducts_chunkFails() {
+        when(productRepository.saveAll(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        final List<BatchItemResult> results = productService.createProducts(List.of(new ProductDto(null, "Melon", "Sweet", 3f)));
+        assertEquals(500, results.get(0).status());
+    }
+
+    @Test
+    void testUpdateProducts() {
+        final Product banana = new Product(1L, "Banana", "1kg of bananas", 1.8f);
+        when(productRepository.findAllById(Set.of(1L, 50L))).thenReturn(List.of(banana));
+
+        final List<ProductDto> productDtos = List.of(
+                new ProductDto(1L, "Banana", "Now 50% off!", 0.9f),
+                new ProductDto(50L, "Raspberry", "200g bag", 3.2f),
+                new ProductDto(null, "Raspberry", "200g bag", 3.2f)
+        );
+        final List<BatchItemResult> results = productService.updateProducts(productDtos);
+        assertEquals(List.of(200, 404, 400), results.stream().map(BatchItemResult::status).toList());
+        // Managed entity is updated, its changes are flushed in the transaction
+        assertEquals("Now 50% off!", banana.getDescription());
+        assertEquals(0.9f, banana.getPrice());
+        verify(productRepository, never()).save(any());
+        // Only existing products are recorded as changed
+        verify(productChangeLog).record(TenantContext.DEFAULT_TENANT, Set.of(1L), false);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDeleteProducts() {
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+
+        final List<Long> ids = new ArrayList<>(List.of(1L, 2L, 3L));
+        ids.add(null);
+        final List<BatchItemResult> results = productService.deleteProducts(ids);
+        assertEquals(List.of(204, 204, 404, 400), results.stream().map(BatchItemResult::status).toList());
+        verify(productRepository).deleteAllByIdInBatch((Iterable<Long>) Set.of(1L, 2L));
+        verify(productChangeLog).record(TenantContext.DEFAULT_TENANT, Set.of(1L, 2L), true);
+    }
+
+    /**
+     * Records for each {@code findAll} whether it is routed to the primary.
+     */
+    private List<Boolean> recordRoutingOfFindAll() {
+        final List<Boolean> onPrimary = new ArrayList<>();
+        final List<Product> products = productRepository.findAll();
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            onPrimary.add(DataSourceRouting.isPrimaryRequired());
+            return products;
+        });
+        return onPrimary;
+    }
+}
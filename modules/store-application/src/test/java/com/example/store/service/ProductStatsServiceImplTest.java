@@ -0,0 +1,140 @@
+package com.example.store.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductStatsDto;
+import com.example.store.exception.ChangesExpiredException;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.jdbc.ProductColumnConsumer;
+import com.example.store.persistence.jdbc.ProductSnapshotReader;
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductStatsServiceImpl}.
+ */
+class ProductStatsServiceImplTest {
+
+    private static final String TENANT = TenantContext.DEFAULT_TENANT;
+    private static final Instant CHANGED_AT = Instant.parse("2026-10-18T10:15:30Z");
+
+    private ProductSnapshotReader productSnapshotReader;
+    private ProductChangeLog productChangeLog;
+    private ProductChangeService productChangeService;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductStatsServiceImpl productStatsService;
+
+    @BeforeEach
+    void setUp() {
+        productSnapshotReader = mock(ProductSnapshotReader.class);
+        productChangeLog = mock(ProductChangeLog.class);
+        productChangeService = mock(ProductChangeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        productStatsService = new ProductStatsServiceImpl(productSnapshotReader, productChangeLog, productChangeService,
+                meterRegistry, Duration.ofHours(1));
+        when(productSnapshotReader.read(eq(TENANT), any())).thenAnswer(invocation -> {
+            final ProductColumnConsumer consumer = invocation.getArgument(1);
+            consumer.accept(1L, "Kettle", 30f);
+            consumer.accept(2L, "Toaster", 10f);
+            return 5L;
+        });
+    }
+
+    @Test
+    void testGetStats() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 5, 0)));
+
+        productStatsService.refresh();
+        final ProductStatsDto stats = productStatsService.getStats(null, 2);
+
+        assertEquals(2, stats.count());
+        assertEquals(10f, stats.min());
+        assertEquals(30f, stats.max());
+        assertEquals(5, stats.seq());
+        assertEquals(2.0, meterRegistry.get("store.snapshot.products").gauge().value());
+        assertEquals(32.0, meterRegistry.get("store.snapshot.bytes").gauge().value());
+    }
+
+    @Test
+    void testGetStats_notLoaded() {
+        assertThrows(ServiceBusyException.class, () -> productStatsService.getStats(null, 10));
+    }
+
+    @Test
+    void testGetStats_tenantWithoutProducts() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of());
+
+        productStatsService.refresh();
+
+        assertEquals(0, productStatsService.getStats("Kettle", 10).count());
+    }
+
+    @Test
+    void testRefresh_appliesChanges() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 5, 0)));
+        productStatsService.refresh();
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 7, 0)));
+        when(productChangeService.getChanges(5, 1000, Duration.ZERO)).thenReturn(CompletableFuture.completedFuture(
+                new ProductChangesDto(List.of(
+                        new ProductChangeDto(6, 1L, false, CHANGED_AT, new ProductDto(1L, "Kettle", "Electric kettle", 50f)),
+                        new ProductChangeDto(7, 2L, true, CHANGED_AT, null)), 7)));
+
+        productStatsService.refresh();
+        final ProductStatsDto stats = productStatsService.getStats(null, 1);
+
+        assertEquals(1, stats.count());
+        assertEquals(50f, stats.min());
+        assertEquals(7, stats.seq());
+        verify(productSnapshotReader, times(1)).read(eq(TENANT), any());
+    }
+
+    @Test
+    void testRefresh_changesExpired() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 5, 0)));
+        productStatsService.refresh();
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 7, 0)));
+        when(productChangeService.getChanges(5, 1000, Duration.ZERO)).thenThrow(new ChangesExpiredException("Expired"));
+
+        productStatsService.refresh();
+
+        verify(productSnapshotReader, times(2)).read(eq(TENANT), any());
+    }
+
+    @Test
+    void testRefresh_tooManyChanges() {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, 5, 0)));
+        productStatsService.refresh();
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT,
+                new ProductChangeHead(TENANT, 6 + ProductStatsServiceImpl.MAX_APPLIED_CHANGES, 0)));
+
+        productStatsService.refresh();
+
+        verify(productSnapshotReader, times(2)).read(eq(TENANT), any());
+        verify(productChangeService, never()).getChanges(anyLong(), anyInt(), any());
+    }
+}
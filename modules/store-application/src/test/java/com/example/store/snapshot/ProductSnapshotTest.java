@@ -0,0 +1,208 @@
+package com.example.store.snapshot;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.store.dto.PriceBucketDto;
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductStatsDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class contains unit tests for {@link ProductSnapshot}.
+ */
+class ProductSnapshotTest {
+
+    private static final Instant CHANGED_AT = Instant.parse("2026-10-18T10:15:30Z");
+
+    @Test
+    void testStats() {
+        final ProductSnapshot snapshot = snapshot(7, "Kettle", 30f, "Toaster", 10f, "Kettle", 20f, "Mixer", 40f);
+
+        final ProductStatsDto stats = snapshot.stats(null, 3);
+
+        assertEquals(4, stats.count());
+        assertEquals(10f, stats.min());
+        assertEquals(40f, stats.max());
+        assertEquals(25.0, stats.avg());
+        assertEquals(Map.of("p50", 20f, "p90", 40f, "p95", 40f, "p99", 40f), stats.percentiles());
+        assertEquals(List.of(new PriceBucketDto(10f, 20f, 1), new PriceBucketDto(20f, 30f, 1), new PriceBucketDto(30f, 40f, 2)),
+                stats.histogram());
+        assertEquals(7, stats.seq());
+    }
+
+    @Test
+    void testStats_nameStartsWith() {
+        final ProductSnapshot snapshot = snapshot(7, "Kettle", 30f, "Toaster", 10f, "Kettle XL", 20f, "Kitchen scale", 40f);
+
+        final ProductStatsDto stats = snapshot.stats("Ke", 2);
+
+        assertEquals(2, stats.count());
+        assertEquals(20f, stats.min());
+        assertEquals(30f, stats.max());
+        assertEquals(25.0, stats.avg());
+        assertEquals(20f, stats.percentiles().get("p50"));
+        assertEquals(List.of(new PriceBucketDto(20f, 25f, 1), new PriceBucketDto(25f, 30f, 1)), stats.histogram());
+        assertEquals(0, snapshot.stats("Chair", 2).count());
+        assertNull(snapshot.stats("Chair", 2).min());
+    }
+
+    @Test
+    void testStats_samePrices() {
+        final ProductStatsDto stats = snapshot(1, "Kettle", 5f, "Toaster", 5f).stats(null, 10);
+
+        assertEquals(List.of(new PriceBucketDto(5f, 5f, 2)), stats.histogram());
+    }
+
+    @Test
+    void testStats_empty() {
+        final ProductStatsDto stats = ProductSnapshot.builder().build(0).stats(null, 10);
+
+        assertEquals(new ProductStatsDto(0, null, null, null, Map.of(), List.of(), 0), stats);
+    }
+
+    @Test
+    void testStats_matchesBruteForce() {
+        final Random random = new Random(42);
+        final ProductSnapshot.Builder builder = ProductSnapshot.builder();
+        final float[] prices = new float[5000];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = random.nextInt(100_000) / 100f;
+            builder.add(i + 1, "Product " + random.nextInt(500), prices[i]);
+        }
+        final ProductStatsDto stats = builder.build(1).stats(null, 20);
+
+        Arrays.sort(prices);
+        assertEquals(prices.length, stats.count());
+        assertEquals(prices[0], stats.min());
+        assertEquals(prices[prices.length - 1], stats.max());
+        assertEquals(prices[(int) Math.ceil(0.9 * prices.length) - 1], stats.percentiles().get("p90"));
+        assertEquals(prices.length, stats.histogram().stream().mapToLong(PriceBucketDto::count).sum());
+        // Same buckets as the scan of products filtered by name
+        assertEquals(stats.histogram(), builder.build(1).stats("Product", 20).histogram());
+    }
+
+    @Test
+    void testApply() {
+        final ProductSnapshot snapshot = snapshot(7, "Kettle", 30f, "Toaster", 10f, "Mixer", 40f);
+
+        final ProductSnapshot applied = snapshot.apply(10, List.of(
+                // Kettle - price changed twice
+                change(8, 1L, "Kettle", 35f),
+                change(9, 1L, "Kettle", 15f),
+                // Toaster - deleted
+                new ProductChangeDto(10, 2L, true, CHANGED_AT, null),
+                // New product with a new name
+                change(10, 4L, "Blender", 50f)));
+
+        assertEquals(10, applied.getSeq());
+        assertEquals(3, applied.size());
+        final ProductStatsDto stats = applied.stats(null, 1);
+        assertEquals(15f, stats.min());
+        assertEquals(50f, stats.max());
+        assertEquals(35.0, stats.avg());
+        assertEquals(1, applied.stats("Bl", 1).count());
+        assertEquals(1, applied.stats("Mixer", 1).count());
+        assertEquals(0, applied.stats("Toaster", 1).count());
+        // The snapshot is not changed
+        assertEquals(3, snapshot.stats(null, 1).count());
+        assertEquals(10f, snapshot.stats(null, 1).min());
+    }
+
+    @Test
+    void testApply_matchesLoadedSnapshot() {
+        final Random random = new Random(42);
+        final Map<Long, ProductDto> products = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            products.put(id, new ProductDto(id, "Product " + random.nextInt(500), "Description", random.nextInt(100_000) / 100f));
+        }
+        ProductSnapshot snapshot = snapshot(products, 0);
+
+        // Changes are kept in the overlay, until they exceed an eighth of the products (at least 1024)
+        long seq = 0;
+        int compactions = 0;
+        for (int round = 0; round < 20; round++) {
+            final List<ProductChangeDto> changes = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                final long id = random.nextInt(5500) + 1;
+                seq++;
+                if (random.nextInt(4) == 0) {
+                    products.remove(id);
+                    changes.add(new ProductChangeDto(seq, id, true, CHANGED_AT, null));
+                } else {
+                    final ProductDto product = new ProductDto(id, "Item " + random.nextInt(50), "Description", random.nextInt(100_000) / 100f);
+                    products.put(id, product);
+                    changes.add(new ProductChangeDto(seq, id, false, CHANGED_AT, product));
+                }
+            }
+            snapshot = snapshot.apply(seq, changes);
+
+            final ProductSnapshot loaded = snapshot(products, seq);
+            assertEquals(loaded.size(), snapshot.size());
+            for (final String prefix : Arrays.asList(null, "Product 1", "Item", "Item 4", "None")) {
+                assertEquals(loaded.stats(prefix, 7), snapshot.stats(prefix, 7), "Prefix " + prefix);
+            }
+            if (snapshot.getOverlaySize() == 0) {
+                compactions++;
+                // Names which are not used anymore are dropped
+                assertEquals(loaded.getDictionarySize(), snapshot.getDictionarySize());
+            }
+        }
+        assertTrue(compactions > 0);
+    }
+
+    @Test
+    void testApply_sharesColumns() {
+        final ProductSnapshot snapshot = snapshot(7, "Kettle", 30f, "Toaster", 10f);
+        final ProductSnapshot applied = snapshot.apply(8, List.of(change(8, 1L, "Kettle", 35f)));
+
+        // Changes are kept in the overlay over the same columns, the previous snapshot is still valid
+        assertEquals(1, applied.getOverlaySize());
+        assertEquals(snapshot.getColumnBytes(), applied.getColumnBytes());
+        assertEquals(35f, applied.stats(null, 1).max());
+        assertEquals(30f, snapshot.stats(null, 1).max());
+    }
+
+    @Test
+    void testApply_noChanges() {
+        final ProductSnapshot snapshot = snapshot(7, "Kettle", 30f, "Toaster", 10f);
+
+        final ProductSnapshot applied = snapshot.apply(9, List.of());
+
+        assertEquals(9, applied.getSeq());
+        assertEquals(2, applied.size());
+        assertEquals(snapshot.stats("K", 3).histogram(), applied.stats("K", 3).histogram());
+    }
+
+    private static ProductSnapshot snapshot(final Map<Long, ProductDto> products, final long seq) {
+        final ProductSnapshot.Builder builder = ProductSnapshot.builder();
+        products.values().forEach(product -> builder.add(product.getId(), product.getName(), product.getPrice()));
+        return builder.build(seq);
+    }
+
+    /**
+     * Snapshot of products with IDs from 1, given as pairs of a name and a price.
+     */
+    private static ProductSnapshot snapshot(final long seq, final Object... namesAndPrices) {
+        final ProductSnapshot.Builder builder = ProductSnapshot.builder();
+        for (int i = 0; i < namesAndPrices.length; i += 2) {
+            builder.add(i / 2 + 1, (String) namesAndPrices[i], (Float) namesAndPrices[i + 1]);
+        }
+        return builder.build(seq);
+    }
+
+    private static ProductChangeDto change(final long seq, final long id, final String name, final float price) {
+        return new ProductChangeDto(seq, id, false, CHANGED_AT, new ProductDto(id, name, "Description", price));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.store.stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.store.dto.ProductChangeDto;
+import com.example.store.dto.ProductChangesDto;
+import com.example.store.dto.ProductDto;
+import com.example.store.exception.ServiceBusyException;
+import com.example.store.persistence.entity.ProductChangeHead;
+import com.example.store.persistence.jdbc.ProductChangeLog;
+import com.example.store.persistence.tenant.TenantContext;
+import com.example.store.service.ProductChangeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ProductUpdateHub}.
+ */
+class ProductUpdateHubTest {
+
+    private static final String TENANT = TenantContext.DEFAULT_TENANT;
+    private static final Instant CHANGED_AT = Instant.parse("2026-10-18T10:15:30Z");
+
+    private ProductChangeService productChangeService;
+    private ProductChangeLog productChangeLog;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductUpdateHub hub;
+
+    @BeforeEach
+    void setUp() {
+        productChangeService = mock(ProductChangeService.class);
+        productChangeLog = mock(ProductChangeLog.class);
+        meterRegistry = new SimpleMeterRegistry();
+        hub = new ProductUpdateHub(productChangeService, productChangeLog, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 2, 3, Duration.ofHours(1), Duration.ofHours(1));
+        when(productChangeLog.getHead(TENANT)).thenReturn(new ProductChangeHead(TENANT, 10, 0));
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void testPublishChanges() throws Exception {
+        final CapturingEmitter catalog = subscribe(null);
+        final CapturingEmitter kettle = subscribe(Set.of(1L));
+        assertEquals("event:subscribed\ndata:10\n\n", catalog.next());
+        assertEquals("event:subscribed\ndata:10\n\n", kettle.next());
+
+        publish(10, 12, change(11, 1L), change(12, 2L));
+
+        final String events = catalog.nextUntil("id:12\n");
+        assertTrue(events.startsWith("id:11\nevent:product\ndata:{\"seq\":11,\"id\":1,"));
+        assertTrue(events.contains("\"name\":\"Product 1\""));
+        assertTrue(events.contains("\n\nid:12\nevent:product\n"));
+        assertTrue(kettle.next().startsWith("id:11\n"));
+        // Not subscribed to product 2
+        assertNull(kettle.events.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(3, meterRegistry.get("store.live.events.sent").counter().count());
+        assertEquals(2, meterRegistry.get("store.live.subscribers").gauge().value());
+    }
+
+    @Test
+    void testPublishChanges_slowSubscriberDropped() throws Exception {
+        final CapturingEmitter slow = subscribe(null);
+        assertTrue(slow.next().contains("event:subscribed"));
+        slow.blocked = new CountDownLatch(1);
+
+        publish(10, 11, change(11, 1L));
+        // Written by the sender, which is blocked by the client
+        assertTrue(slow.next().contains("id:11\n"));
+        publish(11, 14, change(12, 2L), change(13, 3L), change(14, 4L));
+        slow.blocked.countDown();
+
+        // Buffer of 2 events was full - the client resyncs after the last event it got
+        assertTrue(slow.next().contains("event:resync\ndata:11"));
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("store.live.subscribers.dropped").counter().count());
+        waitForSubscribers(0);
+    }
+
+    @Test
+    void testSubscribe_tooManySubscribers() {
+        subscribe(null);
+        subscribe(null);
+        subscribe(Set.of(1L));
+
+        assertThrows(ServiceBusyException.class, () -> subscribe(null));
+    }
+
+    @Test
+    void testSubscribe_stopped() {
+        final CapturingEmitter emitter = subscribe(null);
+        hub.stop();
+
+        assertEquals(0, emitter.completed.getCount());
+        assertThrows(ServiceBusyException.class, () -> subscribe(null));
+    }
+
+    private CapturingEmitter subscribe(final Set<Long> productIds) {
+        final CapturingEmitter emitter = new CapturingEmitter();
+        hub.subscribe(emitter, productIds);
+        return emitter;
+    }
+
+    private void publish(final long since, final long lastSeq, final ProductChangeDto... changes) {
+        when(productChangeLog.getHeads()).thenReturn(Map.of(TENANT, new ProductChangeHead(TENANT, lastSeq, 0)));
+        when(productChangeService.getChanges(eq(since), anyInt(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new ProductChangesDto(List.of(changes), lastSeq)));
+        hub.publishChanges();
+    }
+
+    private void waitForSubscribers(final int count) throws InterruptedException {
+        for (int i = 0; i < 50 && meterRegistry.get("store.live.subscribers").gauge().value() != count; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(count, meterRegistry.get("store.live.subscribers").gauge().value());
+    }
+
+    private static ProductChangeDto change(final long seq, final long id) {
+        return new ProductChangeDto(seq, id, false, CHANGED_AT, new ProductDto(id, "Product " + id, null, 1f));
+    }
+
+    /**
+     * Emitter capturing the written events, which can block its writes like a slow client.
+     */
+    private static final class CapturingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile CountDownLatch blocked;
+
+        @Override
+        public void send(final Set<DataWithMediaType> data) throws IOException {
+            events.add(data.stream()
+                    .map(part -> part.getData() instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : part.getData().toString())
+                    .collect(Collectors.joining()));
+            if (blocked != null) {
+                try {
+                    blocked.await(5, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+
+        private String next() throws InterruptedException {
+            final String event = events.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+
+        private String nextUntil(final String fragment) throws InterruptedException {
+            final StringBuilder text = new StringBuilder(next());
+            while (!text.toString().contains(fragment)) {
+                text.append(next());
+            }
+            return text.toString();
+        }
+    }
+}
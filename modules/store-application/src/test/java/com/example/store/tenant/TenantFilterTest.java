@@ -0,0 +1,119 @@
+package com.example.store.tenant;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.store.persistence.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Class contains unit tests for {@link TenantFilter}.
+ */
+class TenantFilterTest {
+
+    private static final Set<String> TENANTS = Set.of(TenantContext.DEFAULT_TENANT, "shop-a", "shop-b");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testTenantOfRequest() throws Exception {
+        final TenantFilter filter = new TenantFilter(TENANTS, 0, 1, meterRegistry);
+
+        assertEquals("shop-a", tenantOfRequest(filter, "shop-a", new MockHttpServletResponse()));
+        assertEquals(TenantContext.DEFAULT_TENANT, tenantOfRequest(filter, null, new MockHttpServletResponse()));
+        // Not set after the request
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+    @Test
+    void testUnknownTenant_badRequest() throws Exception {
+        final TenantFilter filter = new TenantFilter(Set.of("shop-a"), 0, 1, meterRegistry);
+
+        final MockHttpServletResponse invalidResponse = new MockHttpServletResponse();
+        assertNull(tenantOfRequest(filter, "Shop A", invalidResponse));
+        assertEquals(400, invalidResponse.getStatus());
+
+        final MockHttpServletResponse unknownResponse = new MockHttpServletResponse();
+        assertNull(tenantOfRequest(filter, "shop-b", unknownResponse));
+        assertEquals(400, unknownResponse.getStatus());
+        // Only the configured tenants, so requests need the header
+        assertNull(tenantOfRequest(filter, null, new MockHttpServletResponse()));
+    }
+
+    @Test
+    void testNoTenants_notAllowed() {
+        // State is kept per tenant, so any tenant would be unbounded
+        assertThrows(IllegalArgumentException.class, () -> new TenantFilter(Set.of(), 0, 1, meterRegistry));
+    }
+
+    @Test
+    void testRateLimit_perTenant() throws Exception {
+        final TenantFilter filter = new TenantFilter(TENANTS, 0.001, 2, meterRegistry);
+
+        assertEquals("shop-a", tenantOfRequest(filter, "shop-a", new MockHttpServletResponse()));
+        assertEquals("shop-a", tenantOfRequest(filter, "shop-a", new MockHttpServletResponse()));
+        final MockHttpServletResponse rejectedResponse = new MockHttpServletResponse();
+        assertNull(tenantOfRequest(filter, "shop-a", rejectedResponse));
+        assertEquals(429, rejectedResponse.getStatus());
+        assertNotNull(rejectedResponse.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(Long.parseLong(rejectedResponse.getHeader(HttpHeaders.RETRY_AFTER)) > 0);
+
+        // Other tenants have their own budget
+        assertEquals("shop-b", tenantOfRequest(filter, "shop-b", new MockHttpServletResponse()));
+        assertEquals(1, meterRegistry.get("store.tenant.requests.rejected").tag("tenant", "shop-a").counter().count());
+    }
+
+    @Test
+    void testRateLimit_metricsRemovedWhenIdle() throws Exception {
+        final AtomicLong ticker = new AtomicLong();
+        final TenantFilter filter = new TenantFilter(TENANTS, 0.001, 1, meterRegistry, ticker::get);
+        tenantOfRequest(filter, "shop-a", new MockHttpServletResponse());
+        assertNull(tenantOfRequest(filter, "shop-a", new MockHttpServletResponse()));
+        assertEquals(1, meterRegistry.get("store.tenant.requests.rejected").tag("tenant", "shop-a").counter().count());
+
+        // Removed with the limiter, once another tenant sends a request after the idle expiry
+        ticker.addAndGet(Duration.ofMinutes(11).toNanos());
+        tenantOfRequest(filter, "shop-b", new MockHttpServletResponse());
+
+        assertNull(meterRegistry.find("store.tenant.requests.rejected").tag("tenant", "shop-a").counter());
+    }
+
+    @Test
+    void testTokenBucket_refilled() {
+        final TenantFilter.TokenBucket bucket = new TenantFilter.TokenBucket(1, 10);
+        final long now = System.nanoTime();
+
+        assertEquals(0, bucket.tryAcquire(now));
+        // Next token in 100 ms
+        assertTrue(bucket.tryAcquire(now) > 0);
+        assertEquals(0, bucket.tryAcquire(now + 100_000_000));
+    }
+
+    /**
+     * @return tenant of the request while it was handled, {@code null} if it was rejected
+     */
+    private static String tenantOfRequest(final TenantFilter filter, final String tenantHeader,
+                                          final MockHttpServletResponse response) throws Exception {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+        if (tenantHeader != null) {
+            request.addHeader(TenantFilter.TENANT_HEADER, tenantHeader);
+        }
+        final AtomicReference<String> tenantId = new AtomicReference<>();
+        filter.doFilter(request, response, (req, res) -> tenantId.set(TenantContext.getTenantId()));
+        return tenantId.get();
+    }
+}
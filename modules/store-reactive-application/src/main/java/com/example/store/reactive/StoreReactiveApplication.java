@@ -0,0 +1,16 @@
+package com.example.store.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+@SpringBootApplication
+// Repositories are in persistence-reactive, outside of this package
+@EnableR2dbcRepositories(basePackages = "com.example.store.persistence.reactive.repository")
+public class StoreReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(StoreReactiveApplication.class, args);
+    }
+
+}
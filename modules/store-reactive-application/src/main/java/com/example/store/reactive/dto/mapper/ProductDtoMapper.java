@@ -0,0 +1,49 @@
+package com.example.store.reactive.dto.mapper;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.persistence.reactive.entity.Product;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Mapper between {@link ProductDto} and the R2DBC {@link Product}.
+ */
+@UtilityClass
+public final class ProductDtoMapper {
+
+    /**
+     * Maps {@link ProductDto} to a new {@link Product}, without ID and version (assigned on insert).
+     *
+     * @param productDto {@link ProductDto}
+     * @return {@link Product}
+     */
+    @NotNull
+    public static Product fromDto(@NotNull final ProductDto productDto) {
+        return new Product(
+                null,
+                productDto.getName(),
+                productDto.getDescription(),
+                productDto.getPrice(),
+                null
+        );
+    }
+
+    /**
+     * Maps {@link Product} to {@link ProductDto}.
+     *
+     * @param product {@link Product}
+     * @return {@link ProductDto}
+     */
+    @NotNull
+    public static ProductDto toDto(@NotNull final Product product) {
+        return new ProductDto(
+                product.getId(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getVersion() == null ? 0 : product.getVersion()
+        );
+    }
+}
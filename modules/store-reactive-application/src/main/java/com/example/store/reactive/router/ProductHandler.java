@@ -0,0 +1,186 @@
+package com.example.store.reactive.router;
+
+import java.net.URI;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.error.ValidationError;
+import com.example.store.error.ValidationErrorResponse;
+import com.example.store.reactive.service.ReactiveProductService;
+
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handles the routes of the product resource (see {@link ProductRouter}), with the same requests and responses
+ * as the product controller of store-application.
+ */
+@Slf4j
+@Component
+public class ProductHandler {
+
+    private final ReactiveProductService productService;
+    private final Validator validator;
+
+    @Autowired
+    public ProductHandler(final ReactiveProductService productService, final Validator validator) {
+        this.productService = productService;
+        this.validator = validator;
+    }
+
+    /**
+     * Returns all products as a JSON array, written as they are read from the database. The database is only read
+     * as fast as the client receives the response (backpressure).
+     * With the {@code limit} parameter, returns a page of products instead (keyset pagination by ID),
+     * with a Link header with the URI of the next page if there are more products.
+     */
+    public Mono<ServerResponse> getProducts(final ServerRequest request) {
+        if (request.queryParam("limit").isEmpty()) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(productService.getAllProducts(), ProductDto.class);
+        }
+        final Long after;
+        final int limit;
+        try {
+            after = request.queryParam("after").map(Long::valueOf).orElse(null);
+            limit = Integer.parseInt(request.queryParam("limit").get());
+        } catch (final NumberFormatException e) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid paging parameters", e));
+        }
+        return productService.getProductPage(after, limit)
+                .flatMap(page -> {
+                    final ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+                    if (page.nextCursor() != null) {
+                        final URI nextUri = UriComponentsBuilder.fromUri(request.uri())
+                                .replaceQueryParam("after", page.nextCursor())
+                                .build(true)
+                                .toUri();
+                        response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+                    }
+                    return response.bodyValue(page);
+                });
+    }
+
+    /**
+     * Exports all products as newline delimited JSON (one product per line), written as they are read from the database.
+     */
+    public Mono<ServerResponse> exportProducts(final ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products.ndjson\"")
+                .body(productService.getAllProducts(), ProductDto.class);
+    }
+
+    /**
+     * Returns the product, with its version as the ETag.
+     */
+    public Mono<ServerResponse> getProductById(final ServerRequest request) {
+        return productService.getProductById(pathId(request))
+                .flatMap(product -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(String.valueOf(product.getVersion()))
+                        .bodyValue(product));
+    }
+
+    public Mono<ServerResponse> createProduct(final ServerRequest request) {
+        return request.bodyToMono(ProductDto.class)
+                .flatMap(productDto -> validate(productDto, () -> productService.createProduct(productDto)
+                        .flatMap(product -> ServerResponse
+                                .created(UriComponentsBuilder.fromUri(request.uri()).path("/{id}").build(product.getId()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .eTag(String.valueOf(product.getVersion()))
+                                .bodyValue(product))));
+    }
+
+    /**
+     * Updates the product. If the request has an If-Match header, the product is only updated if its current ETag
+     * matches, otherwise 412 is returned.
+     */
+    public Mono<ServerResponse> updateProduct(final ServerRequest request) {
+        final Long id = pathId(request);
+        final Long expectedVersion = parseExpectedVersion(request.headers().firstHeader(HttpHeaders.IF_MATCH));
+        return request.bodyToMono(ProductDto.class)
+                .flatMap(productDto -> {
+                    if (!id.equals(productDto.getId())) {
+                        log.error("Invalid update request - IDs in path and body do not match");
+                        return ServerResponse.badRequest().build();
+                    }
+                    return validate(productDto, () -> productService.updateProduct(id, productDto, expectedVersion)
+                            .flatMap(product -> ServerResponse.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .eTag(String.valueOf(product.getVersion()))
+                                    .bodyValue(product)));
+                });
+    }
+
+    public Mono<ServerResponse> deleteProduct(final ServerRequest request) {
+        return productService.deleteProduct(pathId(request))
+                .then(ServerResponse.noContent().build());
+    }
+
+    /**
+     * Validates the product DTO, returns 400 with the validation errors if it is not valid, otherwise the response
+     * of the specified action.
+     */
+    private Mono<ServerResponse> validate(final ProductDto productDto, final Supplier<Mono<ServerResponse>> action) {
+        final List<ValidationError> errors = validator.validate(productDto).stream()
+                .map(violation -> new ValidationError(violation.getPropertyPath().toString(), violation.getMessage()))
+                .toList();
+        if (!errors.isEmpty()) {
+            return ServerResponse.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ValidationErrorResponse(errors));
+        }
+        return action.get();
+    }
+
+    private static Long pathId(final ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (final NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid product id", e);
+        }
+    }
+
+    /**
+     * Parses the product version from an If-Match header, same as store-application.
+     *
+     * @param ifMatch If-Match header value
+     * @return expected product version, {@code null} if any version matches (no header or {@code *})
+     * @throws ResponseStatusException with status 412 if the header does not contain a single strong product ETag
+     */
+    @Nullable
+    private static Long parseExpectedVersion(@Nullable final String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        final List<ETag> etags = ETag.parse(ifMatch);
+        if (etags.size() == 1 && etags.get(0).isWildcard()) {
+            return null;
+        }
+        // Weak ETags never match in If-Match (strong comparison)
+        if (etags.size() != 1 || etags.get(0).weak()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match must contain a single strong ETag of the product");
+        }
+        try {
+            return Long.valueOf(etags.get(0).tag());
+        } catch (final NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match does not contain an ETag of the product");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.store.reactive.router;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the product resource, represented by {@code ProductDto}.
+ * Reachable at /api/products, same as in store-application.
+ */
+@Configuration
+public class ProductRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(final ProductHandler productHandler) {
+        return RouterFunctions.route()
+                .path("/products", builder -> builder
+                        .GET("/export", productHandler::exportProducts)
+                        .GET("/{id}", RequestPredicates.accept(MediaType.APPLICATION_JSON), productHandler::getProductById)
+                        .PUT("/{id}", RequestPredicates.contentType(MediaType.APPLICATION_JSON), productHandler::updateProduct)
+                        .DELETE("/{id}", productHandler::deleteProduct)
+                        .GET(RequestPredicates.accept(MediaType.APPLICATION_JSON), productHandler::getProducts)
+                        .POST(RequestPredicates.contentType(MediaType.APPLICATION_JSON), productHandler::createProduct))
+                .build();
+    }
+}
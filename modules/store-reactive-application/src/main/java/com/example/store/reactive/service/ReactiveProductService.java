@@ -0,0 +1,22 @@
+package com.example.store.reactive.service;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveProductService {
+
+    Flux<ProductDto> getAllProducts();
+
+    Mono<ProductPageDto> getProductPage(Long after, int limit);
+
+    Mono<ProductDto> getProductById(Long id);
+
+    Mono<ProductDto> createProduct(ProductDto productDto);
+
+    Mono<ProductDto> updateProduct(Long id, ProductDto productDto, Long expectedVersion);
+
+    Mono<Void> deleteProduct(Long id);
+}
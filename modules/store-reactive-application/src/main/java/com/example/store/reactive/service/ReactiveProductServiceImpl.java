@@ -0,0 +1,148 @@
+package com.example.store.reactive.service;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.persistence.reactive.entity.Product;
+import com.example.store.persistence.reactive.repository.ReactiveProductRepository;
+import com.example.store.reactive.dto.mapper.ProductDtoMapper;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Default implementation of {@link ReactiveProductService}, the non-blocking counterpart of the product service
+ * of store-application. Errors are signalled with {@link ResponseStatusException}, which determines the response status.
+ */
+@Slf4j
+@Service
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    /**
+     * Maximum number of products returned in a single page, same as in store-application.
+     */
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private final ReactiveProductRepository productRepository;
+
+    @Autowired
+    public ReactiveProductServiceImpl(final ReactiveProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Gets all products, ordered by ID. Products are read from the database as the subscriber requests them
+     * (backpressure), so they are never all held in memory.
+     *
+     * @return product DTOs
+     */
+    @NotNull
+    @Override
+    public Flux<ProductDto> getAllProducts() {
+        return this.productRepository.findAllOrderById()
+                .map(ProductDtoMapper::toDto);
+    }
+
+    /**
+     * Gets a page of products with an ID greater than the specified one, ordered by ID.
+     * The page size is bounded to [1, {@value #MAX_PAGE_SIZE}].
+     *
+     * @param after ID after which the products are returned (exclusive), {@code null} for the first page
+     * @param limit requested page size
+     * @return page of product DTOs, with the cursor of the next page if there are more products
+     */
+    @NotNull
+    @Override
+    public Mono<ProductPageDto> getProductPage(@Nullable final Long after, final int limit) {
+        final int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra product to find out if there is a next page
+        return this.productRepository.findByIdGreaterThan(after == null ? 0L : after, pageSize + 1)
+                .map(ProductDtoMapper::toDto)
+                .collectList()
+                .map(products -> {
+                    final boolean hasNext = products.size() > pageSize;
+                    final var items = hasNext ? products.subList(0, pageSize) : products;
+                    return new ProductPageDto(items, hasNext ? String.valueOf(items.get(items.size() - 1).getId()) : null);
+                });
+    }
+
+    /**
+     * Gets the product by the specified ID.
+     *
+     * @param id product ID
+     * @return product DTO, error with status 404 if the product does not exist
+     */
+    @NotNull
+    @Override
+    public Mono<ProductDto> getProductById(@NotNull final Long id) {
+        return this.productRepository.findById(id)
+                .map(ProductDtoMapper::toDto)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    /**
+     * Adds the specified product to the database.
+     *
+     * @param productDto product DTO
+     * @return created product DTO
+     */
+    @NotNull
+    @Override
+    public Mono<ProductDto> createProduct(@NotNull final ProductDto productDto) {
+        return this.productRepository.save(ProductDtoMapper.fromDto(productDto))
+                .map(ProductDtoMapper::toDto)
+                .doOnNext(product -> log.debug("Created new product with id {}", product.getId()));
+    }
+
+    /**
+     * Updates the specified product in the database, with a single statement.
+     *
+     * @param id              ID of the product
+     * @param productDto      product DTO
+     * @param expectedVersion version the product must have to be updated, {@code null} to update any version
+     * @return updated product DTO, error with status 404 if the product does not exist,
+     * or 412 if it does not have the expected version
+     */
+    @NotNull
+    @Override
+    public Mono<ProductDto> updateProduct(@NotNull final Long id, @NotNull final ProductDto productDto,
+                                          @Nullable final Long expectedVersion) {
+        final Mono<Product> updated = expectedVersion == null
+                ? this.productRepository.updateProduct(id, productDto.getName(), productDto.getDescription(),
+                        productDto.getPrice())
+                : this.productRepository.updateProduct(id, productDto.getName(), productDto.getDescription(),
+                        productDto.getPrice(), expectedVersion);
+        // Not updated - find out why only in this (rare) case
+        return updated
+                .map(ProductDtoMapper::toDto)
+                .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                        ? Mono.error(notFound(id))
+                        : this.productRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                                ? new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Product with id " + id + " has been modified")
+                                : notFound(id)))));
+    }
+
+    /**
+     * Deletes the product with the specified ID, with a single statement.
+     *
+     * @param id product ID
+     * @return completion, error with status 404 if the product does not exist
+     */
+    @NotNull
+    @Override
+    public Mono<Void> deleteProduct(@NotNull final Long id) {
+        return this.productRepository.deleteProductById(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.<Void>error(notFound(id)) : Mono.<Void>empty());
+    }
+
+    private static ResponseStatusException notFound(final Long id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Product with id " + id + " not found");
+    }
+}
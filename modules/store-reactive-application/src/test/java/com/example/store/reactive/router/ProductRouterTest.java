@@ -0,0 +1,176 @@
+package com.example.store.reactive.router;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.dto.ProductPageDto;
+import com.example.store.reactive.service.ReactiveProductService;
+
+import jakarta.validation.Validation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains tests of the routes of {@link ProductRouter}, with a mocked service.
+ */
+class ProductRouterTest {
+
+    private ReactiveProductService productService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ReactiveProductService.class);
+        final ProductHandler productHandler = new ProductHandler(productService,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        webTestClient = WebTestClient.bindToRouterFunction(new ProductRouter().productRoutes(productHandler)).build();
+    }
+
+    @Test
+    void testGetProducts() {
+        when(productService.getAllProducts()).thenReturn(Flux.just(banana(), apple()));
+        webTestClient.get().uri("/products").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].name").isEqualTo("Apple");
+    }
+
+    @Test
+    void testGetProducts_page() {
+        when(productService.getProductPage(null, 1)).thenReturn(Mono.just(new ProductPageDto(List.of(banana()), "1")));
+        webTestClient.get().uri("/products?limit=1").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.LINK, "</products?limit=1&after=1>; rel=\"next\"")
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("Banana")
+                .jsonPath("$.nextCursor").isEqualTo("1");
+    }
+
+    @Test
+    void testGetProducts_invalidPage() {
+        webTestClient.get().uri("/products?limit=x").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testExportProducts() {
+        when(productService.getAllProducts()).thenReturn(Flux.just(banana(), apple()));
+        webTestClient.get().uri("/products/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(body -> assertEquals(2, body.strip().split("\n").length));
+    }
+
+    @Test
+    void testGetProductById() {
+        when(productService.getProductById(1L)).thenReturn(Mono.just(banana()));
+        webTestClient.get().uri("/products/1").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Banana")
+                .jsonPath("$.version").doesNotExist();
+    }
+
+    @Test
+    void testGetProductById_notFound() {
+        when(productService.getProductById(3L))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Product with id 3 not found")));
+        webTestClient.get().uri("/products/3").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testCreateProduct() {
+        when(productService.createProduct(any(ProductDto.class)))
+                .thenReturn(Mono.just(new ProductDto(5L, "Kiwi", "1kg of kiwis", 4.1f, 0)));
+        webTestClient.post().uri("/products").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ProductDto(null, "Kiwi", "1kg of kiwis", 4.1f))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.LOCATION, "/products/5")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(5);
+    }
+
+    @Test
+    void testCreateProduct_invalid() {
+        webTestClient.post().uri("/products").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ProductDto(null, "K", "1kg of kiwis", -1f))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors.length()").isEqualTo(2);
+        verify(productService, never()).createProduct(any());
+    }
+
+    @Test
+    void testUpdateProduct_ifMatch() {
+        final ProductDto productDto = new ProductDto(1L, "Banana", "2kg of bananas", 3.4f);
+        when(productService.updateProduct(eq(1L), any(ProductDto.class), eq(3L)))
+                .thenReturn(Mono.just(new ProductDto(1L, "Banana", "2kg of bananas", 3.4f, 4)));
+        webTestClient.put().uri("/products/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .bodyValue(productDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"4\"");
+
+        // Weak ETags never match
+        webTestClient.put().uri("/products/1").contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .bodyValue(productDto)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testUpdateProduct_idMismatch() {
+        webTestClient.put().uri("/products/2").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ProductDto(1L, "Banana", "2kg of bananas", 3.4f))
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(productService, never()).updateProduct(any(), any(), any());
+    }
+
+    @Test
+    void testDeleteProduct() {
+        when(productService.deleteProduct(1L)).thenReturn(Mono.empty());
+        webTestClient.delete().uri("/products/1")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    private static ProductDto banana() {
+        return new ProductDto(1L, "Banana", "1kg of bananas", 1.8f, 3);
+    }
+
+    private static ProductDto apple() {
+        return new ProductDto(2L, "Apple", "1kg of apples", 2.5f, 0);
+    }
+}
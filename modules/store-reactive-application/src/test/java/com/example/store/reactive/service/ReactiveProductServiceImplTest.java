@@ -0,0 +1,143 @@
+package com.example.store.reactive.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.example.store.dto.ProductDto;
+import com.example.store.persistence.reactive.entity.Product;
+import com.example.store.persistence.reactive.repository.ReactiveProductRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Class contains unit tests for {@link ReactiveProductServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveProductServiceImplTest {
+
+    @Mock
+    private ReactiveProductRepository productRepository;
+
+    @InjectMocks
+    private ReactiveProductServiceImpl productService;
+
+    @Test
+    void testGetAllProducts() {
+        when(productRepository.findAllOrderById()).thenReturn(Flux.just(banana(), apple()));
+        StepVerifier.create(productService.getAllProducts().map(ProductDto::getName))
+                .expectNext("Banana", "Apple")
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetProductPage() {
+        // One product more than the page size - there is a next page
+        when(productRepository.findByIdGreaterThan(0L, 2)).thenReturn(Flux.just(banana(), apple()));
+        StepVerifier.create(productService.getProductPage(null, 1))
+                .assertNext(page -> {
+                    assertEquals(1, page.items().size());
+                    assertEquals("1", page.nextCursor());
+                })
+                .verifyComplete();
+
+        when(productRepository.findByIdGreaterThan(1L, 2)).thenReturn(Flux.just(apple()));
+        StepVerifier.create(productService.getProductPage(1L, 1))
+                .assertNext(page -> assertNull(page.nextCursor()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetProductPage_limitBounded() {
+        when(productRepository.findByIdGreaterThan(0L, ReactiveProductServiceImpl.MAX_PAGE_SIZE + 1)).thenReturn(Flux.empty());
+        StepVerifier.create(productService.getProductPage(null, 1_000_000))
+                .assertNext(page -> assertEquals(0, page.items().size()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetProductById() {
+        when(productRepository.findById(1L)).thenReturn(Mono.just(banana()));
+        StepVerifier.create(productService.getProductById(1L))
+                .assertNext(product -> assertEquals(3L, product.getVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetProductById_notFound() {
+        when(productRepository.findById(3L)).thenReturn(Mono.empty());
+        StepVerifier.create(productService.getProductById(3L))
+                .verifyErrorSatisfies(e -> assertStatus(HttpStatus.NOT_FOUND, e));
+    }
+
+    @Test
+    void testCreateProduct() {
+        when(productRepository.save(any(Product.class))).thenAnswer(i -> {
+            final Product product = i.getArgument(0);
+            // New product - no ID and version
+            assertNull(product.getId());
+            assertNull(product.getVersion());
+            return Mono.just(new Product(5L, product.getName(), product.getDescription(), product.getPrice(), 0L));
+        });
+        StepVerifier.create(productService.createProduct(new ProductDto(null, "Kiwi", "1kg of kiwis", 4.1f)))
+                .assertNext(product -> assertEquals(5L, product.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateProduct() {
+        when(productRepository.updateProduct(1L, "Banana", "2kg of bananas", 3.4f, 3L))
+                .thenReturn(Mono.just(new Product(1L, "Banana", "2kg of bananas", 3.4f, 4L)));
+        StepVerifier.create(productService.updateProduct(1L, new ProductDto(1L, "Banana", "2kg of bananas", 3.4f), 3L))
+                .assertNext(product -> assertEquals(4L, product.getVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testUpdateProduct_notUpdated() {
+        final ProductDto productDto = new ProductDto(1L, "Banana", "2kg of bananas", 3.4f);
+        when(productRepository.updateProduct(1L, "Banana", "2kg of bananas", 3.4f, 2L)).thenReturn(Mono.empty());
+        when(productRepository.existsById(1L)).thenReturn(Mono.just(true));
+        StepVerifier.create(productService.updateProduct(1L, productDto, 2L))
+                .verifyErrorSatisfies(e -> assertStatus(HttpStatus.PRECONDITION_FAILED, e));
+
+        when(productRepository.updateProduct(1L, "Banana", "2kg of bananas", 3.4f)).thenReturn(Mono.empty());
+        StepVerifier.create(productService.updateProduct(1L, productDto, null))
+                .verifyErrorSatisfies(e -> assertStatus(HttpStatus.NOT_FOUND, e));
+    }
+
+    @Test
+    void testDeleteProduct() {
+        when(productRepository.deleteProductById(1L)).thenReturn(Mono.just(1));
+        StepVerifier.create(productService.deleteProduct(1L)).verifyComplete();
+        verify(productRepository).deleteProductById(1L);
+
+        when(productRepository.deleteProductById(3L)).thenReturn(Mono.just(0));
+        StepVerifier.create(productService.deleteProduct(3L))
+                .verifyErrorSatisfies(e -> assertStatus(HttpStatus.NOT_FOUND, e));
+    }
+
+    private static void assertStatus(final HttpStatus expected, final Throwable error) {
+        assertEquals(expected, ((ResponseStatusException) error).getStatusCode());
+    }
+
+    private static Product banana() {
+        return new Product(1L, "Banana", "1kg of bananas", 1.8f, 3L);
+    }
+
+    private static Product apple() {
+        return new Product(2L, "Apple", "1kg of apples", 2.5f, 0L);
+    }
+}